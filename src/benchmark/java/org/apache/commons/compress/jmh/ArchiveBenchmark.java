@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sequential iteration over the entries of an archive, with and without reading the entry data.
+ * <p>
+ * 7z has no streaming reader and is read through {@link SevenZFile#getNextEntry()}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    @Param({ ArchiveStreamFactory.AR, ArchiveStreamFactory.CPIO, ArchiveStreamFactory.SEVEN_Z, ArchiveStreamFactory.TAR, ArchiveStreamFactory.ZIP })
+    public String format;
+
+    @Param({ "1000" })
+    public int entryCount;
+
+    @Param({ "4096" })
+    public int entrySize;
+
+    private ArchiveFixture fixture;
+
+    @Benchmark
+    public long extract() throws IOException, ArchiveException {
+        return read(true);
+    }
+
+    @Benchmark
+    public long iterate() throws IOException, ArchiveException {
+        return read(false);
+    }
+
+    private long read(final boolean extract) throws IOException, ArchiveException {
+        long total = 0;
+        if (ArchiveStreamFactory.SEVEN_Z.equals(format)) {
+            try (SevenZFile sevenZFile = SevenZFile.builder().setPath(fixture.getArchive()).get()) {
+                SevenZArchiveEntry entry;
+                while ((entry = sevenZFile.getNextEntry()) != null) {
+                    total += extract ? IOUtils.copyLarge(sevenZFile.getInputStream(entry), NullOutputStream.INSTANCE) : 1;
+                }
+            }
+            return total;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(fixture.getArchive()));
+                ArchiveInputStream<? extends ArchiveEntry> archive = ArchiveStreamFactory.DEFAULT.createArchiveInputStream(format, in)) {
+            ArchiveEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                total += extract ? IOUtils.copyLarge(archive, NullOutputStream.INSTANCE) : 1;
+            }
+        }
+        return total;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        fixture = new ArchiveFixture(format, Corpus.TEXT, entryCount, entrySize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.io.file.PathUtils;
+
+/**
+ * Creates the archives read by the archive benchmarks.
+ */
+final class ArchiveFixture implements AutoCloseable {
+
+    private final Path directory;
+
+    private final Path archive;
+
+    /**
+     * Creates an archive with {@code entryCount} entries of {@code entrySize} bytes each in a new temporary directory.
+     *
+     * @param format     an {@link ArchiveStreamFactory} archiver name.
+     * @param corpus     the entry content.
+     * @param entryCount the number of entries.
+     * @param entrySize  the size of each entry.
+     * @throws IOException if the archive cannot be written.
+     */
+    ArchiveFixture(final String format, final Corpus corpus, final int entryCount, final int entrySize) throws IOException {
+        directory = Files.createTempDirectory("commons-compress-jmh");
+        final Path content = Files.write(directory.resolve("content"), corpus.generate(entrySize));
+        archive = directory.resolve("archive." + format);
+        if (ArchiveStreamFactory.SEVEN_Z.equals(format)) {
+            try (SevenZOutputFile out = new SevenZOutputFile(archive.toFile())) {
+                for (int i = 0; i < entryCount; i++) {
+                    out.putArchiveEntry(out.createArchiveEntry(content, entryName(i)));
+                    out.write(content);
+                    out.closeArchiveEntry();
+                }
+            }
+        } else {
+            try (OutputStream os = Files.newOutputStream(archive);
+                    ArchiveOutputStream<ArchiveEntry> out = ArchiveStreamFactory.DEFAULT.createArchiveOutputStream(format, os)) {
+                final File contentFile = content.toFile();
+                for (int i = 0; i < entryCount; i++) {
+                    out.putArchiveEntry(out.createArchiveEntry(contentFile, entryName(i)));
+                    Files.copy(content, out);
+                    out.closeArchiveEntry();
+                }
+            } catch (final ArchiveException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static String entryName(final int index) {
+        // ar without long file name support is limited to 16 characters
+        return String.format("e%07d.dat", index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        PathUtils.deleteDirectory(directory);
+    }
+
+    Path getArchive() {
+        return archive;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encode and decode throughput of the compressors that can both read and write their format.
+ * <p>
+ * Raw Snappy is covered by the framed format, its output stream needs the uncompressed size up front and cannot be created by the factory.
+ * </p>
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=CompressorBenchmark}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressorBenchmark {
+
+    private static final CompressorStreamFactory FACTORY = CompressorStreamFactory.getSingleton();
+
+    @Param({ CompressorStreamFactory.BZIP2, CompressorStreamFactory.DEFLATE, CompressorStreamFactory.GZIP, CompressorStreamFactory.LZ4_BLOCK,
+            CompressorStreamFactory.LZ4_FRAMED, CompressorStreamFactory.LZMA, CompressorStreamFactory.SNAPPY_FRAMED, CompressorStreamFactory.XZ })
+    public String compressor;
+
+    @Param({ "TEXT", "BINARY", "INCOMPRESSIBLE", "REDUNDANT" })
+    public Corpus corpus;
+
+    @Param({ "1048576" })
+    public int size;
+
+    private byte[] uncompressed;
+
+    private byte[] compressed;
+
+    @Benchmark
+    public long compress() throws IOException, CompressorException {
+        final CountingOutputStream counter = new CountingOutputStream(NullOutputStream.INSTANCE);
+        try (OutputStream out = FACTORY.createCompressorOutputStream(compressor, counter)) {
+            out.write(uncompressed);
+        }
+        return counter.getByteCount();
+    }
+
+    @Benchmark
+    public long decompress() throws IOException, CompressorException {
+        try (InputStream in = FACTORY.createCompressorInputStream(compressor, new ByteArrayInputStream(compressed))) {
+            return IOUtils.copyLarge(in, NullOutputStream.INSTANCE);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException, CompressorException {
+        uncompressed = corpus.generate(size);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream out = FACTORY.createCompressorOutputStream(compressor, bos)) {
+            out.write(uncompressed);
+        }
+        compressed = bos.toByteArray();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Synthetic input data used by the benchmarks.
+ * <p>
+ * All corpora are generated from a fixed seed so that runs on different machines compress the same bytes.
+ * </p>
+ */
+public enum Corpus {
+
+    /**
+     * Pseudo-natural language text drawn from a small vocabulary, compresses well with every algorithm.
+     */
+    TEXT {
+        @Override
+        byte[] fill(final Random random, final int size) {
+            final String[] words = { "the", "archive", "entry", "compress", "stream", "block", "header", "of", "and", "to", "a", "data", "with", "is",
+                    "buffer", "Huffman", "table", "offset", "length", "literal", "match", "dictionary", "window", "checksum", "for", "in" };
+            final StringBuilder sb = new StringBuilder(size + 16);
+            while (sb.length() < size) {
+                sb.append(words[random.nextInt(words.length)]);
+                final int punctuation = random.nextInt(20);
+                sb.append(punctuation == 0 ? ".\n" : punctuation == 1 ? ", " : " ");
+            }
+            final byte[] bytes = new byte[size];
+            System.arraycopy(sb.toString().getBytes(StandardCharsets.US_ASCII), 0, bytes, 0, size);
+            return bytes;
+        }
+    },
+
+    /**
+     * Structured binary records with slowly changing fields, similar to numeric tables or object code.
+     */
+    BINARY {
+        @Override
+        byte[] fill(final Random random, final int size) {
+            final ByteBuffer buffer = ByteBuffer.allocate(size);
+            int id = 0;
+            long timestamp = 1_700_000_000_000L;
+            while (buffer.remaining() >= 16) {
+                buffer.putInt(id++);
+                timestamp += random.nextInt(1000);
+                buffer.putLong(timestamp);
+                buffer.putShort((short) random.nextInt(64));
+                buffer.put((byte) 0);
+                buffer.put((byte) random.nextInt(4));
+            }
+            return buffer.array();
+        }
+    },
+
+    /**
+     * Uniformly random bytes that cannot be compressed.
+     */
+    INCOMPRESSIBLE {
+        @Override
+        byte[] fill(final Random random, final int size) {
+            final byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            return bytes;
+        }
+    },
+
+    /**
+     * Long runs of a short repeated pattern, the best case for every algorithm.
+     */
+    REDUNDANT {
+        @Override
+        byte[] fill(final Random random, final int size) {
+            final byte[] pattern = new byte[64];
+            random.nextBytes(pattern);
+            final byte[] bytes = new byte[size];
+            for (int i = 0; i < size; i++) {
+                bytes[i] = pattern[i % pattern.length];
+            }
+            return bytes;
+        }
+    };
+
+    private static final long SEED = 0x436F6D7072657373L;
+
+    /**
+     * Generates {@code size} bytes of this corpus.
+     *
+     * @param size the number of bytes to generate.
+     * @return the generated bytes.
+     */
+    public byte[] generate(final int size) {
+        return fill(new Random(SEED + ordinal()), size);
+    }
+
+    abstract byte[] fill(Random random, int size);
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.compressors.deflate64.Deflate64CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decode throughput of {@link Deflate64CompressorInputStream}, which is dominated by Huffman symbol decoding.
+ * <p>
+ * There is no Deflate64 encoder, the input is created with {@link Deflater#HUFFMAN_ONLY}. Such a stream only contains literals, which are encoded
+ * identically in Deflate and Deflate64, and exercises the Huffman decoder on every byte.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Deflate64Benchmark {
+
+    @Param({ "TEXT", "BINARY", "INCOMPRESSIBLE", "REDUNDANT" })
+    public Corpus corpus;
+
+    @Param({ "1048576" })
+    public int size;
+
+    private byte[] compressed;
+
+    @Benchmark
+    public long decompress() throws IOException {
+        try (InputStream in = new Deflate64CompressorInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.copyLarge(in, NullOutputStream.INSTANCE);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final byte[] uncompressed = corpus.generate(size);
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setStrategy(Deflater.HUFFMAN_ONLY);
+            deflater.setInput(uncompressed);
+            deflater.finish();
+            final byte[] buffer = new byte[size + size / 8 + 1024];
+            int length = 0;
+            while (!deflater.finished()) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            compressed = new byte[length];
+            System.arraycopy(buffer, 0, compressed, 0, length);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures opening {@link ZipFile}, {@link SevenZFile} and {@link TarFile}, which parse the whole archive index up front, and extracting all entries
+ * through their random access API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomAccessArchiveBenchmark {
+
+    @Param({ ArchiveStreamFactory.SEVEN_Z, ArchiveStreamFactory.TAR, ArchiveStreamFactory.ZIP })
+    public String format;
+
+    @Param({ "1000", "100000" })
+    public int entryCount;
+
+    @Param({ "1024" })
+    public int entrySize;
+
+    private ArchiveFixture fixture;
+
+    @Benchmark
+    public long extract() throws IOException {
+        long total = 0;
+        switch (format) {
+        case ArchiveStreamFactory.SEVEN_Z:
+            try (SevenZFile sevenZFile = SevenZFile.builder().setPath(fixture.getArchive()).get()) {
+                for (final SevenZArchiveEntry entry : sevenZFile.getEntries()) {
+                    try (InputStream in = sevenZFile.getInputStream(entry)) {
+                        total += IOUtils.copyLarge(in, NullOutputStream.INSTANCE);
+                    }
+                }
+            }
+            break;
+        case ArchiveStreamFactory.TAR:
+            try (TarFile tarFile = new TarFile(fixture.getArchive())) {
+                for (final TarArchiveEntry entry : tarFile.getEntries()) {
+                    try (InputStream in = tarFile.getInputStream(entry)) {
+                        total += IOUtils.copyLarge(in, NullOutputStream.INSTANCE);
+                    }
+                }
+            }
+            break;
+        default:
+            try (ZipFile zipFile = ZipFile.builder().setPath(fixture.getArchive()).get()) {
+                final Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+                while (entries.hasMoreElements()) {
+                    try (InputStream in = zipFile.getInputStream(entries.nextElement())) {
+                        total += IOUtils.copyLarge(in, NullOutputStream.INSTANCE);
+                    }
+                }
+            }
+            break;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        switch (format) {
+        case ArchiveStreamFactory.SEVEN_Z:
+            try (SevenZFile sevenZFile = SevenZFile.builder().setPath(fixture.getArchive()).get()) {
+                int count = 0;
+                for (final SevenZArchiveEntry entry : sevenZFile.getEntries()) {
+                    count++;
+                }
+                return count;
+            }
+        case ArchiveStreamFactory.TAR:
+            try (TarFile tarFile = new TarFile(fixture.getArchive())) {
+                return tarFile.getEntries().size();
+            }
+        default:
+            try (ZipFile zipFile = ZipFile.builder().setPath(fixture.getArchive()).get()) {
+                return Collections.list(zipFile.getEntries()).size();
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        fixture = new ArchiveFixture(format, Corpus.TEXT, entryCount, entrySize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+}
@@ -61,6 +61,16 @@ protected AbstractCoder(final Class<?>... optionClasses) {
     abstract InputStream decode(String archiveName, InputStream in, long uncompressedLength, Coder coder, byte[] password, int maxMemoryLimitKiB)
             throws IOException;
 
+    /**
+     * Estimates the memory in kibibytes (KiB) a decoder of the given coder needs, only codecs that honor the memory limit provide an estimate.
+     *
+     * @return the memory in kibibytes (KiB) a decoder of the given coder needs or 0 if unknown.
+     * @throws IOException if the properties of the coder are invalid.
+     */
+    int estimateDecoderMemoryUsageKiB(final Coder coder) throws IOException {
+        return 0;
+    }
+
     /**
      * Encodes using a stream that writes to out using the given configuration.
      *
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 
 final class BoundedSeekableByteChannelInputStream extends InputStream {
@@ -29,8 +30,25 @@ final class BoundedSeekableByteChannelInputStream extends InputStream {
     private final SeekableByteChannel channel;
     private long bytesRemaining;
 
+    /**
+     * Absolute position of the next read or -1 if reads start at the current position of the channel.
+     */
+    private long position;
+
     BoundedSeekableByteChannelInputStream(final SeekableByteChannel channel, final long size) {
+        this(channel, -1, size);
+    }
+
+    /**
+     * Creates a stream that reads from the given absolute position and doesn't depend on the position of the channel.
+     * <p>
+     * Several such streams can read the same channel concurrently, reads of a {@link FileChannel} don't modify the position of the channel while reads of
+     * other channels synchronize on the channel and change its position.
+     * </p>
+     */
+    BoundedSeekableByteChannelInputStream(final SeekableByteChannel channel, final long position, final long size) {
         this.channel = channel;
+        this.position = position;
         this.bytesRemaining = size;
         this.buffer = ByteBuffer.allocate(size < MAX_BUF_LEN && size > 0 ? (int) size : MAX_BUF_LEN);
     }
@@ -83,7 +101,7 @@ public int read(final byte[] b, final int off, final int len) throws IOException
             bytesRead = read(bytesToRead);
         } else {
             buf = ByteBuffer.allocate(bytesToRead);
-            bytesRead = channel.read(buf);
+            bytesRead = readChannel(buf);
             buf.flip();
         }
         if (bytesRead >= 0) {
@@ -95,8 +113,27 @@ public int read(final byte[] b, final int off, final int len) throws IOException
 
     private int read(final int len) throws IOException {
         buffer.rewind().limit(len);
-        final int read = channel.read(buffer);
+        final int read = readChannel(buffer);
         buffer.flip();
         return read;
     }
+
+    private int readChannel(final ByteBuffer buf) throws IOException {
+        if (position < 0) {
+            return channel.read(buf);
+        }
+        final int read;
+        if (channel instanceof FileChannel) {
+            read = ((FileChannel) channel).read(buf, position);
+        } else {
+            synchronized (channel) {
+                channel.position(position);
+                read = channel.read(buf);
+            }
+        }
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
 }
@@ -232,6 +232,11 @@ static InputStream addDecoder(final String archiveName, final InputStream is, fi
         return cb.decode(archiveName, is, uncompressedLength, coder, password, maxMemoryLimitKiB);
     }
 
+    static int estimateDecoderMemoryUsageKiB(final Coder coder) throws IOException {
+        final AbstractCoder cb = findByMethod(SevenZMethod.byId(coder.decompressionMethodId));
+        return cb == null ? 0 : cb.estimateDecoderMemoryUsageKiB(coder);
+    }
+
     static OutputStream addEncoder(final OutputStream out, final SevenZMethod method, final Object options) throws IOException {
         final AbstractCoder cb = findByMethod(method);
         if (cb == null) {
@@ -21,8 +21,10 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.compress.MemoryLimitException;
+import org.apache.commons.compress.compressors.xz.ParallelXZCompressorOutputStream;
 import org.tukaani.xz.FinishableWrapperOutputStream;
 import org.tukaani.xz.LZMA2InputStream;
 import org.tukaani.xz.LZMA2Options;
@@ -38,7 +40,7 @@ InputStream decode(final String archiveName, final InputStream in, final long un
             final int maxMemoryLimitKiB) throws IOException {
         try {
             final int dictionarySize = getDictionarySize(coder);
-            final int memoryUsageInKiB = LZMA2InputStream.getMemoryUsage(dictionarySize);
+            final int memoryUsageInKiB = estimateDecoderMemoryUsageKiB(coder);
             if (memoryUsageInKiB > maxMemoryLimitKiB) {
                 throw new MemoryLimitException(memoryUsageInKiB, maxMemoryLimitKiB);
             }
@@ -48,12 +50,33 @@ InputStream decode(final String archiveName, final InputStream in, final long un
         }
     }
 
+    @Override
+    int estimateDecoderMemoryUsageKiB(final Coder coder) throws IOException {
+        try {
+            return LZMA2InputStream.getMemoryUsage(getDictionarySize(coder));
+        } catch (final IllegalArgumentException ex) { // NOSONAR
+            throw new IOException(ex);
+        }
+    }
+
     @SuppressWarnings("resource") // Caller closes.
     @Override
     OutputStream encode(final OutputStream out, final Object opts) throws IOException {
         return getOptions(opts).getOutputStream(new FinishableWrapperOutputStream(out));
     }
 
+    /**
+     * Encodes using a stream that compresses blocks of the given size concurrently on the given executor.
+     *
+     * @param blockSize the number of uncompressed bytes per block, 0 selects {@link ParallelXZCompressorOutputStream#getDefaultBlockSize(LZMA2Options)}.
+     */
+    OutputStream encode(final OutputStream out, final Object opts, final ExecutorService executorService, final int parallelism, final int blockSize)
+            throws IOException {
+        final LZMA2Options options = getOptions(opts);
+        final int actualBlockSize = blockSize != 0 ? blockSize : ParallelXZCompressorOutputStream.getDefaultBlockSize(options);
+        return new ParallelLZMA2OutputStream(out, options, executorService, parallelism, actualBlockSize);
+    }
+
     private int getDictionarySize(final Coder coder) throws IOException {
         if (coder.properties == null) {
             throw new IOException("Missing LZMA2 properties");
@@ -49,7 +49,7 @@ InputStream decode(final String archiveName, final InputStream in, final long un
         if (dictSize > LZMAInputStream.DICT_SIZE_MAX) {
             throw new IOException("Dictionary larger than 4GiB maximum size used in " + archiveName);
         }
-        final int memoryUsageInKiB = LZMAInputStream.getMemoryUsage(dictSize, propsByte);
+        final int memoryUsageInKiB = estimateDecoderMemoryUsageKiB(coder);
         if (memoryUsageInKiB > maxMemoryLimitKiB) {
             throw new MemoryLimitException(memoryUsageInKiB, maxMemoryLimitKiB);
         }
@@ -58,6 +58,17 @@ InputStream decode(final String archiveName, final InputStream in, final long un
         return lzmaIn;
     }
 
+    @Override
+    int estimateDecoderMemoryUsageKiB(final Coder coder) throws IOException {
+        if (coder.properties == null) {
+            throw new IOException("Missing LZMA properties");
+        }
+        if (coder.properties.length < 1) {
+            throw new IOException("LZMA properties too short");
+        }
+        return LZMAInputStream.getMemoryUsage(getDictionarySize(coder), coder.properties[0]);
+    }
+
     @Override
     OutputStream encode(final OutputStream out, final Object opts) throws IOException {
         // NOOP as LZMAOutputStream throws an exception in flush
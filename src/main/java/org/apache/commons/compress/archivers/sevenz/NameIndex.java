@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.sevenz;
+
+/**
+ * An open-addressing hash index from names to the positions of the entries of an archive.
+ * <p>
+ * The index only holds one {@code int} slot per entry plus free slots, the names are read from the entries themselves. Entries without a name are not
+ * indexed.
+ * </p>
+ */
+final class NameIndex {
+
+    private final SevenZArchiveEntry[] entries;
+
+    /** Entry position plus one, zero marks an empty slot. */
+    private final int[] slots;
+
+    /**
+     * Builds the index for the given entries, which are not copied.
+     *
+     * @param entries the entries of the archive.
+     */
+    NameIndex(final SevenZArchiveEntry[] entries) {
+        this.entries = entries;
+        // load factor of at most one half keeps probe sequences short
+        this.slots = new int[Integer.highestOneBit(Math.max(entries.length, 1)) << 2];
+        final int mask = slots.length - 1;
+        for (int i = 0; i < entries.length; i++) {
+            final String name = entries[i].getName();
+            if (name != null) {
+                int slot = spread(name.hashCode()) & mask;
+                while (slots[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Finds the first entry with the given name.
+     *
+     * @param name the name of the entry.
+     * @return the position of the first entry with that name in the archive, or -1 if there is none.
+     */
+    int indexOf(final String name) {
+        final int mask = slots.length - 1;
+        // linear probing places entries with the same name in archive order
+        for (int slot = spread(name.hashCode()) & mask; slots[slot] != 0; slot = slot + 1 & mask) {
+            final int i = slots[slot] - 1;
+            if (name.equals(entries[i].getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ hash >>> 16;
+    }
+}
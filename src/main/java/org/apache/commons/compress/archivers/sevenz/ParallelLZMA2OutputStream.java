@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.sevenz;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.compress.utils.ParallelBlockCompressor;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.tukaani.xz.BasicArrayCache;
+import org.tukaani.xz.FinishableOutputStream;
+import org.tukaani.xz.FinishableWrapperOutputStream;
+import org.tukaani.xz.LZMA2Options;
+
+/**
+ * Writes a raw LZMA2 stream whose blocks are compressed concurrently.
+ * <p>
+ * Each block is compressed by its own encoder, so its first chunk resets the dictionary and the blocks don't depend on each other. The chunks of all blocks
+ * are written in input order followed by a single end marker, which gives a valid LZMA2 stream for a decoder using the dictionary size of the options.
+ * </p>
+ *
+ * @NotThreadSafe
+ */
+final class ParallelLZMA2OutputStream extends OutputStream {
+
+    private final OutputStream out;
+
+    private final LZMA2Options options;
+
+    private final ParallelBlockCompressor<UnsynchronizedByteArrayOutputStream> blocks;
+
+    // used in one-arg write method
+    private final byte[] oneByte = new byte[1];
+
+    private boolean finished;
+
+    ParallelLZMA2OutputStream(final OutputStream out, final LZMA2Options options, final ExecutorService executorService, final int parallelism,
+            final int blockSize) {
+        this.out = out;
+        this.options = options;
+        this.blocks = new ParallelBlockCompressor<>(executorService, blockSize, parallelism, this::compress);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            blocks.close();
+            out.close();
+        }
+    }
+
+    /**
+     * Compresses a block, runs on the executor.
+     */
+    private UnsynchronizedByteArrayOutputStream compress(final byte[] data, final int length) throws IOException {
+        final UnsynchronizedByteArrayOutputStream compressed = UnsynchronizedByteArrayOutputStream.builder().setBufferSize(length / 2 + 64).get();
+        final FinishableOutputStream lzma2 = options.getOutputStream(new FinishableWrapperOutputStream(compressed), BasicArrayCache.getInstance());
+        lzma2.write(data, 0, length);
+        lzma2.finish();
+        return compressed;
+    }
+
+    /**
+     * Writes all blocks and the end marker.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            blocks.flush(this::writeBlock);
+            out.write(0x00);
+        }
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (finished) {
+            throw new IOException("Cannot write more data, the end of the compressed data stream has been reached.");
+        }
+        blocks.write(buffer, offset, length, this::writeBlock);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        oneByte[0] = (byte) (b & 0xff);
+        write(oneByte, 0, 1);
+    }
+
+    /**
+     * Writes the chunks of a compressed block without the end marker.
+     */
+    private void writeBlock(final UnsynchronizedByteArrayOutputStream compressed) throws IOException {
+        out.write(compressed.toByteArray(), 0, compressed.size() - 1);
+    }
+}
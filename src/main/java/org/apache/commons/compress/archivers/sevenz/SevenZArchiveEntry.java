@@ -84,6 +84,11 @@ public static Date ntfsTimeToJavaTime(final long ntfsTime) {
     private long compressedSize;
     private Iterable<? extends SevenZMethodConfiguration> contentMethods;
 
+    /**
+     * Position of this entry inside the archive it has been read from, -1 if it hasn't been read from an archive.
+     */
+    int archiveIndex = -1;
+
     /**
      * Constructs a new instance.
      */
@@ -37,28 +37,40 @@
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedInputStream;
 
 import org.apache.commons.compress.MemoryLimitException;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.utils.ByteUtils;
+import org.apache.commons.compress.utils.FutureUtils;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.compress.utils.InputStreamStatistics;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.io.build.AbstractOrigin.ByteArrayOrigin;
 import org.apache.commons.io.build.AbstractStreamBuilder;
+import org.apache.commons.io.function.IOBiConsumer;
 import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.io.input.ChecksumInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.lang3.ArrayUtils;
 
 /**
@@ -176,6 +188,91 @@ public String toString() {
         }
     }
 
+    /**
+     * Keeps the content of an entry skipped on the way to another entry once the entry has been read completely and its CRC has been verified.
+     * <p>
+     * The content buffer is only allocated on the first read and only if it fits into the entry cache next to the buffers of other streams, its size is
+     * reserved in the cache until the stream ends or is discarded.
+     * </p>
+     */
+    private final class EntryCachingInputStream extends FilterInputStream {
+
+        private final int entryIndex;
+        private final int length;
+        private byte[] content;
+        private boolean released;
+        private int size;
+
+        EntryCachingInputStream(final InputStream in, final int entryIndex, final int length) {
+            super(in);
+            this.entryIndex = entryIndex;
+            this.length = length;
+        }
+
+        private boolean allocate() {
+            if (content == null && !released) {
+                if (reserveEntryCacheBytes(length)) {
+                    content = new byte[length];
+                } else {
+                    released = true;
+                }
+            }
+            return content != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                release(false);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b >= 0) {
+                if (allocate() && size < content.length) {
+                    content[size] = (byte) b;
+                }
+                size++;
+            } else {
+                release(true);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read > 0) {
+                if (allocate() && size + read <= content.length) {
+                    System.arraycopy(b, off, content, size, read);
+                }
+                size += read;
+            } else if (read < 0) {
+                release(true);
+            }
+            return read;
+        }
+
+        /**
+         * Gives back the reservation of the content buffer, caching the content if requested and complete.
+         */
+        void release(final boolean cache) {
+            released = true;
+            if (content != null) {
+                final byte[] complete = content;
+                content = null;
+                entryCacheReservedBytes -= length;
+                if (cache && size == length) {
+                    cacheEntry(entryIndex, complete);
+                }
+            }
+        }
+    }
+
     /**
      * Builds new instances of {@link SevenZFile}.
      *
@@ -190,6 +287,7 @@ public static class Builder extends AbstractStreamBuilder<SevenZFile, Builder> {
         private SeekableByteChannel seekableByteChannel;
         private String defaultName = DEFAULT_FILE_NAME;
         private byte[] password;
+        private int entryCacheKiB;
         private int maxMemoryLimitKiB = MEMORY_LIMIT_IN_KB;
         private boolean useDefaultNameForUnnamedEntries = USE_DEFAULTNAME_FOR_UNNAMED_ENTRIES;
         private boolean tryToRecoverBrokenArchives = TRY_TO_RECOVER_BROKEN_ARCHIVES;
@@ -216,7 +314,7 @@ public SevenZFile get() throws IOException {
             }
             final boolean closeOnError = seekableByteChannel != null;
             return new SevenZFile(actualChannel, actualDescription, password, closeOnError, maxMemoryLimitKiB, useDefaultNameForUnnamedEntries,
-                    tryToRecoverBrokenArchives);
+                    tryToRecoverBrokenArchives, entryCacheKiB);
         }
 
         /**
@@ -230,6 +328,24 @@ public Builder setDefaultName(final String defaultName) {
             return this;
         }
 
+        /**
+         * Sets the size in kibibytes of the cache holding the content of entries that have been decoded while skipping to another entry of the same folder
+         * with {@link SevenZFile#getInputStream(SevenZArchiveEntry)}, defaults to 0 which disables the cache.
+         * <p>
+         * Random access to an entry of a solid folder decodes all entries in front of it, jumping back to one of them needs to start over with the first
+         * entry of the folder. With a cache the content of the skipped entries is kept and a later request for one of them is served from memory. The least
+         * recently used entries are dropped when the cache is full, entries larger than the cache are never cached.
+         * </p>
+         *
+         * @param entryCacheKiB the size of the cache in kibibytes.
+         * @return {@code this} instance.
+         * @since 1.28.0
+         */
+        public Builder setEntryCacheKiB(final int entryCacheKiB) {
+            this.entryCacheKiB = entryCacheKiB;
+            return this;
+        }
+
         /**
          * Sets the maximum amount of memory in kilobytes to use for parsing the archive and during extraction.
          * <p>
@@ -412,6 +528,25 @@ private static SeekableByteChannel newByteChannel(final File file) throws IOExce
         return Files.newByteChannel(file.toPath(), EnumSet.of(StandardOpenOption.READ));
     }
 
+    private static InputStream newFileStream(final InputStream folderStream, final SevenZArchiveEntry file) throws IOException {
+        final InputStream fileStream = BoundedInputStream.builder()
+                .setInputStream(folderStream)
+                .setMaxCount(file.getSize())
+                .setPropagateClose(false)
+                .get();
+        if (file.getHasCrc()) {
+            // @formatter:off
+            return ChecksumInputStream.builder()
+                    .setChecksum(new CRC32())
+                    .setInputStream(fileStream)
+                    .setCountThreshold(file.getSize())
+                    .setExpectedChecksumValue(file.getCrcValue())
+                    .get();
+            // @formatter:on
+        }
+        return fileStream;
+    }
+
     private static long readUint64(final ByteBuffer in) throws IOException {
         // long rather than int as it might get shifted beyond the range of an int
         final long firstByte = getUnsignedByte(in);
@@ -451,6 +586,20 @@ private static long skipBytesFully(final ByteBuffer input, long bytesToSkip) {
     private long compressedBytesReadFromCurrentEntry;
     private long uncompressedBytesReadFromCurrentEntry;
     private final ArrayList<InputStream> deferredBlockStreams = new ArrayList<>();
+
+    /**
+     * Index of the entry names, built on first use.
+     */
+    private NameIndex nameIndex;
+
+    /**
+     * Content of entries decoded while skipping to another entry, keyed by entry index in access order.
+     */
+    private final LinkedHashMap<Integer, byte[]> entryCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxEntryCacheBytes;
+    private long entryCacheBytes;
+    /** Bytes of the cache reserved by skipped entries that are being read. */
+    private long entryCacheReservedBytes;
     private final int maxMemoryLimitKiB;
     private final boolean useDefaultNameForUnnamedEntries;
 
@@ -648,15 +797,19 @@ public SevenZFile(final SeekableByteChannel channel, final String fileName, fina
     }
 
     private SevenZFile(final SeekableByteChannel channel, final String fileName, final byte[] password, final boolean closeOnError, final int maxMemoryLimitKiB,
-            final boolean useDefaultNameForUnnamedEntries, final boolean tryToRecoverBrokenArchives) throws IOException {
+            final boolean useDefaultNameForUnnamedEntries, final boolean tryToRecoverBrokenArchives, final int entryCacheKiB) throws IOException {
         boolean succeeded = false;
         this.channel = channel;
         this.fileName = fileName;
         this.maxMemoryLimitKiB = maxMemoryLimitKiB;
+        this.maxEntryCacheBytes = Math.max(0, entryCacheKiB) * 1024L;
         this.useDefaultNameForUnnamedEntries = useDefaultNameForUnnamedEntries;
         this.tryToRecoverBrokenArchives = tryToRecoverBrokenArchives;
         try {
             archive = readHeaders(password);
+            for (int i = 0; i < archive.files.length; i++) {
+                archive.files[i].archiveIndex = i;
+            }
             if (password != null) {
                 this.password = Arrays.copyOf(password, password.length);
             } else {
@@ -685,7 +838,7 @@ private SevenZFile(final SeekableByteChannel channel, final String fileName, fin
     private SevenZFile(final SeekableByteChannel channel, final String fileName, final byte[] password, final boolean closeOnError,
             final SevenZFileOptions options) throws IOException {
         this(channel, fileName, password, closeOnError, options.getMaxMemoryLimitInKb(), options.getUseDefaultNameForUnnamedEntries(),
-                options.getTryToRecoverBrokenArchives());
+                options.getTryToRecoverBrokenArchives(), 0);
     }
 
     /**
@@ -746,7 +899,7 @@ public SevenZFile(final SeekableByteChannel channel, final String fileName, fina
     private InputStream buildDecoderStack(final Folder folder, final long folderOffset, final int firstPackStreamIndex, final SevenZArchiveEntry entry)
             throws IOException {
         channel.position(folderOffset);
-        InputStream inputStreamStack = new FilterInputStream(
+        final InputStream packStream = new FilterInputStream(
                 new BufferedInputStream(new BoundedSeekableByteChannelInputStream(channel, archive.packSizes[firstPackStreamIndex]))) {
             private void count(final int c) {
                 compressedBytesReadFromCurrentEntry += c;
@@ -778,6 +931,11 @@ public int read(final byte[] b, final int off, final int len) throws IOException
                 return r;
             }
         };
+        return buildDecoderStack(folder, packStream, entry);
+    }
+
+    private InputStream buildDecoderStack(final Folder folder, final InputStream packStream, final SevenZArchiveEntry entry) throws IOException {
+        InputStream inputStreamStack = packStream;
         final LinkedList<SevenZMethodConfiguration> methods = new LinkedList<>();
         for (final Coder coder : folder.getOrderedCoders()) {
             if (coder.numInStreams != 1 || coder.numOutStreams != 1) {
@@ -816,7 +974,7 @@ private void buildDecodingStream(final int entryIndex, final boolean isRandomAcc
         }
         final int folderIndex = archive.streamMap.fileFolderIndex[entryIndex];
         if (folderIndex < 0) {
-            deferredBlockStreams.clear();
+            clearDeferredBlockStreams();
             // TODO: previously it'd return an empty stream?
             // new BoundedInputStream(new ByteArrayInputStream(ByteUtils.EMPTY_BYTE_ARRAY), 0);
             return;
@@ -881,6 +1039,13 @@ private void buildDecodingStream(final int entryIndex, final boolean isRandomAcc
         deferredBlockStreams.add(fileStream);
     }
 
+    private void cacheEntry(final int entryIndex, final byte[] content) {
+        if (entryCache.put(entryIndex, content) == null) {
+            entryCacheBytes += content.length;
+        }
+        evictEntries();
+    }
+
     private void calculateStreamMap(final Archive archive) throws IOException {
         int nextFolderPackStreamIndex = 0;
         final int numFolders = ArrayUtils.getLength(archive.folders);
@@ -933,6 +1098,18 @@ private void checkEntryIsInitialized(final Map<Integer, SevenZArchiveEntry> arch
         archiveEntries.computeIfAbsent(index, i -> new SevenZArchiveEntry());
     }
 
+    /**
+     * Drops the deferred streams, giving back the cache reservations of skipped entries that have not been read completely.
+     */
+    private void clearDeferredBlockStreams() {
+        for (final InputStream stream : deferredBlockStreams) {
+            if (stream instanceof EntryCachingInputStream) {
+                ((EntryCachingInputStream) stream).release(false);
+            }
+        }
+        deferredBlockStreams.clear();
+    }
+
     /**
      * Closes the archive.
      *
@@ -949,10 +1126,182 @@ public void close() throws IOException {
                     Arrays.fill(password, (byte) 0);
                 }
                 password = null;
+                clearDeferredBlockStreams();
+                entryCache.clear();
+                entryCacheBytes = 0;
             }
         }
     }
 
+    private long estimateDecoderMemoryUsageKiB(final Folder folder) throws IOException {
+        long memoryUsageKiB = 0;
+        for (final Coder coder : folder.getOrderedCoders()) {
+            memoryUsageKiB += Coders.estimateDecoderMemoryUsageKiB(coder);
+        }
+        return memoryUsageKiB;
+    }
+
+    /**
+     * Drops the least recently used cached entries until the cached and the reserved bytes fit into the cache.
+     */
+    private void evictEntries() {
+        final Iterator<byte[]> leastRecentlyUsed = entryCache.values().iterator();
+        while (entryCacheBytes + entryCacheReservedBytes > maxEntryCacheBytes) {
+            entryCacheBytes -= leastRecentlyUsed.next().length;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Decodes a folder with its own stream of the packed data, this doesn't touch the state used for sequential or random access and may run concurrently
+     * with the decoding of other folders.
+     */
+    private void extractFolder(final SeekableByteChannel channel, final int folderIndex,
+            final IOBiConsumer<? super SevenZArchiveEntry, ? super InputStream> action) throws IOException {
+        final Folder folder = archive.folders[folderIndex];
+        final int firstPackStreamIndex = archive.streamMap.folderFirstPackStreamIndex[folderIndex];
+        final long folderOffset = SIGNATURE_HEADER_SIZE + archive.packPos + archive.streamMap.packStreamOffsets[firstPackStreamIndex];
+        final int firstFileIndex = archive.streamMap.folderFirstFileIndex[folderIndex];
+        final SevenZArchiveEntry firstFile = archive.files[firstFileIndex];
+        final InputStream packStream = new BoundedSeekableByteChannelInputStream(channel, folderOffset, archive.packSizes[firstPackStreamIndex]);
+        try (InputStream folderStream = buildDecoderStack(folder, new BufferedInputStream(packStream), firstFile)) {
+            for (int i = firstFileIndex; i < archive.files.length && archive.streamMap.fileFolderIndex[i] == folderIndex; i++) {
+                final SevenZArchiveEntry file = archive.files[i];
+                file.setContentMethods(firstFile.getContentMethods());
+                try (InputStream fileStream = newFileStream(folderStream, file)) {
+                    action.accept(file, CloseShieldInputStream.wrap(fileStream));
+                    // skip what the action didn't read, this verifies the CRC as well
+                    IOUtils.skip(fileStream, Long.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes all entries of the archive and passes each of them together with a stream of its content to the given action, several folders are decoded at
+     * the same time.
+     * <p>
+     * Folders - the units of solid compression - don't depend on each other. Each folder is decoded by a task submitted to the given executor which reads the
+     * packed data of the folder from its own position in the archive. The entries of a folder are passed to the action in archive order on the thread decoding
+     * the folder while entries of different folders are passed to the action concurrently, the action must be thread-safe. The stream is only valid until the
+     * action returns, content the action doesn't read is skipped. Entries that are not part of any folder - like directories - are passed to the action on the
+     * calling thread before any folder is decoded.
+     * </p>
+     * <p>
+     * At most {@code parallelism} folders are decoded at the same time and the decoders of the folders decoded at the same time don't need more memory than
+     * the limit set with {@link Builder#setMaxMemoryLimitKiB(int)}. A single folder that needs more memory than the limit fails the same way it fails when
+     * read sequentially.
+     * </p>
+     * <p>
+     * This method discards the state of sequential access, a later call of {@link #getNextEntry()} starts with the first entry again. No other method of this
+     * instance may be called while this method runs.
+     * </p>
+     *
+     * @param executorService the executor decoding the folders, or {@code null} to decode all folders one after another on the calling thread.
+     * @param parallelism     the maximum number of folders decoded at the same time.
+     * @param action          the action receiving each entry and a stream of its content.
+     * @throws IOException              if reading the archive fails or the action throws an IOException.
+     * @throws IllegalArgumentException if parallelism is less than 1.
+     * @since 1.28.0
+     */
+    public void forEachEntry(final ExecutorService executorService, final int parallelism,
+            final IOBiConsumer<? super SevenZArchiveEntry, ? super InputStream> action) throws IOException {
+        Objects.requireNonNull(action, "action");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") < 1");
+        }
+        if (archive.streamMap == null) {
+            throw new IOException("Archive doesn't contain stream information to read entries");
+        }
+        // the channel is shared with the folder tasks, it must not be used for sequential access any longer
+        clearDeferredBlockStreams();
+        if (currentFolderInputStream != null) {
+            currentFolderInputStream.close();
+            currentFolderInputStream = null;
+        }
+        currentFolderIndex = -1;
+        currentEntryIndex = -1;
+        for (final SevenZArchiveEntry file : archive.files) {
+            if (file.getName() == null && useDefaultNameForUnnamedEntries) {
+                file.setName(getDefaultName());
+            }
+        }
+        for (int i = 0; i < archive.files.length; i++) {
+            if (archive.streamMap.fileFolderIndex[i] < 0) {
+                action.accept(archive.files[i], new ByteArrayInputStream(ByteUtils.EMPTY_BYTE_ARRAY));
+            }
+        }
+        final SeekableByteChannel sharedChannel = channel;
+        final Deque<Future<Long>> pendingFolders = new ArrayDeque<>();
+        // folder tasks hold the read lock while they run, so taking the write lock waits for the running ones
+        final ReadWriteLock running = new ReentrantReadWriteLock();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        long availableMemoryKiB = maxMemoryLimitKiB;
+        try {
+            for (int folderIndex = 0; folderIndex < archive.folders.length; folderIndex++) {
+                final int firstFileIndex = archive.streamMap.folderFirstFileIndex[folderIndex];
+                if (firstFileIndex >= archive.files.length || archive.streamMap.fileFolderIndex[firstFileIndex] != folderIndex) {
+                    continue;
+                }
+                if (executorService == null) {
+                    extractFolder(sharedChannel, folderIndex, action);
+                    continue;
+                }
+                final long memoryUsageKiB = Math.min(estimateDecoderMemoryUsageKiB(archive.folders[folderIndex]), maxMemoryLimitKiB);
+                while (!pendingFolders.isEmpty() && (pendingFolders.size() >= parallelism || availableMemoryKiB < memoryUsageKiB)) {
+                    availableMemoryKiB += FutureUtils.get(pendingFolders.removeFirst());
+                }
+                availableMemoryKiB -= memoryUsageKiB;
+                final int index = folderIndex;
+                pendingFolders.addLast(executorService.submit(() -> {
+                    running.readLock().lock();
+                    try {
+                        if (!stopped.get()) {
+                            extractFolder(sharedChannel, index, action);
+                        }
+                    } finally {
+                        running.readLock().unlock();
+                    }
+                    return memoryUsageKiB;
+                }));
+            }
+            while (!pendingFolders.isEmpty()) {
+                FutureUtils.get(pendingFolders.removeFirst());
+            }
+        } finally {
+            // don't interrupt running tasks as an interrupted read closes a FileChannel, wait for them to stop reading the channel instead
+            stopped.set(true);
+            pendingFolders.forEach(future -> future.cancel(false));
+            running.writeLock().lock();
+            running.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the given entries in the order they are stored in the archive and passes each of them together with a stream of its content to the given action.
+     * <p>
+     * Reading the entries of a solid folder in archive order decodes the folder only once while reading them in any other order with
+     * {@link #getInputStream(SevenZArchiveEntry)} may decode the folder again for each entry. The stream is only valid until the action returns. Each entry
+     * is passed to the action once, even if the collection contains it several times.
+     * </p>
+     *
+     * @param entries the entries to read, as returned by {@link #getEntries()}.
+     * @param action  the action receiving each entry and a stream of its content.
+     * @throws IOException              if reading the archive fails or the action throws an IOException.
+     * @throws IllegalArgumentException if an entry is not part of this archive.
+     * @since 1.28.0
+     */
+    public void forEachEntry(final Collection<SevenZArchiveEntry> entries, final IOBiConsumer<? super SevenZArchiveEntry, ? super InputStream> action)
+            throws IOException {
+        Objects.requireNonNull(action, "action");
+        final int[] entryIndices = entries.stream().mapToInt(this::getEntryIndex).sorted().distinct().toArray();
+        for (final int entryIndex : entryIndices) {
+            final SevenZArchiveEntry entry = archive.files[entryIndex];
+            // don't close the stream, getInputStream skips what the action didn't read when it moves to the next entry
+            action.accept(entry, CloseShieldInputStream.wrap(getInputStream(entry)));
+        }
+    }
+
     private InputStream getCurrentStream() throws IOException {
         if (archive.files[currentEntryIndex].getSize() == 0) {
             return new ByteArrayInputStream(ByteUtils.EMPTY_BYTE_ARRAY);
@@ -1013,10 +1362,54 @@ public Iterable<SevenZArchiveEntry> getEntries() {
         return new ArrayList<>(Arrays.asList(archive.files));
     }
 
+    /**
+     * Gets a named entry or {@code null} if no entry by that name exists.
+     * <p>
+     * If multiple entries with the same name exist the first entry in the archive by that name is returned. Entries are found by the names they have been
+     * read with, or the default name if {@link Builder#setUseDefaultNameForUnnamedEntries(boolean)} is enabled. The first call builds an index of all names,
+     * later calls don't depend on the number of entries.
+     * </p>
+     *
+     * @param name name of the entry.
+     * @return the entry with the given name, or {@code null} if not present.
+     * @since 1.28.0
+     */
+    public SevenZArchiveEntry getEntry(final String name) {
+        if (nameIndex == null) {
+            if (useDefaultNameForUnnamedEntries) {
+                for (final SevenZArchiveEntry file : archive.files) {
+                    if (file.getName() == null) {
+                        file.setName(getDefaultName());
+                    }
+                }
+            }
+            nameIndex = new NameIndex(archive.files);
+        }
+        final int entryIndex = nameIndex.indexOf(name);
+        return entryIndex >= 0 ? archive.files[entryIndex] : null;
+    }
+
+    /**
+     * Gets the number of bytes held by the entry cache, including the reservations of skipped entries that are being read.
+     */
+    long getEntryCacheBytes() {
+        return entryCacheBytes + entryCacheReservedBytes;
+    }
+
+    private int getEntryIndex(final SevenZArchiveEntry entry) {
+        final int entryIndex = entry.archiveIndex;
+        if (entryIndex < 0 || entryIndex >= archive.files.length || archive.files[entryIndex] != entry) {
+            throw new IllegalArgumentException("Can not find " + entry.getName() + " in " + fileName);
+        }
+        return entryIndex;
+    }
+
     /**
      * Gets an InputStream for reading the contents of the given entry.
      * <p>
-     * For archives using solid compression randomly accessing entries will be significantly slower than reading the archive sequentially.
+     * For archives using solid compression randomly accessing entries will be significantly slower than reading the archive sequentially. Use
+     * {@link #forEachEntry(Collection, IOBiConsumer)} to read several entries or {@link Builder#setEntryCacheKiB(int)} to keep the content of entries
+     * decoded on the way to another entry.
      * </p>
      *
      * @param entry the entry to get the stream for.
@@ -1025,18 +1418,11 @@ public Iterable<SevenZArchiveEntry> getEntries() {
      * @since 1.20
      */
     public InputStream getInputStream(final SevenZArchiveEntry entry) throws IOException {
-        int entryIndex = -1;
-        for (int i = 0; i < archive.files.length; i++) {
-            if (entry == archive.files[i]) {
-                entryIndex = i;
-                break;
-            }
-        }
-
-        if (entryIndex < 0) {
-            throw new IllegalArgumentException("Can not find " + entry.getName() + " in " + fileName);
+        final int entryIndex = getEntryIndex(entry);
+        final byte[] cachedContent = entryCache.get(entryIndex);
+        if (cachedContent != null) {
+            return new ByteArrayInputStream(cachedContent);
         }
-
         buildDecodingStream(entryIndex, true);
         currentEntryIndex = entryIndex;
         currentFolderIndex = archive.streamMap.fileFolderIndex[entryIndex];
@@ -1760,7 +2146,7 @@ private void readUnpackInfo(final ByteBuffer header, final Archive archive) thro
      * @throws IOException if exceptions occur when reading the 7z file
      */
     private void reopenFolderInputStream(final int folderIndex, final SevenZArchiveEntry file) throws IOException {
-        deferredBlockStreams.clear();
+        clearDeferredBlockStreams();
         if (currentFolderInputStream != null) {
             currentFolderInputStream.close();
             currentFolderInputStream = null;
@@ -1772,6 +2158,20 @@ private void reopenFolderInputStream(final int folderIndex, final SevenZArchiveE
         currentFolderInputStream = buildDecoderStack(folder, folderOffset, firstPackStreamIndex, file);
     }
 
+    /**
+     * Reserves bytes of the entry cache for the content of a skipped entry, dropping least recently used entries to make room.
+     *
+     * @return false if the bytes don't fit next to the other reservations.
+     */
+    private boolean reserveEntryCacheBytes(final int length) {
+        if (entryCacheReservedBytes + length > maxEntryCacheBytes) {
+            return false;
+        }
+        entryCacheReservedBytes += length;
+        evictEntries();
+        return true;
+    }
+
     private ArchiveStatistics sanityCheckAndCollectStatistics(final ByteBuffer header) throws IOException {
         final ArchiveStatistics stats = new ArchiveStatistics();
 
@@ -2110,9 +2510,10 @@ private void sanityCheckSubStreamsInfo(final ByteBuffer header, final ArchiveSta
         } else {
             int folderIdx = 0;
             for (final int numUnpackSubStreams : numUnpackSubStreamsPerFolder) {
-                if (numUnpackSubStreams != 1 || stats.folderHasCrc == null || !stats.folderHasCrc.get(folderIdx++)) {
+                if (numUnpackSubStreams != 1 || stats.folderHasCrc == null || !stats.folderHasCrc.get(folderIdx)) {
                     numDigests += numUnpackSubStreams;
                 }
+                folderIdx++;
             }
         }
 
@@ -2246,6 +2647,9 @@ private boolean skipEntriesWhenNeeded(final int entryIndex, final boolean isInSa
                         .get();
                 // @formatter:on
             }
+            if (fileToSkip.getSize() > 0 && fileToSkip.getSize() <= maxEntryCacheBytes && fileToSkip.getSize() < Integer.MAX_VALUE) {
+                fileStreamToSkip = new EntryCachingInputStream(fileStreamToSkip, i, (int) fileToSkip.getSize());
+            }
             deferredBlockStreams.add(fileStreamToSkip);
 
             // set the content methods as well, it equals to file.getContentMethods() because they are in same folder
@@ -44,16 +44,18 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import java.util.zip.CRC32;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.file.attribute.FileTimes;
 import org.apache.commons.io.output.CountingOutputStream;
 
@@ -107,6 +109,31 @@ public void write(final int b) throws IOException {
         }
     }
 
+    /**
+     * A folder that has been or is being written, holding the data of one entry or - in solid mode - of several entries.
+     */
+    private static final class OutputFolder {
+        private final Iterable<? extends SevenZMethodConfiguration> methods;
+        private final String extension;
+        private final List<SevenZArchiveEntry> entries = new ArrayList<>();
+        private long size;
+        private long compressedSize;
+        private long compressedCrc;
+        private long[] additionalSizes;
+
+        private OutputFolder(final Iterable<? extends SevenZMethodConfiguration> methods, final SevenZArchiveEntry firstEntry) {
+            this.methods = methods;
+            this.extension = FilenameUtils.getExtension(firstEntry.getName());
+        }
+
+        /**
+         * Tests whether the folder's CRC is defined, this is only the case if it holds a single entry as the CRC of the whole folder isn't calculated.
+         */
+        private boolean hasCrc() {
+            return entries.size() == 1;
+        }
+    }
+
     private static <T> Iterable<T> reverse(final Iterable<T> i) {
         final LinkedList<T> l = new LinkedList<>();
         for (final T t : i) {
@@ -115,9 +142,23 @@ private static <T> Iterable<T> reverse(final Iterable<T> i) {
         return l;
     }
 
+    private static boolean sameMethods(final Iterable<? extends SevenZMethodConfiguration> a, final Iterable<? extends SevenZMethodConfiguration> b) {
+        final Iterator<? extends SevenZMethodConfiguration> ia = a.iterator();
+        final Iterator<? extends SevenZMethodConfiguration> ib = b.iterator();
+        while (ia.hasNext() && ib.hasNext()) {
+            if (!ia.next().equals(ib.next())) {
+                return false;
+            }
+        }
+        return !ia.hasNext() && !ib.hasNext();
+    }
+
     private final SeekableByteChannel channel;
     private final List<SevenZArchiveEntry> files = new ArrayList<>();
-    private int numNonEmptyStreams;
+    private final List<OutputFolder> folders = new ArrayList<>();
+    private OutputFolder currentFolder;
+    private boolean entryHasData;
+    private long entryOffset;
     private final CRC32 crc32 = new CRC32();
     private final CRC32 compressedCrc32 = new CRC32();
     private long fileBytesWritten;
@@ -125,8 +166,14 @@ private static <T> Iterable<T> reverse(final Iterable<T> i) {
     private CountingOutputStream currentOutputStream;
     private CountingOutputStream[] additionalCountingStreams;
     private Iterable<? extends SevenZMethodConfiguration> contentMethods = Collections.singletonList(new SevenZMethodConfiguration(SevenZMethod.LZMA2));
-    private final Map<SevenZArchiveEntry, long[]> additionalSizes = new HashMap<>();
     private AES256Options aes256Options;
+    private boolean solid;
+    private int solidBlockMaxEntries = Integer.MAX_VALUE;
+    private long solidBlockMaxSize = Long.MAX_VALUE;
+    private boolean solidBlockPerExtension;
+    private ExecutorService executorService;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int lzma2BlockSize;
 
     /**
      * Opens file to write a 7z archive to.
@@ -208,24 +255,15 @@ public void close() throws IOException {
      * @throws IOException on error
      */
     public void closeArchiveEntry() throws IOException {
-        if (currentOutputStream != null) {
-            currentOutputStream.flush();
-            currentOutputStream.close();
-        }
-
         final SevenZArchiveEntry entry = files.get(files.size() - 1);
-        if (fileBytesWritten > 0) { // this implies currentOutputStream != null
+        if (entryHasData) { // this implies currentOutputStream != null
             entry.setHasStream(true);
-            ++numNonEmptyStreams;
-            entry.setSize(currentOutputStream.getByteCount()); // NOSONAR
-            entry.setCompressedSize(fileBytesWritten);
+            entry.setSize(currentOutputStream.getByteCount() - entryOffset); // NOSONAR
             entry.setCrcValue(crc32.getValue());
-            entry.setCompressedCrcValue(compressedCrc32.getValue());
             entry.setHasCrc(true);
-            if (additionalCountingStreams != null) {
-                final long[] sizes = new long[additionalCountingStreams.length];
-                Arrays.setAll(sizes, i -> additionalCountingStreams[i].getByteCount());
-                additionalSizes.put(entry, sizes);
+            currentFolder.entries.add(entry);
+            if (!solid || currentFolder.entries.size() >= solidBlockMaxEntries || currentOutputStream.getByteCount() >= solidBlockMaxSize) {
+                closeFolder();
             }
         } else {
             entry.setHasStream(false);
@@ -233,9 +271,36 @@ public void closeArchiveEntry() throws IOException {
             entry.setCompressedSize(0);
             entry.setHasCrc(false);
         }
+        entryHasData = false;
+        crc32.reset();
+    }
+
+    /**
+     * Finishes the coders of the current folder and records its sizes and checksums.
+     */
+    private void closeFolder() throws IOException {
+        currentOutputStream.flush();
+        currentOutputStream.close();
+
+        final OutputFolder folder = currentFolder;
+        folder.size = currentOutputStream.getByteCount();
+        folder.compressedSize = fileBytesWritten;
+        folder.compressedCrc = compressedCrc32.getValue();
+        if (additionalCountingStreams != null) {
+            final long[] sizes = new long[additionalCountingStreams.length];
+            Arrays.setAll(sizes, i -> additionalCountingStreams[i].getByteCount());
+            folder.additionalSizes = sizes;
+        }
+        if (folder.entries.size() == 1) {
+            final SevenZArchiveEntry entry = folder.entries.get(0);
+            entry.setCompressedSize(fileBytesWritten);
+            entry.setCompressedCrcValue(compressedCrc32.getValue());
+        }
+        folders.add(folder);
+
+        currentFolder = null;
         currentOutputStream = null;
         additionalCountingStreams = null;
-        crc32.reset();
         compressedCrc32.reset();
         fileBytesWritten = 0;
     }
@@ -294,6 +359,9 @@ public void finish() throws IOException {
             throw new IOException("This archive has already been finished");
         }
         finished = true;
+        if (currentFolder != null) {
+            closeFolder();
+        }
 
         final long headerPosition = channel.position();
 
@@ -349,12 +417,33 @@ private Iterable<? extends SevenZMethodConfiguration> getContentMethods(final Se
      * otherwise.
      */
     private OutputStream getCurrentOutputStream() throws IOException {
-        if (currentOutputStream == null) {
-            currentOutputStream = setupFileOutputStream();
+        if (!entryHasData) {
+            if (files.isEmpty()) {
+                throw new IllegalStateException("No current 7z entry");
+            }
+            final SevenZArchiveEntry entry = files.get(files.size() - 1);
+            if (currentFolder != null && !isSolidBlockFor(entry)) {
+                closeFolder();
+            }
+            if (currentOutputStream == null) {
+                currentFolder = new OutputFolder(getContentMethods(entry), entry);
+                currentOutputStream = setupFileOutputStream();
+            }
+            entryOffset = currentOutputStream.getByteCount();
+            entryHasData = true;
         }
         return currentOutputStream;
     }
 
+    /**
+     * Tests whether the entry can be added to the current folder.
+     */
+    private boolean isSolidBlockFor(final SevenZArchiveEntry entry) {
+        return currentFolder.entries.size() < solidBlockMaxEntries && currentOutputStream.getByteCount() < solidBlockMaxSize
+                && sameMethods(currentFolder.methods, getContentMethods(entry))
+                && (!solidBlockPerExtension || Objects.equals(currentFolder.extension, FilenameUtils.getExtension(entry.getName())));
+    }
+
     /**
      * Records an archive entry to add.
      *
@@ -415,22 +504,134 @@ public void setContentMethods(final Iterable<? extends SevenZMethodConfiguration
         this.contentMethods = reverse(methods);
     }
 
-    private CountingOutputStream setupFileOutputStream() throws IOException {
-        if (files.isEmpty()) {
-            throw new IllegalStateException("No current 7z entry");
+    /**
+     * Sets the executor used to compress LZMA2 content in parallel - the default is {@code null} which compresses on the calling thread.
+     *
+     * <p>
+     * The content of each folder compressed with {@link SevenZMethod#LZMA2} is split into blocks of {@link #setLzma2BlockSize} bytes which are compressed
+     * concurrently, at most {@link #setParallelism} at the same time. Each block starts with a fresh dictionary, so the result is usually a little larger but
+     * any 7z reader can extract it. Parallel compression pays off for large folders, for example with {@link #setSolid solid blocks}. This instance doesn't
+     * shut down the executor.
+     * </p>
+     *
+     * @param executorService the executor used to compress LZMA2 blocks, or {@code null}
+     * @since 1.28.0
+     */
+    public void setExecutorService(final ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Sets the number of uncompressed bytes compressed into one LZMA2 block when an executor is set - the default is three times the dictionary size but at
+     * least 1 MiB.
+     *
+     * @param blockSize the number of uncompressed bytes in one block, must be positive
+     * @throws IllegalArgumentException if blockSize is not positive
+     * @see #setExecutorService(ExecutorService)
+     * @since 1.28.0
+     */
+    public void setLzma2BlockSize(final int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive but is " + blockSize);
         }
+        this.lzma2BlockSize = blockSize;
+    }
 
+    /**
+     * Sets the maximum number of LZMA2 blocks compressed at the same time when an executor is set - the default is the number of available processors.
+     *
+     * @param parallelism the maximum number of blocks compressed at the same time, must be positive
+     * @throws IllegalArgumentException if parallelism is not positive
+     * @see #setExecutorService(ExecutorService)
+     * @since 1.28.0
+     */
+    public void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive but is " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets whether the contents of several entries are compressed together into a single solid block - the default is {@code false}.
+     *
+     * <p>
+     * Solid blocks usually compress much better than entries compressed on their own and avoid setting up the coders for each entry, but reading a single
+     * entry requires decompressing all entries that precede it in the same block. A new block is started whenever the content methods of an entry differ from
+     * those of the entries in the current block or one of the limits set via {@link #setSolidBlockMaxEntries}, {@link #setSolidBlockMaxSize} or
+     * {@link #setSolidBlockPerExtension} is reached.
+     * </p>
+     *
+     * @param solid whether to create solid blocks
+     * @since 1.28.0
+     */
+    public void setSolid(final boolean solid) {
+        this.solid = solid;
+    }
+
+    /**
+     * Sets the maximum number of entries in a solid block - the default is unlimited.
+     *
+     * @param maxEntries the maximum number of entries, must be positive
+     * @throws IllegalArgumentException if maxEntries is not positive
+     * @since 1.28.0
+     */
+    public void setSolidBlockMaxEntries(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive but is " + maxEntries);
+        }
+        this.solidBlockMaxEntries = maxEntries;
+    }
+
+    /**
+     * Sets the uncompressed size after which a solid block is closed - the default is unlimited.
+     *
+     * <p>
+     * The limit is checked between entries, so a block may exceed it by the size of its last entry.
+     * </p>
+     *
+     * @param maxSize the maximum uncompressed size in bytes, must be positive
+     * @throws IllegalArgumentException if maxSize is not positive
+     * @since 1.28.0
+     */
+    public void setSolidBlockMaxSize(final long maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive but is " + maxSize);
+        }
+        this.solidBlockMaxSize = maxSize;
+    }
+
+    /**
+     * Sets whether a new solid block is started whenever the file name extension of an entry differs from the one of the entries in the current block - the
+     * default is {@code false}.
+     *
+     * <p>
+     * Adding entries sorted by extension keeps similar content together and often improves compression.
+     * </p>
+     *
+     * @param perExtension whether to start a new solid block for each extension
+     * @since 1.28.0
+     */
+    public void setSolidBlockPerExtension(final boolean perExtension) {
+        this.solidBlockPerExtension = perExtension;
+    }
+
+    private CountingOutputStream setupFileOutputStream() throws IOException {
         // doesn't need to be closed, just wraps the instance field channel
         OutputStream out = new OutputStreamWrapper(); // NOSONAR
         final ArrayList<CountingOutputStream> moreStreams = new ArrayList<>();
         boolean first = true;
-        for (final SevenZMethodConfiguration m : getContentMethods(files.get(files.size() - 1))) {
+        for (final SevenZMethodConfiguration m : currentFolder.methods) {
             if (!first) {
                 final CountingOutputStream cos = new CountingOutputStream(out);
                 moreStreams.add(cos);
                 out = cos;
             }
-            out = Coders.addEncoder(out, m.getMethod(), m.getOptions());
+            if (executorService != null && m.getMethod() == SevenZMethod.LZMA2) {
+                out = ((LZMA2Decoder) Coders.findByMethod(SevenZMethod.LZMA2)).encode(out, m.getOptions(), executorService, parallelism, lzma2BlockSize);
+            } else {
+                out = Coders.addEncoder(out, m.getMethod(), m.getOptions());
+            }
             first = false;
         }
         if (!moreStreams.isEmpty()) {
@@ -775,10 +976,10 @@ private void writeFileWindowsAttributes(final DataOutput header) throws IOExcept
         }
     }
 
-    private void writeFolder(final DataOutput header, final SevenZArchiveEntry entry) throws IOException {
+    private void writeFolder(final DataOutput header, final OutputFolder folder) throws IOException {
         final ByteArrayOutputStream bos = new ByteArrayOutputStream();
         int numCoders = 0;
-        for (final SevenZMethodConfiguration m : getContentMethods(entry)) {
+        for (final SevenZMethodConfiguration m : folder.methods) {
             numCoders++;
             writeSingleCodec(m, bos);
         }
@@ -804,21 +1005,17 @@ private void writePackInfo(final DataOutput header) throws IOException {
         header.write(NID.kPackInfo);
 
         writeUint64(header, 0);
-        writeUint64(header, 0xffffFFFFL & numNonEmptyStreams);
+        writeUint64(header, 0xffffFFFFL & folders.size());
 
         header.write(NID.kSize);
-        for (final SevenZArchiveEntry entry : files) {
-            if (entry.hasStream()) {
-                writeUint64(header, entry.getCompressedSize());
-            }
+        for (final OutputFolder folder : folders) {
+            writeUint64(header, folder.compressedSize);
         }
 
         header.write(NID.kCRC);
         header.write(1); // "allAreDefined" == true
-        for (final SevenZArchiveEntry entry : files) {
-            if (entry.hasStream()) {
-                header.writeInt(Integer.reverseBytes((int) entry.getCompressedCrcValue()));
-            }
+        for (final OutputFolder folder : folders) {
+            header.writeInt(Integer.reverseBytes((int) folder.compressedCrc));
         }
 
         header.write(NID.kEnd);
@@ -842,7 +1039,7 @@ private void writeSingleCodec(final SevenZMethodConfiguration m, final OutputStr
     }
 
     private void writeStreamsInfo(final DataOutput header) throws IOException {
-        if (numNonEmptyStreams > 0) {
+        if (!folders.isEmpty()) {
             writePackInfo(header);
             writeUnpackInfo(header);
         }
@@ -854,15 +1051,30 @@ private void writeStreamsInfo(final DataOutput header) throws IOException {
 
     private void writeSubStreamsInfo(final DataOutput header) throws IOException {
         header.write(NID.kSubStreamsInfo);
-        //
-        // header.write(NID.kCRC);
-        // header.write(1);
-        // for (final SevenZArchiveEntry entry : files) {
-        // if (entry.getHasCrc()) {
-        // header.writeInt(Integer.reverseBytes(entry.getCrc()));
-        // }
-        // }
-        //
+        if (folders.stream().anyMatch(f -> !f.hasCrc())) {
+            // entry sizes and CRCs are only needed for folders that don't hold exactly one entry
+            header.write(NID.kNumUnpackStream);
+            for (final OutputFolder folder : folders) {
+                writeUint64(header, folder.entries.size());
+            }
+
+            header.write(NID.kSize);
+            for (final OutputFolder folder : folders) {
+                for (int i = 0; i < folder.entries.size() - 1; i++) {
+                    writeUint64(header, folder.entries.get(i).getSize());
+                }
+            }
+
+            header.write(NID.kCRC);
+            header.write(1); // "allAreDefined" == true
+            for (final OutputFolder folder : folders) {
+                if (!folder.hasCrc()) {
+                    for (final SevenZArchiveEntry entry : folder.entries) {
+                        header.writeInt(Integer.reverseBytes((int) entry.getCrcValue()));
+                    }
+                }
+            }
+        }
         header.write(NID.kEnd);
     }
 
@@ -889,32 +1101,36 @@ private void writeUnpackInfo(final DataOutput header) throws IOException {
         header.write(NID.kUnpackInfo);
 
         header.write(NID.kFolder);
-        writeUint64(header, numNonEmptyStreams);
+        writeUint64(header, folders.size());
         header.write(0);
-        for (final SevenZArchiveEntry entry : files) {
-            if (entry.hasStream()) {
-                writeFolder(header, entry);
-            }
+        for (final OutputFolder folder : folders) {
+            writeFolder(header, folder);
         }
 
         header.write(NID.kCodersUnpackSize);
-        for (final SevenZArchiveEntry entry : files) {
-            if (entry.hasStream()) {
-                final long[] moreSizes = additionalSizes.get(entry);
-                if (moreSizes != null) {
-                    for (final long s : moreSizes) {
-                        writeUint64(header, s);
-                    }
+        for (final OutputFolder folder : folders) {
+            if (folder.additionalSizes != null) {
+                for (final long s : folder.additionalSizes) {
+                    writeUint64(header, s);
                 }
-                writeUint64(header, entry.getSize());
             }
+            writeUint64(header, folder.size);
         }
 
         header.write(NID.kCRC);
-        header.write(1); // "allAreDefined" == true
-        for (final SevenZArchiveEntry entry : files) {
-            if (entry.hasStream()) {
-                header.writeInt(Integer.reverseBytes((int) entry.getCrcValue()));
+        final BitSet hasCrc = new BitSet(folders.size());
+        for (int i = 0; i < folders.size(); i++) {
+            hasCrc.set(i, folders.get(i).hasCrc());
+        }
+        if (hasCrc.cardinality() == folders.size()) {
+            header.write(1); // "allAreDefined" == true
+        } else {
+            header.write(0);
+            writeBits(header, hasCrc, folders.size());
+        }
+        for (final OutputFolder folder : folders) {
+            if (folder.hasCrc()) {
+                header.writeInt(Integer.reverseBytes((int) folder.entries.get(0).getCrcValue()));
             }
         }
 
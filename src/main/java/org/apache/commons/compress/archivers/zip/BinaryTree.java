@@ -28,6 +28,10 @@
 
 /**
  * Binary tree of positive values.
+ * <p>
+ * Values are read using a lookup table that is indexed by the next {@code depth} bits of the stream, so a value is decoded with a single peek instead of
+ * walking the tree one bit at a time.
+ * </p>
  *
  * @since 1.7
  */
@@ -39,6 +43,11 @@ final class BinaryTree {
     /** Value in the array indicating a non leaf node */
     private static final int NODE = -2;
 
+    /** Number of bits of a lookup table entry holding the length of the code */
+    private static final int LENGTH_BITS = 5;
+
+    private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+
     /**
      * Decodes the packed binary tree from the specified stream.
      */
@@ -136,11 +145,20 @@ static BinaryTree decode(final InputStream inputStream, final int totalNumberOfV
      */
     private final int[] tree;
 
+    /** The number of bits the lookup table is indexed by */
+    private final int depth;
+
+    /**
+     * Entries are either {@code value << 5 | length} or the negated length of a path that leads to an undefined node, created when the first value is read.
+     */
+    private int[] lookupTable;
+
     BinaryTree(final int depth) {
         if (depth < 0 || depth > 30) {
             throw new IllegalArgumentException("depth must be bigger than 0 and not bigger than 30" + " but is " + depth);
         }
         tree = ArrayFill.fill(new int[(int) ((1L << depth + 1) - 1)], UNDEFINED);
+        this.depth = depth;
     }
 
     /**
@@ -158,6 +176,7 @@ public void addLeaf(final int node, final int path, final int depth, final int v
                 throw new IllegalArgumentException("Tree value at index " + node + " has already been assigned (" + tree[node] + ")");
             }
             tree[node] = value;
+            lookupTable = null;
         } else {
             // mark the current node as a non leaf node
             tree[node] = NODE;
@@ -168,6 +187,27 @@ public void addLeaf(final int node, final int path, final int depth, final int v
         }
     }
 
+    /**
+     * Creates the lookup table entries for all bit patterns that start with the path to the given node.
+     *
+     * @param table  the lookup table
+     * @param node   the index of the node
+     * @param path   the path to the node (bits are parsed from the right to the left)
+     * @param length the number of nodes in the path
+     */
+    private void fillLookupTable(final int[] table, final int node, final int path, final int length) {
+        final int value = node < tree.length ? tree[node] : UNDEFINED;
+        if (value == NODE) {
+            fillLookupTable(table, 2 * node + 1, path, length + 1);
+            fillLookupTable(table, 2 * node + 2, path | 1 << length, length + 1);
+            return;
+        }
+        final int entry = value == UNDEFINED ? -length : value << LENGTH_BITS | length;
+        for (int i = path; i < table.length; i += 1 << length) {
+            table[i] = entry;
+        }
+    }
+
     /**
      * Reads a value from the specified bit stream.
      *
@@ -176,24 +216,23 @@ public void addLeaf(final int node, final int path, final int depth, final int v
      * @throws IOException on error.
      */
     public int read(final BitStream stream) throws IOException {
-        int currentIndex = 0;
-
-        while (true) {
-            final int bit = stream.readBit();
-            if (bit == -1) {
-                return -1;
-            }
-
-            final int childIndex = 2 * currentIndex + 1 + bit;
-            final int value = tree[childIndex];
-            if (value == NODE) {
-                // consume the next bit
-                currentIndex = childIndex;
-            } else if (value != UNDEFINED) {
-                return value;
-            } else {
-                throw new IOException("The child " + bit + " of node at index " + currentIndex + " is not defined");
-            }
+        final int lookupBits = Math.max(1, depth);
+        if (lookupTable == null) {
+            // the root itself is never a value, the first bit always selects one of its children
+            lookupTable = new int[1 << lookupBits];
+            fillLookupTable(lookupTable, 1, 0, 1);
+            fillLookupTable(lookupTable, 2, 1, 1);
+        }
+        final int bits = (int) stream.peekBits(lookupBits);
+        final int entry = lookupTable[bits];
+        final int length = entry < 0 ? -entry : entry & LENGTH_MASK;
+        if (length > stream.bitsCached()) {
+            return -1;
+        }
+        if (entry < 0) {
+            throw new IOException("The code " + (bits & (1 << length) - 1) + " of length " + length + " is not defined");
         }
+        stream.skipBits(length);
+        return entry >>> LENGTH_BITS;
     }
 }
@@ -33,7 +33,8 @@
 final class BitStream extends BitInputStream {
 
     BitStream(final InputStream in) {
-        super(in, ByteOrder.LITTLE_ENDIAN);
+        // implode data is bounded by the compressed size of the entry, so it may be read ahead
+        super(in, ByteOrder.LITTLE_ENDIAN, true);
     }
 
     /**
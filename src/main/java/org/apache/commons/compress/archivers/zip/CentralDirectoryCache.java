@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.zip;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * The data a {@link ZipFile} needs to open an archive without searching for the end of central directory record and without reading local file headers.
+ * <p>
+ * The cache is stored in a file of its own and keyed by the absolute path, size and last modification time of the archive as well as the CRC-32 of its
+ * central directory, which the {@link ZipFile} verifies when it reads the central directory.
+ * </p>
+ * <p>
+ * Format: magic and version as {@code int}s, the absolute path of the archive as the length of its UTF-8 encoding as {@code int} followed by the encoded
+ * bytes, size and last modification time of the archive, offset of
+ * the first local file header, offset and length of the central directory and its CRC-32 as {@code long}s, the number of entries as {@code int}, whether the
+ * local file headers have been read as {@code boolean} and, if so, for every entry in central directory order its data offset as {@code long} followed by the
+ * length and content of the extra field of its local file header. All numbers are big-endian.
+ * </p>
+ */
+final class CentralDirectoryCache {
+
+    /** "ZCDC". */
+    private static final int MAGIC = 0x5A434443;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Minimum length of a central directory record including its signature.
+     */
+    private static final int MIN_RECORD_LENGTH = 46;
+
+    private static byte[] key(final Path archive) {
+        return archive.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the cache for the given archive.
+     *
+     * @param file    the cache file.
+     * @param archive the archive.
+     * @return the cache or null if the file doesn't exist, cannot be read, is corrupt or belongs to another version of the archive.
+     */
+    static CentralDirectoryCache read(final Path file, final Path archive) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final byte[] key = key(archive);
+            if (in.readInt() != key.length) {
+                return null;
+            }
+            final byte[] path = new byte[key.length];
+            in.readFully(path);
+            final long archiveSize = in.readLong();
+            final long lastModified = in.readLong();
+            if (!Arrays.equals(path, key) || archiveSize != Files.size(archive) || lastModified != Files.getLastModifiedTime(archive).toMillis()) {
+                return null;
+            }
+            final long firstLocalFileHeaderOffset = in.readLong();
+            final long centralDirectoryOffset = in.readLong();
+            final long centralDirectoryLength = in.readLong();
+            final long centralDirectoryCrc = in.readLong();
+            final int count = in.readInt();
+            if (firstLocalFileHeaderOffset < 0 || centralDirectoryOffset < firstLocalFileHeaderOffset || centralDirectoryLength < 0
+                    || centralDirectoryOffset + centralDirectoryLength > archiveSize || count < 0 || count > centralDirectoryLength / MIN_RECORD_LENGTH) {
+                return null;
+            }
+            final CentralDirectoryCache cache = new CentralDirectoryCache(firstLocalFileHeaderOffset, centralDirectoryOffset, centralDirectoryLength,
+                    centralDirectoryCrc, count, in.readBoolean());
+            if (cache.hasLocalFileHeaders()) {
+                for (int i = 0; i < count; i++) {
+                    cache.dataOffsets[i] = in.readLong();
+                    cache.localExtras[i] = new byte[in.readUnsignedShort()];
+                    in.readFully(cache.localExtras[i]);
+                }
+            }
+            return in.read() == -1 ? cache : null;
+        } catch (final IOException e) {
+            // truncated or unreadable, or the archive's attributes cannot be read
+            return null;
+        }
+    }
+
+    private final long firstLocalFileHeaderOffset;
+
+    private final long centralDirectoryOffset;
+
+    private final long centralDirectoryLength;
+
+    private final long centralDirectoryCrc;
+
+    private final int count;
+
+    private final long[] dataOffsets;
+
+    private final byte[][] localExtras;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param firstLocalFileHeaderOffset offset of the first local file header.
+     * @param centralDirectoryOffset     offset of the central directory.
+     * @param centralDirectoryLength     length of the central directory.
+     * @param centralDirectoryCrc        CRC-32 of the central directory.
+     * @param count                      number of entries.
+     * @param hasLocalFileHeaders        whether data offsets and local extra fields are stored.
+     */
+    CentralDirectoryCache(final long firstLocalFileHeaderOffset, final long centralDirectoryOffset, final long centralDirectoryLength,
+            final long centralDirectoryCrc, final int count, final boolean hasLocalFileHeaders) {
+        this.firstLocalFileHeaderOffset = firstLocalFileHeaderOffset;
+        this.centralDirectoryOffset = centralDirectoryOffset;
+        this.centralDirectoryLength = centralDirectoryLength;
+        this.centralDirectoryCrc = centralDirectoryCrc;
+        this.count = count;
+        this.dataOffsets = hasLocalFileHeaders ? new long[count] : null;
+        this.localExtras = hasLocalFileHeaders ? new byte[count][] : null;
+    }
+
+    long getCentralDirectoryCrc() {
+        return centralDirectoryCrc;
+    }
+
+    long getCentralDirectoryLength() {
+        return centralDirectoryLength;
+    }
+
+    long getCentralDirectoryOffset() {
+        return centralDirectoryOffset;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getDataOffset(final int entry) {
+        return dataOffsets[entry];
+    }
+
+    long getFirstLocalFileHeaderOffset() {
+        return firstLocalFileHeaderOffset;
+    }
+
+    byte[] getLocalExtra(final int entry) {
+        return localExtras[entry];
+    }
+
+    boolean hasLocalFileHeaders() {
+        return dataOffsets != null;
+    }
+
+    void setLocalFileHeader(final int entry, final long dataOffset, final byte[] localExtra) {
+        dataOffsets[entry] = dataOffset;
+        localExtras[entry] = localExtra;
+    }
+
+    /**
+     * Writes the cache for the given archive, replacing the file atomically if the file system supports it.
+     *
+     * @param file    the cache file.
+     * @param archive the archive.
+     * @throws IOException if the file or the attributes of the archive cannot be written or read.
+     */
+    void write(final Path file, final Path archive) throws IOException {
+        final Path absolute = file.toAbsolutePath();
+        final Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                final byte[] key = key(archive);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(Files.size(archive));
+                out.writeLong(Files.getLastModifiedTime(archive).toMillis());
+                out.writeLong(firstLocalFileHeaderOffset);
+                out.writeLong(centralDirectoryOffset);
+                out.writeLong(centralDirectoryLength);
+                out.writeLong(centralDirectoryCrc);
+                out.writeInt(count);
+                out.writeBoolean(hasLocalFileHeaders());
+                if (hasLocalFileHeaders()) {
+                    for (int i = 0; i < count; i++) {
+                        out.writeLong(dataOffsets[i]);
+                        out.writeShort(localExtras[i].length);
+                        out.write(localExtras[i]);
+                    }
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.zip;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash index from entry names to the records of a central directory.
+ * <p>
+ * Only the hash codes of the names and the offsets of the records are kept, so the index needs at most six {@code int}s per record. Records are identified
+ * by their position inside the central directory, records whose names share a hash code are returned in that order and callers need to compare the actual
+ * names.
+ * </p>
+ */
+final class CentralDirectoryIndex {
+
+    private static final int[] EMPTY = {};
+
+    /** Offsets of the records inside the central directory, indexed by record. */
+    private final int[] offsets;
+
+    /** Hash codes of the names, indexed by record. */
+    private final int[] hashes;
+
+    /** Record plus one, zero marks an empty slot. */
+    private final int[] slots;
+
+    private final int size;
+
+    /**
+     * Builds the index for the first {@code size} elements of the given arrays, which are not copied.
+     *
+     * @param offsets offsets of the records inside the central directory.
+     * @param hashes  hash codes of the names of the records.
+     * @param size    number of records.
+     */
+    CentralDirectoryIndex(final int[] offsets, final int[] hashes, final int size) {
+        this.offsets = offsets;
+        this.hashes = hashes;
+        this.size = size;
+        // load factor of at most one half keeps probe sequences short
+        this.slots = new int[Integer.highestOneBit(Math.max(size, 1)) << 2];
+        final int mask = slots.length - 1;
+        for (int record = 0; record < size; record++) {
+            int slot = spread(hashes[record]) & mask;
+            while (slots[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+            slots[slot] = record + 1;
+        }
+    }
+
+    /**
+     * Finds the records whose names have the given hash code.
+     *
+     * @param hash the hash code of the name.
+     * @return the records in central directory order, may be empty.
+     */
+    int[] find(final int hash) {
+        final int mask = slots.length - 1;
+        int[] found = EMPTY;
+        int count = 0;
+        // linear probing places records with the same hash in insertion order
+        for (int slot = spread(hash) & mask; slots[slot] != 0; slot = slot + 1 & mask) {
+            final int record = slots[slot] - 1;
+            if (hashes[record] == hash) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, count + 1);
+                }
+                found[count++] = record;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets the offset of a record inside the central directory.
+     *
+     * @param record the record.
+     * @return the offset right behind the record's signature.
+     */
+    int getOffset(final int record) {
+        return offsets[record];
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return the number of records.
+     */
+    int size() {
+        return size;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ hash >>> 16;
+    }
+}
@@ -155,7 +155,8 @@ private void fillBuffer() throws IOException {
      */
     @Override
     public long getCompressedCount() {
-        return bits.getBytesRead() + treeSizes;
+        // whole bytes in the cache haven't been decoded so far
+        return bits.getBytesRead() - bits.bitsCached() / Byte.SIZE + treeSizes;
     }
 
     /**
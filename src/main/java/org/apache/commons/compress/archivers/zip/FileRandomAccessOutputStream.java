@@ -26,6 +26,8 @@
 import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 
+import org.apache.commons.compress.utils.BoundedArchiveInputStream;
+
 /**
  * {@link RandomAccessOutputStream} implementation based on a file.
  */
@@ -64,6 +66,19 @@ public synchronized long position() {
         return position;
     }
 
+    /**
+     * Transfers the remaining bytes of the given stream to the file, letting the operating system copy them if the stream is backed by a file.
+     *
+     * @param source the stream to transfer.
+     * @return the number of bytes transferred.
+     * @throws IOException if an I/O error occurs.
+     */
+    synchronized long transferFrom(final BoundedArchiveInputStream source) throws IOException {
+        final long transferred = source.transferTo(channel);
+        position += transferred;
+        return transferred;
+    }
+
     @Override
     public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
         ZipIoUtil.writeAll(channel, ByteBuffer.wrap(b, off, len));
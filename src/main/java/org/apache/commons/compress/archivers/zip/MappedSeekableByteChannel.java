@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.zip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A read-only {@link SeekableByteChannel} over a memory-mapped file.
+ * <p>
+ * The file is mapped in segments as a single {@link java.nio.MappedByteBuffer} is limited to 2 GiB. Reads copy from the mapped memory without system calls,
+ * positional reads and slices don't touch the channel position and may be used concurrently.
+ * </p>
+ * <p>
+ * The mapping stays valid until the segments are garbage collected, even after the channel has been closed.
+ * </p>
+ */
+final class MappedSeekableByteChannel implements SeekableByteChannel {
+
+    /** The default size of all segments but the last. */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+
+    private final int segmentSize;
+
+    private final ByteBuffer[] segments;
+
+    private final long size;
+
+    private long position;
+
+    private volatile boolean open = true;
+
+    /**
+     * Maps the whole file read-only, the given channel is closed when this channel is closed.
+     */
+    MappedSeekableByteChannel(final FileChannel channel) throws IOException {
+        this(channel, SEGMENT_SIZE);
+    }
+
+    MappedSeekableByteChannel(final FileChannel channel, final int segmentSize) throws IOException {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.size = channel.size();
+        this.segments = new ByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+        for (int i = 0; i < segments.length; i++) {
+            final long start = (long) i * segmentSize;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+        }
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        channel.close();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        final int read = read(dst, position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    /**
+     * Reads bytes starting at the given position without changing the position of this channel.
+     *
+     * @return the number of bytes read, -1 if the position is at or beyond the end of the file.
+     */
+    int read(final ByteBuffer dst, final long readPosition) throws IOException {
+        checkOpen();
+        if (readPosition >= size) {
+            return -1;
+        }
+        int read = 0;
+        long current = readPosition;
+        while (dst.hasRemaining() && current < size) {
+            final ByteBuffer segment = segments[(int) (current / segmentSize)].duplicate();
+            segment.position((int) (current % segmentSize));
+            if (segment.remaining() > dst.remaining()) {
+                segment.limit(segment.position() + dst.remaining());
+            }
+            final int n = segment.remaining();
+            dst.put(segment);
+            read += n;
+            current += n;
+        }
+        return read;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    /**
+     * Gets a read-only view of the given range of the file without copying.
+     *
+     * @return the view or null if the range crosses the boundary of two segments.
+     */
+    ByteBuffer slice(final long offset, final int length) throws IOException {
+        checkOpen();
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IllegalArgumentException("Range out of bounds: offset=" + offset + ", length=" + length + ", size=" + size);
+        }
+        if (length == 0) {
+            // the offset may be the end of the last segment or of an empty file
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        final int start = (int) (offset % segmentSize);
+        if (start + (long) length > segmentSize) {
+            return null;
+        }
+        final ByteBuffer segment = segments[(int) (offset / segmentSize)].asReadOnlyBuffer();
+        segment.position(start);
+        segment.limit(start + length);
+        return segment.slice();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(final ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+}
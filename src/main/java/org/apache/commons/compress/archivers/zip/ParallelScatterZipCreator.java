@@ -32,6 +32,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.zip.Deflater;
 
+import org.apache.commons.compress.compressors.deflate.ParallelDeflater;
 import org.apache.commons.compress.parallel.InputStreamSupplier;
 import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
 import org.apache.commons.compress.parallel.ScatterGatherBackingStoreSupplier;
@@ -48,6 +49,12 @@
  * The client can supply an {@link java.util.concurrent.ExecutorService}, but for reasons of memory model consistency, this will be shut down by this class
  * prior to completion.
  * </p>
+ * <p>
+ * By default every thread compresses its entries into a backing store of its own and {@link #writeTo writeTo} copies them to the target once all entries have
+ * been compressed. With a streaming gather, see {@link #ParallelScatterZipCreator(ExecutorService, ScatterGatherBackingStoreSupplier, int, boolean)}, every
+ * entry is compressed into a backing store of its own instead and {@link #writeTo writeTo} copies each entry as soon as it and all entries submitted before it
+ * have been compressed, closing its backing store right away, so copying overlaps with compressing the following entries.
+ * </p>
  *
  * @since 1.10
  */
@@ -64,6 +71,12 @@ public class ParallelScatterZipCreator {
 
     private final int compressionLevel;
 
+    private final boolean streamingGather;
+
+    private volatile ExecutorService deflateExecutorService;
+
+    private volatile int deflateChunkSize;
+
     private final ThreadLocal<ScatterZipOutputStream> tlScatterStreams = new ThreadLocal<ScatterZipOutputStream>() {
         @Override
         protected ScatterZipOutputStream initialValue() {
@@ -115,6 +128,27 @@ public ParallelScatterZipCreator(final ExecutorService executorService, final Sc
      */
     public ParallelScatterZipCreator(final ExecutorService executorService, final ScatterGatherBackingStoreSupplier backingStoreSupplier,
             final int compressionLevel) throws IllegalArgumentException {
+        this(executorService, backingStoreSupplier, compressionLevel, false);
+    }
+
+    /**
+     * Constructs a ParallelScatterZipCreator
+     * <p>
+     * With a streaming gather every entry is compressed into a backing store obtained from {@code backingStoreSupplier} for this entry alone, and
+     * {@link #writeTo writeTo} writes entries in submission order as soon as they have been compressed while later entries are still being compressed. This
+     * works best with a backing store that is cheap to create for small entries. Callables passed to {@link #submit submit} must then return the
+     * {@link ScatterZipOutputStream} returned by the callable created by {@link #createCallable createCallable}.
+     * </p>
+     *
+     * @param executorService      The executorService to use. For technical reasons, this will be shut down by this class.
+     * @param backingStoreSupplier The supplier of backing store which shall be used
+     * @param compressionLevel     The compression level used in compression, this value should be -1(default level) or between 0~9.
+     * @param streamingGather      Whether to write entries to the target while later entries are still being compressed.
+     * @throws IllegalArgumentException if the compression level is illegal
+     * @since 1.28.0
+     */
+    public ParallelScatterZipCreator(final ExecutorService executorService, final ScatterGatherBackingStoreSupplier backingStoreSupplier,
+            final int compressionLevel, final boolean streamingGather) throws IllegalArgumentException {
         if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
             throw new IllegalArgumentException("Compression level is expected between -1~9");
         }
@@ -122,6 +156,7 @@ public ParallelScatterZipCreator(final ExecutorService executorService, final Sc
         this.backingStoreSupplier = backingStoreSupplier;
         this.executorService = executorService;
         this.compressionLevel = compressionLevel;
+        this.streamingGather = streamingGather;
     }
 
     /**
@@ -182,7 +217,7 @@ public final Callable<ScatterZipOutputStream> createCallable(final ZipArchiveEnt
         }
         final ZipArchiveEntryRequest zipArchiveEntryRequest = createZipArchiveEntryRequest(zipArchiveEntry, source);
         return () -> {
-            final ScatterZipOutputStream scatterStream = tlScatterStreams.get();
+            final ScatterZipOutputStream scatterStream = scatterStream();
             scatterStream.addArchiveEntry(zipArchiveEntryRequest);
             return scatterStream;
         };
@@ -206,7 +241,7 @@ public final Callable<ScatterZipOutputStream> createCallable(final ZipArchiveEnt
      */
     public final Callable<ScatterZipOutputStream> createCallable(final ZipArchiveEntryRequestSupplier zipArchiveEntryRequestSupplier) {
         return () -> {
-            final ScatterZipOutputStream scatterStream = tlScatterStreams.get();
+            final ScatterZipOutputStream scatterStream = scatterStream();
             scatterStream.addArchiveEntry(zipArchiveEntryRequestSupplier.get());
             return scatterStream;
         };
@@ -217,6 +252,7 @@ private ScatterZipOutputStream createDeferred(final ScatterGatherBackingStoreSup
         final ScatterGatherBackingStore bs = scatterGatherBackingStoreSupplier.get();
         // lifecycle is bound to the ScatterZipOutputStream returned
         final StreamCompressor sc = StreamCompressor.create(compressionLevel, bs); // NOSONAR
+        sc.setParallelDeflate(deflateExecutorService, compressionLevel, deflateChunkSize, Runtime.getRuntime().availableProcessors());
         return new ScatterZipOutputStream(bs, sc);
     }
 
@@ -229,6 +265,42 @@ public ScatterStatistics getStatisticsMessage() {
         return new ScatterStatistics(compressionDoneAt - startedAt, scatterDoneAt - compressionDoneAt);
     }
 
+    /**
+     * Gets the scatter stream to compress the next entry into, the stream of the current thread or, with a streaming gather, a stream for this entry alone.
+     */
+    private ScatterZipOutputStream scatterStream() throws IOException {
+        if (!streamingGather) {
+            return tlScatterStreams.get();
+        }
+        final ScatterZipOutputStream scatterStream = createDeferred(backingStoreSupplier);
+        streams.add(scatterStream);
+        return scatterStream;
+    }
+
+    /**
+     * Sets an executor to deflate large entries in parallel, null deflates every entry on the thread compressing it, the default.
+     * <p>
+     * Must be called before the first entry is added. The data of a {@link ZipArchiveEntry#DEFLATED DEFLATED} entry larger than the chunk size is split into
+     * chunks which are deflated concurrently and still form a single standard DEFLATED entry, see
+     * {@link ZipArchiveOutputStream#setParallelDeflate(ExecutorService, int)}. This helps archives dominated by a few huge entries.
+     * </p>
+     * <p>
+     * The executor must not be the one compressing the entries, as those tasks wait for the chunk tasks. This class does not shut down the executor.
+     * </p>
+     *
+     * @param executorService the executor used to deflate chunks, may be null.
+     * @param chunkSize       the number of uncompressed bytes deflated by one task, at least 32 KiB.
+     * @throws IllegalArgumentException if the chunk size is smaller than 32 KiB.
+     * @since 1.28.0
+     */
+    public void setParallelDeflate(final ExecutorService executorService, final int chunkSize) {
+        if (executorService != null && chunkSize < ParallelDeflater.DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("chunkSize(" + chunkSize + ") < " + ParallelDeflater.DICTIONARY_SIZE);
+        }
+        this.deflateChunkSize = chunkSize;
+        this.deflateExecutorService = executorService;
+    }
+
     /**
      * Submits a callable for compression.
      *
@@ -237,8 +309,14 @@ public ScatterStatistics getStatisticsMessage() {
      */
     public final void submit(final Callable<? extends Object> callable) {
         submitStreamAwareCallable(() -> {
-            callable.call();
-            return tlScatterStreams.get();
+            final Object result = callable.call();
+            if (!streamingGather) {
+                return tlScatterStreams.get();
+            }
+            if (!(result instanceof ScatterZipOutputStream)) {
+                throw new IllegalStateException("With a streaming gather the callable must return the ScatterZipOutputStream of its entry");
+            }
+            return (ScatterZipOutputStream) result;
         });
     }
 
@@ -262,6 +340,10 @@ public final void submitStreamAwareCallable(final Callable<? extends ScatterZipO
      * Calling this method will shut down the {@link ExecutorService} used by this class. If any of the {@link Callable}s {@link #submitStreamAwareCallable
      * submit}ted to this instance throws an exception, the archive cannot be created properly and this method will throw an exception.
      * </p>
+     * <p>
+     * With a streaming gather, entries are written while later entries are still being compressed and the statistics report the time until the last entry
+     * has been compressed and written as compression time.
+     * </p>
      *
      * @param targetStream The {@link ZipArchiveOutputStream} to receive the contents of the scatter streams
      * @throws IOException          If writing fails
@@ -269,7 +351,10 @@ public final void submitStreamAwareCallable(final Callable<? extends ScatterZipO
      * @throws ExecutionException   If something happens in the parallel execution
      */
     public void writeTo(final ZipArchiveOutputStream targetStream) throws IOException, InterruptedException, ExecutionException {
-
+        if (streamingGather) {
+            writeToStreaming(targetStream);
+            return;
+        }
         try {
             // Make sure we catch any exceptions from parallel phase
             try {
@@ -299,4 +384,35 @@ public void writeTo(final ZipArchiveOutputStream targetStream) throws IOExceptio
             closeAll();
         }
     }
+
+    private void writeToStreaming(final ZipArchiveOutputStream targetStream) throws IOException, InterruptedException, ExecutionException {
+        boolean success = false;
+        try {
+            try {
+                for (final Future<? extends ScatterZipOutputStream> future : futures) {
+                    // later entries are still being compressed while this one is written
+                    final ScatterZipOutputStream scatterStream = future.get();
+                    try {
+                        scatterStream.writeTo(targetStream);
+                    } finally {
+                        scatterStream.close();
+                        streams.remove(scatterStream);
+                    }
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    futures.forEach(future -> future.cancel(true));
+                }
+                executorService.shutdown();
+            }
+
+            executorService.awaitTermination(1000 * 60L, TimeUnit.SECONDS); // == Infinity. We really *must* wait for this to complete
+
+            compressionDoneAt = System.currentTimeMillis();
+            scatterDoneAt = compressionDoneAt;
+        } finally {
+            closeAll();
+        }
+    }
 }
@@ -26,10 +26,12 @@
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 
+import org.apache.commons.compress.compressors.deflate.ParallelDeflater;
 import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
 
 /**
@@ -182,6 +184,8 @@ static StreamCompressor create(final SeekableByteChannel os, final Deflater defl
     private long totalWrittenToOutputStream;
     private final byte[] outputBuffer = new byte[BUFFER_SIZE];
     private final byte[] readerBuf = new byte[BUFFER_SIZE];
+    private ParallelDeflater parallelDeflater;
+    private boolean deflatedInParallel;
 
     StreamCompressor(final Deflater deflater) {
         this.deflater = deflater;
@@ -189,7 +193,23 @@ static StreamCompressor create(final SeekableByteChannel os, final Deflater defl
 
     @Override
     public void close() throws IOException {
-        deflater.end();
+        try {
+            deflater.end();
+        } finally {
+            if (parallelDeflater != null) {
+                parallelDeflater.close();
+            }
+        }
+    }
+
+    /**
+     * Counts bytes written to the output without going through this instance.
+     *
+     * @param length the number of bytes written.
+     */
+    void countWritten(final long length) {
+        writtenToOutputStreamForLastEntry += length;
+        totalWrittenToOutputStream += length;
     }
 
     void deflate() throws IOException {
@@ -224,6 +244,11 @@ private void deflateUntilInputIsNeeded() throws IOException {
     }
 
     void flushDeflater() throws IOException {
+        if (parallelDeflater != null) {
+            deflatedInParallel = true;
+            parallelDeflater.finish(this::writeCounted);
+            return;
+        }
         deflater.finish();
         while (!deflater.finished()) {
             deflate();
@@ -254,7 +279,7 @@ public long getBytesWrittenForLastEntry() {
      * @return the CRC-32
      */
     public long getCrc32() {
-        return crc.getValue();
+        return deflatedInParallel ? parallelDeflater.getCrc32() : crc.getValue();
     }
 
     /**
@@ -269,6 +294,10 @@ public long getTotalBytesWritten() {
     void reset() {
         crc.reset();
         deflater.reset();
+        if (parallelDeflater != null) {
+            parallelDeflater.reset();
+        }
+        deflatedInParallel = false;
         sourcePayloadLength = 0;
         writtenToOutputStreamForLastEntry = 0;
     }
@@ -285,16 +314,55 @@ void reset() {
      */
     long write(final byte[] b, final int offset, final int length, final int method) throws IOException {
         final long current = writtenToOutputStreamForLastEntry;
-        crc.update(b, offset, length);
-        if (method == ZipEntry.DEFLATED) {
+        if (method == ZipEntry.DEFLATED && parallelDeflater != null) {
+            // the chunk tasks compute the checksum
+            deflatedInParallel = true;
+            parallelDeflater.write(b, offset, length, this::writeCounted);
+        } else if (method == ZipEntry.DEFLATED) {
+            crc.update(b, offset, length);
             writeDeflated(b, offset, length);
         } else {
+            crc.update(b, offset, length);
             writeCounted(b, offset, length);
         }
         sourcePayloadLength += length;
         return writtenToOutputStreamForLastEntry - current;
     }
 
+    /**
+     * Sets the compression level of the chunks deflated in parallel, if enabled.
+     *
+     * @param level the compression level.
+     */
+    void setParallelDeflateLevel(final int level) {
+        if (parallelDeflater != null) {
+            parallelDeflater.setLevel(level);
+        }
+    }
+
+    /**
+     * Deflates entries larger than a chunk in chunks on the given executor.
+     * <p>
+     * Must be called between entries. The entry data is buffered and deflated by {@link ParallelDeflater}, which produces a single deflate stream for each
+     * entry.
+     * </p>
+     *
+     * @param executorService the executor used to deflate chunks, null deflates all entries on the calling thread.
+     * @param level           the compression level.
+     * @param chunkSize       the number of uncompressed bytes deflated by one task, at least 32 KiB.
+     * @param parallelism     the maximum number of chunks deflated concurrently.
+     * @throws IllegalArgumentException if the chunk size is smaller than 32 KiB or the parallelism is smaller than 1.
+     */
+    void setParallelDeflate(final ExecutorService executorService, final int level, final int chunkSize, final int parallelism) {
+        if (parallelDeflater != null) {
+            parallelDeflater.close();
+            parallelDeflater = null;
+        }
+        if (executorService != null) {
+            parallelDeflater = new ParallelDeflater(executorService, level, Deflater.DEFAULT_STRATEGY, BUFFER_SIZE, chunkSize, parallelism);
+        }
+    }
+
     /**
      * Writes the specified byte array to the output stream.
      *
@@ -41,7 +41,8 @@ final class UnshrinkingInputStream extends LZWInputStream {
      * @param inputStream
      */
     UnshrinkingInputStream(final InputStream inputStream) {
-        super(inputStream, ByteOrder.LITTLE_ENDIAN);
+        // the stream is bounded by the compressed size of the entry, so it may be read ahead
+        super(inputStream, ByteOrder.LITTLE_ENDIAN, true);
         setClearCode(DEFAULT_CODE_SIZE);
         initializeTables(MAX_CODE_SIZE);
         isUsed = new boolean[getPrefixesLength()];
@@ -26,6 +26,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
@@ -129,6 +130,63 @@ private int readCount(final int bytesRead) {
 
     }
 
+    /**
+     * Keeps the most recently read bytes so a decompressor that reads ahead of the end of an entry of unknown size can give them back.
+     * <p>
+     * Single reads are limited to half of the pushback buffer so the bytes read ahead always fit into it.
+     * </p>
+     */
+    private static final class ReadAheadInputStream extends FilterInputStream {
+
+        private static final int MAX_READ = ZipArchiveOutputStream.BUFFER_SIZE / 2;
+
+        private final byte[] tail = new byte[ZipArchiveOutputStream.BUFFER_SIZE];
+        private int tailLength;
+        private long count;
+
+        ReadAheadInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, Math.min(len, MAX_READ));
+            if (read > 0) {
+                record(b, off, read);
+            }
+            return read;
+        }
+
+        private void record(final byte[] b, final int off, final int len) {
+            final int keep = Math.min(tailLength, tail.length - len);
+            System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+            System.arraycopy(b, off, tail, keep, len);
+            tailLength = keep + len;
+            count += len;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            return IOUtils.skip(this, n);
+        }
+
+        /**
+         * Pushes back the bytes read beyond the given number of consumed bytes.
+         */
+        void unread(final PushbackInputStream target, final long consumed) throws IOException {
+            final int readAhead = (int) Math.min(count - consumed, tailLength);
+            if (readAhead > 0) {
+                target.unread(tail, tailLength - readAhead, readAhead);
+            }
+        }
+    }
+
     /**
      * Structure collecting information for the entry that is currently being read.
      */
@@ -173,6 +231,11 @@ private static final class CurrentEntry {
          */
         private InputStream inputStream;
 
+        /**
+         * Tracks the bytes read by {@link #inputStream} if it has to find the end of the entry's data by itself.
+         */
+        private ReadAheadInputStream readAheadStream;
+
         @SuppressWarnings("unchecked") // Caller beware
         private <T extends InputStream> T checkInputStream() {
             return (T) Objects.requireNonNull(inputStream, "inputStream");
@@ -501,6 +564,11 @@ private void closeEntry() throws IOException {
             if (currentEntryHasOutstandingBytes()) {
                 drainCurrentEntryData();
             }
+
+            // Give back what the decompressor has read beyond the end of the entry
+            if (current.readAheadStream != null) {
+                current.readAheadStream.unread((PushbackInputStream) in, ((InputStreamStatistics) current.inputStream).getCompressedCount());
+            }
         }
 
         if (lastStoredEntry == null && current.hasDataDescriptor) {
@@ -801,7 +869,8 @@ public ZipArchiveEntry getNextZipEntry() throws IOException {
                 }
             }
         } else if (m == ZipMethod.ENHANCED_DEFLATED) {
-            current.inputStream = new Deflate64CompressorInputStream(in);
+            current.readAheadStream = new ReadAheadInputStream(in);
+            current.inputStream = new Deflate64CompressorInputStream(current.readAheadStream);
         }
 
         entriesRead++;
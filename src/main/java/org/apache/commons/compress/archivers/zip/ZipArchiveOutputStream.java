@@ -34,11 +34,13 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.Deflater;
 import java.util.zip.ZipException;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.utils.BoundedArchiveInputStream;
 import org.apache.commons.compress.utils.ByteUtils;
 import org.apache.commons.io.Charsets;
 
@@ -631,6 +633,13 @@ private void copyFromZipInputStream(final InputStream src, final boolean phased)
             ZipUtil.checkRequestedFeatures(entry.entry);
         }
         entry.hasWritten = true;
+        if (src instanceof BoundedArchiveInputStream && out instanceof FileRandomAccessOutputStream) {
+            // raw data of a ZipFile, copied channel to channel
+            final long length = ((FileRandomAccessOutputStream) out).transferFrom((BoundedArchiveInputStream) src);
+            streamCompressor.countWritten(length);
+            count(length);
+            return;
+        }
         int length;
         while ((length = src.read(copyBuffer)) >= 0) {
             streamCompressor.writeCounted(copyBuffer, 0, length);
@@ -1233,6 +1242,7 @@ private void putArchiveEntry(final ZipArchiveEntry archiveEntry, final boolean p
 
         if (entry.entry.getMethod() == DEFLATED && hasCompressionLevelChanged) {
             def.setLevel(level);
+            streamCompressor.setParallelDeflateLevel(level);
             hasCompressionLevelChanged = false;
         }
         writeLocalFileHeader(archiveEntry, phased);
@@ -1390,6 +1400,32 @@ public void setMethod(final int method) {
         this.method = method;
     }
 
+    /**
+     * Sets an executor to deflate large entries in parallel, null deflates all entries on the calling thread, the default.
+     * <p>
+     * The data of each {@link #DEFLATED} entry is split into chunks of the given size which are deflated concurrently. Each chunk is primed with the last 32
+     * KiB of the preceding data as preset dictionary and ends with a sync flush, and the CRC-32 values of the chunks are combined, so each entry still is a
+     * single standard DEFLATED entry. Entries that fit into one chunk are deflated on the calling thread just like without an executor. Up to one chunk per
+     * available processor is deflated at a time.
+     * </p>
+     * <p>
+     * The compressed data of entries larger than a chunk usually is a little larger than without an executor, as deflate blocks end at chunk boundaries. This
+     * stream does not shut down the executor.
+     * </p>
+     *
+     * @param executorService the executor used to deflate chunks, may be null.
+     * @param chunkSize       the number of uncompressed bytes deflated by one task, at least 32 KiB.
+     * @throws IllegalArgumentException if the chunk size is smaller than 32 KiB.
+     * @throws IllegalStateException    if an entry is open.
+     * @since 1.28.0
+     */
+    public void setParallelDeflate(final ExecutorService executorService, final int chunkSize) {
+        if (entry != null) {
+            throw new IllegalStateException("Cannot change parallel deflate while an entry is open");
+        }
+        streamCompressor.setParallelDeflate(executorService, level, chunkSize, Runtime.getRuntime().availableProcessors());
+    }
+
     /**
      * Sets whether to set the language encoding flag if the file name encoding is UTF-8.
      * <p>
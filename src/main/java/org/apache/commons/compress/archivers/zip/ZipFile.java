@@ -26,28 +26,40 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.Inflater;
 import java.util.zip.ZipException;
 
@@ -58,6 +70,7 @@
 import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
 import org.apache.commons.compress.utils.BoundedArchiveInputStream;
 import org.apache.commons.compress.utils.BoundedSeekableByteChannelInputStream;
+import org.apache.commons.compress.utils.FutureUtils;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.compress.utils.InputStreamStatistics;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
@@ -111,6 +124,47 @@ protected int read(final long pos, final ByteBuffer buf) throws IOException {
             buf.flip();
             return read;
         }
+
+        @Override
+        protected long transferTo(final long pos, final long count, final WritableByteChannel target) throws IOException {
+            return archive.transferTo(pos, count, target);
+        }
+    }
+
+    /**
+     * Lock-free implementation of BoundedInputStream reading from a memory-mapped archive.
+     */
+    private static final class BoundedMappedInputStream extends BoundedArchiveInputStream {
+        private final MappedSeekableByteChannel archive;
+
+        BoundedMappedInputStream(final long start, final long remaining, final MappedSeekableByteChannel archive) {
+            super(start, remaining);
+            this.archive = archive;
+        }
+
+        @Override
+        protected int read(final long pos, final ByteBuffer buf) throws IOException {
+            final int read = archive.read(buf, pos);
+            buf.flip();
+            return read;
+        }
+
+        @Override
+        protected long transferTo(final long pos, final long count, final WritableByteChannel target) throws IOException {
+            if (pos < 0 || count > archive.size() - pos) {
+                throw new IOException("Truncated ZIP entry");
+            }
+            final int length = (int) Math.min(count, Integer.MAX_VALUE);
+            // writes straight from the mapped memory unless the range crosses two segments
+            final ByteBuffer slice = length > 0 ? archive.slice(pos, length) : null;
+            if (slice == null) {
+                return super.transferTo(pos, count, target);
+            }
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            return length;
+        }
     }
 
     /**
@@ -135,8 +189,12 @@ public static class Builder extends AbstractStreamBuilder<ZipFile, Builder> {
 
         static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
         private SeekableByteChannel seekableByteChannel;
+        private Path centralDirectoryCache;
+        private ExecutorService executorService;
         private boolean useUnicodeExtraFields = true;
         private boolean ignoreLocalFileHeader;
+        private boolean lazyCentralDirectory;
+        private boolean memoryMapped;
         private long maxNumberOfDisks = 1;
         private IOFunction<InputStream, InputStream> zstdInputStreamFactory;
 
@@ -152,6 +210,7 @@ public Builder() {
         public ZipFile get() throws IOException {
             final SeekableByteChannel actualChannel;
             final String actualDescription;
+            Path cachedArchive = null;
             if (seekableByteChannel != null) {
                 actualChannel = seekableByteChannel;
                 actualDescription = actualChannel.getClass().getSimpleName();
@@ -166,10 +225,70 @@ public ZipFile get() throws IOException {
                 final Path path = getPath();
                 actualChannel = openZipChannel(path, maxNumberOfDisks, openOptions);
                 actualDescription = path.toString();
+                if (!(actualChannel instanceof ZipSplitReadOnlySeekableByteChannel)) {
+                    cachedArchive = path;
+                }
             }
             final boolean closeOnError = seekableByteChannel != null;
-            return new ZipFile(actualChannel, actualDescription, getCharset(), useUnicodeExtraFields, closeOnError, ignoreLocalFileHeader,
-                    zstdInputStreamFactory);
+            return new ZipFile(memoryMapped ? map(actualChannel) : actualChannel, actualDescription, getCharset(), useUnicodeExtraFields, closeOnError,
+                    ignoreLocalFileHeader || lazyCentralDirectory, lazyCentralDirectory, cachedArchive != null ? centralDirectoryCache : null, cachedArchive,
+                    executorService, zstdInputStreamFactory);
+        }
+
+        private SeekableByteChannel map(final SeekableByteChannel channel) throws IOException {
+            if (!(channel instanceof FileChannel)) {
+                return channel;
+            }
+            try {
+                return new MappedSeekableByteChannel((FileChannel) channel);
+            } catch (final IOException | RuntimeException e) {
+                if (seekableByteChannel == null) {
+                    org.apache.commons.io.IOUtils.closeQuietly(channel);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Sets the file caching what is needed to open the archive, defaults to {@code null} for no cache.
+         * <p>
+         * Opening an archive searches for the end of central directory record and, unless {@link #setIgnoreLocalFileHeader(boolean)} is set, reads the local
+         * file header of every entry. The cache records where the central directory is and the data offsets and local extra fields of all entries, so
+         * opening the archive again reads the cache and the central directory sequentially and nothing else. The resulting entries are the same.
+         * </p>
+         * <p>
+         * The cache is keyed by the absolute path, size and last modification time of the archive and the CRC-32 of its central directory. A cache that
+         * doesn't match the archive, or lacks the local file headers when they are needed, is replaced after the archive has been opened the normal way.
+         * The cache file is replaced atomically if the file system supports it. The cache is only used for archives given as path or file that are not split
+         * and is ignored by {@link #setLazyCentralDirectory(boolean)}.
+         * </p>
+         *
+         * @param centralDirectoryCache the cache file, {@code null} for no cache.
+         * @return {@code this} instance.
+         * @since 1.28.0
+         */
+        public Builder setCentralDirectoryCache(final Path centralDirectoryCache) {
+            this.centralDirectoryCache = centralDirectoryCache;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to read local file headers concurrently while opening the archive, defaults to {@code null} to read them on the calling
+         * thread.
+         * <p>
+         * Local file headers are read in the order they appear in the archive and headers close to each other are read at once. With an executor, the
+         * headers are split into batches of consecutive headers that are read by tasks submitted to the executor, which speeds up opening archives on storage
+         * with high latency. Only archives read from a {@link FileChannel}, which includes archives given as path or file that are not split, are read
+         * concurrently. The executor is not used if {@link #setIgnoreLocalFileHeader(boolean)} is set and it is not shut down.
+         * </p>
+         *
+         * @param executorService the executor or {@code null}.
+         * @return {@code this} instance.
+         * @since 1.28.0
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
         }
 
         /**
@@ -183,6 +302,50 @@ public Builder setIgnoreLocalFileHeader(final boolean ignoreLocalFileHeader) {
             return this;
         }
 
+        /**
+         * Sets whether to create entries on demand, defaults to {@code false}.
+         * <p>
+         * When enabled, opening the archive reads the central directory into memory and indexes the names of its records but doesn't create any
+         * {@link ZipArchiveEntry}. {@link ZipFile#getEntry(String)} and {@link ZipFile#getEntries(String)} only create the entries they return, methods that
+         * return all entries create all of them once. This speeds up opening big archives of which only a few entries are read and saves the memory of the
+         * entries that are never used.
+         * </p>
+         * <p>
+         * Local file headers are not read when the archive is opened, just like with {@link #setIgnoreLocalFileHeader(boolean)}. As central directory records
+         * are only parsed when their entries are created, errors in these records are reported as {@link UncheckedIOException} by the methods creating the
+         * entries. The central directory must be smaller than 2 GiB.
+         * </p>
+         *
+         * @param lazyCentralDirectory whether to create entries on demand.
+         * @return {@code this} instance.
+         * @since 1.28.0
+         */
+        public Builder setLazyCentralDirectory(final boolean lazyCentralDirectory) {
+            this.lazyCentralDirectory = lazyCentralDirectory;
+            return this;
+        }
+
+        /**
+         * Sets whether to memory-map the archive, defaults to {@code false}.
+         * <p>
+         * Parsing the central directory, resolving local file headers and reading entries then copy from mapped memory instead of issuing a system call for
+         * every read, and {@link ZipFile#getRawByteBuffer(ZipArchiveEntry)} returns views of the mapped memory. This pays off for archives that are opened and
+         * read often. The archive is mapped in segments of 1 GiB, so archives larger than 2 GiB are supported.
+         * </p>
+         * <p>
+         * Only archives read from a {@link FileChannel}, which includes archives given as path or file that are not split, are mapped. The mapping is released
+         * when it is garbage collected, not when the {@link ZipFile} is closed, which on some platforms prevents deleting the file until then.
+         * </p>
+         *
+         * @param memoryMapped whether to memory-map the archive.
+         * @return {@code this} instance.
+         * @since 1.28.0
+         */
+        public Builder setMemoryMapped(final boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
         /**
          * Sets max number of multi archive disks, default is 1 (no multi archive).
          *
@@ -256,6 +419,68 @@ public int hashCode() {
         }
     }
 
+    /**
+     * A window of the archive holding local file headers, refilled with positional reads where the channel supports them.
+     */
+    private final class LocalFileHeaderWindow {
+
+        private final long archiveSize;
+
+        private ByteBuffer buffer = ByteBuffer.allocate(LFH_WINDOW_SIZE);
+
+        private long start;
+
+        LocalFileHeaderWindow() throws IOException {
+            this.archiveSize = archive.size();
+            buffer.limit(0);
+        }
+
+        byte[] array() {
+            return buffer.array();
+        }
+
+        boolean contains(final long position, final int length) {
+            return position >= start && position + length <= start + buffer.limit();
+        }
+
+        /**
+         * Reads at least {@code length} and up to {@code end - position} bytes starting at {@code position}.
+         */
+        void fill(final long position, final int length, final long end) throws IOException {
+            final long available = archiveSize - position;
+            if (position < 0 || available < length) {
+                throw new EOFException();
+            }
+            final int size = (int) Math.min(Math.max(length, Math.min(end - position, LFH_WINDOW_SIZE)), available);
+            if (size > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(size);
+            }
+            buffer.clear();
+            buffer.limit(size);
+            while (buffer.hasRemaining()) {
+                if (read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            start = position;
+        }
+
+        int offset(final long position) {
+            return (int) (position - start);
+        }
+
+        private int read(final ByteBuffer dst, final long position) throws IOException {
+            if (archive instanceof MappedSeekableByteChannel) {
+                return ((MappedSeekableByteChannel) archive).read(dst, position);
+            }
+            if (archive instanceof FileChannel) {
+                return ((FileChannel) archive).read(dst, position);
+            }
+            archive.position(position);
+            return archive.read(dst);
+        }
+    }
+
     private static final class NameAndComment {
         private final byte[] name;
         private final byte[] comment;
@@ -320,6 +545,29 @@ public long getUncompressedCount() {
 
     private static final long CFH_SIG = ZipLong.getValue(ZipArchiveOutputStream.CFH_SIG);
 
+    /**
+     * Offset of the general purpose bit flag inside a "central directory" entry structure relative to the end of its signature.
+     */
+    private static final int CFH_GPB_OFFSET =
+    // @formatter:off
+        /* version made by                 */ ZipConstants.SHORT
+        /* version needed to extract       */ + ZipConstants.SHORT;
+    // @formatter:on
+
+    /**
+     * Offset of the file name length inside a "central directory" entry structure relative to the end of its signature.
+     */
+    private static final int CFH_FILENAME_LENGTH_OFFSET = CFH_GPB_OFFSET
+    // @formatter:off
+        /* general purpose bit flag        */ + ZipConstants.SHORT
+        /* compression method              */ + ZipConstants.SHORT
+        /* last mod file time              */ + ZipConstants.SHORT
+        /* last mod file date              */ + ZipConstants.SHORT
+        /* CRC-32                          */ + ZipConstants.WORD
+        /* compressed size                 */ + ZipConstants.WORD
+        /* uncompressed size               */ + ZipConstants.WORD;
+    // @formatter:on
+
     /**
      * Length of the "End of central directory record" - which is supposed to be the last structure of the archive - without file comment.
      */
@@ -480,6 +728,22 @@ public long getUncompressedCount() {
         /* uncompressed size               */ + (long) ZipConstants.WORD;
     // @formatter:on
 
+    /**
+     * Minimum number of bytes read behind the start of a local file header when reading local file headers at once, enough for the name and extra field of
+     * most entries.
+     */
+    private static final int LFH_READ_AHEAD = 512;
+
+    /**
+     * Maximum number of bytes read at once when reading local file headers, unless a single header is bigger.
+     */
+    private static final int LFH_WINDOW_SIZE = 64 * 1024;
+
+    /**
+     * Number of local file headers read by a single task when reading them concurrently.
+     */
+    private static final int LFH_BATCH_SIZE = 1024;
+
     /**
      * Compares two ZipArchiveEntries based on their offset within the archive.
      * <p>
@@ -688,6 +952,26 @@ private static boolean tryToLocateSignature(final SeekableByteChannel channel, f
      */
     private final Map<String, LinkedList<ZipArchiveEntry>> nameMap = new HashMap<>(HASH_SIZE);
 
+    /**
+     * Index of the central directory records when entries are created on demand, null otherwise.
+     */
+    private final CentralDirectoryIndex centralDirectoryIndex;
+
+    /**
+     * The central directory when entries are created on demand, released once all entries have been created.
+     */
+    private byte[] centralDirectory;
+
+    /**
+     * Entries created on demand, indexed like the central directory records.
+     */
+    private Entry[] centralDirectoryEntries;
+
+    /**
+     * Whether {@link #entries} and {@link #nameMap} hold all entries.
+     */
+    private volatile boolean allEntriesCreated;
+
     /**
      * The encoding to use for file names and the file comment.
      * <p>
@@ -747,6 +1031,11 @@ private static boolean tryToLocateSignature(final SeekableByteChannel channel, f
 
     private long centralDirectoryStartOffset;
 
+    /**
+     * Length of the central directory records, only known when they have been read by {@link #populateFromCentralDirectory()}.
+     */
+    private long centralDirectoryLength;
+
     private long firstLocalFileHeaderOffset;
 
     /**
@@ -912,7 +1201,8 @@ public ZipFile(final SeekableByteChannel channel, final String encoding) throws
     }
 
     private ZipFile(final SeekableByteChannel channel, final String channelDescription, final Charset encoding, final boolean useUnicodeExtraFields,
-            final boolean closeOnError, final boolean ignoreLocalFileHeader, final IOFunction<InputStream, InputStream> zstdInputStream) throws IOException {
+            final boolean closeOnError, final boolean ignoreLocalFileHeader, final boolean lazyCentralDirectory, final Path cacheFile,
+            final Path cachedArchive, final ExecutorService executorService, final IOFunction<InputStream, InputStream> zstdInputStream) throws IOException {
         this.isSplitZipArchive = channel instanceof ZipSplitReadOnlySeekableByteChannel;
         this.encoding = Charsets.toCharset(encoding, Builder.DEFAULT_CHARSET);
         this.zipEncoding = ZipEncodingHelper.getZipEncoding(encoding);
@@ -921,11 +1211,21 @@ private ZipFile(final SeekableByteChannel channel, final String channelDescripti
         this.zstdInputStreamFactory = zstdInputStream;
         boolean success = false;
         try {
-            final Map<ZipArchiveEntry, NameAndComment> entriesWithoutUTF8Flag = populateFromCentralDirectory();
-            if (!ignoreLocalFileHeader) {
-                resolveLocalFileHeaderData(entriesWithoutUTF8Flag);
+            if (lazyCentralDirectory) {
+                centralDirectoryIndex = indexCentralDirectory();
+                centralDirectoryEntries = new Entry[centralDirectoryIndex.size()];
+            } else {
+                centralDirectoryIndex = null;
+                if (cacheFile == null || !populateFromCache(cacheFile, cachedArchive, ignoreLocalFileHeader)) {
+                    final Map<ZipArchiveEntry, NameAndComment> entriesWithoutUTF8Flag = populateFromCentralDirectory();
+                    final byte[][] localExtras = ignoreLocalFileHeader ? null : resolveLocalFileHeaderData(entriesWithoutUTF8Flag, executorService);
+                    if (cacheFile != null) {
+                        writeCache(cacheFile, cachedArchive, localExtras);
+                    }
+                }
+                fillNameMap();
+                allEntriesCreated = true;
             }
-            fillNameMap();
             success = true;
         } catch (final IOException e) {
             throw new IOException("Error reading Zip content from " + channelDescription, e);
@@ -987,7 +1287,8 @@ public ZipFile(final SeekableByteChannel channel, final String channelDescriptio
 
     private ZipFile(final SeekableByteChannel channel, final String channelDescription, final String encoding, final boolean useUnicodeExtraFields,
             final boolean closeOnError, final boolean ignoreLocalFileHeader) throws IOException {
-        this(channel, channelDescription, Charsets.toCharset(encoding), useUnicodeExtraFields, closeOnError, ignoreLocalFileHeader, null);
+        this(channel, channelDescription, Charsets.toCharset(encoding), useUnicodeExtraFields, closeOnError, ignoreLocalFileHeader, false, null, null, null,
+                null);
     }
 
     /**
@@ -1063,6 +1364,29 @@ public void copyRawEntries(final ZipArchiveOutputStream target, final ZipArchive
         }
     }
 
+    /**
+     * Creates all entries not created yet when entries are created on demand and fills {@link #entries} and {@link #nameMap}.
+     *
+     * @throws UncheckedIOException if a central directory record is corrupt.
+     */
+    private void createAllEntries() {
+        if (!allEntriesCreated) {
+            synchronized (centralDirectoryIndex) {
+                if (!allEntriesCreated) {
+                    final List<ZipArchiveEntry> created = new ArrayList<>(centralDirectoryIndex.size());
+                    for (int record = 0; record < centralDirectoryIndex.size(); record++) {
+                        created.add(createEntry(record));
+                    }
+                    entries.addAll(created);
+                    fillNameMap();
+                    // all records have been parsed
+                    centralDirectory = null;
+                    allEntriesCreated = true;
+                }
+            }
+        }
+    }
+
     /**
      * Creates new BoundedInputStream, according to implementation of underlying archive channel.
      */
@@ -1070,10 +1394,37 @@ private BoundedArchiveInputStream createBoundedInputStream(final long start, fin
         if (start < 0 || remaining < 0 || start + remaining < start) {
             throw new IllegalArgumentException("Corrupted archive, stream boundaries" + " are out of range");
         }
+        if (archive instanceof MappedSeekableByteChannel) {
+            return new BoundedMappedInputStream(start, remaining, (MappedSeekableByteChannel) archive);
+        }
         return archive instanceof FileChannel ? new BoundedFileChannelInputStream(start, remaining, (FileChannel) archive)
                 : new BoundedSeekableByteChannelInputStream(start, remaining, archive);
     }
 
+    /**
+     * Creates the entry of a central directory record when entries are created on demand, or returns the entry created before.
+     *
+     * @param record the index of the record.
+     * @return the entry.
+     * @throws UncheckedIOException if the record is corrupt.
+     */
+    private Entry createEntry(final int record) {
+        synchronized (centralDirectoryIndex) {
+            Entry entry = centralDirectoryEntries[record];
+            if (entry == null) {
+                try {
+                    final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel(centralDirectory);
+                    channel.position(centralDirectoryIndex.getOffset(record));
+                    entry = readCentralDirectoryEntry(channel, null);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                centralDirectoryEntries[record] = entry;
+            }
+            return entry;
+        }
+    }
+
     /**
      * Creates an InputStream for the Zstd compression method.
      *
@@ -1087,6 +1438,66 @@ InputStream createZstdInputStream(final InputStream in) throws IOException {
         return zstdInputStreamFactory != null ? zstdInputStreamFactory.apply(in) : new ZstdCompressorInputStream(in);
     }
 
+    /**
+     * Extracts all entries this class is able to read into the given directory, reading and writing several entries concurrently.
+     * <p>
+     * The data offsets of all entries are resolved and all directories are created on the calling thread first. The entries are then copied to their files by
+     * tasks submitted to the given executor. When the archive is read from a {@link FileChannel} the tasks read with positional reads and don't block each
+     * other. Entries this class cannot read, see {@link #canReadEntryData(ZipArchiveEntry)}, are skipped, and of several entries with the same name only the
+     * last one in the central directory is extracted. If a copy fails, this method waits for the copies already running to finish before it throws.
+     * </p>
+     *
+     * @param targetDirectory the directory to extract to.
+     * @param executorService the executor running the copy tasks, it is not shut down.
+     * @throws IOException if an entry would be extracted outside of the target directory, reading the archive or writing a file fails.
+     * @since 1.28.0
+     */
+    public void extractAll(final Path targetDirectory, final ExecutorService executorService) throws IOException {
+        final Path target = targetDirectory.normalize();
+        final Map<Path, ZipArchiveEntry> files = new LinkedHashMap<>();
+        createAllEntries();
+        for (final ZipArchiveEntry entry : entries) {
+            final Path path = entry.resolveIn(target);
+            if (entry.isDirectory()) {
+                Files.createDirectories(path);
+            } else if (canReadEntryData(entry)) {
+                // resolving the offset may read the local file header through the shared channel
+                getDataOffset(entry);
+                Files.createDirectories(path.getParent());
+                files.remove(path);
+                files.put(path, entry);
+            }
+        }
+        final List<Future<?>> copies = new ArrayList<>(files.size());
+        // copies hold the read lock while they run, so taking the write lock waits for the running ones
+        final ReadWriteLock running = new ReentrantReadWriteLock();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            files.forEach((path, entry) -> copies.add(executorService.submit(() -> {
+                running.readLock().lock();
+                try {
+                    if (!stopped.get()) {
+                        try (InputStream in = getInputStream(entry)) {
+                            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                } finally {
+                    running.readLock().unlock();
+                }
+                return null;
+            })));
+            for (final Future<?> copy : copies) {
+                FutureUtils.get(copy);
+            }
+        } finally {
+            // don't interrupt running copies as an interrupted read closes a FileChannel, wait for them to finish instead
+            stopped.set(true);
+            copies.forEach(copy -> copy.cancel(false));
+            running.writeLock().lock();
+            running.writeLock().unlock();
+        }
+    }
+
     private void fillNameMap() {
         entries.forEach(ze -> {
             // entries are filled in populateFromCentralDirectory and
@@ -1151,6 +1562,7 @@ public String getEncoding() {
      * @return all entries as {@link ZipArchiveEntry} instances
      */
     public Enumeration<ZipArchiveEntry> getEntries() {
+        createAllEntries();
         return Collections.enumeration(entries);
     }
 
@@ -1162,7 +1574,7 @@ public Enumeration<ZipArchiveEntry> getEntries() {
      * @since 1.6
      */
     public Iterable<ZipArchiveEntry> getEntries(final String name) {
-        return nameMap.getOrDefault(name, ZipArchiveEntry.EMPTY_LINKED_LIST);
+        return getEntryList(name);
     }
 
     /**
@@ -1175,6 +1587,7 @@ public Iterable<ZipArchiveEntry> getEntries(final String name) {
      * @since 1.1
      */
     public Enumeration<ZipArchiveEntry> getEntriesInPhysicalOrder() {
+        createAllEntries();
         final ZipArchiveEntry[] allEntries = entries.toArray(ZipArchiveEntry.EMPTY_ARRAY);
         return Collections.enumeration(Arrays.asList(sortByOffset(allEntries)));
     }
@@ -1187,7 +1600,7 @@ public Enumeration<ZipArchiveEntry> getEntriesInPhysicalOrder() {
      * @since 1.6
      */
     public Iterable<ZipArchiveEntry> getEntriesInPhysicalOrder(final String name) {
-        final LinkedList<ZipArchiveEntry> linkedList = nameMap.getOrDefault(name, ZipArchiveEntry.EMPTY_LINKED_LIST);
+        final LinkedList<ZipArchiveEntry> linkedList = getEntryList(name);
         return Arrays.asList(sortByOffset(linkedList.toArray(ZipArchiveEntry.EMPTY_ARRAY)));
     }
 
@@ -1201,10 +1614,36 @@ public Iterable<ZipArchiveEntry> getEntriesInPhysicalOrder(final String name) {
      * @return the ZipArchiveEntry corresponding to the given name - or {@code null} if not present.
      */
     public ZipArchiveEntry getEntry(final String name) {
+        if (!allEntriesCreated) {
+            for (final int record : centralDirectoryIndex.find(name.hashCode())) {
+                final Entry entry = createEntry(record);
+                if (name.equals(entry.getName())) {
+                    return entry;
+                }
+            }
+            return null;
+        }
         final LinkedList<ZipArchiveEntry> entries = nameMap.get(name);
         return entries != null ? entries.getFirst() : null;
     }
 
+    /**
+     * Gets all named entries in the same order they appear within the archive's central directory, creating them if necessary.
+     */
+    private LinkedList<ZipArchiveEntry> getEntryList(final String name) {
+        if (!allEntriesCreated) {
+            final LinkedList<ZipArchiveEntry> found = new LinkedList<>();
+            for (final int record : centralDirectoryIndex.find(name.hashCode())) {
+                final Entry entry = createEntry(record);
+                if (name.equals(entry.getName())) {
+                    found.add(entry);
+                }
+            }
+            return found;
+        }
+        return nameMap.getOrDefault(name, ZipArchiveEntry.EMPTY_LINKED_LIST);
+    }
+
     /**
      * Gets the offset of the first local file header in the file.
      *
@@ -1231,8 +1670,9 @@ public InputStream getInputStream(final ZipArchiveEntry entry) throws IOExceptio
 
         // doesn't get closed if the method is not supported - which
         // should never happen because of the checkRequestedFeatures
-        // call above
-        final InputStream is = new BufferedInputStream(getRawInputStream(entry)); // NOSONAR
+        // call above, reads from mapped memory need no buffering
+        final InputStream rawInputStream = getRawInputStream(entry);
+        final InputStream is = archive instanceof MappedSeekableByteChannel ? rawInputStream : new BufferedInputStream(rawInputStream); // NOSONAR
         switch (ZipMethod.getMethodByCode(entry.getMethod())) {
         case STORED:
             return new StoredStatisticsStream(is);
@@ -1288,6 +1728,45 @@ public void close() throws IOException {
         }
     }
 
+    /**
+     * Gets the raw data of the archive entry (compressed form) as a read-only buffer, which for {@link ZipMethod#STORED STORED} entries is the content.
+     * <p>
+     * When the archive is memory-mapped, see {@link Builder#setMemoryMapped(boolean)}, the buffer is a view of the mapped memory unless the entry crosses a
+     * segment boundary, otherwise the data is read into a new buffer.
+     * </p>
+     *
+     * @param entry The entry to get the data for.
+     * @return The raw data or null if the entry does not belong to this archive.
+     * @throws IOException if the entry is larger than 2 GiB or there is a problem reading the data.
+     * @since 1.28.0
+     */
+    public ByteBuffer getRawByteBuffer(final ZipArchiveEntry entry) throws IOException {
+        if (!(entry instanceof Entry)) {
+            return null;
+        }
+        final long start = getDataOffset(entry);
+        if (start == EntryStreamOffsets.OFFSET_UNKNOWN) {
+            return null;
+        }
+        final long size = entry.getCompressedSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Entry " + entry.getName() + " is too large for a ByteBuffer: " + size);
+        }
+        if (start < 0 || size < 0 || size > archive.size() - start) {
+            throw new IOException("Truncated ZIP entry " + entry.getName());
+        }
+        if (archive instanceof MappedSeekableByteChannel) {
+            final ByteBuffer slice = ((MappedSeekableByteChannel) archive).slice(start, (int) size);
+            if (slice != null) {
+                return slice;
+            }
+        }
+        try (InputStream in = createBoundedInputStream(start, size)) {
+            final byte[] data = org.apache.commons.io.IOUtils.toByteArray(in, (int) size);
+            return ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Gets the raw stream of the archive entry (compressed form).
      * <p>
@@ -1334,6 +1813,126 @@ public String getUnixSymlink(final ZipArchiveEntry entry) throws IOException {
         return null;
     }
 
+    /**
+     * Reads the central directory of the given archive into memory and indexes the names of its records without creating any ZipArchiveEntry.
+     *
+     * @return the index of the central directory records.
+     */
+    private CentralDirectoryIndex indexCentralDirectory() throws IOException {
+        positionAtCentralDirectory();
+        centralDirectoryStartOffset = archive.position();
+
+        // the end of central directory records follow the central directory, reading them too saves parsing the sizes
+        final long length = archive.size() - centralDirectoryStartOffset;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Central directory is too large to be read into memory: " + length);
+        }
+        final byte[] cd = new byte[(int) length];
+        IOUtils.readFully(archive, ByteBuffer.wrap(cd));
+
+        int[] offsets = new int[Math.max(16, cd.length / 128)];
+        int[] hashes = new int[offsets.length];
+        int count = 0;
+        int off = 0;
+        while (true) {
+            if (off + ZipConstants.WORD > cd.length) {
+                throw new EOFException();
+            }
+            if (ZipLong.getValue(cd, off) != CFH_SIG) {
+                break;
+            }
+            off += ZipConstants.WORD;
+            if (off + CFH_LEN > cd.length) {
+                throw new EOFException();
+            }
+            final boolean hasUTF8Flag = GeneralPurposeBit.parse(cd, off + CFH_GPB_OFFSET).usesUTF8ForNames();
+            final ZipEncoding entryEncoding = hasUTF8Flag ? ZipEncodingHelper.ZIP_ENCODING_UTF_8 : zipEncoding;
+            final int fileNameLen = ZipShort.getValue(cd, off + CFH_FILENAME_LENGTH_OFFSET);
+            final int extraLen = ZipShort.getValue(cd, off + CFH_FILENAME_LENGTH_OFFSET + ZipConstants.SHORT);
+            final int commentLen = ZipShort.getValue(cd, off + CFH_FILENAME_LENGTH_OFFSET + 2 * ZipConstants.SHORT);
+            final int nameStart = off + CFH_LEN;
+            final int end = nameStart + fileNameLen + extraLen + commentLen;
+            if (end > cd.length) {
+                throw new EOFException();
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            offsets[count] = off;
+            hashes[count] = entryEncoding.decode(Arrays.copyOfRange(cd, nameStart, nameStart + fileNameLen)).hashCode();
+            count++;
+            off = end;
+        }
+        if (count == 0 && startsWithLocalFileHeader()) {
+            throw new IOException("Central directory is empty, can't expand" + " corrupt archive.");
+        }
+        centralDirectory = cd;
+        return new CentralDirectoryIndex(offsets, hashes, count);
+    }
+
+    /**
+     * Populates the internal tables from the given cache file, the cache is only an optimization so any failure to use it is treated as a cache miss.
+     *
+     * @return whether the internal tables have been populated.
+     */
+    private boolean populateFromCache(final Path cacheFile, final Path cachedArchive, final boolean ignoreLocalFileHeader) {
+        final CentralDirectoryCache cache = CentralDirectoryCache.read(cacheFile, cachedArchive);
+        try {
+            return cache != null && populateFromCache(cache, ignoreLocalFileHeader);
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Populates the internal tables from the central directory located by the given cache and from the local file header data stored in the cache.
+     *
+     * @return whether the cache matched the archive, if not the internal tables are left untouched.
+     */
+    private boolean populateFromCache(final CentralDirectoryCache cache, final boolean ignoreLocalFileHeader) throws IOException {
+        if (!ignoreLocalFileHeader && !cache.hasLocalFileHeaders() || cache.getCentralDirectoryLength() > Integer.MAX_VALUE - 8) {
+            return false;
+        }
+        final byte[] cd = new byte[(int) cache.getCentralDirectoryLength()];
+        archive.position(cache.getCentralDirectoryOffset());
+        IOUtils.readFully(archive, ByteBuffer.wrap(cd));
+        final CRC32 crc = new CRC32();
+        crc.update(cd, 0, cd.length);
+        if (crc.getValue() != cache.getCentralDirectoryCrc()) {
+            return false;
+        }
+        firstLocalFileHeaderOffset = cache.getFirstLocalFileHeaderOffset();
+        centralDirectoryStartOffset = cache.getCentralDirectoryOffset();
+        centralDirectoryStartDiskNumber = 0;
+        centralDirectoryStartRelativeOffset = centralDirectoryStartOffset - firstLocalFileHeaderOffset;
+        centralDirectoryLength = cd.length;
+
+        final HashMap<ZipArchiveEntry, NameAndComment> noUTF8Flag = new HashMap<>();
+        final List<Entry> cached = new ArrayList<>(cache.getCount());
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel(cd);
+        while (channel.position() < cd.length) {
+            wordBbuf.rewind();
+            IOUtils.readFully(channel, wordBbuf);
+            if (ZipLong.getValue(wordBuf) != CFH_SIG || cached.size() == cache.getCount()) {
+                return false;
+            }
+            cached.add(readCentralDirectoryEntry(channel, noUTF8Flag));
+        }
+        if (cached.size() != cache.getCount()) {
+            return false;
+        }
+        if (!ignoreLocalFileHeader) {
+            for (int i = 0; i < cached.size(); i++) {
+                final Entry ze = cached.get(i);
+                ze.setDataOffset(cache.getDataOffset(i));
+                setLocalFileHeaderData(ze, cache.getLocalExtra(i), noUTF8Flag.get(ze));
+            }
+        }
+        entries.addAll(cached);
+        return true;
+    }
+
     /**
      * Reads the central directory of the given archive and populates the internal tables with ZipArchiveEntry instances.
      * <p>
@@ -1358,11 +1957,12 @@ private Map<ZipArchiveEntry, NameAndComment> populateFromCentralDirectory() thro
         }
 
         while (sig == CFH_SIG) {
-            readCentralDirectoryEntry(noUTF8Flag);
+            entries.add(readCentralDirectoryEntry(archive, noUTF8Flag));
             wordBbuf.rewind();
             IOUtils.readFully(archive, wordBbuf);
             sig = ZipLong.getValue(wordBuf);
         }
+        centralDirectoryLength = archive.position() - ZipConstants.WORD - centralDirectoryStartOffset;
         return noUTF8Flag;
     }
 
@@ -1467,14 +2067,16 @@ private void positionAtCentralDirectory64() throws IOException {
     }
 
     /**
-     * Reads an individual entry of the central directory, creates an ZipArchiveEntry from it and adds it to the global maps.
+     * Reads an individual entry of the central directory and creates an ZipArchiveEntry from it.
      *
+     * @param channel    the channel positioned right behind the signature of the entry.
      * @param noUTF8Flag map used to collect entries that don't have their UTF-8 flag set and whose name will be set by data read from the local file header
-     *                   later. The current entry may be added to this map.
+     *                   later, null if the local file headers are not read. The current entry may be added to this map.
+     * @return the entry.
      */
-    private void readCentralDirectoryEntry(final Map<ZipArchiveEntry, NameAndComment> noUTF8Flag) throws IOException {
+    private Entry readCentralDirectoryEntry(final SeekableByteChannel channel, final Map<ZipArchiveEntry, NameAndComment> noUTF8Flag) throws IOException {
         cfhBbuf.rewind();
-        IOUtils.readFully(archive, cfhBbuf);
+        IOUtils.readFully(channel, cfhBbuf);
         int off = 0;
         final Entry ze = new Entry();
 
@@ -1549,7 +2151,7 @@ private void readCentralDirectoryEntry(final Map<ZipArchiveEntry, NameAndComment
         ze.setExternalAttributes(ZipLong.getValue(cfhBuf, off));
         off += ZipConstants.WORD;
 
-        final byte[] fileName = IOUtils.readRange(archive, fileNameLen);
+        final byte[] fileName = IOUtils.readRange(channel, fileNameLen);
         if (fileName.length < fileNameLen) {
             throw new EOFException();
         }
@@ -1558,9 +2160,8 @@ private void readCentralDirectoryEntry(final Map<ZipArchiveEntry, NameAndComment
         // LFH offset,
         ze.setLocalHeaderOffset(ZipLong.getValue(cfhBuf, off) + firstLocalFileHeaderOffset);
         // data offset will be filled later
-        entries.add(ze);
 
-        final byte[] cdExtraData = IOUtils.readRange(archive, extraLen);
+        final byte[] cdExtraData = IOUtils.readRange(channel, extraLen);
         if (cdExtraData.length < extraLen) {
             throw new EOFException();
         }
@@ -1573,47 +2174,145 @@ private void readCentralDirectoryEntry(final Map<ZipArchiveEntry, NameAndComment
         setSizesAndOffsetFromZip64Extra(ze);
         sanityCheckLFHOffset(ze);
 
-        final byte[] comment = IOUtils.readRange(archive, commentLen);
+        final byte[] comment = IOUtils.readRange(channel, commentLen);
         if (comment.length < commentLen) {
             throw new EOFException();
         }
         ze.setComment(entryEncoding.decode(comment));
 
-        if (!hasUTF8Flag && useUnicodeExtraFields) {
+        if (!hasUTF8Flag && useUnicodeExtraFields && noUTF8Flag != null) {
             noUTF8Flag.put(ze, new NameAndComment(fileName, comment));
         }
 
         ze.setStreamContiguous(true);
+        return ze;
+    }
+
+    /**
+     * Adds the data available from the local file header to a single entry and records the offset of its data.
+     *
+     * @return the extra field of the local file header.
+     */
+    private byte[] resolveLocalFileHeaderData(final Entry ze, final NameAndComment nameAndComment) throws IOException {
+        final int[] lens = setDataOffset(ze);
+        final int fileNameLen = lens[0];
+        final int extraFieldLen = lens[1];
+        skipBytes(fileNameLen);
+        final byte[] localExtraData = IOUtils.readRange(archive, extraFieldLen);
+        if (localExtraData.length < extraFieldLen) {
+            throw new EOFException();
+        }
+        setLocalFileHeaderData(ze, localExtraData, nameAndComment);
+        return localExtraData;
+    }
+
+    /**
+     * Adds the data available from the local file header to the given range of entries and records the offsets of their data.
+     *
+     * @param cdOrder         the entries in central directory order.
+     * @param order           indexes into {@code cdOrder} sorted by the offset of the local file header.
+     * @param from            first index into {@code order}, inclusive.
+     * @param to              last index into {@code order}, exclusive.
+     * @param nameAndComments raw name and comment of entries whose name may be set from Unicode extra fields, in central directory order.
+     * @param localExtras     receives the extra fields of the local file headers in central directory order.
+     */
+    private void resolveLocalFileHeaderData(final Entry[] cdOrder, final int[] order, final int from, final int to,
+            final NameAndComment[] nameAndComments, final byte[][] localExtras) throws IOException {
+        final LocalFileHeaderWindow window = new LocalFileHeaderWindow();
+        final int lengthsEnd = (int) LFH_OFFSET_FOR_FILENAME_LENGTH + ZipConstants.SHORT + ZipConstants.SHORT;
+        for (int k = from; k < to; k++) {
+            final int i = order[k];
+            final Entry ze = cdOrder[i];
+            final long offset = ze.getLocalHeaderOffset();
+            if (!window.contains(offset, lengthsEnd)) {
+                // read ahead the headers of the following entries that fit into the window
+                long end = offset + LFH_READ_AHEAD;
+                for (int j = k + 1; j < to && cdOrder[order[j]].getLocalHeaderOffset() + LFH_READ_AHEAD - offset <= LFH_WINDOW_SIZE; j++) {
+                    end = cdOrder[order[j]].getLocalHeaderOffset() + LFH_READ_AHEAD;
+                }
+                window.fill(offset, lengthsEnd, end);
+            }
+            int off = window.offset(offset);
+            final int fileNameLen = ZipShort.getValue(window.array(), off + (int) LFH_OFFSET_FOR_FILENAME_LENGTH);
+            final int extraFieldLen = ZipShort.getValue(window.array(), off + (int) LFH_OFFSET_FOR_FILENAME_LENGTH + ZipConstants.SHORT);
+            final int headerLen = lengthsEnd + fileNameLen + extraFieldLen;
+            if (!window.contains(offset, headerLen)) {
+                window.fill(offset, headerLen, offset + headerLen);
+                off = 0;
+            }
+            ze.setDataOffset(offset + headerLen);
+            if (ze.getDataOffset() + ze.getCompressedSize() > centralDirectoryStartOffset) {
+                throw new IOException("data for " + ze.getName() + " overlaps with central directory.");
+            }
+            final byte[] localExtraData = Arrays.copyOfRange(window.array(), off + headerLen - extraFieldLen, off + headerLen);
+            setLocalFileHeaderData(ze, localExtraData, nameAndComments[i]);
+            localExtras[i] = localExtraData;
+        }
     }
 
     /**
      * Walks through all recorded entries and adds the data available from the local file header.
      * <p>
-     * Also records the offsets for the data to read from the entries.
+     * Also records the offsets for the data to read from the entries. Unless the archive is split, the local file headers are visited in the order they
+     * appear in the archive and headers close to each other are read at once, by several tasks if an executor is given and the channel supports positional
+     * reads.
      * </p>
+     *
+     * @return the extra fields of the local file headers in central directory order.
      */
-    private void resolveLocalFileHeaderData(final Map<ZipArchiveEntry, NameAndComment> entriesWithoutUTF8Flag) throws IOException {
-        for (final ZipArchiveEntry zipArchiveEntry : entries) {
-            // entries are filled in populateFromCentralDirectory and never modified
-            final Entry ze = (Entry) zipArchiveEntry;
-            final int[] lens = setDataOffset(ze);
-            final int fileNameLen = lens[0];
-            final int extraFieldLen = lens[1];
-            skipBytes(fileNameLen);
-            final byte[] localExtraData = IOUtils.readRange(archive, extraFieldLen);
-            if (localExtraData.length < extraFieldLen) {
-                throw new EOFException();
+    private byte[][] resolveLocalFileHeaderData(final Map<ZipArchiveEntry, NameAndComment> entriesWithoutUTF8Flag, final ExecutorService executorService)
+            throws IOException {
+        // entries are filled in populateFromCentralDirectory and never modified
+        final Entry[] cdOrder = entries.toArray(new Entry[0]);
+        final NameAndComment[] nameAndComments = new NameAndComment[cdOrder.length];
+        for (int i = 0; i < cdOrder.length; i++) {
+            nameAndComments[i] = entriesWithoutUTF8Flag.get(cdOrder[i]);
+        }
+        final byte[][] localExtras = new byte[cdOrder.length][];
+        if (isSplitZipArchive) {
+            for (int i = 0; i < cdOrder.length; i++) {
+                localExtras[i] = resolveLocalFileHeaderData(cdOrder[i], nameAndComments[i]);
             }
-            try {
-                ze.setExtra(localExtraData);
-            } catch (final RuntimeException e) {
-                throw ZipUtil.newZipException("Invalid extra data in entry " + ze.getName(), e);
+            return localExtras;
+        }
+        final int[] order = IntStream.range(0, cdOrder.length).boxed().sorted(Comparator.comparingLong(i -> cdOrder[i].getLocalHeaderOffset()))
+                .mapToInt(Integer::intValue).toArray();
+        final boolean positional = archive instanceof FileChannel || archive instanceof MappedSeekableByteChannel;
+        if (executorService == null || !positional || order.length <= LFH_BATCH_SIZE) {
+            resolveLocalFileHeaderData(cdOrder, order, 0, order.length, nameAndComments, localExtras);
+            return localExtras;
+        }
+        final List<Future<?>> batches = new ArrayList<>();
+        // batches hold the read lock while they run, so taking the write lock waits for the running ones
+        final ReadWriteLock running = new ReentrantReadWriteLock();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            for (int from = 0; from < order.length; from += LFH_BATCH_SIZE) {
+                final int batchFrom = from;
+                final int batchTo = Math.min(from + LFH_BATCH_SIZE, order.length);
+                batches.add(executorService.submit(() -> {
+                    running.readLock().lock();
+                    try {
+                        if (!stopped.get()) {
+                            resolveLocalFileHeaderData(cdOrder, order, batchFrom, batchTo, nameAndComments, localExtras);
+                        }
+                    } finally {
+                        running.readLock().unlock();
+                    }
+                    return null;
+                }));
             }
-            if (entriesWithoutUTF8Flag.containsKey(ze)) {
-                final NameAndComment nc = entriesWithoutUTF8Flag.get(ze);
-                ZipUtil.setNameAndCommentFromExtraFields(ze, nc.name, nc.comment);
+            for (final Future<?> batch : batches) {
+                FutureUtils.get(batch);
             }
+        } finally {
+            // don't interrupt running batches as an interrupted read closes a FileChannel, wait for them to finish instead
+            stopped.set(true);
+            batches.forEach(batch -> batch.cancel(false));
+            running.writeLock().lock();
+            running.writeLock().unlock();
         }
+        return localExtras;
     }
 
     private void sanityCheckLFHOffset(final ZipArchiveEntry entry) throws IOException {
@@ -1658,6 +2357,20 @@ private int[] setDataOffset(final ZipArchiveEntry entry) throws IOException {
         return new int[] { fileNameLen, extraFieldLen };
     }
 
+    /**
+     * Adds the extra field of the local file header to the entry and sets name and comment from Unicode extra fields if raw name and comment are given.
+     */
+    private void setLocalFileHeaderData(final Entry ze, final byte[] localExtraData, final NameAndComment nameAndComment) throws IOException {
+        try {
+            ze.setExtra(localExtraData);
+        } catch (final RuntimeException e) {
+            throw ZipUtil.newZipException("Invalid extra data in entry " + ze.getName(), e);
+        }
+        if (nameAndComment != null) {
+            ZipUtil.setNameAndCommentFromExtraFields(ze, nameAndComment.name, nameAndComment.comment);
+        }
+    }
+
     /**
      * If the entry holds a Zip64 extended information extra field, read sizes from there if the entry's sizes are set to 0xFFFFFFFFF, do the same for the
      * offset of the local file header.
@@ -1753,7 +2466,35 @@ private boolean startsWithLocalFileHeader() throws IOException {
      * @since 1.28.0
      */
     public IOStream<? extends ZipArchiveEntry> stream() {
+        createAllEntries();
         return IOStream.adapt(entries.stream());
     }
 
+    /**
+     * Writes the cache for an archive whose central directory and, unless {@code localExtras} is null, local file headers have been read.
+     * <p>
+     * The cache is only an optimization, so a cache that cannot be written is ignored.
+     * </p>
+     */
+    private void writeCache(final Path cacheFile, final Path cachedArchive, final byte[][] localExtras) {
+        try {
+            final CRC32 crc = new CRC32();
+            try (InputStream in = new CheckedInputStream(createBoundedInputStream(centralDirectoryStartOffset, centralDirectoryLength), crc)) {
+                org.apache.commons.io.IOUtils.consume(in);
+            }
+            final CentralDirectoryCache cache = new CentralDirectoryCache(firstLocalFileHeaderOffset, centralDirectoryStartOffset, centralDirectoryLength,
+                    crc.getValue(), entries.size(), localExtras != null);
+            if (localExtras != null) {
+                int i = 0;
+                for (final ZipArchiveEntry ze : entries) {
+                    cache.setLocalFileHeader(i, ze.getDataOffset(), localExtras[i]);
+                    i++;
+                }
+            }
+            cache.write(cacheFile, cachedArchive);
+        } catch (final IOException ignored) {
+            // the next ZipFile reads the central directory again
+        }
+    }
+
 }
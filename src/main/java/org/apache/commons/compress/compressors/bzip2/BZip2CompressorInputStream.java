@@ -24,6 +24,7 @@
  */
 package org.apache.commons.compress.compressors.bzip2;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteOrder;
@@ -32,6 +33,7 @@
 import org.apache.commons.compress.compressors.CompressorInputStream;
 import org.apache.commons.compress.utils.BitInputStream;
 import org.apache.commons.compress.utils.InputStreamStatistics;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CloseShieldInputStream;
 
 /**
@@ -101,6 +103,79 @@ int[] initTT(final int length) {
 
     }
 
+    /**
+     * Leaves the stream positioned after the first .bz2 stream when concatenated streams are not decompressed.
+     * <p>
+     * If the stream supports mark and reset it is marked before every read, so the bytes read beyond the end of the .bz2 stream can be given back by
+     * resetting it. Otherwise reads are limited to the bytes that are known to belong to the .bz2 stream: while a block is decoded the end of stream magic
+     * and the combined CRC are still ahead, so ten bytes beyond the bits consumed so far can always be read.
+     * </p>
+     */
+    private static final class ReadAheadInputStream extends FilterInputStream {
+
+        /** The end of stream magic and the combined CRC. */
+        private static final int END_OF_STREAM_BITS = 80;
+
+        private final boolean markSupported;
+        private final byte[] oneByte = new byte[1];
+        private BitInputStream bits;
+        private boolean inBlock;
+        private long count;
+        private long markedCount;
+        private long limit;
+
+        ReadAheadInputStream(final InputStream in) {
+            super(in);
+            this.markSupported = in.markSupported();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(oneByte, 0, 1) == 1 ? oneByte[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read;
+            if (markSupported) {
+                in.mark(len);
+                markedCount = count;
+                read = in.read(b, off, len);
+            } else {
+                if (inBlock) {
+                    // bits are only read from the underlying stream before they are consumed
+                    limit = Math.max(limit, bits.getBytesRead() * Byte.SIZE - bits.bitsCached() + END_OF_STREAM_BITS >>> 3);
+                }
+                read = in.read(b, off, (int) Math.max(1, Math.min(len, limit - count)));
+            }
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            return IOUtils.skip(this, n);
+        }
+
+        /**
+         * Gives back the bytes read beyond the given number of consumed bytes.
+         */
+        void unread(final long consumed) throws IOException {
+            if (markSupported && consumed < count && consumed >= markedCount) {
+                in.reset();
+                IOUtils.skip(in, consumed - markedCount);
+                count = consumed;
+            }
+        }
+    }
+
     private static final int EOF = 0;
 
     private static final int START_BLOCK_STATE = 1;
@@ -152,6 +227,27 @@ private static void checkBounds(final int checkVal, final int limitExclusive, fi
         }
     }
 
+    /**
+     * Decodes the next Huffman symbol, peeking at the longest possible code once instead of reading the code one bit at a time.
+     */
+    private static int decodeSymbol(final BitInputStream bin, final int[] limit, final int[] base, final int[] perm, final int minLen) throws IOException {
+        final int bits = (int) bin.peekBits(MAX_CODE_LEN);
+        int zn = minLen;
+        checkBounds(zn, MAX_CODE_LEN + 1, "zn");
+        int zvec = bits >>> MAX_CODE_LEN - zn;
+        while (zvec > limit[zn]) {
+            checkBounds(++zn, MAX_CODE_LEN + 1, "zn");
+            zvec = bits >>> MAX_CODE_LEN - zn;
+        }
+        if (zn > bin.bitsCached()) {
+            throw new IOException("Unexpected end of stream");
+        }
+        bin.skipBits(zn);
+        final int tmp = zvec - base[zn];
+        checkBounds(tmp, MAX_ALPHA_SIZE, "zvec");
+        return perm[tmp];
+    }
+
     /**
      * Called by createHuffmanDecodingTables() exclusively.
      */
@@ -226,6 +322,7 @@ public static boolean matches(final byte[] signature, final int length) {
     private final CRC crc = new CRC();
     private int nInUse;
     private BitInputStream bin;
+    private final ReadAheadInputStream readAheadStream;
     private final boolean decompressConcatenated;
     private int currentState = START_BLOCK_STATE;
     private int storedBlockCRC;
@@ -268,7 +365,12 @@ public BZip2CompressorInputStream(final InputStream in) throws IOException {
      * @throws IOException if {@code in == null}, the stream content is malformed, or an I/O error occurs.
      */
     public BZip2CompressorInputStream(final InputStream in, final boolean decompressConcatenated) throws IOException {
-        this.bin = new BitInputStream(in == System.in ? CloseShieldInputStream.wrap(in) : in, ByteOrder.BIG_ENDIAN);
+        final InputStream input = in == System.in ? CloseShieldInputStream.wrap(in) : in;
+        this.readAheadStream = decompressConcatenated ? null : new ReadAheadInputStream(input);
+        this.bin = new BitInputStream(decompressConcatenated ? input : readAheadStream, ByteOrder.BIG_ENDIAN, true);
+        if (readAheadStream != null) {
+            readAheadStream.bits = bin;
+        }
         this.decompressConcatenated = decompressConcatenated;
         init(true);
         initBlock();
@@ -294,9 +396,13 @@ private boolean complete() throws IOException {
         if (this.storedCombinedCRC != this.computedCombinedCRC) {
             throw new IOException("BZip2 CRC error");
         }
+        if (!decompressConcatenated) {
+            readAheadStream.unread(getCompressedCount());
+            return true;
+        }
         // Look for the next .bz2 stream if decompressing
         // concatenated files.
-        return !decompressConcatenated || !init(false);
+        return !init(false);
     }
 
     /**
@@ -405,16 +511,7 @@ private void getAndMoveToFrontDecode() throws IOException {
                         groupPos--;
                     }
 
-                    int zn = minLens_zt;
-                    checkBounds(zn, MAX_ALPHA_SIZE, "zn");
-                    int zvec = bsR(bin, zn);
-                    while (zvec > limit_zt[zn]) {
-                        checkBounds(++zn, MAX_ALPHA_SIZE, "zn");
-                        zvec = zvec << 1 | bsR(bin, 1);
-                    }
-                    final int tmp = zvec - base_zt[zn];
-                    checkBounds(tmp, MAX_ALPHA_SIZE, "zvec");
-                    nextSym = perm_zt[tmp];
+                    nextSym = decodeSymbol(bin, limit_zt, base_zt, perm_zt, minLens_zt);
                 }
                 checkBounds(s, this.data.ll8.length, "s");
 
@@ -468,16 +565,7 @@ private void getAndMoveToFrontDecode() throws IOException {
                     groupPos--;
                 }
 
-                int zn = minLens_zt;
-                checkBounds(zn, MAX_ALPHA_SIZE, "zn");
-                int zvec = bsR(bin, zn);
-                while (zvec > limit_zt[zn]) {
-                    checkBounds(++zn, MAX_ALPHA_SIZE, "zn");
-                    zvec = zvec << 1 | bsR(bin, 1);
-                }
-                final int idx = zvec - base_zt[zn];
-                checkBounds(idx, MAX_ALPHA_SIZE, "zvec");
-                nextSym = perm_zt[idx];
+                nextSym = decodeSymbol(bin, limit_zt, base_zt, perm_zt, minLens_zt);
             }
         }
 
@@ -488,18 +576,7 @@ private int getAndMoveToFrontDecode0() throws IOException {
         final Data dataShadow = this.data;
         final int zt = dataShadow.selector[0] & 0xff;
         checkBounds(zt, N_GROUPS, "zt");
-        final int[] limit_zt = dataShadow.limit[zt];
-        int zn = dataShadow.minLens[zt];
-        checkBounds(zn, MAX_ALPHA_SIZE, "zn");
-        int zvec = bsR(bin, zn);
-        while (zvec > limit_zt[zn]) {
-            checkBounds(++zn, MAX_ALPHA_SIZE, "zn");
-            zvec = zvec << 1 | bsR(bin, 1);
-        }
-        final int tmp = zvec - dataShadow.base[zt][zn];
-        checkBounds(tmp, MAX_ALPHA_SIZE, "zvec");
-
-        return dataShadow.perm[zt][tmp];
+        return decodeSymbol(bin, dataShadow.limit[zt], dataShadow.base[zt], dataShadow.perm[zt], dataShadow.minLens[zt]);
     }
 
     /**
@@ -507,7 +584,8 @@ private int getAndMoveToFrontDecode0() throws IOException {
      */
     @Override
     public long getCompressedCount() {
-        return bin.getBytesRead();
+        // whole bytes in the cache have only been peeked at
+        return bin.getBytesRead() - bin.bitsCached() / Byte.SIZE;
     }
 
     private boolean init(final boolean isFirstStream) throws IOException {
@@ -516,7 +594,8 @@ private boolean init(final boolean isFirstStream) throws IOException {
         }
 
         if (!isFirstStream) {
-            bin.clearBitCache();
+            // the cache may already hold whole bytes of the next stream
+            bin.alignWithByteBoundary();
         }
 
         final int magic0 = readNextByte(this.bin);
@@ -551,6 +630,10 @@ private void initBlock() throws IOException {
         char magic4;
         char magic5;
 
+        if (readAheadStream != null) {
+            // this may be the end of stream magic
+            readAheadStream.inBlock = false;
+        }
         while (true) {
             // Get the block magic bytes.
             magic0 = bsGetUByte(bin);
@@ -583,6 +666,9 @@ private void initBlock() throws IOException {
             this.currentState = EOF;
             throw new IOException("Bad block header");
         }
+        if (readAheadStream != null) {
+            readAheadStream.inBlock = true;
+        }
         this.storedBlockCRC = bsGetInt(bin);
         this.blockRandomised = bsR(bin, 1) == 1;
 
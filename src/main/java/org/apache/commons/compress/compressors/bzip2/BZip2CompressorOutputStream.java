@@ -20,9 +20,16 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.utils.FutureUtils;
+import org.apache.commons.io.build.AbstractStreamBuilder;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 
 /**
  * An output stream that compresses into the BZip2 format into another stream.
@@ -116,6 +123,14 @@
  * For decompression {@code BZip2CompressorInputStream} allocates less memory if the bzipped input is smaller than one block.
  * </p>
  *
+ * <h2>Parallel compression</h2>
+ * <p>
+ * BZip2 blocks are compressed independently of each other. When an {@link ExecutorService} is set with {@link Builder#setExecutorService(ExecutorService)},
+ * the block sorting and Huffman coding of each full block runs on that executor while the caller keeps filling the next block. The compressed blocks are
+ * written in order and the output is identical to the output of the single threaded stream. At most {@link Builder#setParallelism(int) parallelism} blocks are
+ * compressed at the same time, each of them needs the compression memory listed above.
+ * </p>
+ *
  * <p>
  * Instances of this class are not threadsafe.
  * </p>
@@ -128,6 +143,85 @@
  */
 public class BZip2CompressorOutputStream extends CompressorOutputStream<OutputStream> implements BZip2Constants {
 
+    // @formatter:off
+    /**
+     * Builds a new {@link BZip2CompressorOutputStream}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * BZip2CompressorOutputStream s = BZip2CompressorOutputStream.builder()
+     *   .setPath(path)
+     *   .setBlockSize(9)
+     *   .setExecutorService(executorService)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     * @since 1.28.0
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<BZip2CompressorOutputStream, Builder> {
+
+        private int blockSize = MAX_BLOCKSIZE;
+
+        private ExecutorService executorService;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Constructs a new builder of {@link BZip2CompressorOutputStream}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        @Override
+        public BZip2CompressorOutputStream get() throws IOException {
+            return new BZip2CompressorOutputStream(this);
+        }
+
+        /**
+         * Sets the block size as 100k units, defaults to {@link #MAX_BLOCKSIZE}.
+         *
+         * @param blockSize the block size as 100k units.
+         * @return this instance.
+         * @see BZip2CompressorOutputStream#chooseBlockSize(long)
+         */
+        public Builder setBlockSize(final int blockSize) {
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to compress blocks in parallel, defaults to {@code null} which compresses all blocks on the calling thread.
+         * <p>
+         * The stream does not shut down the executor.
+         * </p>
+         *
+         * @param executorService the executor used to compress blocks, or {@code null}.
+         * @return this instance.
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of blocks compressed at the same time when an executor is set, defaults to the number of available processors.
+         *
+         * @param parallelism the maximum number of blocks compressed at the same time.
+         * @return this instance.
+         */
+        public Builder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+    }
+
     static final class Data {
 
         // with blockSize 900k
@@ -201,6 +295,16 @@ static final class Data {
 
     private static final int LESSER_ICOST = 0;
 
+    /**
+     * Constructs a new builder of {@link BZip2CompressorOutputStream}.
+     *
+     * @return a new builder of {@link BZip2CompressorOutputStream}.
+     * @since 1.28.0
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
     /**
      * Chooses a blocksize based on the given length of the data to compress.
      *
@@ -397,6 +501,27 @@ private static void hbMakeCodeLengths(final byte[] len, final int[] freq, final
 
     private BlockSort blockSorter;
 
+    /**
+     * Compresses full blocks in parallel, {@code null} when all blocks are compressed on the calling thread.
+     */
+    private final ExecutorService executorService;
+
+    private final int parallelism;
+
+    /**
+     * Blocks submitted to the executor in stream order, each future yields the block encoder holding the compressed block.
+     */
+    private final Deque<Future<BZip2CompressorOutputStream>> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * Block encoders that are not in use.
+     */
+    private final Deque<BZip2CompressorOutputStream> idleBlockEncoders = new ArrayDeque<>();
+
+    private BZip2CompressorOutputStream(final Builder builder) throws IOException {
+        this(builder.getOutputStream(), builder.blockSize, builder.executorService, builder.parallelism);
+    }
+
     /**
      * Constructs a new {@code BZip2CompressorOutputStream} with a blocksize of 900k.
      *
@@ -420,6 +545,24 @@ public BZip2CompressorOutputStream(final OutputStream out) throws IOException {
      * @see #MAX_BLOCKSIZE
      */
     public BZip2CompressorOutputStream(final OutputStream out, final int blockSize) throws IOException {
+        this(out, blockSize, null, 1);
+    }
+
+    /**
+     * Constructs a block encoder that compresses single blocks handed over by a parallel stream into memory.
+     */
+    private BZip2CompressorOutputStream(final int blockSize) {
+        super(UnsynchronizedByteArrayOutputStream.builder().get());
+        this.blockSize100k = blockSize;
+        this.allowableBlockSize = this.blockSize100k * BASEBLOCKSIZE - 20;
+        this.executorService = null;
+        this.parallelism = 1;
+        this.data = new Data(blockSize);
+        this.blockSorter = new BlockSort(this.data);
+    }
+
+    private BZip2CompressorOutputStream(final OutputStream out, final int blockSize, final ExecutorService executorService, final int parallelism)
+            throws IOException {
         super(out);
         if (blockSize < 1) {
             throw new IllegalArgumentException("blockSize(" + blockSize + ") < 1");
@@ -427,9 +570,14 @@ public BZip2CompressorOutputStream(final OutputStream out, final int blockSize)
         if (blockSize > 9) {
             throw new IllegalArgumentException("blockSize(" + blockSize + ") > 9");
         }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") < 1");
+        }
         this.blockSize100k = blockSize;
         /* 20 is just a paranoia constant */
         this.allowableBlockSize = this.blockSize100k * BASEBLOCKSIZE - 20;
+        this.executorService = executorService;
+        this.parallelism = parallelism;
         init();
     }
 
@@ -472,6 +620,33 @@ private void bsW(final int n, final int v) throws IOException {
         this.bsLive = bsLiveShadow + n;
     }
 
+    /**
+     * Appends a block compressed by a block encoder, the block is not byte aligned in the stream.
+     */
+    private void bsWriteBlock(final BZip2CompressorOutputStream blockEncoder) throws IOException {
+        final byte[] bytes = ((UnsynchronizedByteArrayOutputStream) blockEncoder.out).toByteArray();
+        final OutputStream outShadow = this.out;
+        int bsLiveShadow = this.bsLive;
+        int bsBuffShadow = this.bsBuff;
+
+        for (final byte b : bytes) {
+            // inlined: bsW(8, b & 0xff);
+            while (bsLiveShadow >= 8) {
+                outShadow.write(bsBuffShadow >> 24); // write 8-bit
+                bsBuffShadow <<= 8;
+                bsLiveShadow -= 8;
+            }
+            bsBuffShadow |= (b & 0xff) << 24 - bsLiveShadow;
+            bsLiveShadow += 8;
+        }
+
+        this.bsBuff = bsBuffShadow;
+        this.bsLive = bsLiveShadow;
+        if (blockEncoder.bsLive > 0) {
+            bsW(blockEncoder.bsLive, blockEncoder.bsBuff >>> 32 - blockEncoder.bsLive);
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (!isClosed()) {
@@ -493,6 +668,61 @@ private void endBlock() throws IOException {
             return;
         }
 
+        if (this.executorService != null) {
+            submitBlock(blockCRC);
+        } else {
+            writeBlock(blockCRC);
+        }
+    }
+
+    /**
+     * Hands the current block over to an idle block encoder which compresses it on the executor, the current block continues with the empty buffers of the
+     * encoder.
+     */
+    private void submitBlock(final int blockCRC) throws IOException {
+        while (!this.pendingBlocks.isEmpty() && (this.pendingBlocks.size() >= this.parallelism || this.pendingBlocks.peekFirst().isDone())) {
+            writePendingBlock();
+        }
+        BZip2CompressorOutputStream blockEncoder = this.idleBlockEncoders.pollFirst();
+        if (blockEncoder == null) {
+            blockEncoder = new BZip2CompressorOutputStream(this.blockSize100k);
+        }
+        final Data filledData = this.data;
+        final BlockSort filledBlockSorter = this.blockSorter;
+        this.data = blockEncoder.data;
+        this.blockSorter = blockEncoder.blockSorter;
+        blockEncoder.data = filledData;
+        blockEncoder.blockSorter = filledBlockSorter;
+        blockEncoder.last = this.last;
+        final BZip2CompressorOutputStream encoder = blockEncoder;
+        this.pendingBlocks.addLast(this.executorService.submit(() -> {
+            encoder.writeBlock(blockCRC);
+            // flush complete bytes, the remaining bits are appended by bsWriteBlock
+            while (encoder.bsLive >= 8) {
+                encoder.out.write(encoder.bsBuff >> 24);
+                encoder.bsBuff <<= 8;
+                encoder.bsLive -= 8;
+            }
+            return encoder;
+        }));
+    }
+
+    /**
+     * Waits for the oldest pending block and appends it to the stream.
+     */
+    private void writePendingBlock() throws IOException {
+        final BZip2CompressorOutputStream blockEncoder = FutureUtils.get(this.pendingBlocks.removeFirst());
+        bsWriteBlock(blockEncoder);
+        ((UnsynchronizedByteArrayOutputStream) blockEncoder.out).reset();
+        blockEncoder.bsBuff = 0;
+        blockEncoder.bsLive = 0;
+        this.idleBlockEncoders.addLast(blockEncoder);
+    }
+
+    /**
+     * Compresses the current block and writes it to the bit stream.
+     */
+    private void writeBlock(final int blockCRC) throws IOException {
         /* sort the block and establish posn of original string */
         blockSort();
 
@@ -544,8 +774,16 @@ public void finish() throws IOException {
                 }
                 this.currentChar = -1;
                 endBlock();
+                while (!this.pendingBlocks.isEmpty()) {
+                    writePendingBlock();
+                }
                 endCompression();
             } finally {
+                for (final Future<BZip2CompressorOutputStream> pendingBlock : this.pendingBlocks) {
+                    pendingBlock.cancel(true);
+                }
+                this.pendingBlocks.clear();
+                this.idleBlockEncoders.clear();
                 this.blockSorter = null;
                 this.data = null;
             }
@@ -0,0 +1,632 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.bzip2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.utils.FutureUtils;
+import org.apache.commons.compress.utils.InputStreamStatistics;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.build.AbstractStreamBuilder;
+
+// @formatter:off
+/**
+ * An input stream that decompresses the BZip2 format, decoding several blocks in parallel.
+ * <p>
+ * BZip2 blocks are independent of each other and start with the 48-bit magic number {@code 0x314159265359}, which is not aligned to byte boundaries.
+ * This stream scans the compressed input for block and end of stream magic numbers, decodes the candidate blocks concurrently on an {@link ExecutorService}
+ * and returns the decompressed data in order. Each block CRC and the combined stream CRC are verified just like {@link BZip2CompressorInputStream} does.
+ * </p>
+ * <p>
+ * A magic number may also occur by chance inside of the compressed data of a block. A candidate block that fails to decode is joined with the following
+ * candidate and decoded again on the calling thread, so such a false match only costs time.
+ * </p>
+ * <p>
+ * For example:
+ * </p>
+ * <pre>{@code
+ * ParallelBZip2CompressorInputStream s = ParallelBZip2CompressorInputStream.builder()
+ *   .setPath(path)
+ *   .setExecutorService(executorService)
+ *   .get();
+ * }
+ * </pre>
+ * <p>
+ * Unlike {@link BZip2CompressorInputStream} this stream reads its input in large chunks and may read beyond the end of the first BZip2 stream when
+ * concatenated streams are not decompressed.
+ * </p>
+ *
+ * @NotThreadSafe
+ * @see BZip2CompressorInputStream
+ * @since 1.28.0
+ */
+// @formatter:on
+public class ParallelBZip2CompressorInputStream extends CompressorInputStream implements InputStreamStatistics {
+
+    // @formatter:off
+    /**
+     * Builds a new {@link ParallelBZip2CompressorInputStream}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * ParallelBZip2CompressorInputStream s = ParallelBZip2CompressorInputStream.builder()
+     *   .setPath(path)
+     *   .setExecutorService(executorService)
+     *   .setDecompressConcatenated(true)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<ParallelBZip2CompressorInputStream, Builder> {
+
+        private ExecutorService executorService;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        private boolean decompressConcatenated;
+
+        /**
+         * Constructs a new builder of {@link ParallelBZip2CompressorInputStream}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link ParallelBZip2CompressorInputStream}.
+         * <p>
+         * You must set input that supports {@link #getInputStream()} and an executor service, otherwise, this method throws an exception.
+         * </p>
+         *
+         * @return a new instance.
+         * @throws IOException          if the stream content is malformed or an I/O error occurs.
+         * @throws NullPointerException if no executor service is set.
+         */
+        @Override
+        public ParallelBZip2CompressorInputStream get() throws IOException {
+            return new ParallelBZip2CompressorInputStream(this);
+        }
+
+        /**
+         * Sets whether to decompress until the end of the input, defaults to {@code false} which stops after the first .bz2 stream.
+         *
+         * @param decompressConcatenated whether to decompress concatenated .bz2 streams.
+         * @return this instance.
+         */
+        public Builder setDecompressConcatenated(final boolean decompressConcatenated) {
+            this.decompressConcatenated = decompressConcatenated;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to decode blocks, required.
+         * <p>
+         * The stream does not shut down the executor.
+         * </p>
+         *
+         * @param executorService the executor used to decode blocks.
+         * @return this instance.
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of blocks decoded ahead of the reader, defaults to the number of available processors.
+         *
+         * @param parallelism the maximum number of blocks decoded ahead of the reader.
+         * @return this instance.
+         */
+        public Builder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+    }
+
+    /**
+     * A range of bits of the compressed input that starts with a magic number or continues a previous range.
+     */
+    private static final class Segment {
+
+        private final byte[] bytes;
+
+        /** Offset of the first bit in {@code bytes[0]}. */
+        private final int startBit;
+
+        private final int bitLength;
+
+        private final boolean endOfStream;
+
+        /** The block size character of the header of the stream the segment belongs to, '1' to '9'. */
+        private final int blockSize;
+
+        /** The decoded block when decoding has been submitted. */
+        private Future<byte[]> decoded;
+
+        Segment(final byte[] bytes, final int startBit, final int bitLength, final boolean endOfStream, final int blockSize) {
+            this.bytes = bytes;
+            this.startBit = startBit;
+            this.bitLength = bitLength;
+            this.endOfStream = endOfStream;
+            this.blockSize = blockSize;
+        }
+
+        /**
+         * Copies all bits of this segment to {@code dest} starting at bit {@code destBit}, which must be zero in {@code dest}.
+         */
+        void copyTo(final byte[] dest, final int destBit) {
+            for (int i = 0; i < bitLength; i += 8) {
+                final int n = Math.min(8, bitLength - i);
+                putBits(dest, destBit + i, n, getBits(bytes, startBit + i, n));
+            }
+        }
+
+        /**
+         * Gets the stored block or stream CRC following the magic number.
+         */
+        int getCRC() {
+            return getBits(bytes, startBit + MAGIC_BITS, 32);
+        }
+
+        Segment join(final Segment next) {
+            final int length = bitLength + next.bitLength;
+            final byte[] joined = new byte[(length + 7) / 8];
+            copyTo(joined, 0);
+            next.copyTo(joined, bitLength);
+            return new Segment(joined, 0, length, false, blockSize);
+        }
+    }
+
+    private static final int MAGIC_BITS = 48;
+
+    private static final long MAGIC_MASK = (1L << MAGIC_BITS) - 1;
+
+    private static final long BLOCK_MAGIC = 0x314159265359L;
+
+    private static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+
+    /**
+     * Upper bound of the compressed size of a block: 900k symbols of at most 20 bits plus the coding tables.
+     */
+    private static final int MAX_SEGMENT_BYTES = 3 * 1024 * 1024;
+
+    private static final byte[] EMPTY = {};
+
+    private static void cancel(final Segment segment) {
+        if (segment.decoded != null) {
+            segment.decoded.cancel(true);
+        }
+    }
+
+    /**
+     * Wraps the compressed bits of a single block into a complete BZip2 stream with the block size of the stream the block belongs to, the combined CRC of
+     * a stream with a single block is the block CRC.
+     */
+    private static byte[] createSingleBlockStream(final Segment block) {
+        final int blockCRC = block.getCRC();
+        final byte[] stream = new byte[(32 + block.bitLength + MAGIC_BITS + 32 + 7) / 8];
+        stream[0] = 'B';
+        stream[1] = 'Z';
+        stream[2] = 'h';
+        stream[3] = (byte) block.blockSize;
+        block.copyTo(stream, 32);
+        final int end = 32 + block.bitLength;
+        putBits(stream, end, 24, (int) (END_OF_STREAM_MAGIC >>> 24));
+        putBits(stream, end + 24, 24, (int) (END_OF_STREAM_MAGIC & 0xffffff));
+        putBits(stream, end + MAGIC_BITS, 16, blockCRC >>> 16);
+        putBits(stream, end + MAGIC_BITS + 16, 16, blockCRC & 0xffff);
+        return stream;
+    }
+
+    private static byte[] decode(final Segment block) throws IOException {
+        try (BZip2CompressorInputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(createSingleBlockStream(block)))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    /**
+     * Reads up to 32 big endian bits starting at bit offset {@code bit}.
+     */
+    private static int getBits(final byte[] bytes, final int bit, final int n) {
+        long value = 0;
+        final int first = bit >>> 3;
+        final int last = bit + n - 1 >>> 3;
+        for (int i = first; i <= last; i++) {
+            value = value << 8 | bytes[i] & 0xff;
+        }
+        final int unused = (last + 1 << 3) - (bit + n);
+        return (int) (value >>> unused & (1L << n) - 1);
+    }
+
+    /**
+     * Writes {@code n <= 24} big endian bits starting at bit offset {@code bit}, the target bits must be zero.
+     */
+    private static void putBits(final byte[] bytes, final int bit, final int n, final int value) {
+        int remaining = n;
+        int pos = bit;
+        while (remaining > 0) {
+            final int free = 8 - (pos & 7);
+            final int count = Math.min(free, remaining);
+            final int chunk = value >>> remaining - count & (1 << count) - 1;
+            bytes[pos >>> 3] |= chunk << free - count;
+            pos += count;
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Constructs a new builder of {@link ParallelBZip2CompressorInputStream}.
+     *
+     * @return a new builder of {@link ParallelBZip2CompressorInputStream}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final InputStream in;
+
+    private final ExecutorService executorService;
+
+    private final int parallelism;
+
+    private final boolean decompressConcatenated;
+
+    private final byte[] inBuffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE * 8];
+
+    private int inPosition;
+
+    private int inLimit;
+
+    private long compressedCount;
+
+    /** The bytes of the segment being scanned. */
+    private byte[] scan = new byte[IOUtils.DEFAULT_BUFFER_SIZE * 8];
+
+    private int scanLength;
+
+    /** Offset of the first bit of the segment being scanned in {@code scan[0]}. */
+    private int scanStartBit;
+
+    /** Whether the segment being scanned starts with an end of stream magic number. */
+    private boolean scanEndOfStream;
+
+    /** Whether the segment being scanned starts with a magic number. */
+    private boolean scanHasMagic;
+
+    /** The last eight bytes of the input. */
+    private long window;
+
+    /** Scanning stops after an end of stream candidate until the reader has checked it. */
+    private boolean scanPaused;
+
+    private boolean inputExhausted;
+
+    /** The block size character of the header of the current stream. */
+    private int blockSize;
+
+    private final Deque<Segment> pendingSegments = new ArrayDeque<>();
+
+
+    private int computedCombinedCRC;
+
+    private byte[] output = EMPTY;
+
+    private final byte[] oneByte = new byte[1];
+
+    private int outputPosition;
+
+    private boolean eof;
+
+    private boolean closed;
+
+    private ParallelBZip2CompressorInputStream(final Builder builder) throws IOException {
+        this.executorService = Objects.requireNonNull(builder.executorService, "executorService");
+        if (builder.parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + builder.parallelism + ") < 1");
+        }
+        this.parallelism = builder.parallelism;
+        this.decompressConcatenated = builder.decompressConcatenated;
+        this.in = builder.getInputStream();
+        if (!startStream(true)) {
+            throw new IOException("Stream is not in the BZip2 format");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            pendingSegments.forEach(ParallelBZip2CompressorInputStream::cancel);
+            pendingSegments.clear();
+            output = EMPTY;
+            in.close();
+        }
+    }
+
+    private void fillPipeline() throws IOException {
+        while (pendingSegments.size() < parallelism) {
+            final Segment segment = nextSegment();
+            if (segment == null) {
+                return;
+            }
+            if (!segment.endOfStream) {
+                segment.decoded = executorService.submit(() -> decode(segment));
+            }
+            pendingSegments.addLast(segment);
+        }
+    }
+
+    /**
+     * Gets the amount of compressed bytes read from the underlying stream, which may be ahead of the decompressed data returned so far.
+     */
+    @Override
+    public long getCompressedCount() {
+        return compressedCount;
+    }
+
+    /**
+     * Decodes a block that failed to decode by itself because a magic number occurred inside of its compressed data: joins it with the following segments
+     * until it decodes.
+     */
+    private byte[] joinAndDecode(final Segment block, final IOException failure) throws IOException {
+        Segment joined = block;
+        while (true) {
+            Segment next = pendingSegments.pollFirst();
+            if (next != null) {
+                cancel(next);
+            } else {
+                scanPaused = false;
+                next = nextSegment();
+            }
+            if (next == null || joined.bitLength + next.bitLength > MAX_SEGMENT_BYTES * 8) {
+                throw failure;
+            }
+            joined = joined.join(next);
+            try {
+                final byte[] decoded = decode(joined);
+                // the failed candidate block did start at a genuine block boundary, the CRC follows the magic number
+                updateCombinedCRC(block.getCRC());
+                return decoded;
+            } catch (final IOException e) {
+                // try again with the next segment
+            }
+        }
+    }
+
+    /**
+     * Moves to the next decoded block.
+     *
+     * @return false at the end of the input.
+     */
+    private boolean nextBlock() throws IOException {
+        while (true) {
+            fillPipeline();
+            final Segment segment = pendingSegments.pollFirst();
+            if (segment == null) {
+                throw new IOException("Truncated BZip2 stream");
+            }
+            if (segment.endOfStream) {
+                if (segment.bitLength < MAGIC_BITS + 32) {
+                    throw new IOException("Truncated BZip2 stream");
+                }
+                if (segment.getCRC() != computedCombinedCRC) {
+                    throw new IOException("BZip2 CRC error");
+                }
+                if (!decompressConcatenated || !startStream(false)) {
+                    return false;
+                }
+                continue;
+            }
+            byte[] decoded;
+            try {
+                decoded = FutureUtils.get(segment.decoded);
+                updateCombinedCRC(segment.getCRC());
+            } catch (final IOException e) {
+                decoded = joinAndDecode(segment, e);
+            }
+            if (decoded.length > 0) {
+                output = decoded;
+                outputPosition = 0;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Scans the input up to the next magic number and returns the bits before it.
+     *
+     * @return the next segment or null if scanning is paused or the input is exhausted.
+     */
+    private Segment nextSegment() throws IOException {
+        while (!scanPaused) {
+            final boolean endOfStream = scanHasMagic && scanEndOfStream;
+            if (endOfStream && scanLength * 8 - scanStartBit >= MAGIC_BITS + 32) {
+                // end of stream magic number and stream CRC, the reader checks them before scanning continues
+                final Segment segment = takeSegment(scanStartBit + MAGIC_BITS + 32);
+                scanHasMagic = false;
+                scanEndOfStream = false;
+                scanPaused = true;
+                return segment;
+            }
+            final int b = readByte();
+            if (b < 0) {
+                final int bitLength = scanLength * 8 - scanStartBit;
+                // a trailing partial byte without magic number is padding
+                return bitLength > 0 && (scanHasMagic || bitLength >= 8) ? takeSegment(scanLength * 8) : null;
+            }
+            if (scanLength == scan.length) {
+                if (scan.length >= MAX_SEGMENT_BYTES) {
+                    throw new IOException("BZip2 block exceeds the maximum block size");
+                }
+                scan = Arrays.copyOf(scan, scan.length * 2);
+            }
+            scan[scanLength++] = (byte) b;
+            window = window << 8 | b;
+            if (endOfStream) {
+                continue;
+            }
+            final int minStart = scanStartBit + (scanHasMagic ? MAGIC_BITS : 0);
+            for (int shift = 7; shift >= 0; shift--) {
+                final long candidate = window >>> shift & MAGIC_MASK;
+                final int start = scanLength * 8 - shift - MAGIC_BITS;
+                if ((candidate == BLOCK_MAGIC || candidate == END_OF_STREAM_MAGIC) && start >= minStart) {
+                    final Segment segment = start > scanStartBit ? takeSegment(start) : null;
+                    scanHasMagic = true;
+                    scanEndOfStream = candidate == END_OF_STREAM_MAGIC;
+                    if (segment != null) {
+                        return segment;
+                    }
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int n = read(oneByte, 0, 1);
+        return n < 0 ? -1 : oneByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] dest, final int offs, final int len) throws IOException {
+        if (offs < 0) {
+            throw new IndexOutOfBoundsException("offs(" + offs + ") < 0.");
+        }
+        if (len < 0) {
+            throw new IndexOutOfBoundsException("len(" + len + ") < 0.");
+        }
+        if (offs + len > dest.length) {
+            throw new IndexOutOfBoundsException("offs(" + offs + ") + len(" + len + ") > dest.length(" + dest.length + ").");
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (outputPosition == output.length) {
+            if (eof || !nextBlock()) {
+                eof = true;
+                return -1;
+            }
+        }
+        final int n = Math.min(len, output.length - outputPosition);
+        System.arraycopy(output, outputPosition, dest, offs, n);
+        outputPosition += n;
+        count(n);
+        return n;
+    }
+
+    private int readByte() throws IOException {
+        if (inPosition == inLimit) {
+            if (inputExhausted) {
+                return -1;
+            }
+            final int n = IOUtils.read(in, inBuffer);
+            if (n <= 0) {
+                inputExhausted = true;
+                return -1;
+            }
+            compressedCount += n;
+            inPosition = 0;
+            inLimit = n;
+        }
+        return inBuffer[inPosition++] & 0xff;
+    }
+
+    /**
+     * Starts a stream at the next byte boundary of the input.
+     *
+     * @return false if there is no further stream.
+     */
+    private boolean startStream(final boolean isFirstStream) throws IOException {
+        // the remainder of the current byte is padding
+        scanLength = 0;
+        scanStartBit = 0;
+        scanPaused = false;
+        final int magic0 = readByte();
+        if (magic0 == -1 && !isFirstStream) {
+            return false;
+        }
+        final int magic1 = readByte();
+        final int magic2 = readByte();
+        if (magic0 != 'B' || magic1 != 'Z' || magic2 != 'h') {
+            if (isFirstStream) {
+                return false;
+            }
+            throw new IOException("Unexpected data after a valid BZip2 stream");
+        }
+        blockSize = readByte();
+        if (blockSize < '1' || blockSize > '9') {
+            throw new IOException("BZip2 block size is invalid");
+        }
+        long magic = 0;
+        for (int i = 0; i < 6; i++) {
+            final int b = readByte();
+            if (b < 0) {
+                throw new IOException("Truncated BZip2 stream");
+            }
+            scan[i] = (byte) b;
+            magic = magic << 8 | b;
+        }
+        if (magic != BLOCK_MAGIC && magic != END_OF_STREAM_MAGIC) {
+            throw new IOException("Bad block header");
+        }
+        scanLength = 6;
+        window = magic;
+        scanHasMagic = true;
+        scanEndOfStream = magic == END_OF_STREAM_MAGIC;
+        computedCombinedCRC = 0;
+        return true;
+    }
+
+    /**
+     * Ends the segment being scanned at bit {@code end} of {@code scan}, the next segment starts there.
+     */
+    private Segment takeSegment(final int end) {
+        final Segment segment = new Segment(Arrays.copyOf(scan, (end + 7) / 8), scanStartBit, end - scanStartBit, scanHasMagic && scanEndOfStream,
+                blockSize);
+        final int endByte = end >>> 3;
+        System.arraycopy(scan, endByte, scan, 0, scanLength - endByte);
+        scanLength -= endByte;
+        scanStartBit = end & 7;
+        return segment;
+    }
+
+    private void updateCombinedCRC(final int blockCRC) {
+        computedCombinedCRC = (computedCombinedCRC << 1 | computedCombinedCRC >>> 31) ^ blockCRC;
+    }
+}
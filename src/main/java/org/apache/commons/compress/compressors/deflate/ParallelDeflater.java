@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.deflate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.utils.CRC32Utils;
+import org.apache.commons.compress.utils.FutureUtils;
+import org.apache.commons.io.function.IOConsumer;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+
+/**
+ * Deflates data in chunks on an {@link ExecutorService}, producing a single raw deflate stream.
+ * <p>
+ * Each chunk but the first is primed with the last 32 KiB of the preceding data as preset dictionary and each chunk but the last ends with a sync flush, so
+ * the compressed chunks can be concatenated. The CRC-32 values of the chunks are combined into the one of all data. Data that fits into a single chunk is
+ * deflated on the calling thread and the result is the same as the one of a {@link Deflater} with the same level and strategy.
+ * </p>
+ * <p>
+ * The compressed data is handed to a consumer in input order. After {@link #finish(IOConsumer)} the instance may be {@link #reset()} to deflate the next
+ * stream.
+ * </p>
+ *
+ * @NotThreadSafe
+ * @since 1.28.0
+ */
+public final class ParallelDeflater implements Closeable {
+
+    /**
+     * A deflated chunk.
+     */
+    private static final class Chunk {
+
+        private final byte[] compressed;
+
+        private final long crc;
+
+        private final int length;
+
+        Chunk(final byte[] compressed, final long crc, final int length) {
+            this.compressed = compressed;
+            this.crc = crc;
+            this.length = length;
+        }
+    }
+
+    /** The size of the deflate window and so of the preset dictionaries, the minimum chunk size. */
+    public static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /**
+     * Gets the last 32 KiB of the previous dictionary followed by the given data.
+     */
+    private static byte[] nextDictionary(final byte[] previous, final byte[] data, final int length) {
+        if (length >= DICTIONARY_SIZE || previous == null) {
+            return Arrays.copyOfRange(data, Math.max(0, length - DICTIONARY_SIZE), length);
+        }
+        final int keep = Math.min(previous.length, DICTIONARY_SIZE - length);
+        final byte[] next = Arrays.copyOfRange(previous, previous.length - keep, previous.length + length);
+        System.arraycopy(data, 0, next, keep, length);
+        return next;
+    }
+
+    private final ExecutorService executorService;
+
+    private final int strategy;
+
+    private final int bufferSize;
+
+    private final int chunkSize;
+
+    private final int parallelism;
+
+    private volatile int level;
+
+    /** Whether {@link #close()} has been called, deflaters returned by tasks still running then are ended by the tasks. */
+    private volatile boolean closed;
+
+    /** Deflaters not used by a task right now. */
+    private final Queue<Deflater> idleDeflaters = new ConcurrentLinkedQueue<>();
+
+    /** Chunks submitted but not yet written, in input order. */
+    private final Deque<Future<Chunk>> pendingChunks = new ArrayDeque<>();
+
+    /** The uncompressed data of the current chunk. */
+    private byte[] chunk;
+
+    private int chunkLength;
+
+    /** The last 32 KiB of the data before the current chunk, null before the first chunk. */
+    private byte[] dictionary;
+
+    /** The checksum of the data deflated so far. */
+    private long crc;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param executorService the executor used to deflate chunks, it is not shut down by this instance.
+     * @param level           the compression level.
+     * @param strategy        the deflate strategy.
+     * @param bufferSize      the size of the buffer a task deflates into.
+     * @param chunkSize       the number of uncompressed bytes deflated by one task, at least 32 KiB.
+     * @param parallelism     the maximum number of chunks deflated concurrently.
+     * @throws IllegalArgumentException if the chunk size is smaller than 32 KiB or the buffer size or the parallelism is smaller than 1.
+     */
+    public ParallelDeflater(final ExecutorService executorService, final int level, final int strategy, final int bufferSize, final int chunkSize,
+            final int parallelism) {
+        if (chunkSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("chunkSize(" + chunkSize + ") < " + DICTIONARY_SIZE);
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize(" + bufferSize + ") < 1");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") < 1");
+        }
+        this.executorService = executorService;
+        this.level = level;
+        this.strategy = strategy;
+        this.bufferSize = bufferSize;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.chunk = new byte[chunkSize];
+    }
+
+    /**
+     * Cancels the pending chunks and ends the deflaters.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pendingChunks.forEach(f -> f.cancel(true));
+        pendingChunks.clear();
+        endIdleDeflaters();
+    }
+
+    /**
+     * Deflates a chunk, runs on the executor for all chunks but a last one that is also the first.
+     */
+    private Chunk deflate(final byte[] data, final int length, final byte[] presetDictionary, final boolean last) {
+        Deflater deflater = idleDeflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+            deflater.setStrategy(strategy);
+        }
+        try {
+            if (presetDictionary != null) {
+                deflater.setDictionary(presetDictionary);
+            }
+            deflater.setInput(data, 0, length);
+            final byte[] buffer = new byte[bufferSize];
+            final UnsynchronizedByteArrayOutputStream compressed = UnsynchronizedByteArrayOutputStream.builder().setBufferSize(length / 2 + 64).get();
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer, 0, buffer.length));
+                }
+            } else {
+                // a sync flush ends with an empty stored block and byte aligns the output
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            final CRC32 checksum = new CRC32();
+            checksum.update(data, 0, length);
+            return new Chunk(compressed.toByteArray(), checksum.getValue(), length);
+        } finally {
+            deflater.reset();
+            idleDeflaters.add(deflater);
+            if (closed) {
+                // close() may have drained the idle deflaters before this one was added
+                endIdleDeflaters();
+            }
+        }
+    }
+
+    /**
+     * Ends and drops all idle deflaters.
+     */
+    private void endIdleDeflaters() {
+        Deflater deflater;
+        while ((deflater = idleDeflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Deflates the remaining data, ending the deflate stream, and writes all compressed data.
+     *
+     * @param out receives the compressed data.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void finish(final IOConsumer<byte[]> out) throws IOException {
+        if (dictionary == null) {
+            // the data fits into a single chunk
+            writeChunk(deflate(chunk, chunkLength, null, true), out);
+        } else {
+            submitChunk(true, out);
+            while (!pendingChunks.isEmpty()) {
+                writeChunk(out);
+            }
+        }
+    }
+
+    /**
+     * Deflates the data written so far, ending with a sync flush, and writes all compressed data.
+     *
+     * @param out receives the compressed data.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void flush(final IOConsumer<byte[]> out) throws IOException {
+        if (chunkLength > 0) {
+            submitChunk(false, out);
+        }
+        while (!pendingChunks.isEmpty()) {
+            writeChunk(out);
+        }
+    }
+
+    /**
+     * Gets the CRC-32 of the data deflated so far.
+     *
+     * @return the CRC-32 of the data deflated so far.
+     */
+    public long getCrc32() {
+        return crc;
+    }
+
+    /**
+     * Gets the number of deflaters not used by a task right now, all of them have been ended once the instance is closed and its tasks are done.
+     */
+    int getIdleDeflaterCount() {
+        return idleDeflaters.size();
+    }
+
+    /**
+     * Prepares for the next deflate stream, dropping the data of the current one.
+     */
+    public void reset() {
+        pendingChunks.forEach(f -> f.cancel(true));
+        pendingChunks.clear();
+        chunkLength = 0;
+        dictionary = null;
+        crc = 0;
+    }
+
+    /**
+     * Sets the compression level, must be called between deflate streams.
+     *
+     * @param level the compression level.
+     */
+    public void setLevel(final int level) {
+        if (this.level != level) {
+            this.level = level;
+            // changing the level of a deflater with a preset dictionary corrupts its output, all deflaters are idle between streams
+            endIdleDeflaters();
+        }
+    }
+
+    /**
+     * Submits the current chunk and starts a new one, waiting for the oldest chunk first when too many are pending.
+     */
+    private void submitChunk(final boolean last, final IOConsumer<byte[]> out) throws IOException {
+        while (pendingChunks.size() >= parallelism) {
+            writeChunk(out);
+        }
+        final byte[] data = chunk;
+        final int length = chunkLength;
+        final byte[] presetDictionary = dictionary;
+        pendingChunks.add(executorService.submit(() -> deflate(data, length, presetDictionary, last)));
+        dictionary = nextDictionary(presetDictionary, data, length);
+        chunk = new byte[chunkSize];
+        chunkLength = 0;
+    }
+
+    /**
+     * Buffers data, submitting full chunks.
+     *
+     * @param b      the data.
+     * @param offset the start offset in the data.
+     * @param length the number of bytes to write.
+     * @param out    receives the compressed data of completed chunks.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(final byte[] b, final int offset, final int length, final IOConsumer<byte[]> out) throws IOException {
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (chunkLength == chunkSize) {
+                // only submit a full chunk once more data follows, so the last chunk is never empty
+                submitChunk(false, out);
+            }
+            final int n = Math.min(remaining, chunkSize - chunkLength);
+            System.arraycopy(b, off, chunk, chunkLength, n);
+            chunkLength += n;
+            off += n;
+            remaining -= n;
+        }
+    }
+
+    private void writeChunk(final Chunk deflated, final IOConsumer<byte[]> out) throws IOException {
+        out.accept(deflated.compressed);
+        crc = CRC32Utils.combine(crc, deflated.crc, deflated.length);
+    }
+
+    /**
+     * Waits for the oldest pending chunk and writes it.
+     */
+    private void writeChunk(final IOConsumer<byte[]> out) throws IOException {
+        final Chunk deflated = FutureUtils.get(pendingChunks.peek());
+        pendingChunks.remove();
+        writeChunk(deflated, out);
+    }
+}
@@ -28,6 +28,10 @@
 
 /**
  * Deflate64 decompressor.
+ * <p>
+ * Since 1.28.0 the underlying stream is read in blocks and may be read beyond the end of the Deflate64 data, just like
+ * {@link java.util.zip.InflaterInputStream} does.
+ * </p>
  *
  * @since 1.16
  * @NotThreadSafe
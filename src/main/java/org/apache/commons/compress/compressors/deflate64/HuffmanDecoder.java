@@ -40,37 +40,6 @@
  */
 class HuffmanDecoder implements Closeable {
 
-    private static final class BinaryTreeNode {
-        private final int bits;
-        int literal = -1;
-        BinaryTreeNode leftNode;
-        BinaryTreeNode rightNode;
-
-        private BinaryTreeNode(final int bits) {
-            this.bits = bits;
-        }
-
-        void leaf(final int symbol) {
-            literal = symbol;
-            leftNode = null;
-            rightNode = null;
-        }
-
-        BinaryTreeNode left() {
-            if (leftNode == null && literal == -1) {
-                leftNode = new BinaryTreeNode(bits + 1);
-            }
-            return leftNode;
-        }
-
-        BinaryTreeNode right() {
-            if (rightNode == null && literal == -1) {
-                rightNode = new BinaryTreeNode(bits + 1);
-            }
-            return rightNode;
-        }
-    }
-
     private abstract static class DecoderState {
         abstract int available() throws IOException;
 
@@ -130,11 +99,122 @@ void recordToBuffer(final int distance, final int length, final byte[] buff) {
         }
     }
 
+    /**
+     * Multi-level lookup table for a canonical Huffman code.
+     * <p>
+     * The primary table is indexed by the next {@code rootBits} bits of the stream and resolves all codes that are not longer than that with a single
+     * lookup. Longer codes share their first {@code rootBits} bits with a secondary table that is indexed by the remaining bits.
+     * </p>
+     * <p>
+     * Deflate stores Huffman codes starting with their most significant bit while all other values are stored starting with the least significant bit, so
+     * codes are bit-reversed when the tables are populated.
+     * </p>
+     */
+    private static final class DecodingTable {
+
+        /**
+         * Entries are either {@code symbol << 4 | codeLength} or the negated offset of a secondary table, 0 marks bit patterns that don't belong to any code.
+         */
+        private final int[] entries;
+        private final int rootBits;
+        private final int rootMask;
+        private final int subMask;
+        private final int maxLength;
+
+        DecodingTable(final int[] codeLengths) {
+            final int[] blCount = new int[MAX_CODE_LENGTH + 1];
+            int max = 0;
+            for (final int len : codeLengths) {
+                if (len < 0 || len > MAX_CODE_LENGTH) {
+                    throw new IllegalArgumentException("Invalid code " + len + " in literal table");
+                }
+                max = Math.max(max, len);
+                blCount[len]++;
+            }
+            blCount[0] = 0;
+            maxLength = max;
+            rootBits = Math.max(1, Math.min(ROOT_BITS, max));
+            rootMask = (1 << rootBits) - 1;
+            final int subBits = Math.max(0, max - rootBits);
+            subMask = (1 << subBits) - 1;
+
+            int left = 1;
+            final int[] nextCode = new int[MAX_CODE_LENGTH + 2];
+            for (int len = 1; len <= max; len++) {
+                left = (left << 1) - blCount[len];
+                if (left < 0) {
+                    throw new IllegalStateException("Oversubscribed Huffman code");
+                }
+                nextCode[len + 1] = nextCode[len] + blCount[len] << 1;
+            }
+
+            // one secondary table per distinct root prefix of the codes that don't fit into the primary table
+            int subTables = 0;
+            if (subBits > 0) {
+                int previousPrefix = -1;
+                int code = nextCode[rootBits + 1];
+                for (int len = rootBits + 1; len <= max; len++) {
+                    for (int i = 0; i < blCount[len]; i++, code++) {
+                        final int prefix = code >>> len - rootBits;
+                        if (prefix != previousPrefix) {
+                            previousPrefix = prefix;
+                            subTables++;
+                        }
+                    }
+                    code <<= 1;
+                }
+            }
+            entries = new int[rootMask + 1 + (subTables << subBits)];
+
+            int nextSubTable = rootMask + 1;
+            for (int symbol = 0; symbol < codeLengths.length; symbol++) {
+                final int len = codeLengths[symbol];
+                if (len == 0) {
+                    continue;
+                }
+                final int reversed = Integer.reverse(nextCode[len]++) >>> Integer.SIZE - len;
+                final int entry = symbol << 4 | len;
+                if (len <= rootBits) {
+                    for (int i = reversed; i <= rootMask; i += 1 << len) {
+                        entries[i] = entry;
+                    }
+                } else {
+                    final int root = reversed & rootMask;
+                    if (entries[root] == 0) {
+                        entries[root] = -nextSubTable;
+                        nextSubTable += subMask + 1;
+                    }
+                    final int offset = -entries[root];
+                    for (int i = reversed >>> rootBits; i <= subMask; i += 1 << len - rootBits) {
+                        entries[offset + i] = entry;
+                    }
+                }
+            }
+        }
+
+        int nextSymbol(final BitInputStream reader) throws IOException {
+            final int bits = (int) reader.peekBits(maxLength);
+            int entry = entries[bits & rootMask];
+            if (entry < 0) {
+                entry = entries[-entry + (bits >>> rootBits & subMask)];
+            }
+            final int len = entry == 0 ? maxLength : entry & 0xF;
+            if (len > reader.bitsCached()) {
+                throw new EOFException("Truncated Deflate64 Stream");
+            }
+            if (entry == 0) {
+                throw new IllegalStateException("node doesn't exist in Huffman tree");
+            }
+            reader.skipBits(len);
+            return entry >>> 4;
+        }
+    }
+
     private final class HuffmanCodes extends DecoderState {
         private boolean endOfBlock;
         private final HuffmanState state;
-        private final BinaryTreeNode lengthTree;
-        private final BinaryTreeNode distanceTree;
+        private final DecodingTable lengthTable;
+        private final DecodingTable distanceTable;
 
         private int runBufferPos;
         private byte[] runBuffer = ByteUtils.EMPTY_BYTE_ARRAY;
@@ -142,8 +222,8 @@ private final class HuffmanCodes extends DecoderState {
 
         HuffmanCodes(final HuffmanState state, final int[] lengths, final int[] distance) {
             this.state = state;
-            lengthTree = buildTree(lengths);
-            distanceTree = buildTree(distance);
+            lengthTable = new DecodingTable(lengths);
+            distanceTable = new DecodingTable(distance);
         }
 
         @Override
@@ -169,7 +249,7 @@ private int decodeNext(final byte[] b, final int off, final int len) throws IOEx
             int result = copyFromRunBuffer(b, off, len);
 
             while (result < len) {
-                final int symbol = nextSymbol(reader, lengthTree);
+                final int symbol = lengthTable.nextSymbol(reader);
                 if (symbol < 256) {
                     b[off + result++] = memory.add((byte) symbol);
                 } else if (symbol > 256) {
@@ -178,7 +258,7 @@ private int decodeNext(final byte[] b, final int off, final int len) throws IOEx
                     final int runXtra = runMask & 0x1F;
                     run = ExactMath.add(run, readBits(runXtra));
 
-                    final int distSym = nextSymbol(reader, distanceTree);
+                    final int distSym = distanceTable.nextSymbol(reader);
 
                     final int distMask = DISTANCE_TABLE[distSym];
                     int dist = distMask >>> 4;
@@ -273,18 +353,11 @@ int read(final byte[] b, final int off, final int len) throws IOException {
             final int max = (int) Math.min(blockLength - read, len);
             int readSoFar = 0;
             while (readSoFar < max) {
-                final int readNow;
-                if (reader.bitsCached() > 0) {
-                    final byte next = (byte) readBits(Byte.SIZE);
-                    b[off + readSoFar] = memory.add(next);
-                    readNow = 1;
-                } else {
-                    readNow = in.read(b, off + readSoFar, max - readSoFar);
-                    if (readNow == -1) {
-                        throw new EOFException("Truncated Deflate64 Stream");
-                    }
-                    memory.add(b, off + readSoFar, readNow);
+                final int readNow = reader.readBytes(b, off + readSoFar, max - readSoFar);
+                if (readNow == -1) {
+                    throw new EOFException("Truncated Deflate64 Stream");
                 }
+                memory.add(b, off + readSoFar, readNow);
                 read += readNow;
                 readSoFar += readNow;
             }
@@ -297,6 +370,14 @@ HuffmanState state() {
         }
     }
 
+    /**
+     * Longest code allowed by the format.
+     */
+    private static final int MAX_CODE_LENGTH = 15;
+    /**
+     * Number of bits resolved by the primary lookup table, long enough for all fixed codes.
+     */
+    private static final int ROOT_BITS = 9;
     /**
      * <pre>
      * --------------------------------------------------------------------
@@ -367,62 +448,6 @@ HuffmanState state() {
         FIXED_DISTANCE = ArrayFill.fill(new int[32], 5);
     }
 
-    private static BinaryTreeNode buildTree(final int[] litTable) {
-        final int[] literalCodes = getCodes(litTable);
-
-        final BinaryTreeNode root = new BinaryTreeNode(0);
-
-        for (int i = 0; i < litTable.length; i++) {
-            final int len = litTable[i];
-            if (len != 0) {
-                BinaryTreeNode node = root;
-                final int lit = literalCodes[len - 1];
-                for (int p = len - 1; p >= 0; p--) {
-                    final int bit = lit & 1 << p;
-                    node = bit == 0 ? node.left() : node.right();
-                    if (node == null) {
-                        throw new IllegalStateException("node doesn't exist in Huffman tree");
-                    }
-                }
-                node.leaf(i);
-                literalCodes[len - 1]++;
-            }
-        }
-        return root;
-    }
-
-    private static int[] getCodes(final int[] litTable) {
-        int max = 0;
-        int[] blCount = new int[65];
-
-        for (final int aLitTable : litTable) {
-            if (aLitTable < 0 || aLitTable > 64) {
-                throw new IllegalArgumentException("Invalid code " + aLitTable + " in literal table");
-            }
-            max = Math.max(max, aLitTable);
-            blCount[aLitTable]++;
-        }
-        blCount = Arrays.copyOf(blCount, max + 1);
-
-        int code = 0;
-        final int[] nextCode = new int[max + 1];
-        for (int i = 0; i <= max; i++) {
-            code = code + blCount[i] << 1;
-            nextCode[i] = code;
-        }
-
-        return nextCode;
-    }
-
-    private static int nextSymbol(final BitInputStream reader, final BinaryTreeNode tree) throws IOException {
-        BinaryTreeNode node = tree;
-        while (node != null && node.literal == -1) {
-            final long bit = readBits(reader, 1);
-            node = bit == 0 ? node.leftNode : node.rightNode;
-        }
-        return node != null ? node.literal : -1;
-    }
-
     private static void populateDynamicTables(final BitInputStream reader, final int[] literals, final int[] distances) throws IOException {
         final int codeLengths = (int) (readBits(reader, 4) + 4);
 
@@ -431,7 +456,7 @@ private static void populateDynamicTables(final BitInputStream reader, final int
             codeLengthValues[CODE_LENGTHS_ORDER[cLen]] = (int) readBits(reader, 3);
         }
 
-        final BinaryTreeNode codeLengthTree = buildTree(codeLengthValues);
+        final DecodingTable codeLengthTable = new DecodingTable(codeLengthValues);
 
         final int[] auxBuffer = new int[literals.length + distances.length];
 
@@ -443,7 +468,7 @@ private static void populateDynamicTables(final BitInputStream reader, final int
                 auxBuffer[off++] = value;
                 length--;
             } else {
-                final int symbol = nextSymbol(reader, codeLengthTree);
+                final int symbol = codeLengthTable.nextSymbol(reader);
                 if (symbol < 16) {
                     value = symbol;
                     auxBuffer[off++] = value;
@@ -485,13 +510,10 @@ private static long readBits(final BitInputStream reader, final int numBits) thr
 
     private BitInputStream reader;
 
-    private final InputStream in;
-
     private final DecodingMemory memory = new DecodingMemory();
 
     HuffmanDecoder(final InputStream in) {
-        this.reader = new BitInputStream(in, ByteOrder.LITTLE_ENDIAN);
-        this.in = in;
+        this.reader = new BitInputStream(in, ByteOrder.LITTLE_ENDIAN, true);
         state = new InitialState();
     }
 
@@ -542,7 +564,8 @@ public int decode(final byte[] b, final int off, final int len) throws IOExcepti
      * @since 1.17
      */
     long getBytesRead() {
-        return reader.getBytesRead();
+        // whole bytes in the cache have only been peeked at by the symbol lookup
+        return reader.getBytesRead() - reader.bitsCached() / Byte.SIZE;
     }
 
     private long readBits(final int numBits) throws IOException {
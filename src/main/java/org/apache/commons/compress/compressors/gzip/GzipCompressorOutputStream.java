@@ -69,7 +69,7 @@ public GzipCompressorOutputStream(final OutputStream out, final GzipParameters p
         this.deflater = new Deflater(parameters.getCompressionLevel(), true);
         this.deflater.setStrategy(parameters.getDeflateStrategy());
         this.deflateBuffer = new byte[parameters.getBufferSize()];
-        writeMemberHeader(parameters);
+        writeMemberHeader(out, parameters);
     }
 
     @Override
@@ -147,11 +147,13 @@ public void write(final int b) throws IOException {
     /**
      * Writes a C-style string, a NUL-terminated string, encoded with the {@code charset}.
      *
+     * @param out The stream to write to.
+     * @param crc The header checksum to update.
      * @param value The String to write.
      * @param charset Specifies the Charset to use.
      * @throws IOException if an I/O error occurs.
      */
-    private void writeC(final String value, final Charset charset) throws IOException {
+    private static void writeC(final OutputStream out, final CRC32 crc, final String value, final Charset charset) throws IOException {
         if (value != null) {
             final byte[] ba = value.getBytes(charset);
             out.write(ba);
@@ -161,7 +163,15 @@ private void writeC(final String value, final Charset charset) throws IOExceptio
         }
     }
 
-    private void writeMemberHeader(final GzipParameters parameters) throws IOException {
+    /**
+     * Writes the member header for the given parameters.
+     *
+     * @param out The stream to write to.
+     * @param parameters The header fields.
+     * @throws IOException if an I/O error occurs.
+     */
+    static void writeMemberHeader(final OutputStream out, final GzipParameters parameters) throws IOException {
+        final CRC32 crc = new CRC32();
         final String fileName = parameters.getFileName();
         final String comment = parameters.getComment();
         final byte[] extra = parameters.getExtraField() != null ? parameters.getExtraField().toByteArray() : null;
@@ -196,14 +206,13 @@ private void writeMemberHeader(final GzipParameters parameters) throws IOExcepti
             crc.update(extra.length >>> 8 & 0xff);
             crc.update(extra);
         }
-        writeC(fileName, parameters.getFileNameCharset());
-        writeC(comment, parameters.getFileNameCharset());
+        writeC(out, crc, fileName, parameters.getFileNameCharset());
+        writeC(out, crc, comment, parameters.getFileNameCharset());
         if (parameters.getHeaderCRC()) {
             final int v = (int) crc.getValue() & 0xffff;
             out.write(v & 0xff);
             out.write(v >>> 8 & 0xff);
         }
-        crc.reset();
     }
 
     /**
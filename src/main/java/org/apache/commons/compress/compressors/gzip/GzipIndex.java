@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.compress.utils.ByteUtils;
+import org.apache.commons.compress.utils.IOUtils;
+
+/**
+ * An index of access points into a gzip file that allows decompressing from the middle of it, like zlib's zran example.
+ * <p>
+ * An access point is recorded at the start of each member and then at the first deflate block boundary after every {@code span} decompressed bytes. Each
+ * access point holds the decompressed offset, the bit offset of the deflate block in the compressed file and the last 32 KiB of decompressed data before it,
+ * which decompression needs to resolve back references. Smaller spans allow faster seeks but need about 32 KiB of memory for each access point.
+ * </p>
+ * <p>
+ * Building an index decompresses the whole file once, an index can be written to a sidecar file with {@link #write(OutputStream)} and loaded again with
+ * {@link #read(InputStream)}.
+ * </p>
+ *
+ * @see GzipSeekableByteChannel
+ * @see <a href="https://github.com/madler/zlib/blob/develop/examples/zran.c">zran.c</a>
+ * @since 1.28.0
+ */
+public final class GzipIndex {
+
+    private static final class AccessPoint {
+
+        private final long uncompressedOffset;
+
+        private final long bitOffset;
+
+        private final byte[] window;
+
+        AccessPoint(final long uncompressedOffset, final long bitOffset, final byte[] window) {
+            this.uncompressedOffset = uncompressedOffset;
+            this.bitOffset = bitOffset;
+            this.window = window;
+        }
+    }
+
+    /** The default span between access points, 1 MiB. */
+    public static final long DEFAULT_SPAN = 1024 * 1024;
+
+    /** Identifies index files, "GZIX". */
+    private static final int MAGIC = 0x475a4958;
+
+    private static final int VERSION = 2;
+
+    /** The number of bytes at the start and at the end of a gzip file its fingerprint covers. */
+    private static final int FINGERPRINT_LENGTH = 32 * 1024;
+
+    /**
+     * Builds the index of a gzip file, decompressing all of it.
+     *
+     * @param channel the gzip file, read from its start.
+     * @param span    the minimum number of decompressed bytes between two access points.
+     * @return the index.
+     * @throws IOException              if the file is not in the gzip format, is corrupt or an I/O error occurs.
+     * @throws IllegalArgumentException if the span is smaller than 1.
+     */
+    public static GzipIndex build(final SeekableByteChannel channel, final long span) throws IOException {
+        if (span < 1) {
+            throw new IllegalArgumentException("span(" + span + ") < 1");
+        }
+        final long fingerprint = fingerprint(channel);
+        final IndexingInflater inflater = new IndexingInflater(channel);
+        final List<AccessPoint> accessPoints = new ArrayList<>();
+        long memberOffset = 0;
+        boolean isFirstMember = true;
+        while (inflater.readMemberHeader(isFirstMember)) {
+            isFirstMember = false;
+            accessPoints.add(new AccessPoint(memberOffset, inflater.bitPosition(), ByteUtils.EMPTY_BYTE_ARRAY));
+            long lastOffset = memberOffset;
+            while (!inflater.inflateBlock()) {
+                final long offset = memberOffset + inflater.memberLength();
+                if (offset - lastOffset >= span) {
+                    accessPoints.add(new AccessPoint(offset, inflater.bitPosition(), inflater.window()));
+                    lastOffset = offset;
+                }
+            }
+            inflater.readMemberTrailer();
+            memberOffset += inflater.memberLength();
+        }
+        return new GzipIndex(span, channel.size(), fingerprint, memberOffset, accessPoints.toArray(new AccessPoint[0]));
+    }
+
+    /**
+     * Computes the CRC-32 of the first and the last bytes of a gzip file, which hold the header of the first member and the trailer of the last member with
+     * the CRC-32 of its decompressed content.
+     */
+    static long fingerprint(final SeekableByteChannel channel) throws IOException {
+        final long size = channel.size();
+        final int length = (int) Math.min(size, FINGERPRINT_LENGTH);
+        final CRC32 crc = new CRC32();
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(0);
+        IOUtils.readFully(channel, buffer);
+        crc.update(buffer.array(), 0, length);
+        buffer.clear();
+        channel.position(size - length);
+        IOUtils.readFully(channel, buffer);
+        crc.update(buffer.array(), 0, length);
+        return crc.getValue();
+    }
+
+    /**
+     * Reads an index written by {@link #write(OutputStream)}.
+     *
+     * @param in the stream to read from, not closed.
+     * @return the index.
+     * @throws IOException if the stream does not contain an index or an I/O error occurs.
+     */
+    public static GzipIndex read(final InputStream in) throws IOException {
+        final DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Input is not a gzip index.");
+        }
+        final int version = header.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported gzip index version " + version + ".");
+        }
+        final Inflater inflater = new Inflater();
+        try {
+            final DataInputStream data = new DataInputStream(new InflaterInputStream(in, inflater));
+            final long span = data.readLong();
+            final long compressedSize = data.readLong();
+            final long fingerprint = data.readLong();
+            final long uncompressedSize = data.readLong();
+            final int count = data.readInt();
+            if (span < 1 || compressedSize < 0 || uncompressedSize < 0 || count < 1) {
+                throw new IOException("Corrupt gzip index.");
+            }
+            final List<AccessPoint> accessPoints = new ArrayList<>();
+            long previousOffset = 0;
+            for (int i = 0; i < count; i++) {
+                final long uncompressedOffset = data.readLong();
+                final long bitOffset = data.readLong();
+                final int windowLength = data.readInt();
+                if (uncompressedOffset < previousOffset || uncompressedOffset > uncompressedSize || bitOffset < 0 || bitOffset >= compressedSize * Byte.SIZE
+                        || windowLength < 0 || windowLength > IndexingInflater.WINDOW_SIZE) {
+                    throw new IOException("Corrupt gzip index.");
+                }
+                final byte[] window = new byte[windowLength];
+                data.readFully(window);
+                accessPoints.add(new AccessPoint(uncompressedOffset, bitOffset, window));
+                previousOffset = uncompressedOffset;
+            }
+            return new GzipIndex(span, compressedSize, fingerprint, uncompressedSize, accessPoints.toArray(new AccessPoint[0]));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private final long span;
+
+    private final long compressedSize;
+
+    private final long fingerprint;
+
+    private final long uncompressedSize;
+
+    private final AccessPoint[] accessPoints;
+
+    private GzipIndex(final long span, final long compressedSize, final long fingerprint, final long uncompressedSize, final AccessPoint[] accessPoints) {
+        this.span = span;
+        this.compressedSize = compressedSize;
+        this.fingerprint = fingerprint;
+        this.uncompressedSize = uncompressedSize;
+        this.accessPoints = accessPoints;
+    }
+
+    /**
+     * Gets the index of the last access point at or before the given decompressed offset.
+     */
+    int floorAccessPoint(final long uncompressedOffset) {
+        int low = 0;
+        int high = accessPoints.length - 1;
+        while (low < high) {
+            final int middle = low + high + 1 >>> 1;
+            if (accessPoints[middle].uncompressedOffset <= uncompressedOffset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the number of access points.
+     *
+     * @return the number of access points.
+     */
+    public int getAccessPointCount() {
+        return accessPoints.length;
+    }
+
+    long getBitOffset(final int accessPoint) {
+        return accessPoints[accessPoint].bitOffset;
+    }
+
+    /**
+     * Gets the size of the indexed gzip file.
+     *
+     * @return the size of the indexed gzip file.
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    /**
+     * Gets the minimum number of decompressed bytes between two access points.
+     *
+     * @return the span.
+     */
+    public long getSpan() {
+        return span;
+    }
+
+    long getUncompressedOffset(final int accessPoint) {
+        return accessPoints[accessPoint].uncompressedOffset;
+    }
+
+    /**
+     * Gets the size of the decompressed content of all members.
+     *
+     * @return the size of the decompressed content.
+     */
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    byte[] getWindow(final int accessPoint) {
+        return accessPoints[accessPoint].window;
+    }
+
+    /**
+     * Tests whether this is the index of the given gzip file, judging by its size and by the CRC-32 of its first and last bytes.
+     */
+    boolean isIndexOf(final SeekableByteChannel channel) throws IOException {
+        return compressedSize == channel.size() && fingerprint == fingerprint(channel);
+    }
+
+    /**
+     * Writes this index, the windows are compressed.
+     *
+     * @param out the stream to write to, not closed.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(final OutputStream out) throws IOException {
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        final Deflater deflater = new Deflater();
+        try {
+            final DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(out, deflater);
+            final DataOutputStream data = new DataOutputStream(deflaterOutputStream);
+            data.writeLong(span);
+            data.writeLong(compressedSize);
+            data.writeLong(fingerprint);
+            data.writeLong(uncompressedSize);
+            data.writeInt(accessPoints.length);
+            for (final AccessPoint accessPoint : accessPoints) {
+                data.writeLong(accessPoint.uncompressedOffset);
+                data.writeLong(accessPoint.bitOffset);
+                data.writeInt(accessPoint.window.length);
+                data.write(accessPoint.window);
+            }
+            data.flush();
+            deflaterOutputStream.finish();
+        } finally {
+            deflater.end();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.io.build.AbstractStreamBuilder;
+import org.apache.commons.lang3.ArrayUtils;
+
+// @formatter:off
+/**
+ * A read-only {@link SeekableByteChannel} over the decompressed content of a gzip file.
+ * <p>
+ * The channel uses a {@link GzipIndex} to start decompressing at the access point closest before the requested position, so a seek costs at most the
+ * decompression of one span instead of all data before the position. Sequential reads continue decompressing without going back to an access point.
+ * Concatenated members are read as one content like {@code gzip -d} does.
+ * </p>
+ * <p>
+ * For example:
+ * </p>
+ * <pre>{@code
+ * GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder()
+ *   .setPath(path)
+ *   .setIndexPath(indexPath)
+ *   .get();
+ * channel.position(offset).read(buffer);
+ * }
+ * </pre>
+ * <p>
+ * Without an index the builder builds one, which decompresses the whole file once, and saves it to the index path if one is set. An index file that cannot
+ * be read or does not match the gzip file, judging by its size and by a checksum of its first and last bytes, is rebuilt.
+ * </p>
+ *
+ * @NotThreadSafe
+ * @see GzipIndex
+ * @since 1.28.0
+ */
+// @formatter:on
+public class GzipSeekableByteChannel implements SeekableByteChannel {
+
+    // @formatter:off
+    /**
+     * Builds a new {@link GzipSeekableByteChannel}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder()
+     *   .setPath(path)
+     *   .setIndexPath(indexPath)
+     *   .setSpan(4 * 1024 * 1024)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<GzipSeekableByteChannel, Builder> {
+
+        private SeekableByteChannel seekableByteChannel;
+
+        private GzipIndex index;
+
+        private Path indexPath;
+
+        private long span = GzipIndex.DEFAULT_SPAN;
+
+        /**
+         * Constructs a new builder of {@link GzipSeekableByteChannel}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link GzipSeekableByteChannel}.
+         * <p>
+         * You must set a path or a channel, otherwise, this method throws an exception.
+         * </p>
+         *
+         * @return a new instance.
+         * @throws IOException if the file is not in the gzip format, is corrupt or an I/O error occurs.
+         */
+        @SuppressWarnings("resource") // Caller closes
+        @Override
+        public GzipSeekableByteChannel get() throws IOException {
+            final SeekableByteChannel actualChannel;
+            if (seekableByteChannel != null) {
+                actualChannel = seekableByteChannel;
+            } else {
+                OpenOption[] openOptions = getOpenOptions();
+                if (ArrayUtils.isEmpty(openOptions)) {
+                    openOptions = new OpenOption[] { StandardOpenOption.READ };
+                }
+                actualChannel = Files.newByteChannel(getPath(), openOptions);
+            }
+            try {
+                return new GzipSeekableByteChannel(actualChannel, getIndex(actualChannel));
+            } catch (final IOException | RuntimeException e) {
+                if (seekableByteChannel == null) {
+                    actualChannel.close();
+                }
+                throw e;
+            }
+        }
+
+        private GzipIndex getIndex(final SeekableByteChannel channel) throws IOException {
+            if (index != null) {
+                return index;
+            }
+            if (indexPath != null && Files.exists(indexPath)) {
+                final GzipIndex existing = readIndex();
+                if (existing != null && existing.isIndexOf(channel)) {
+                    return existing;
+                }
+            }
+            final GzipIndex built = GzipIndex.build(channel, span);
+            if (indexPath != null) {
+                try (OutputStream out = Files.newOutputStream(indexPath)) {
+                    built.write(out);
+                }
+            }
+            return built;
+        }
+
+        /**
+         * Reads the index file, an index file that is corrupt or truncated is rebuilt.
+         *
+         * @return the index or null if the index file cannot be read.
+         */
+        private GzipIndex readIndex() {
+            try (InputStream in = Files.newInputStream(indexPath)) {
+                return GzipIndex.read(in);
+            } catch (final IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Sets the index of the gzip file, which takes precedence over the index path.
+         *
+         * @param index the index of the gzip file.
+         * @return this instance.
+         */
+        public Builder setIndex(final GzipIndex index) {
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * Sets the sidecar file to load the index from, or to save a newly built index to.
+         *
+         * @param indexPath the index file.
+         * @return this instance.
+         */
+        public Builder setIndexPath(final Path indexPath) {
+            this.indexPath = indexPath;
+            return this;
+        }
+
+        /**
+         * Sets the input channel.
+         * <p>
+         * The channel is closed when the {@link GzipSeekableByteChannel} is closed.
+         * </p>
+         *
+         * @param seekableByteChannel the input channel.
+         * @return this instance.
+         */
+        public Builder setSeekableByteChannel(final SeekableByteChannel seekableByteChannel) {
+            this.seekableByteChannel = seekableByteChannel;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of decompressed bytes between two access points of a newly built index, defaults to {@link GzipIndex#DEFAULT_SPAN}.
+         *
+         * @param span the minimum number of decompressed bytes between two access points.
+         * @return this instance.
+         */
+        public Builder setSpan(final long span) {
+            this.span = span;
+            return this;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Empty deflate blocks of {@code 8 * n + bits} bits indexed by {@code bits}.
+     * <p>
+     * {@link Inflater} has no equivalent of zlib's {@code inflatePrime}, so an access point that does not start at a byte boundary is reached by replacing the
+     * bits before it with the end of empty blocks. Shifting the input instead would break the byte alignment of stored blocks.
+     * </p>
+     */
+    private static final byte[][] PRIMERS = new byte[Byte.SIZE][];
+
+    static {
+        for (int bits = 1; bits < Byte.SIZE; bits++) {
+            PRIMERS[bits] = primer(bits);
+        }
+    }
+
+    /**
+     * Creates empty deflate blocks of {@code 8 * n + bits} bits: a 93 bit dynamic block for odd bit counts followed by 10 bit fixed blocks.
+     */
+    private static byte[] primer(final int bits) {
+        final byte[] primer = new byte[16];
+        int length = 0;
+        if (bits % 2 == 1) {
+            length = putBits(primer, length, 0b100, 3); // not last, dynamic
+            length = putBits(primer, length, 0, 5); // 257 literal/length codes
+            length = putBits(primer, length, 0, 5); // 1 distance code
+            length = putBits(primer, length, 14, 4); // 18 code length code lengths in the order 16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1
+            for (int i = 0; i < 18; i++) {
+                // the code lengths 1, 0 and 18 get the codes 0, 10 and 11
+                length = putBits(primer, length, i == 2 || i == 3 ? 2 : i == 17 ? 1 : 0, 3);
+            }
+            length = putCode(primer, length, 0b11, 2); // 138 zeros
+            length = putBits(primer, length, 127, 7);
+            length = putCode(primer, length, 0b11, 2); // 118 zeros
+            length = putBits(primer, length, 107, 7);
+            length = putCode(primer, length, 0b0, 1); // end of block code length 1
+            length = putCode(primer, length, 0b10, 2); // unused distance code
+            length = putCode(primer, length, 0b0, 1); // end of block
+        }
+        while (length % Byte.SIZE != bits) {
+            length = putBits(primer, length, 0b010, 3); // not last, fixed
+            length = putCode(primer, length, 0, 7); // end of block
+        }
+        return Arrays.copyOf(primer, length / Byte.SIZE + 1);
+    }
+
+    private static int putBits(final byte[] bytes, final int bitOffset, final int value, final int count) {
+        for (int i = 0; i < count; i++) {
+            bytes[(bitOffset + i) / Byte.SIZE] |= (value >>> i & 1) << (bitOffset + i) % Byte.SIZE;
+        }
+        return bitOffset + count;
+    }
+
+    private static int putCode(final byte[] bytes, final int bitOffset, final int code, final int length) {
+        return putBits(bytes, bitOffset, Integer.reverse(code) >>> Integer.SIZE - length, length);
+    }
+
+    /**
+     * Creates a new builder.
+     *
+     * @return a new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final SeekableByteChannel channel;
+
+    private final GzipIndex index;
+
+    private final Inflater inflater = new Inflater(true);
+
+    private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** The access point the inflater started at, -1 before the first read. */
+    private int accessPoint = -1;
+
+    /** The decompressed offset of the next byte the inflater produces. */
+    private long inflaterPosition;
+
+    /** The offset of the next compressed byte to give to the inflater. */
+    private long inputPosition;
+
+    /** Empty deflate blocks to give to the inflater before the first byte of the access point, null if none are needed. */
+    private byte[] primer;
+
+    /** The number of bits of the access point's first byte that belong to the primer. */
+    private int primerBits;
+
+    private long position;
+
+    private boolean open = true;
+
+    private GzipSeekableByteChannel(final SeekableByteChannel channel, final GzipIndex index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    /**
+     * Gives the next compressed bytes to the inflater, preceded by the primer after starting at an access point.
+     *
+     * @return false at the end of the compressed input.
+     */
+    private boolean fill() throws IOException {
+        input.clear();
+        final int primerLength = primer != null ? primer.length - 1 : 0;
+        if (primer != null) {
+            input.put(primer, 0, primerLength);
+        }
+        channel.position(inputPosition);
+        while (input.hasRemaining() && channel.read(input) > 0) { // NOSONAR
+            // fill up
+        }
+        final int read = input.position() - primerLength;
+        if (read == 0) {
+            return false;
+        }
+        final byte[] bytes = input.array();
+        if (primer != null) {
+            // the bits before the access point in its first byte are replaced by the end of the primer
+            final int mask = (1 << primerBits) - 1;
+            bytes[primerLength] = (byte) (bytes[primerLength] & ~mask | primer[primerLength] & mask);
+            primer = null;
+        }
+        inflater.setInput(bytes, 0, input.position());
+        inputPosition += read;
+        return true;
+    }
+
+    /**
+     * Gets the index used by this channel.
+     *
+     * @return the index used by this channel.
+     */
+    public GzipIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Inflates at least one byte at the inflater position, continuing with the next member at the end of a member.
+     */
+    private int inflate(final byte[] b, final int off, final int len) throws IOException {
+        while (true) {
+            if (inflater.finished()) {
+                startNextMember();
+            } else if (inflater.needsInput() && !fill()) {
+                throw new EOFException("Truncated .gz stream.");
+            }
+            final int n;
+            try {
+                n = inflater.inflate(b, off, len);
+            } catch (final DataFormatException e) {
+                throw new IOException("Gzip-compressed data is corrupt.", e);
+            }
+            if (n > 0) {
+                inflaterPosition += n;
+                return n;
+            }
+            if (inflater.needsDictionary()) {
+                throw new IOException("Gzip-compressed data is corrupt.");
+            }
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public GzipSeekableByteChannel position(final long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (position >= index.getUncompressedSize()) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        seek(position);
+        final int len = (int) Math.min(dst.remaining(), index.getUncompressedSize() - position);
+        final int n;
+        if (dst.hasArray()) {
+            n = inflate(dst.array(), dst.arrayOffset() + dst.position(), len);
+            dst.position(dst.position() + n);
+        } else {
+            n = inflate(buffer, 0, Math.min(len, buffer.length));
+            dst.put(buffer, 0, n);
+        }
+        position += n;
+        return n;
+    }
+
+    /**
+     * Moves the inflater to the given decompressed offset, going back or forward to an access point unless the offset is within reach.
+     */
+    private void seek(final long target) throws IOException {
+        final int floor = index.floorAccessPoint(target);
+        if (accessPoint < 0 || target < inflaterPosition || floor > accessPoint && index.getUncompressedOffset(floor) > inflaterPosition) {
+            start(floor);
+        }
+        while (inflaterPosition < target) {
+            inflate(buffer, 0, (int) Math.min(buffer.length, target - inflaterPosition));
+        }
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return index.getUncompressedSize();
+    }
+
+    /**
+     * Starts inflating at the given access point.
+     */
+    private void start(final int newAccessPoint) {
+        inflater.reset();
+        final byte[] window = index.getWindow(newAccessPoint);
+        if (window.length > 0) {
+            inflater.setDictionary(window);
+        }
+        final long bitOffset = index.getBitOffset(newAccessPoint);
+        inputPosition = bitOffset / Byte.SIZE;
+        primerBits = (int) (bitOffset % Byte.SIZE);
+        primer = primerBits != 0 ? PRIMERS[primerBits] : null;
+        inflaterPosition = index.getUncompressedOffset(newAccessPoint);
+        accessPoint = newAccessPoint;
+    }
+
+    /**
+     * Starts inflating at the access point following the end of the current member.
+     */
+    private void startNextMember() throws IOException {
+        for (int i = accessPoint + 1; i < index.getAccessPointCount(); i++) {
+            if (index.getUncompressedOffset(i) >= inflaterPosition) {
+                start(i);
+                return;
+            }
+        }
+        throw new EOFException("Truncated .gz stream.");
+    }
+
+    /**
+     * Throws {@link NonWritableChannelException}, the channel is read-only.
+     *
+     * @throws NonWritableChannelException always.
+     */
+    @Override
+    public SeekableByteChannel truncate(final long size) {
+        throw new NonWritableChannelException();
+    }
+
+    /**
+     * Throws {@link NonWritableChannelException}, the channel is read-only.
+     *
+     * @throws NonWritableChannelException always.
+     */
+    @Override
+    public int write(final ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+}
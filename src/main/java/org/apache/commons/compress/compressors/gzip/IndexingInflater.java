@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Inflates gzip members block by block to find the access points of a {@link GzipIndex}.
+ * <p>
+ * {@link java.util.zip.Inflater} can neither stop at deflate block boundaries nor report the bit position of the input, so building the index needs a decoder
+ * of its own. The decompressed data only ends up in the history buffer, which provides the window of each access point, and in the CRC-32 checked against the
+ * member trailer.
+ * </p>
+ */
+final class IndexingInflater {
+
+    /** The size of the deflate window. */
+    static final int WINDOW_SIZE = 32 * 1024;
+
+    private static final int HISTORY_SIZE = 256 * 1024;
+
+    private static final int MAX_BITS = 15;
+
+    /** Order in which the code length code lengths of a dynamic block are stored. */
+    private static final int[] CODE_LENGTHS_ORDER = { 16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15 };
+
+    private static final int[] LENGTH_BASE = { 3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227,
+            258 };
+
+    private static final int[] LENGTH_EXTRA = { 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0 };
+
+    private static final int[] DISTANCE_BASE = { 1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769, 1025, 1537, 2049, 3073,
+            4097, 6145, 8193, 12289, 16385, 24577 };
+
+    private static final int[] DISTANCE_EXTRA = { 0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13 };
+
+    private static final int[] FIXED_LITERALS;
+
+    private static final int[] FIXED_DISTANCES;
+
+    static {
+        final int[] lengths = new int[288];
+        Arrays.fill(lengths, 0, 144, 8);
+        Arrays.fill(lengths, 144, 256, 9);
+        Arrays.fill(lengths, 256, 280, 7);
+        Arrays.fill(lengths, 280, 288, 8);
+        try {
+            FIXED_LITERALS = buildTable(lengths, lengths.length);
+            final int[] distances = new int[30];
+            Arrays.fill(distances, 5);
+            FIXED_DISTANCES = buildTable(distances, distances.length);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds a lookup table indexed by the next {@code 1 << maxLength} input bits, each entry holds {@code symbol << 4 | codeLength} or 0 for invalid codes.
+     */
+    private static int[] buildTable(final int[] lengths, final int count) throws IOException {
+        final int[] lengthCount = new int[MAX_BITS + 1];
+        int maxLength = 0;
+        for (int i = 0; i < count; i++) {
+            lengthCount[lengths[i]]++;
+            maxLength = Math.max(maxLength, lengths[i]);
+        }
+        int left = 1;
+        for (int length = 1; length <= MAX_BITS; length++) {
+            left = (left << 1) - lengthCount[length];
+            if (left < 0) {
+                throw new IOException("Over-subscribed Huffman code in deflate stream.");
+            }
+        }
+        final int[] nextCode = new int[MAX_BITS + 1];
+        lengthCount[0] = 0;
+        for (int length = 1, code = 0; length <= MAX_BITS; length++) {
+            code = code + lengthCount[length - 1] << 1;
+            nextCode[length] = code;
+        }
+        final int[] table = new int[1 << maxLength];
+        for (int symbol = 0; symbol < count; symbol++) {
+            final int length = lengths[symbol];
+            if (length != 0) {
+                // deflate stores Huffman codes starting with their most significant bit
+                final int reversed = Integer.reverse(nextCode[length]++) >>> Integer.SIZE - length;
+                for (int i = reversed; i < table.length; i += 1 << length) {
+                    table[i] = symbol << 4 | length;
+                }
+            }
+        }
+        return table;
+    }
+
+    private final SeekableByteChannel channel;
+
+    private final ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+
+    /** Bytes moved from the channel into the bit buffer. */
+    private long bytesFetched;
+
+    private long bitBuffer;
+
+    private int bitCount;
+
+    private final byte[] history = new byte[HISTORY_SIZE];
+
+    private int historyLength;
+
+    /** The start of the part of the history not yet added to the CRC. */
+    private int crcStart;
+
+    /** The decompressed bytes of the current member that were dropped from the history. */
+    private long droppedLength;
+
+    private final CRC32 crc = new CRC32();
+
+    IndexingInflater(final SeekableByteChannel channel) throws IOException {
+        this.channel = channel;
+        channel.position(0);
+        input.flip();
+    }
+
+    private void alignWithByteBoundary() {
+        final int n = bitCount % Byte.SIZE;
+        bitBuffer >>>= n;
+        bitCount -= n;
+    }
+
+    private long bits(final int n) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+        if (bitCount < n) {
+            refill();
+            if (bitCount < n) {
+                throw new EOFException("Truncated .gz stream.");
+            }
+        }
+        final long value = bitBuffer & (1L << n) - 1;
+        bitBuffer >>>= n;
+        bitCount -= n;
+        return value;
+    }
+
+    /**
+     * Gets the position of the next bit of the input.
+     */
+    long bitPosition() {
+        return bytesFetched * Byte.SIZE - bitCount;
+    }
+
+    private int decode(final int[] table) throws IOException {
+        if (bitCount < MAX_BITS) {
+            refill();
+        }
+        final int entry = table[(int) bitBuffer & table.length - 1];
+        final int length = entry & 0xf;
+        if (length == 0) {
+            throw new IOException("Invalid Huffman code in deflate stream.");
+        }
+        if (length > bitCount) {
+            throw new EOFException("Truncated .gz stream.");
+        }
+        bitBuffer >>>= length;
+        bitCount -= length;
+        return entry >>> 4;
+    }
+
+    private void ensureHistorySpace(final int n) {
+        if (historyLength + n > history.length) {
+            crc.update(history, crcStart, historyLength - crcStart);
+            final int keep = Math.min(WINDOW_SIZE, historyLength);
+            System.arraycopy(history, historyLength - keep, history, 0, keep);
+            droppedLength += historyLength - keep;
+            historyLength = keep;
+            crcStart = keep;
+        }
+    }
+
+    /**
+     * Inflates the next deflate block of the current member.
+     *
+     * @return whether the block was the last one of the member.
+     */
+    boolean inflateBlock() throws IOException {
+        final boolean last = bits(1) == 1;
+        final int type = (int) bits(2);
+        switch (type) {
+        case 0:
+            inflateStored();
+            break;
+        case 1:
+            inflateCompressed(FIXED_LITERALS, FIXED_DISTANCES);
+            break;
+        case 2:
+            inflateDynamic();
+            break;
+        default:
+            throw new IOException("Invalid deflate block type " + type + ".");
+        }
+        return last;
+    }
+
+    private void inflateCompressed(final int[] literals, final int[] distances) throws IOException {
+        while (true) {
+            final int symbol = decode(literals);
+            if (symbol < 256) {
+                ensureHistorySpace(1);
+                history[historyLength++] = (byte) symbol;
+            } else if (symbol == 256) {
+                return;
+            } else {
+                final int lengthSymbol = symbol - 257;
+                if (lengthSymbol >= LENGTH_BASE.length) {
+                    throw new IOException("Invalid length symbol " + symbol + " in deflate stream.");
+                }
+                final int length = LENGTH_BASE[lengthSymbol] + (int) bits(LENGTH_EXTRA[lengthSymbol]);
+                final int distanceSymbol = decode(distances);
+                if (distanceSymbol >= DISTANCE_BASE.length) {
+                    throw new IOException("Invalid distance symbol " + distanceSymbol + " in deflate stream.");
+                }
+                final int distance = DISTANCE_BASE[distanceSymbol] + (int) bits(DISTANCE_EXTRA[distanceSymbol]);
+                ensureHistorySpace(length);
+                if (distance > historyLength) {
+                    throw new IOException("Invalid distance " + distance + " too far back in deflate stream.");
+                }
+                // byte by byte as source and destination may overlap
+                for (int i = 0, from = historyLength - distance; i < length; i++) {
+                    history[historyLength++] = history[from++];
+                }
+            }
+        }
+    }
+
+    private void inflateDynamic() throws IOException {
+        final int literalCount = (int) bits(5) + 257;
+        final int distanceCount = (int) bits(5) + 1;
+        final int codeLengthCount = (int) bits(4) + 4;
+        if (literalCount > 286 || distanceCount > 30) {
+            throw new IOException("Too many length or distance symbols in deflate stream.");
+        }
+        final int[] codeLengths = new int[CODE_LENGTHS_ORDER.length];
+        for (int i = 0; i < codeLengthCount; i++) {
+            codeLengths[CODE_LENGTHS_ORDER[i]] = (int) bits(3);
+        }
+        final int[] codeLengthTable = buildTable(codeLengths, codeLengths.length);
+        final int[] lengths = new int[literalCount + distanceCount];
+        int i = 0;
+        while (i < lengths.length) {
+            final int symbol = decode(codeLengthTable);
+            if (symbol < 16) {
+                lengths[i++] = symbol;
+            } else {
+                final int value;
+                final int repeat;
+                if (symbol == 16) {
+                    if (i == 0) {
+                        throw new IOException("Repeated code length without previous length in deflate stream.");
+                    }
+                    value = lengths[i - 1];
+                    repeat = 3 + (int) bits(2);
+                } else {
+                    value = 0;
+                    repeat = symbol == 17 ? 3 + (int) bits(3) : 11 + (int) bits(7);
+                }
+                if (i + repeat > lengths.length) {
+                    throw new IOException("Too many code lengths in deflate stream.");
+                }
+                Arrays.fill(lengths, i, i + repeat, value);
+                i += repeat;
+            }
+        }
+        if (lengths[256] == 0) {
+            throw new IOException("Missing end of block code in deflate stream.");
+        }
+        inflateCompressed(buildTable(lengths, literalCount), buildTable(Arrays.copyOfRange(lengths, literalCount, lengths.length), distanceCount));
+    }
+
+    private void inflateStored() throws IOException {
+        alignWithByteBoundary();
+        final int length = (int) bits(16);
+        if ((length ^ 0xffff) != (int) bits(16)) {
+            throw new IOException("Invalid stored block lengths in deflate stream.");
+        }
+        for (int i = 0; i < length; i++) {
+            ensureHistorySpace(1);
+            history[historyLength++] = (byte) bits(Byte.SIZE);
+        }
+    }
+
+    /**
+     * Gets the number of bytes decompressed from the current member so far.
+     */
+    long memberLength() {
+        return droppedLength + historyLength;
+    }
+
+    private int readByte() throws IOException {
+        return (int) bits(Byte.SIZE);
+    }
+
+    /**
+     * Reads the header of the next member.
+     *
+     * @return false if the end of the input has been reached after at least one member.
+     */
+    boolean readMemberHeader(final boolean isFirstMember) throws IOException {
+        refill();
+        if (bitCount == 0 && !isFirstMember) {
+            return false;
+        }
+        if (bitCount < 16 || readByte() != GzipUtils.ID1 || readByte() != GzipUtils.ID2) {
+            throw new IOException(isFirstMember ? "Input is not in the .gz format." : "Unexpected data after a valid .gz stream.");
+        }
+        final int method = readByte();
+        if (method != Deflater.DEFLATED) {
+            throw new IOException("Unsupported compression method " + method + " in the .gz header");
+        }
+        final int flg = readByte();
+        if ((flg & GzipUtils.FRESERVED) != 0) {
+            throw new IOException("Reserved flags are set in the .gz header.");
+        }
+        bits(32); // modification time
+        bits(16); // extra flags and operating system
+        if ((flg & GzipUtils.FEXTRA) != 0) {
+            final int xlen = (int) bits(16);
+            for (int i = 0; i < xlen; i++) {
+                readByte();
+            }
+        }
+        if ((flg & GzipUtils.FNAME) != 0) {
+            while (readByte() != 0) { // NOSONAR
+                // skip
+            }
+        }
+        if ((flg & GzipUtils.FCOMMENT) != 0) {
+            while (readByte() != 0) { // NOSONAR
+                // skip
+            }
+        }
+        if ((flg & GzipUtils.FHCRC) != 0) {
+            bits(16);
+        }
+        crc.reset();
+        historyLength = 0;
+        crcStart = 0;
+        droppedLength = 0;
+        return true;
+    }
+
+    /**
+     * Reads and verifies the trailer of the current member.
+     */
+    void readMemberTrailer() throws IOException {
+        alignWithByteBoundary();
+        crc.update(history, crcStart, historyLength - crcStart);
+        crcStart = historyLength;
+        if (bits(32) != crc.getValue()) {
+            throw new IOException("Gzip-compressed data is corrupt (CRC32 error).");
+        }
+        if (bits(32) != (memberLength() & 0xffffffffL)) {
+            throw new IOException("Gzip-compressed data is corrupt (uncompressed size mismatch).");
+        }
+    }
+
+    private void refill() throws IOException {
+        while (bitCount <= Long.SIZE - Byte.SIZE) {
+            if (!input.hasRemaining()) {
+                input.clear();
+                final int n = channel.read(input);
+                input.flip();
+                if (n <= 0) {
+                    return;
+                }
+            }
+            bitBuffer |= (input.get() & 0xffL) << bitCount;
+            bitCount += Byte.SIZE;
+            bytesFetched++;
+        }
+    }
+
+    /**
+     * Gets the last 32 KiB, or less at the start of a member, decompressed from the current member.
+     */
+    byte[] window() {
+        return Arrays.copyOfRange(history, historyLength - Math.min(WINDOW_SIZE, historyLength), historyLength);
+    }
+}
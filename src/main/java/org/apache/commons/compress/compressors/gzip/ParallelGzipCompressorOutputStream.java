@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.deflate.ParallelDeflater;
+import org.apache.commons.io.build.AbstractStreamBuilder;
+
+// @formatter:off
+/**
+ * Compressed output stream using the gzip format, compressing chunks of the input in parallel like <a href="https://zlib.net/pigz/">pigz</a>.
+ * <p>
+ * The input is split into chunks which are deflated concurrently on an {@link ExecutorService}. Each chunk but the first is primed with the last 32 KiB of
+ * the preceding input as preset dictionary, so matches still reach back across chunk boundaries, and each chunk but the last ends with a sync flush so the
+ * compressed chunks can simply be concatenated. The CRC-32 values of the chunks are combined into the one of the whole input. The result is a single
+ * standard gzip member that any gzip decoder reads, with the header fields of the given {@link GzipParameters}. Input that fits into a single chunk is
+ * deflated on the calling thread. The chunks are deflated by a {@link ParallelDeflater}.
+ * </p>
+ * <p>
+ * For example:
+ * </p>
+ * <pre>{@code
+ * ParallelGzipCompressorOutputStream s = ParallelGzipCompressorOutputStream.builder()
+ *   .setPath(path)
+ *   .setGzipParameters(parameters)
+ *   .setExecutorService(executorService)
+ *   .get();
+ * }
+ * </pre>
+ * <p>
+ * The output differs from the one of {@link GzipCompressorOutputStream} and is usually a little larger, as the deflate blocks end at chunk boundaries.
+ * </p>
+ *
+ * @NotThreadSafe
+ * @see GzipCompressorOutputStream
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc1952">RFC 1952 GZIP File Format Specification</a>
+ * @since 1.28.0
+ */
+// @formatter:on
+public class ParallelGzipCompressorOutputStream extends CompressorOutputStream<OutputStream> {
+
+    // @formatter:off
+    /**
+     * Builds a new {@link ParallelGzipCompressorOutputStream}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * ParallelGzipCompressorOutputStream s = ParallelGzipCompressorOutputStream.builder()
+     *   .setPath(path)
+     *   .setGzipParameters(parameters)
+     *   .setExecutorService(executorService)
+     *   .setChunkSize(256 * 1024)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<ParallelGzipCompressorOutputStream, Builder> {
+
+        private GzipParameters gzipParameters = new GzipParameters();
+
+        private ExecutorService executorService;
+
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Constructs a new builder of {@link ParallelGzipCompressorOutputStream}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link ParallelGzipCompressorOutputStream}.
+         * <p>
+         * You must set output that supports {@link #getOutputStream()} and an executor service, otherwise, this method throws an exception.
+         * </p>
+         *
+         * @return a new instance.
+         * @throws IOException              if an I/O error occurs writing the member header.
+         * @throws IllegalArgumentException if the chunk size is smaller than 32 KiB or the parallelism is smaller than 1.
+         * @throws NullPointerException     if no executor service is set.
+         */
+        @Override
+        public ParallelGzipCompressorOutputStream get() throws IOException {
+            return new ParallelGzipCompressorOutputStream(this);
+        }
+
+        /**
+         * Sets the number of uncompressed bytes deflated by one task, defaults to 128 KiB.
+         * <p>
+         * Larger chunks compress slightly better and need fewer tasks, the chunk size must be at least 32 KiB, the size of the deflate window.
+         * </p>
+         *
+         * @param chunkSize the number of uncompressed bytes deflated by one task.
+         * @return this instance.
+         */
+        public Builder setChunkSize(final int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to deflate chunks, required.
+         * <p>
+         * The stream does not shut down the executor.
+         * </p>
+         *
+         * @param executorService the executor used to deflate chunks.
+         * @return this instance.
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets the gzip parameters, defaults to {@code new GzipParameters()}.
+         * <p>
+         * The compression level, deflate strategy, buffer size and all header fields are honored.
+         * </p>
+         *
+         * @param gzipParameters the gzip parameters, null resets to the default.
+         * @return this instance.
+         */
+        public Builder setGzipParameters(final GzipParameters gzipParameters) {
+            this.gzipParameters = gzipParameters != null ? gzipParameters : new GzipParameters();
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of chunks deflated concurrently, defaults to the number of available processors.
+         *
+         * @param parallelism the maximum number of chunks deflated concurrently.
+         * @return this instance.
+         */
+        public Builder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+    }
+
+    /** The default chunk size, 128 KiB. */
+    private static final int DEFAULT_CHUNK_SIZE = 128 * 1024;
+
+    /**
+     * Creates a new builder.
+     *
+     * @return a new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final ParallelDeflater deflater;
+
+    /** The number of uncompressed bytes written so far. */
+    private long totalIn;
+
+    private boolean finished;
+
+    private ParallelGzipCompressorOutputStream(final Builder builder) throws IOException {
+        super(builder.getOutputStream());
+        final GzipParameters parameters = builder.gzipParameters;
+        this.deflater = new ParallelDeflater(Objects.requireNonNull(builder.executorService, "executorService"), parameters.getCompressionLevel(),
+                parameters.getDeflateStrategy(), parameters.getBufferSize(), builder.chunkSize, builder.parallelism);
+        GzipCompressorOutputStream.writeMemberHeader(out, parameters);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isClosed()) {
+            try {
+                finish();
+            } finally {
+                deflater.close();
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Finishes writing compressed data to the underlying stream without closing it.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            deflater.finish(out::write);
+            writeMemberTrailer();
+        }
+    }
+
+    /**
+     * Deflates and writes all data written so far, ending with a sync flush, and flushes the underlying stream.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!finished) {
+            deflater.flush(out::write);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        checkOpen();
+        if (finished) {
+            throw new IOException("Cannot write more data, the end of the compressed data stream has been reached.");
+        }
+        if (offset < 0 || length < 0 || offset > buffer.length - length) {
+            throw new IndexOutOfBoundsException("offset(" + offset + ") and length(" + length + ") out of bounds for " + buffer.length);
+        }
+        deflater.write(buffer, offset, length, out::write);
+        totalIn += length;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) (b & 0xff) }, 0, 1);
+    }
+
+    /**
+     * Writes the member trailer with the combined checksum and the input size modulo 2<sup>32</sup>.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeMemberTrailer() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt((int) deflater.getCrc32());
+        buffer.putInt((int) totalIn);
+        out.write(buffer.array());
+    }
+
+}
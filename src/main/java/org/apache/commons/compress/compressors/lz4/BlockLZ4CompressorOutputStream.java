@@ -20,15 +20,13 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
 
 import org.apache.commons.compress.compressors.CompressorOutputStream;
 import org.apache.commons.compress.compressors.lz77support.LZ77Compressor;
 import org.apache.commons.compress.compressors.lz77support.Parameters;
-import org.apache.commons.compress.utils.ByteUtils;
 
 /**
  * CompressorOutputStream for the LZ4 block format.
@@ -39,23 +37,33 @@
  */
 public class BlockLZ4CompressorOutputStream extends CompressorOutputStream<OutputStream> {
 
+    /**
+     * A literal block followed by an optional back-reference.
+     *
+     * <p>
+     * Instances get reused once they have been written, the literal data is copied into an array owned by the pair that only grows when needed.
+     * </p>
+     */
     static final class Pair {
 
+        private static final int INITIAL_LITERAL_CAPACITY = 64;
+
         private static int lengths(final int litLength, final int brLength) {
             final int l = Math.min(litLength, 15);
             final int br = brLength < 4 ? 0 : brLength < 19 ? brLength - 4 : 15;
             return l << BlockLZ4CompressorInputStream.SIZE_BITS | br;
         }
 
-        private static void writeLength(int length, final OutputStream out) throws IOException {
+        private static int writeLength(int length, final byte[] buffer, int position) {
             while (length >= 255) {
-                out.write(255);
+                buffer[position++] = (byte) 255;
                 length -= 255;
             }
-            out.write(length);
+            buffer[position++] = (byte) length;
+            return position;
         }
 
-        private final Deque<byte[]> literals = new LinkedList<>();
+        private byte[] literals = new byte[INITIAL_LITERAL_CAPACITY];
 
         private int literalLength;
 
@@ -63,13 +71,10 @@ private static void writeLength(int length, final OutputStream out) throws IOExc
 
         private int brLength;
 
-        private boolean written;
-
-        byte[] addLiteral(final LZ77Compressor.LiteralBlock block) {
-            final byte[] copy = Arrays.copyOfRange(block.getData(), block.getOffset(), block.getOffset() + block.getLength());
-            literals.add(copy);
-            literalLength += copy.length;
-            return copy;
+        void addLiteral(final byte[] data, final int offset, final int length) {
+            ensureLiteralCapacity(literalLength + length);
+            System.arraycopy(data, offset, literals, literalLength, length);
+            literalLength += length;
         }
 
         private int backReferenceLength() {
@@ -80,74 +85,72 @@ boolean canBeWritten(final int lengthOfBlocksAfterThisPair) {
             return hasBackReference() && lengthOfBlocksAfterThisPair >= MIN_OFFSET_OF_LAST_BACK_REFERENCE + MIN_BACK_REFERENCE_LENGTH;
         }
 
-        boolean hasBackReference() {
-            return brOffset > 0;
+        private void ensureLiteralCapacity(final int capacity) {
+            if (capacity > literals.length) {
+                literals = Arrays.copyOf(literals, Math.max(capacity, literals.length << 1));
+            }
         }
 
-        private boolean hasBeenWritten() {
-            return written;
+        boolean hasBackReference() {
+            return brOffset > 0;
         }
 
         int length() {
-            return literalLength() + brLength;
+            return literalLength + brLength;
         }
 
-        private int literalLength() {
-            // This method is performance sensitive
-            if (literalLength != 0) {
-                return literalLength;
-            }
-            int length = 0;
-            for (final byte[] b : literals) {
-                length += b.length;
-            }
-            return literalLength = length;
+        /**
+         * Gets an upper bound for the number of bytes {@link #writeTo} writes.
+         */
+        int maxEncodedLength() {
+            return 1 + literalLength / 255 + 1 + literalLength + 2 + brLength / 255 + 1;
         }
 
-        private void prependLiteral(final byte[] data) {
-            literals.addFirst(data);
-            literalLength += data.length;
+        private void prependLiteral(final byte[] data, final int offset, final int length) {
+            ensureLiteralCapacity(literalLength + length);
+            System.arraycopy(literals, 0, literals, length, literalLength);
+            System.arraycopy(data, offset, literals, 0, length);
+            literalLength += length;
         }
 
         private void prependTo(final Pair other) {
-            final Iterator<byte[]> listBackwards = literals.descendingIterator();
-            while (listBackwards.hasNext()) {
-                other.prependLiteral(listBackwards.next());
-            }
+            other.prependLiteral(literals, 0, literalLength);
+        }
+
+        void reset() {
+            literalLength = 0;
+            brOffset = 0;
+            brLength = 0;
         }
 
-        void setBackReference(final LZ77Compressor.BackReference block) {
+        void setBackReference(final int offset, final int length) {
             if (hasBackReference()) {
                 throw new IllegalStateException();
             }
-            brOffset = block.getOffset();
-            brLength = block.getLength();
+            brOffset = offset;
+            brLength = length;
         }
 
-        private Pair splitWithNewBackReferenceLengthOf(final int newBackReferenceLength) {
-            final Pair p = new Pair();
-            p.literals.addAll(literals);
-            p.brOffset = brOffset;
-            p.brLength = newBackReferenceLength;
-            return p;
-        }
-
-        void writeTo(final OutputStream out) throws IOException {
-            final int litLength = literalLength();
-            out.write(lengths(litLength, brLength));
-            if (litLength >= BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
-                writeLength(litLength - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, out);
-            }
-            for (final byte[] b : literals) {
-                out.write(b);
+        /**
+         * Encodes this pair into the given buffer which must have room for at least {@link #maxEncodedLength} bytes.
+         *
+         * @return the position inside of buffer following the encoded pair
+         */
+        int writeTo(final byte[] buffer, int position) {
+            buffer[position++] = (byte) lengths(literalLength, brLength);
+            if (literalLength >= BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
+                position = writeLength(literalLength - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, buffer, position);
             }
+            System.arraycopy(literals, 0, buffer, position, literalLength);
+            position += literalLength;
             if (hasBackReference()) {
-                ByteUtils.toLittleEndian(out, brOffset, 2);
+                buffer[position++] = (byte) brOffset;
+                buffer[position++] = (byte) (brOffset >> 8);
                 if (brLength - MIN_BACK_REFERENCE_LENGTH >= BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
-                    writeLength(brLength - MIN_BACK_REFERENCE_LENGTH - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, out);
+                    position = writeLength(brLength - MIN_BACK_REFERENCE_LENGTH - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, buffer, position);
                 }
             }
-            written = true;
+            return position;
         }
     }
 
@@ -174,8 +177,18 @@ void writeTo(final OutputStream out) throws IOException {
 
     private static final int MIN_OFFSET_OF_LAST_BACK_REFERENCE = 12;
 
+    // rewriting the final pairs expands at most one back-reference and the less than twelve bytes following it
+    private static final int HISTORY_SIZE = 2 * BlockLZ4CompressorInputStream.WINDOW_SIZE;
+
+    private static final int HISTORY_MASK = HISTORY_SIZE - 1;
+
+    private static final int OUTPUT_BUFFER_SIZE = BlockLZ4CompressorInputStream.WINDOW_SIZE;
+
     /**
      * Returns a builder correctly configured for the LZ4 algorithm.
+     * <p>
+     * Use {@link Parameters.Builder#tunedForLevel(int)} to trade compression speed for ratio like the levels of the reference implementation.
+     * </p>
      *
      * @return a builder correctly configured for the LZ4 algorithm
      */
@@ -189,11 +202,26 @@ public static Parameters.Builder createParameterBuilder() {
 
     // used in one-arg write method
     private final byte[] oneByte = new byte[1];
-    private final Deque<Pair> pairs = new LinkedList<>();
 
-    // keeps track of the last window-size bytes (64k) in order to be
-    // able to expand back-references when needed
-    private final Deque<byte[]> expandedBlocks = new LinkedList<>();
+    // pairs that have not been written, yet
+    private final Deque<Pair> pairs = new ArrayDeque<>();
+
+    // pairs that have been written and can be reused
+    private final Deque<Pair> freePairs = new ArrayDeque<>();
+
+    // the combined length of all pairs that have not been written, yet
+    private int pendingLength;
+
+    // keeps track of the last bytes written to this stream in order
+    // to be able to expand the final back-references when needed
+    private final byte[] history = new byte[HISTORY_SIZE];
+
+    private int historyPosition;
+
+    // collects the encoded pairs until they get written to the underlying stream
+    private byte[] outputBuffer = new byte[OUTPUT_BUFFER_SIZE];
+
+    private int outputLength;
 
     /**
      * Creates a new LZ4 output stream.
@@ -212,74 +240,35 @@ public BlockLZ4CompressorOutputStream(final OutputStream out) {
      */
     public BlockLZ4CompressorOutputStream(final OutputStream out, final Parameters params) {
         super(out);
-        compressor = new LZ77Compressor(params, block -> {
-            switch (block.getType()) {
-            case LITERAL:
-                addLiteralBlock((LZ77Compressor.LiteralBlock) block);
-                break;
-            case BACK_REFERENCE:
-                addBackReference((LZ77Compressor.BackReference) block);
-                break;
-            case EOD:
-                writeFinalLiteralBlock();
-                break;
-            }
-        });
-    }
+        compressor = new LZ77Compressor(params, new LZ77Compressor.TokenCallback() {
 
-    private void addBackReference(final LZ77Compressor.BackReference block) throws IOException {
-        final Pair last = writeBlocksAndReturnUnfinishedPair(block.getLength());
-        last.setBackReference(block);
-        recordBackReference(block);
-        clearUnusedBlocksAndPairs();
-    }
+            @Override
+            public void backReference(final int offset, final int length) throws IOException {
+                addBackReference(offset, length);
+            }
 
-    private void addLiteralBlock(final LZ77Compressor.LiteralBlock block) throws IOException {
-        final Pair last = writeBlocksAndReturnUnfinishedPair(block.getLength());
-        recordLiteral(last.addLiteral(block));
-        clearUnusedBlocksAndPairs();
-    }
+            @Override
+            public void endOfData() throws IOException {
+                writeFinalLiteralBlock();
+            }
 
-    private void clearUnusedBlocks() {
-        int blockLengths = 0;
-        int blocksToKeep = 0;
-        for (final byte[] b : expandedBlocks) {
-            blocksToKeep++;
-            blockLengths += b.length;
-            if (blockLengths >= BlockLZ4CompressorInputStream.WINDOW_SIZE) {
-                break;
+            @Override
+            public void literal(final byte[] data, final int offset, final int length) throws IOException {
+                addLiteralBlock(data, offset, length);
             }
-        }
-        final int size = expandedBlocks.size();
-        for (int i = blocksToKeep; i < size; i++) {
-            expandedBlocks.removeLast();
-        }
+        });
     }
 
-    private void clearUnusedBlocksAndPairs() {
-        clearUnusedBlocks();
-        clearUnusedPairs();
+    private void addBackReference(final int offset, final int length) throws IOException {
+        final Pair last = writeBlocksAndReturnUnfinishedPair(length);
+        last.setBackReference(offset, length);
+        pendingLength += length;
     }
 
-    private void clearUnusedPairs() {
-        int pairLengths = 0;
-        int pairsToKeep = 0;
-        for (final Iterator<Pair> it = pairs.descendingIterator(); it.hasNext();) {
-            final Pair p = it.next();
-            pairsToKeep++;
-            pairLengths += p.length();
-            if (pairLengths >= BlockLZ4CompressorInputStream.WINDOW_SIZE) {
-                break;
-            }
-        }
-        final int size = pairs.size();
-        for (int i = pairsToKeep; i < size; i++) {
-            final Pair p = pairs.peekFirst();
-            if (!p.hasBeenWritten()) {
-                break;
-            }
-            pairs.removeFirst();
-        }
+    private void addLiteralBlock(final byte[] data, final int offset, final int length) throws IOException {
+        final Pair last = writeBlocksAndReturnUnfinishedPair(length);
+        last.addLiteral(data, offset, length);
+        pendingLength += length;
     }
 
     @Override
@@ -291,57 +280,6 @@ public void close() throws IOException {
         }
     }
 
-    private byte[] expand(final int offset, final int length) {
-        final byte[] expanded = new byte[length];
-        if (offset == 1) { // surprisingly common special case
-            final byte[] block = expandedBlocks.peekFirst();
-            final byte b = block[block.length - 1];
-            if (b != 0) { // the fresh array contains 0s anyway
-                Arrays.fill(expanded, b);
-            }
-        } else {
-            expandFromList(expanded, offset, length);
-        }
-        return expanded;
-    }
-
-    private void expandFromList(final byte[] expanded, final int offset, final int length) {
-        int offsetRemaining = offset;
-        int lengthRemaining = length;
-        int writeOffset = 0;
-        while (lengthRemaining > 0) {
-            // find block that contains offsetRemaining
-            byte[] block = null;
-            final int copyLen;
-            final int copyOffset;
-            if (offsetRemaining > 0) {
-                int blockOffset = 0;
-                for (final byte[] b : expandedBlocks) {
-                    if (b.length + blockOffset >= offsetRemaining) {
-                        block = b;
-                        break;
-                    }
-                    blockOffset += b.length;
-                }
-                if (block == null) {
-                    // should not be possible
-                    throw new IllegalStateException("Failed to find a block containing offset " + offset);
-                }
-                copyOffset = blockOffset + block.length - offsetRemaining;
-                copyLen = Math.min(lengthRemaining, block.length - copyOffset);
-            } else {
-                // offsetRemaining is negative or 0 and points into the expanded bytes
-                block = expanded;
-                copyOffset = -offsetRemaining;
-                copyLen = Math.min(lengthRemaining, writeOffset + offsetRemaining);
-            }
-            System.arraycopy(block, copyOffset, expanded, writeOffset, copyLen);
-            offsetRemaining -= copyLen;
-            lengthRemaining -= copyLen;
-            writeOffset += copyLen;
-        }
-    }
-
     /**
      * Compresses all remaining data and writes it to the stream, doesn't close the underlying stream.
      *
@@ -355,6 +293,18 @@ public void finish() throws IOException {
         }
     }
 
+    private void flushOutputBuffer() throws IOException {
+        if (outputLength > 0) {
+            out.write(outputBuffer, 0, outputLength);
+            outputLength = 0;
+        }
+    }
+
+    private Pair newPair() {
+        final Pair p = freePairs.pollFirst();
+        return p != null ? p : new Pair();
+    }
+
     /**
      * Adds some initial data to fill the window with.
      *
@@ -368,36 +318,39 @@ public void prefill(final byte[] data, final int off, final int len) {
         if (len > 0) {
             final byte[] b = Arrays.copyOfRange(data, off, off + len);
             compressor.prefill(b);
-            recordLiteral(b);
+            recordHistory(b, 0, len);
+        }
+    }
+
+    /**
+     * Prepends the {@code length} bytes starting {@code distance} bytes before the end of the data written so far to the literal of the given pair.
+     */
+    private void prependHistory(final Pair target, final int distance, final int length) {
+        final int start = historyPosition - distance & HISTORY_MASK;
+        final int first = Math.min(length, HISTORY_SIZE - start);
+        if (length > first) {
+            target.prependLiteral(history, 0, length - first);
         }
+        target.prependLiteral(history, start, first);
     }
 
-    private void recordBackReference(final LZ77Compressor.BackReference block) {
-        expandedBlocks.addFirst(expand(block.getOffset(), block.getLength()));
+    private void recordHistory(final byte[] data, int off, int len) {
+        if (len > HISTORY_SIZE) {
+            off += len - HISTORY_SIZE;
+            len = HISTORY_SIZE;
+        }
+        final int first = Math.min(len, HISTORY_SIZE - historyPosition);
+        System.arraycopy(data, off, history, historyPosition, first);
+        System.arraycopy(data, off + first, history, 0, len - first);
+        historyPosition = historyPosition + len & HISTORY_MASK;
     }
 
-    private void recordLiteral(final byte[] b) {
-        expandedBlocks.addFirst(b);
+    private void recycle(final Pair p) {
+        p.reset();
+        freePairs.addFirst(p);
     }
 
     private void rewriteLastPairs() {
-        final LinkedList<Pair> lastPairs = new LinkedList<>();
-        final LinkedList<Integer> pairLength = new LinkedList<>();
-        int offset = 0;
-        for (final Iterator<Pair> it = pairs.descendingIterator(); it.hasNext();) {
-            final Pair p = it.next();
-            if (p.hasBeenWritten()) {
-                break;
-            }
-            final int len = p.length();
-            pairLength.addFirst(len);
-            lastPairs.addFirst(p);
-            offset += len;
-            if (offset >= MIN_OFFSET_OF_LAST_BACK_REFERENCE) {
-                break;
-            }
-        }
-        lastPairs.forEach(pairs::remove);
         // lastPairs may contain between one and four Pairs:
         // * the last pair may be a one byte literal
         // * all other Pairs contain a back-reference which must be four bytes long at minimum
@@ -422,33 +375,48 @@ private void rewriteLastPairs() {
         // only needs to be five bytes long if the previous
         // back-reference has an offset big enough
 
-        final int lastPairsSize = lastPairs.size();
-        int toExpand = 0;
-        for (int i = 1; i < lastPairsSize; i++) {
-            toExpand += pairLength.get(i);
+        // the pairs are taken from the end, so the last element of lastPairs is the first of the Pairs
+        final Pair[] lastPairs = new Pair[4];
+        int lastPairsSize = 0;
+        int offset = 0;
+        while (offset < MIN_OFFSET_OF_LAST_BACK_REFERENCE && !pairs.isEmpty()) {
+            final Pair p = pairs.removeLast();
+            lastPairs[lastPairsSize++] = p;
+            offset += p.length();
+        }
+        if (lastPairsSize == 0) {
+            return;
         }
-        final Pair replacement = new Pair();
+        final Pair splitCandidate = lastPairs[lastPairsSize - 1];
+        final int toExpand = offset - splitCandidate.length();
+        final Pair replacement = newPair();
         if (toExpand > 0) {
-            replacement.prependLiteral(expand(toExpand, toExpand));
+            prependHistory(replacement, toExpand, toExpand);
         }
-        final Pair splitCandidate = lastPairs.get(0);
         final int stillNeeded = MIN_OFFSET_OF_LAST_BACK_REFERENCE - toExpand;
         final int brLen = splitCandidate.hasBackReference() ? splitCandidate.backReferenceLength() : 0;
         if (splitCandidate.hasBackReference() && brLen >= MIN_BACK_REFERENCE_LENGTH + stillNeeded) {
-            replacement.prependLiteral(expand(toExpand + stillNeeded, stillNeeded));
-            pairs.add(splitCandidate.splitWithNewBackReferenceLengthOf(brLen - stillNeeded));
+            prependHistory(replacement, toExpand + stillNeeded, stillNeeded);
+            splitCandidate.brLength = brLen - stillNeeded;
+            pairs.add(splitCandidate);
         } else {
             if (splitCandidate.hasBackReference()) {
-                replacement.prependLiteral(expand(toExpand + brLen, brLen));
+                prependHistory(replacement, toExpand + brLen, brLen);
             }
             splitCandidate.prependTo(replacement);
+            recycle(splitCandidate);
+        }
+        for (int i = 0; i < lastPairsSize - 1; i++) {
+            recycle(lastPairs[i]);
         }
         pairs.add(replacement);
     }
 
     @Override
     public void write(final byte[] data, final int off, final int len) throws IOException {
+        recordHistory(data, off, len);
         compressor.compress(data, off, len);
+        flushOutputBuffer();
     }
 
     @Override
@@ -461,7 +429,7 @@ private Pair writeBlocksAndReturnUnfinishedPair(final int length) throws IOExcep
         writeWritablePairs(length);
         Pair last = pairs.peekLast();
         if (last == null || last.hasBackReference()) {
-            last = new Pair();
+            last = newPair();
             pairs.addLast(last);
         }
         return last;
@@ -469,32 +437,38 @@ private Pair writeBlocksAndReturnUnfinishedPair(final int length) throws IOExcep
 
     private void writeFinalLiteralBlock() throws IOException {
         rewriteLastPairs();
-        for (final Pair p : pairs) {
-            if (!p.hasBeenWritten()) {
-                p.writeTo(out);
-            }
+        Pair p;
+        while ((p = pairs.pollFirst()) != null) {
+            writePair(p);
+            recycle(p);
         }
-        pairs.clear();
+        pendingLength = 0;
+        flushOutputBuffer();
     }
 
-    private void writeWritablePairs(final int lengthOfBlocksAfterLastPair) throws IOException {
-        int unwrittenLength = lengthOfBlocksAfterLastPair;
-        for (final Iterator<Pair> it = pairs.descendingIterator(); it.hasNext();) {
-            final Pair p = it.next();
-            if (p.hasBeenWritten()) {
-                break;
+    private void writePair(final Pair p) throws IOException {
+        final int maxLength = p.maxEncodedLength();
+        if (outputLength + maxLength > outputBuffer.length) {
+            flushOutputBuffer();
+            if (maxLength > outputBuffer.length) {
+                outputBuffer = new byte[maxLength];
             }
-            unwrittenLength += p.length();
         }
-        for (final Pair p : pairs) {
-            if (p.hasBeenWritten()) {
-                continue;
-            }
+        outputLength = p.writeTo(outputBuffer, outputLength);
+    }
+
+    private void writeWritablePairs(final int lengthOfBlocksAfterLastPair) throws IOException {
+        int unwrittenLength = pendingLength + lengthOfBlocksAfterLastPair;
+        Pair p;
+        while ((p = pairs.peekFirst()) != null) {
             unwrittenLength -= p.length();
             if (!p.canBeWritten(unwrittenLength)) {
                 break;
             }
-            p.writeTo(out);
+            pairs.removeFirst();
+            pendingLength -= p.length();
+            writePair(p);
+            recycle(p);
         }
     }
 }
@@ -18,12 +18,18 @@
  */
 package org.apache.commons.compress.compressors.lz4;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.compress.compressors.CompressorOutputStream;
 import org.apache.commons.compress.utils.ByteUtils;
+import org.apache.commons.compress.utils.FutureUtils;
+import org.apache.commons.io.build.AbstractStreamBuilder;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 
 /**
  * CompressorOutputStream for the LZ4 frame format.
@@ -32,12 +38,84 @@
  * Based on the "spec" in the version "1.5.1 (31/03/2015)"
  * </p>
  *
+ * <h2>Parallel compression</h2>
+ * <p>
+ * When blocks don't depend on each other, they can be compressed concurrently by setting an {@link ExecutorService} with
+ * {@link Builder#setExecutorService(ExecutorService)}. Each full block is compressed on that executor while the caller keeps filling the next block, the
+ * blocks are written in order and the output is identical to the output of the single threaded stream. At most {@link Builder#setParallelism(int)
+ * parallelism} blocks are compressed at the same time, each of them holds its uncompressed and compressed data in memory.
+ * </p>
+ *
  * @see <a href="https://lz4.github.io/lz4/lz4_Frame_format.html">LZ4 Frame Format Description</a>
  * @since 1.14
  * @NotThreadSafe
  */
 public class FramedLZ4CompressorOutputStream extends CompressorOutputStream<OutputStream> {
 
+    /**
+     * Compresses a single block and writes it in the format of a data block of the frame.
+     */
+    private static final class BlockEncoder {
+
+        private final Parameters params;
+
+        private final UnsynchronizedByteArrayOutputStream compressed = UnsynchronizedByteArrayOutputStream.builder().get();
+
+        // used for block checksum, if requested
+        private final org.apache.commons.codec.digest.XXHash32 blockHash;
+
+        private byte[] data;
+
+        private int length;
+
+        BlockEncoder(final Parameters params, final byte[] data) {
+            this.params = params;
+            this.data = data;
+            blockHash = params.withBlockChecksum ? new org.apache.commons.codec.digest.XXHash32() : null;
+        }
+
+        /**
+         * Compresses the block, the last {@code dictionaryLength} bytes of {@code dictionary} are used as initial window if the length is positive.
+         */
+        BlockEncoder encode(final byte[] dictionary, final int dictionaryLength) throws IOException {
+            compressed.reset();
+            try (BlockLZ4CompressorOutputStream o = new BlockLZ4CompressorOutputStream(compressed, params.lz77params)) {
+                if (dictionaryLength > 0) {
+                    o.prefill(dictionary, dictionary.length - dictionaryLength, dictionaryLength);
+                }
+                o.write(data, 0, length);
+            }
+            if (blockHash != null) {
+                blockHash.reset();
+                if (isStored()) {
+                    blockHash.update(data, 0, length);
+                } else {
+                    final byte[] b = compressed.toByteArray();
+                    blockHash.update(b, 0, b.length);
+                }
+            }
+            return this;
+        }
+
+        private boolean isStored() {
+            // compression increased size, maybe beyond blocksize
+            return compressed.size() > length;
+        }
+
+        void writeTo(final OutputStream out) throws IOException {
+            if (isStored()) {
+                ByteUtils.toLittleEndian(out, length | FramedLZ4CompressorInputStream.UNCOMPRESSED_FLAG_MASK, 4);
+                out.write(data, 0, length);
+            } else {
+                ByteUtils.toLittleEndian(out, compressed.size(), 4);
+                compressed.writeTo(out);
+            }
+            if (blockHash != null) {
+                ByteUtils.toLittleEndian(out, blockHash.getValue(), 4);
+            }
+        }
+    }
+
     /**
      * Enumerates the block sizes supported by the format.
      */
@@ -72,6 +150,84 @@ int getSize() {
         }
     }
 
+    // @formatter:off
+    /**
+     * Builds a new {@link FramedLZ4CompressorOutputStream}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * FramedLZ4CompressorOutputStream s = FramedLZ4CompressorOutputStream.builder()
+     *   .setPath(path)
+     *   .setParameters(new FramedLZ4CompressorOutputStream.Parameters(BlockSize.M1))
+     *   .setExecutorService(executorService)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     * @since 1.28.0
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<FramedLZ4CompressorOutputStream, Builder> {
+
+        private Parameters parameters = Parameters.DEFAULT;
+
+        private ExecutorService executorService;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Constructs a new builder of {@link FramedLZ4CompressorOutputStream}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        @Override
+        public FramedLZ4CompressorOutputStream get() throws IOException {
+            return new FramedLZ4CompressorOutputStream(this);
+        }
+
+        /**
+         * Sets the executor used to compress blocks in parallel, defaults to {@code null} which compresses all blocks on the calling thread.
+         * <p>
+         * The executor is not used if the parameters enable block dependency as each block needs the content of the previous one. The stream does not shut
+         * down the executor.
+         * </p>
+         *
+         * @param executorService the executor used to compress blocks, or {@code null}.
+         * @return this instance.
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of blocks compressed at the same time when an executor is set, defaults to the number of available processors.
+         *
+         * @param parallelism the maximum number of blocks compressed at the same time.
+         * @return this instance.
+         */
+        public Builder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the parameters of the frame, defaults to {@link Parameters#DEFAULT}.
+         *
+         * @param parameters the parameters to use.
+         * @return this instance.
+         */
+        public Builder setParameters(final Parameters parameters) {
+            this.parameters = parameters;
+            return this;
+        }
+    }
+
     /**
      * Parameters of the LZ4 frame format.
      */
@@ -153,15 +309,44 @@ public String toString() {
     }
 
     private static final byte[] END_MARK = new byte[4];
+
+    /**
+     * Constructs a new builder of {@link FramedLZ4CompressorOutputStream}.
+     *
+     * @return a new builder of {@link FramedLZ4CompressorOutputStream}.
+     * @since 1.28.0
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
     // used in one-arg write method
     private final byte[] oneByte = new byte[1];
-    private final byte[] blockData;
+    private byte[] blockData;
     private final Parameters params;
 
     // used for frame header checksum and content checksum, if requested
     private final org.apache.commons.codec.digest.XXHash32 contentHash = new org.apache.commons.codec.digest.XXHash32();
-    // used for block checksum, if requested
-    private final org.apache.commons.codec.digest.XXHash32 blockHash;
+
+    // compresses the blocks on the calling thread, shares blockData
+    private final BlockEncoder blockEncoder;
+
+    /**
+     * Compresses full blocks in parallel, {@code null} when all blocks are compressed on the calling thread.
+     */
+    private final ExecutorService executorService;
+
+    private final int parallelism;
+
+    /**
+     * Blocks submitted to the executor in stream order, each future yields the block encoder holding the compressed block.
+     */
+    private final Deque<Future<BlockEncoder>> pendingBlocks = new ArrayDeque<>();
+
+    /**
+     * Block encoders that are not in use.
+     */
+    private final Deque<BlockEncoder> idleBlockEncoders = new ArrayDeque<>();
 
     // only created if the config requires block dependency
     private final byte[] blockDependencyBuffer;
@@ -169,6 +354,10 @@ public String toString() {
     private int collectedBlockDependencyBytes;
     private int currentIndex;
 
+    private FramedLZ4CompressorOutputStream(final Builder builder) throws IOException {
+        this(builder.getOutputStream(), builder.parameters, builder.executorService, builder.parallelism);
+    }
+
     /**
      * Constructs a new output stream that compresses data using the LZ4 frame format using the default block size of 4MB.
      *
@@ -187,10 +376,20 @@ public FramedLZ4CompressorOutputStream(final OutputStream out) throws IOExceptio
      * @throws IOException if writing the signature fails
      */
     public FramedLZ4CompressorOutputStream(final OutputStream out, final Parameters params) throws IOException {
+        this(out, params, null, 1);
+    }
+
+    private FramedLZ4CompressorOutputStream(final OutputStream out, final Parameters params, final ExecutorService executorService, final int parallelism)
+            throws IOException {
         super(out);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") < 1");
+        }
         this.params = params;
+        this.executorService = params.withBlockDependency ? null : executorService;
+        this.parallelism = parallelism;
         blockData = new byte[params.blockSize.getSize()];
-        blockHash = params.withBlockChecksum ? new org.apache.commons.codec.digest.XXHash32() : null;
+        blockEncoder = new BlockEncoder(params, blockData);
         out.write(FramedLZ4CompressorInputStream.LZ4_SIGNATURE);
         writeFrameDescriptor();
         blockDependencyBuffer = params.withBlockDependency ? new byte[BlockLZ4CompressorInputStream.WINDOW_SIZE] : null;
@@ -227,7 +426,18 @@ public void close() throws IOException {
     @Override
     public void finish() throws IOException {
         if (!isFinished()) {
-            flushBlock();
+            try {
+                flushBlock();
+                while (!pendingBlocks.isEmpty()) {
+                    writePendingBlock();
+                }
+            } finally {
+                for (final Future<BlockEncoder> pendingBlock : pendingBlocks) {
+                    pendingBlock.cancel(true);
+                }
+                pendingBlocks.clear();
+                idleBlockEncoders.clear();
+            }
             writeTrailer();
             super.finish();
         }
@@ -237,38 +447,39 @@ private void flushBlock() throws IOException {
         if (currentIndex == 0) {
             return;
         }
-        final boolean withBlockDependency = params.withBlockDependency;
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (BlockLZ4CompressorOutputStream o = new BlockLZ4CompressorOutputStream(baos, params.lz77params)) {
-            if (withBlockDependency) {
-                o.prefill(blockDependencyBuffer, blockDependencyBuffer.length - collectedBlockDependencyBytes, collectedBlockDependencyBytes);
-            }
-            o.write(blockData, 0, currentIndex);
-        }
-        if (withBlockDependency) {
-            appendToBlockDependencyBuffer(blockData, 0, currentIndex);
-        }
-        final byte[] b = baos.toByteArray();
-        if (b.length > currentIndex) { // compression increased size, maybe beyond blocksize
-            ByteUtils.toLittleEndian(out, currentIndex | FramedLZ4CompressorInputStream.UNCOMPRESSED_FLAG_MASK, 4);
-            out.write(blockData, 0, currentIndex);
-            if (params.withBlockChecksum) {
-                blockHash.update(blockData, 0, currentIndex);
-            }
+        if (executorService != null) {
+            submitBlock();
         } else {
-            ByteUtils.toLittleEndian(out, b.length, 4);
-            out.write(b);
-            if (params.withBlockChecksum) {
-                blockHash.update(b, 0, b.length);
+            blockEncoder.length = currentIndex;
+            blockEncoder.encode(blockDependencyBuffer, collectedBlockDependencyBytes);
+            if (params.withBlockDependency) {
+                appendToBlockDependencyBuffer(blockData, 0, currentIndex);
             }
-        }
-        if (params.withBlockChecksum) {
-            ByteUtils.toLittleEndian(out, blockHash.getValue(), 4);
-            blockHash.reset();
+            blockEncoder.writeTo(out);
         }
         currentIndex = 0;
     }
 
+    /**
+     * Hands the current block over to an idle block encoder which compresses it on the executor, the current block continues with the empty buffer of the
+     * encoder.
+     */
+    private void submitBlock() throws IOException {
+        while (!pendingBlocks.isEmpty() && (pendingBlocks.size() >= parallelism || pendingBlocks.peekFirst().isDone())) {
+            writePendingBlock();
+        }
+        BlockEncoder encoder = idleBlockEncoders.pollFirst();
+        if (encoder == null) {
+            encoder = new BlockEncoder(params, new byte[blockData.length]);
+        }
+        final byte[] filledData = blockData;
+        blockData = encoder.data;
+        encoder.data = filledData;
+        encoder.length = currentIndex;
+        final BlockEncoder e = encoder;
+        pendingBlocks.addLast(executorService.submit(() -> e.encode(null, 0)));
+    }
+
     @Override
     public void write(final byte[] data, int off, int len) throws IOException {
         if (params.withContentChecksum) {
@@ -295,6 +506,15 @@ public void write(final int b) throws IOException {
         write(oneByte);
     }
 
+    /**
+     * Waits for the oldest pending block and writes it to the stream.
+     */
+    private void writePendingBlock() throws IOException {
+        final BlockEncoder encoder = FutureUtils.get(pendingBlocks.removeFirst());
+        encoder.writeTo(out);
+        idleBlockEncoders.addLast(encoder);
+    }
+
     private void writeFrameDescriptor() throws IOException {
         int flags = FramedLZ4CompressorInputStream.SUPPORTED_VERSION;
         if (!params.withBlockDependency) {
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.lz4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.compress.compressors.lz77support.LZ77Compressor;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+
+/**
+ * Compresses and decompresses single blocks of the LZ4 block format held in {@link ByteBuffer}s.
+ *
+ * <p>
+ * Unlike {@link BlockLZ4CompressorOutputStream} and {@link BlockLZ4CompressorInputStream} this works on heap and direct buffers without wrapping them into
+ * streams or copying them into intermediate arrays - except for the sliding window of the compressor. An instance reuses its compressor for all blocks, the
+ * blocks are independent of each other.
+ * </p>
+ *
+ * @see <a href="https://lz4.github.io/lz4/lz4_Block_format.html">LZ4 Block Format Description</a>
+ * @since 1.28.0
+ * @NotThreadSafe
+ */
+public class LZ4BlockCodec {
+
+    private static final int MIN_BACK_REFERENCE_LENGTH = 4;
+
+    // the last five bytes of a block are always literals
+    private static final int MIN_LITERALS_AT_END = 5;
+
+    // the last back-reference must start at least twelve bytes before the end of the block
+    private static final int MIN_OFFSET_OF_LAST_BACK_REFERENCE = 12;
+
+    /**
+     * Copies {@code length} bytes starting {@code offset} bytes before the position of {@code dst} to its position, {@code view} is a duplicate of
+     * {@code dst}.
+     */
+    private static void copyBackReference(final ByteBuffer dst, final ByteBuffer view, final int offset, int length) {
+        final int from = dst.position() - offset;
+        while (length > 0) {
+            // the copied bytes must not overlap the bytes written, each round doubles the amount of bytes available
+            final int chunk = Math.min(length, dst.position() - from);
+            view.limit(from + chunk);
+            view.position(from);
+            dst.put(view);
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes from the position of {@code src} to {@code dst} advancing both, {@code view} is a duplicate of {@code src}.
+     */
+    private static void copyLiteral(final ByteBuffer src, final ByteBuffer view, final int length, final ByteBuffer dst) {
+        final int position = src.position();
+        view.limit(position + length);
+        view.position(position);
+        dst.put(view);
+        src.position(position + length);
+    }
+
+    /**
+     * Gets the maximum size of an LZ4 block holding {@code length} bytes of uncompressed data.
+     *
+     * @param length the length of the uncompressed data.
+     * @return the maximum size of the compressed data.
+     * @throws IllegalArgumentException if length is negative or the result would exceed {@link Integer#MAX_VALUE}.
+     */
+    public static int maxCompressedLength(final int length) {
+        final long max = length + (long) length / 255 + 16;
+        if (length < 0 || max > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length is out of range: " + length);
+        }
+        return (int) max;
+    }
+
+    private static int readLength(final ByteBuffer src, int length) throws IOException {
+        int b;
+        do {
+            if (!src.hasRemaining()) {
+                throw new IOException("Premature end of block while parsing length");
+            }
+            b = src.get() & 0xff;
+            length += b;
+            if (length < 0) {
+                throw new IOException("Illegal block with a length exceeding Integer.MAX_VALUE found");
+            }
+        } while (b == 255);
+        return length;
+    }
+
+    private static void writeLength(int length, final ByteBuffer dst) {
+        while (length >= 255) {
+            dst.put((byte) 255);
+            length -= 255;
+        }
+        dst.put((byte) length);
+    }
+
+    private final LZ77Compressor compressor;
+
+    // the state of the block currently compressed, source is a view of the data to compress and positions are relative to sourceStart
+    private ByteBuffer source;
+    private int sourceStart;
+    private int sourceLength;
+    private ByteBuffer target;
+    private int position;
+    private int literalStart;
+
+    /**
+     * Creates a codec using the default parameters of {@link BlockLZ4CompressorOutputStream}.
+     */
+    public LZ4BlockCodec() {
+        this(BlockLZ4CompressorOutputStream.createParameterBuilder().build());
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param params the parameters to use for LZ77 compression, see {@link BlockLZ4CompressorOutputStream#createParameterBuilder()}.
+     */
+    public LZ4BlockCodec(final Parameters params) {
+        compressor = new LZ77Compressor(params, new LZ77Compressor.TokenCallback() {
+
+            @Override
+            public void backReference(final int offset, final int length) {
+                addBackReference(offset, length);
+            }
+
+            @Override
+            public void endOfData() {
+                writeSequence(sourceLength, 0, 0);
+            }
+
+            @Override
+            public void literal(final byte[] data, final int offset, final int length) {
+                // the literals are copied from the source buffer once the next back-reference is known
+                position += length;
+            }
+        });
+    }
+
+    private void addBackReference(final int offset, final int length) {
+        // apply the end of block rules, parts of back-references violating them become literals
+        final int usableLength = Math.min(length, sourceLength - MIN_LITERALS_AT_END - position);
+        if (position + MIN_OFFSET_OF_LAST_BACK_REFERENCE <= sourceLength && usableLength >= MIN_BACK_REFERENCE_LENGTH) {
+            writeSequence(position, offset, usableLength);
+            literalStart = position + usableLength;
+        }
+        position += length;
+    }
+
+    /**
+     * Compresses the remaining bytes of {@code src} into a single LZ4 block written to {@code dst}.
+     *
+     * <p>
+     * The position of {@code src} is advanced to its limit and the position of {@code dst} is advanced by the number of bytes written. {@code dst} should have
+     * at least {@link #maxCompressedLength(int) maxCompressedLength(src.remaining())} bytes remaining.
+     * </p>
+     *
+     * @param src the data to compress.
+     * @param dst the buffer receiving the compressed block.
+     * @return the number of bytes written to {@code dst}.
+     * @throws IOException                      if the compressor fails.
+     * @throws java.nio.BufferOverflowException if {@code dst} is too small.
+     */
+    public int compress(final ByteBuffer src, final ByteBuffer dst) throws IOException {
+        final int dstStart = dst.position();
+        source = src.duplicate();
+        sourceStart = src.position();
+        sourceLength = src.remaining();
+        target = dst;
+        position = 0;
+        literalStart = 0;
+        try {
+            compressor.reset();
+            compressor.compress(src.duplicate());
+            compressor.finish();
+        } finally {
+            source = null;
+            target = null;
+        }
+        src.position(src.limit());
+        return dst.position() - dstStart;
+    }
+
+    /**
+     * Decompresses the remaining bytes of {@code src} which must hold a single LZ4 block to {@code dst}.
+     *
+     * <p>
+     * The position of {@code src} is advanced to its limit and the position of {@code dst} is advanced by the number of bytes written. Back-references may
+     * only refer to data written by this invocation.
+     * </p>
+     *
+     * @param src the compressed block.
+     * @param dst the buffer receiving the uncompressed data.
+     * @return the number of bytes written to {@code dst}.
+     * @throws IOException                      if the block is malformed.
+     * @throws java.nio.BufferOverflowException if {@code dst} is too small.
+     */
+    public int decompress(final ByteBuffer src, final ByteBuffer dst) throws IOException {
+        final int dstStart = dst.position();
+        final ByteBuffer srcView = src.duplicate();
+        final ByteBuffer dstView = dst.duplicate();
+        while (src.hasRemaining()) {
+            final int token = src.get() & 0xff;
+            int literalLength = token >> BlockLZ4CompressorInputStream.SIZE_BITS;
+            if (literalLength == BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
+                literalLength = readLength(src, literalLength);
+            }
+            if (literalLength > src.remaining()) {
+                throw new IOException("Premature end of block reading literal");
+            }
+            copyLiteral(src, srcView, literalLength, dst);
+            if (!src.hasRemaining()) {
+                // the last sequence doesn't contain a back-reference
+                break;
+            }
+            if (src.remaining() < 2) {
+                throw new IOException("Premature end of block reading back-reference offset");
+            }
+            final int offset = src.get() & 0xff | (src.get() & 0xff) << 8;
+            if (offset == 0 || offset > dst.position() - dstStart) {
+                throw new IOException("Illegal block with bad offset found");
+            }
+            int length = token & BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK;
+            if (length == BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
+                length = readLength(src, length);
+            }
+            copyBackReference(dst, dstView, offset, length + MIN_BACK_REFERENCE_LENGTH);
+        }
+        return dst.position() - dstStart;
+    }
+
+    /**
+     * Writes a sequence consisting of the literals between literalStart and end followed by a back-reference unless length is 0.
+     */
+    private void writeSequence(final int end, final int offset, final int length) {
+        final int literalLength = end - literalStart;
+        final int brLength = length - MIN_BACK_REFERENCE_LENGTH;
+        final int token = Math.min(literalLength, BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) << BlockLZ4CompressorInputStream.SIZE_BITS
+                | (length == 0 ? 0 : Math.min(brLength, BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK));
+        target.put((byte) token);
+        if (literalLength >= BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
+            writeLength(literalLength - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, target);
+        }
+        source.limit(sourceStart + end);
+        source.position(sourceStart + literalStart);
+        target.put(source);
+        if (length > 0) {
+            target.put((byte) offset);
+            target.put((byte) (offset >> 8));
+            if (brLength >= BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK) {
+                writeLength(brLength - BlockLZ4CompressorInputStream.BACK_REFERENCE_SIZE_MASK, target);
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@
 package org.apache.commons.compress.compressors.lz77support;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 import org.apache.commons.lang3.ArrayFill;
@@ -51,6 +53,11 @@
  * </p>
  *
  * <p>
+ * Callers that care about allocations per emitted block can register a {@link TokenCallback} instead which receives the same information as primitive
+ * arguments.
+ * </p>
+ *
+ * <p>
  * Several parameters influence the outcome of the "compression":
  * </p>
  * <dl>
@@ -70,6 +77,9 @@
  *
  * <dt>{@code maxLiteralLength}</dt>
  * <dd>Maximal length of a literal block.</dd>
+ *
+ * <dt>{@code matchFinder}</dt>
+ * <dd>The algorithm used to find back-references, see {@link Parameters.MatchFinder}.</dd>
  * </dl>
  *
  * @see "https://tools.ietf.org/html/rfc1951#section-4"
@@ -226,6 +236,50 @@ public interface Callback {
         void accept(Block b) throws IOException;
     }
 
+    /**
+     * Callback invoked with the content of the blocks the compressor emits without creating {@link Block} instances.
+     *
+     * <p>
+     * The callback is invoked on the same thread that receives the bytes to compress and may be invoked multiple times during the execution of
+     * {@link #compress} or {@link #finish}.
+     * </p>
+     *
+     * @since 1.28.0
+     */
+    public interface TokenCallback {
+
+        /**
+         * Consumes a back-reference.
+         *
+         * @param offset the offset of the back-reference
+         * @param length the length of the back-reference
+         * @throws IOException in case of an error
+         */
+        void backReference(int offset, int length) throws IOException;
+
+        /**
+         * Signals the end of data.
+         *
+         * @throws IOException in case of an error
+         */
+        void endOfData() throws IOException;
+
+        /**
+         * Consumes a literal block.
+         *
+         * <p>
+         * For performance reasons the array is the compressor's window, not a copy of it. Don't modify it and process the data immediately as it will get
+         * overwritten sooner or later.
+         * </p>
+         *
+         * @param data   the array holding the literal data
+         * @param offset the offset of the literal data inside of {@code data}
+         * @param length the length of the literal data
+         * @throws IOException in case of an error
+         */
+        void literal(byte[] data, int offset, int length) throws IOException;
+    }
+
     /** A simple "we are done" marker. */
     public static final class EOD extends Block {
 
@@ -290,8 +344,18 @@ public byte[] getData() {
     private static final int HASH_MASK = HASH_SIZE - 1;
 
     private static final int H_SHIFT = 5;
+
+    // the number of bits of the hash code used by the fast match finder
+    private static final int FAST_HASH_BITS = 15;
+
+    // the approximate number of bytes a back-reference takes in the LZ4 and Snappy formats, a literal byte takes one byte
+    private static final int BACK_REFERENCE_COST = 3;
+
+    // back-references of this length are taken right away by the optimal parser, which keeps its effort linear in the length of the matches
+    private static final int MAX_OPTIMAL_NICE_LENGTH = 1024;
+
     private final Parameters params;
-    private final Callback callback;
+    private final TokenCallback callback;
 
     // the sliding window, twice as big as "windowSize" parameter
     private final byte[] window;
@@ -307,6 +371,14 @@ public byte[] getData() {
     private final int[] prev;
     // bit mask used when indexing into prev
     private final int wMask;
+    // the number of bytes hashed by the fast match finder
+    private final int fastHashLength;
+    // the state of the optimal parser, indexed by the number of bytes parsed - the smallest cost of
+    // reaching that position, the length and offset of the last block on the way and the ends of the chosen blocks
+    private final int[] optimalCost;
+    private final int[] optimalLength;
+    private final int[] optimalOffset;
+    private final int[] optimalSteps;
     private boolean initialized;
     // the position inside of window that shall be encoded right now
     private int currentPosition;
@@ -328,6 +400,26 @@ public byte[] getData() {
     // data has been read
     private int missedInserts;
 
+    private static TokenCallback toTokenCallback(final Callback callback) {
+        return new TokenCallback() {
+
+            @Override
+            public void backReference(final int offset, final int length) throws IOException {
+                callback.accept(new BackReference(offset, length));
+            }
+
+            @Override
+            public void endOfData() throws IOException {
+                callback.accept(EOD.INSTANCE);
+            }
+
+            @Override
+            public void literal(final byte[] data, final int offset, final int length) throws IOException {
+                callback.accept(new LiteralBlock(data, offset, length));
+            }
+        };
+    }
+
     /**
      * Initializes a compressor with parameters and a callback.
      *
@@ -336,6 +428,18 @@ public byte[] getData() {
      * @throws NullPointerException if either parameter is {@code null}
      */
     public LZ77Compressor(final Parameters params, final Callback callback) {
+        this(params, toTokenCallback(Objects.requireNonNull(callback, "callback")));
+    }
+
+    /**
+     * Initializes a compressor with parameters and a callback that doesn't require a {@link Block} instance per emitted block.
+     *
+     * @param params   the parameters
+     * @param callback the callback
+     * @throws NullPointerException if either parameter is {@code null}
+     * @since 1.28.0
+     */
+    public LZ77Compressor(final Parameters params, final TokenCallback callback) {
         Objects.requireNonNull(params, "params");
         Objects.requireNonNull(callback, "callback");
 
@@ -347,6 +451,17 @@ public LZ77Compressor(final Parameters params, final Callback callback) {
         wMask = wSize - 1;
         head = ArrayFill.fill(new int[HASH_SIZE], NO_MATCH);
         prev = new int[wSize];
+        fastHashLength = Math.min(4, params.getMinBackReferenceLength());
+        if (params.getMatchFinder() == Parameters.MatchFinder.OPTIMAL) {
+            // lookahead never exceeds windowSize + minBackReferenceLength - 1
+            final int size = wSize + params.getMinBackReferenceLength() + 1;
+            optimalCost = new int[size];
+            optimalLength = new int[size];
+            optimalOffset = new int[size];
+            optimalSteps = new int[size];
+        } else {
+            optimalCost = optimalLength = optimalOffset = optimalSteps = null;
+        }
     }
 
     private void catchUpMissedInserts() {
@@ -356,9 +471,57 @@ private void catchUpMissedInserts() {
     }
 
     private void compress() throws IOException {
+        switch (params.getMatchFinder()) {
+        case FAST:
+            compressFast();
+            break;
+        case OPTIMAL:
+            compressOptimal();
+            break;
+        default:
+            compressHashChain();
+            break;
+        }
+    }
+
+    private void compressFast() throws IOException {
+        final int minMatch = params.getMinBackReferenceLength();
+        final int maxOffset = params.getMaxOffset();
+
+        while (lookahead >= minMatch) {
+            int matchLength = 0;
+            final int hash = fastHash(currentPosition);
+            final int candidate = head[hash];
+            head[hash] = currentPosition;
+            if (candidate != NO_MATCH && currentPosition - candidate <= maxOffset) {
+                matchStart = candidate;
+                matchLength = matchLength(candidate, currentPosition, Math.min(params.getMaxBackReferenceLength(), lookahead));
+            }
+            if (matchLength >= minMatch) {
+                if (blockStart != currentPosition) {
+                    flushLiteralBlock();
+                    blockStart = NO_MATCH;
+                }
+                flushBackReference(matchLength);
+                lookahead -= matchLength;
+                currentPosition += matchLength;
+                blockStart = currentPosition;
+                // only index a position close to the end of the match, like LZ4 does
+                final int tail = currentPosition - 2;
+                if (tail + fastHashLength <= currentPosition + lookahead) {
+                    head[fastHash(tail)] = tail;
+                }
+            } else {
+                appendLiteral();
+            }
+        }
+    }
+
+    private void compressHashChain() throws IOException {
         final int minMatch = params.getMinBackReferenceLength();
         final boolean lazy = params.getLazyMatching();
         final int lazyThreshold = params.getLazyMatchingThreshold();
+        final int lazySteps = params.getLazySteps();
 
         while (lookahead >= minMatch) {
             catchUpMissedInserts();
@@ -368,9 +531,15 @@ private void compress() throws IOException {
                 // sets matchStart as a side effect
                 matchLength = longestMatch(hashHead);
 
-                if (lazy && matchLength <= lazyThreshold && lookahead > minMatch) {
+                // every successful step adds a byte to the literal block
+                for (int step = 0; lazy && step < lazySteps && matchLength <= lazyThreshold && lookahead > minMatch
+                        && (step == 0 || currentPosition - blockStart < params.getMaxLiteralLength() - 1); step++) {
                     // try to find a longer match using the next position
+                    final int position = currentPosition;
                     matchLength = longestMatchForNextPosition(matchLength);
+                    if (currentPosition == position) {
+                        break;
+                    }
                 }
             }
             if (matchLength >= minMatch) {
@@ -385,11 +554,93 @@ private void compress() throws IOException {
                 currentPosition += matchLength;
                 blockStart = currentPosition;
             } else {
-                // no match, append to current or start a new literal
-                lookahead--;
-                currentPosition++;
-                if (currentPosition - blockStart >= params.getMaxLiteralLength()) {
-                    flushLiteralBlock();
+                appendLiteral();
+            }
+        }
+    }
+
+    /**
+     * Parses all available data at once, choosing the sequence of literals and back-references with the smallest estimated size.
+     * <p>
+     * Every position is inserted into the hash chains and searched for its longest match, every length between the minimal back-reference length and the
+     * length of that match is considered a candidate. A match of at least the nice length ends the parse right after it.
+     * </p>
+     */
+    private void compressOptimal() throws IOException {
+        final int minMatch = params.getMinBackReferenceLength();
+        final int niceLength = Math.min(params.getNiceBackReferenceLength(), MAX_OPTIMAL_NICE_LENGTH);
+
+        while (lookahead >= minMatch) {
+            catchUpMissedInserts();
+            final int start = currentPosition;
+            final int available = lookahead;
+            // positions whose hash can be computed with the data available
+            final int hashable = available - NUMBER_OF_BYTES_IN_HASH + 1;
+            int end = available;
+            int inserted = 0;
+            Arrays.fill(optimalCost, 1, end + 1, Integer.MAX_VALUE);
+            optimalCost[0] = 0;
+            for (int p = 0; p < end; p++) {
+                final int cost = optimalCost[p];
+                if (cost + 1 < optimalCost[p + 1]) {
+                    optimalCost[p + 1] = cost + 1;
+                    optimalLength[p + 1] = 1;
+                }
+                if (p >= hashable) {
+                    continue;
+                }
+                final int hashHead = insertString(start + p);
+                inserted = p + 1;
+                if (hashHead == NO_MATCH || available - p < minMatch) {
+                    continue;
+                }
+                final int length = longestMatch(hashHead, start + p, available - p);
+                if (length < minMatch) {
+                    continue;
+                }
+                final int offset = start + p - matchStart;
+                final int matchCost = cost + BACK_REFERENCE_COST;
+                if (length >= niceLength) {
+                    // take the match right away
+                    if (matchCost < optimalCost[p + length]) {
+                        optimalCost[p + length] = matchCost;
+                        optimalLength[p + length] = length;
+                        optimalOffset[p + length] = offset;
+                    }
+                    end = p + length;
+                    for (; inserted < Math.min(end, hashable); inserted++) {
+                        insertString(start + inserted);
+                    }
+                    break;
+                }
+                for (int l = minMatch; l <= length; l++) {
+                    if (matchCost < optimalCost[p + l]) {
+                        optimalCost[p + l] = matchCost;
+                        optimalLength[p + l] = l;
+                        optimalOffset[p + l] = offset;
+                    }
+                }
+            }
+            // all positions up to end are consumed, the last ones may lack the data to be inserted
+            missedInserts = end - inserted;
+            int steps = 0;
+            for (int q = end; q > 0; q -= optimalLength[q]) {
+                optimalSteps[steps++] = q;
+            }
+            while (steps > 0) {
+                final int q = optimalSteps[--steps];
+                final int length = optimalLength[q];
+                if (length == 1) {
+                    appendLiteral();
+                } else {
+                    if (blockStart != currentPosition) {
+                        flushLiteralBlock();
+                        blockStart = NO_MATCH;
+                    }
+                    matchStart = currentPosition - optimalOffset[q];
+                    flushBackReference(length);
+                    lookahead -= length;
+                    currentPosition += length;
                     blockStart = currentPosition;
                 }
             }
@@ -426,13 +677,30 @@ public void compress(final byte[] data, int off, int len) throws IOException {
         }
     }
 
-    // performs the actual algorithm with the pre-condition len <= windowSize
-    private void doCompress(final byte[] data, final int off, final int len) throws IOException {
-        final int spaceLeft = window.length - currentPosition - lookahead;
-        if (len > spaceLeft) {
-            slide();
+    /**
+     * Feeds the remaining bytes of a buffer into the compressor which in turn may emit zero or more blocks to the callback during the execution of this
+     * method.
+     *
+     * <p>
+     * The bytes are copied into the sliding window directly, this works for heap and direct buffers alike. The position of the buffer is advanced to its
+     * limit.
+     * </p>
+     *
+     * @param data the data to compress - must not be null
+     * @throws IOException if the callback throws an exception
+     * @since 1.28.0
+     */
+    public void compress(final ByteBuffer data) throws IOException {
+        final int wSize = params.getWindowSize();
+        while (data.hasRemaining()) { // chop into windowSize sized chunks
+            final int len = Math.min(wSize, data.remaining());
+            data.get(window, makeRoomFor(len), len);
+            compressAppended(len);
         }
-        System.arraycopy(data, off, window, currentPosition + lookahead, len);
+    }
+
+    // processes len bytes that have just been appended to the lookahead
+    private void compressAppended(final int len) throws IOException {
         lookahead += len;
         if (!initialized && lookahead >= params.getMinBackReferenceLength()) {
             initialize();
@@ -442,6 +710,12 @@ private void doCompress(final byte[] data, final int off, final int len) throws
         }
     }
 
+    // performs the actual algorithm with the pre-condition len <= windowSize
+    private void doCompress(final byte[] data, final int off, final int len) throws IOException {
+        System.arraycopy(data, off, window, makeRoomFor(len), len);
+        compressAppended(len);
+    }
+
     /**
      * Tells the compressor to process all remaining data and signal end of data to the callback.
      *
@@ -456,15 +730,38 @@ public void finish() throws IOException {
             currentPosition += lookahead;
             flushLiteralBlock();
         }
-        callback.accept(EOD.INSTANCE);
+        callback.endOfData();
+    }
+
+    /**
+     * Appends the byte at the current position to the current literal block or starts a new one.
+     */
+    private void appendLiteral() throws IOException {
+        lookahead--;
+        currentPosition++;
+        if (currentPosition - blockStart >= params.getMaxLiteralLength()) {
+            flushLiteralBlock();
+            blockStart = currentPosition;
+        }
+    }
+
+    /**
+     * Calculates the hash of the bytes at the given position used by the fast match finder.
+     */
+    private int fastHash(final int pos) {
+        int value = 0;
+        for (int i = 0; i < fastHashLength; i++) {
+            value = value << 8 | window[pos + i] & 0xFF;
+        }
+        return value * 0x9E3779B1 >>> 32 - FAST_HASH_BITS;
     }
 
     private void flushBackReference(final int matchLength) throws IOException {
-        callback.accept(new BackReference(currentPosition - matchStart, matchLength));
+        callback.backReference(currentPosition - matchStart, matchLength);
     }
 
     private void flushLiteralBlock() throws IOException {
-        callback.accept(new LiteralBlock(window, blockStart, currentPosition - blockStart));
+        callback.literal(window, blockStart, currentPosition - blockStart);
     }
 
     private void initialize() {
@@ -507,21 +804,26 @@ private void insertStringsInMatch(final int matchLength) {
      * Sets matchStart to the index of the start position of the longest match as a side effect.
      * </p>
      */
-    private int longestMatch(int matchHead) {
+    private int longestMatch(final int matchHead) {
+        return longestMatch(matchHead, currentPosition, lookahead);
+    }
+
+    /**
+     * Searches the hash chain for the longest match of the data at the given position with the given number of bytes available.
+     *
+     * <p>
+     * Sets matchStart to the index of the start position of the longest match as a side effect.
+     * </p>
+     */
+    private int longestMatch(int matchHead, final int position, final int available) {
         final int minLength = params.getMinBackReferenceLength();
         int longestMatchLength = minLength - 1;
-        final int maxPossibleLength = Math.min(params.getMaxBackReferenceLength(), lookahead);
-        final int minIndex = Math.max(0, currentPosition - params.getMaxOffset());
+        final int maxPossibleLength = Math.min(params.getMaxBackReferenceLength(), available);
+        final int minIndex = Math.max(0, position - params.getMaxOffset());
         final int niceBackReferenceLength = Math.min(maxPossibleLength, params.getNiceBackReferenceLength());
         final int maxCandidates = params.getMaxCandidates();
         for (int candidates = 0; candidates < maxCandidates && matchHead >= minIndex; candidates++) {
-            int currentLength = 0;
-            for (int i = 0; i < maxPossibleLength; i++) {
-                if (window[matchHead + i] != window[currentPosition + i]) {
-                    break;
-                }
-                currentLength++;
-            }
+            final int currentLength = matchLength(matchHead, position, maxPossibleLength);
             if (currentLength > longestMatchLength) {
                 longestMatchLength = currentLength;
                 matchStart = matchHead;
@@ -535,6 +837,17 @@ private int longestMatch(int matchHead) {
         return longestMatchLength; // < minLength if no matches have been found, will be ignored in compress()
     }
 
+    /**
+     * Counts the bytes at the given positions that are the same, up to the given maximum.
+     */
+    private int matchLength(final int candidate, final int position, final int maxLength) {
+        int length = 0;
+        while (length < maxLength && window[candidate + length] == window[position + length]) {
+            length++;
+        }
+        return length;
+    }
+
     private int longestMatchForNextPosition(final int prevMatchLength) {
         // save a bunch of values to restore them if the next match isn't better than the current one
         final int prevMatchStart = matchStart;
@@ -560,6 +873,15 @@ private int longestMatchForNextPosition(final int prevMatchLength) {
         return matchLength;
     }
 
+    // slides the window if len bytes don't fit and returns the position to append them at, the pre-condition is len <= windowSize
+    private int makeRoomFor(final int len) throws IOException {
+        final int spaceLeft = window.length - currentPosition - lookahead;
+        if (len > spaceLeft) {
+            slide();
+        }
+        return currentPosition + lookahead;
+    }
+
     /**
      * Assumes we are calculating the hash for three consecutive bytes as a rolling hash, i.e. for bytes ABCD if H is the hash of ABC the new hash for BCD is
      * nextHash(H, D).
@@ -593,7 +915,11 @@ public void prefill(final byte[] data) {
         final int len = Math.min(params.getWindowSize(), data.length);
         System.arraycopy(data, data.length - len, window, 0, len);
 
-        if (len >= NUMBER_OF_BYTES_IN_HASH) {
+        if (params.getMatchFinder() == Parameters.MatchFinder.FAST) {
+            for (int i = 0; i + fastHashLength <= len; i++) {
+                head[fastHash(i)] = i;
+            }
+        } else if (len >= NUMBER_OF_BYTES_IN_HASH) {
             initialize();
             final int stop = len - NUMBER_OF_BYTES_IN_HASH + 1;
             for (int i = 0; i < stop; i++) {
@@ -606,6 +932,27 @@ public void prefill(final byte[] data) {
         blockStart = currentPosition = len;
     }
 
+    /**
+     * Resets the compressor to the state it has been in after construction so it can be used for new and unrelated data.
+     *
+     * <p>
+     * This allows reusing the buffers of the compressor, data that has been fed into the compressor but not been emitted by {@link #finish} is discarded.
+     * </p>
+     *
+     * @since 1.28.0
+     */
+    public void reset() {
+        Arrays.fill(head, NO_MATCH);
+        Arrays.fill(prev, 0);
+        initialized = false;
+        currentPosition = 0;
+        lookahead = 0;
+        insertHash = 0;
+        blockStart = 0;
+        matchStart = NO_MATCH;
+        missedInserts = 0;
+    }
+
     private void slide() throws IOException {
         final int wSize = params.getWindowSize();
         if (blockStart != currentPosition && blockStart < wSize) {
@@ -37,6 +37,8 @@ public static class Builder {
         private Integer maxCandidates;
         private Integer lazyThreshold;
         private Boolean lazyMatches;
+        private Integer lazySteps;
+        private MatchFinder matchFinder = MatchFinder.HASH_CHAIN;
 
         private Builder(final int windowSize) {
             if (windowSize < 2 || !isPowerOfTwo(windowSize)) {
@@ -60,9 +62,10 @@ public Parameters build() {
             final int candidates = maxCandidates != null ? maxCandidates : Math.max(256, windowSize / 128);
             final boolean lazy = lazyMatches == null || lazyMatches;
             final int threshold = lazy ? lazyThreshold != null ? lazyThreshold : niceLen : minBackReferenceLength;
+            final int steps = lazySteps != null ? Math.max(1, lazySteps) : 1;
 
             return new Parameters(windowSize, minBackReferenceLength, maxBackReferenceLength, maxOffset, maxLiteralLength, niceLen, candidates, lazy,
-                    threshold);
+                    threshold, steps, matchFinder);
         }
 
         /**
@@ -81,6 +84,60 @@ public Builder tunedForCompressionRatio() {
             return this;
         }
 
+        /**
+         * Changes the match finder and its settings to a compression level between 1 (fastest) and 9 (best compression ratio), similar to the levels of the
+         * reference implementations of LZ4 and Snappy.
+         * <ul>
+         * <li>Level 1 uses {@link MatchFinder#FAST}.</li>
+         * <li>Levels 2 to 8 use {@link MatchFinder#HASH_CHAIN} with more candidates for higher levels, levels 2 and 3 without lazy matching and level 8 with
+         * two lazy steps.</li>
+         * <li>Level 9 uses {@link MatchFinder#OPTIMAL}.</li>
+         * </ul>
+         * <p>
+         * Use this method after configuring "maximum back-reference length".
+         * </p>
+         *
+         * @param level the compression level between 1 and 9.
+         * @return the builder
+         * @throws IllegalArgumentException if the level is not between 1 and 9.
+         * @since 1.28.0
+         */
+        public Builder tunedForLevel(final int level) {
+            if (level < 1 || level > 9) {
+                throw new IllegalArgumentException("level must be between 1 and 9: " + level);
+            }
+            if (level == 1) {
+                tunedForSpeed();
+                // the fast match finder only looks at a single candidate
+                maxCandidates = 1;
+                matchFinder = MatchFinder.FAST;
+                return this;
+            }
+            if (level <= 3) {
+                tunedForSpeed();
+                maxCandidates = Math.max(4, windowSize >> 13 - level);
+            } else if (level <= 7) {
+                // the defaults at level 5
+                niceBackReferenceLength = Math.max(minBackReferenceLength, maxBackReferenceLength >> Math.max(0, 6 - level));
+                maxCandidates = maxCandidatesForLevel(level);
+                lazyMatches = true;
+                lazyThreshold = null;
+            } else {
+                tunedForCompressionRatio();
+                maxCandidates = maxCandidatesForLevel(8);
+                lazySteps = level == 8 ? 2 : null;
+            }
+            matchFinder = level == 9 ? MatchFinder.OPTIMAL : MatchFinder.HASH_CHAIN;
+            return this;
+        }
+
+        /**
+         * Gets the maximum number of candidates for levels 4 to 8, twice as many as for the previous level and the default at level 5.
+         */
+        private int maxCandidatesForLevel(final int level) {
+            return Math.max(8 << level, windowSize >> 12 - level);
+        }
+
         /**
          * Changes the default setting for "nice back-reference length" and "maximum number of candidates" for improved compression speed at the cost of
          * compression ratio.
@@ -116,6 +173,22 @@ public Builder withLazyMatching(final boolean lazy) {
             return this;
         }
 
+        /**
+         * Sets the number of following positions the compressor tries when lazy matching.
+         * <p>
+         * With two steps the compressor tries the position after the next one as well when the next position yielded a longer back-reference, like the
+         * "lazy2" strategy of zstd. The default is one step, only used by {@link MatchFinder#HASH_CHAIN}.
+         * </p>
+         *
+         * @param steps the number of lazy steps, values smaller than 1 are interpreted as 1.
+         * @return the builder
+         * @since 1.28.0
+         */
+        public Builder withLazySteps(final int steps) {
+            lazySteps = steps;
+            return this;
+        }
+
         /**
          * Sets the threshold for lazy matching.
          * <p>
@@ -131,6 +204,18 @@ public Builder withLazyThreshold(final int threshold) {
             return this;
         }
 
+        /**
+         * Sets the algorithm used to find back-references, defaults to {@link MatchFinder#HASH_CHAIN}.
+         *
+         * @param matchFinder the algorithm used to find back-references, null resets to the default.
+         * @return the builder
+         * @since 1.28.0
+         */
+        public Builder withMatchFinder(final MatchFinder matchFinder) {
+            this.matchFinder = matchFinder != null ? matchFinder : MatchFinder.HASH_CHAIN;
+            return this;
+        }
+
         /**
          * Sets the maximal length of a back-reference.
          * <p>
@@ -238,6 +323,31 @@ public Builder withNiceBackReferenceLength(final int niceLen) {
         }
     }
 
+    /**
+     * Enumerates the algorithms used to find back-references.
+     *
+     * @since 1.28.0
+     */
+    public enum MatchFinder {
+
+        /**
+         * Looks up a single candidate using a hash of the next four bytes (fewer if the minimal back-reference length is three) and never performs lazy
+         * matching, trading compression ratio for speed like the fast mode of LZ4.
+         */
+        FAST,
+
+        /**
+         * Walks hash chains of up to "maximum number of candidates" earlier positions and performs lazy matching if enabled, the default.
+         */
+        HASH_CHAIN,
+
+        /**
+         * Finds the longest back-reference for every position using the hash chains and chooses the sequence of literals and back-references that needs the
+         * fewest bytes for all data available to the compressor, trading compression speed for ratio.
+         */
+        OPTIMAL
+    }
+
     /**
      * The hard-coded absolute minimal length of a back-reference.
      */
@@ -275,8 +385,13 @@ private static boolean isPowerOfTwo(final int x) {
 
     private final boolean lazyMatching;
 
+    private final int lazySteps;
+
+    private final MatchFinder matchFinder;
+
     private Parameters(final int windowSize, final int minBackReferenceLength, final int maxBackReferenceLength, final int maxOffset,
-            final int maxLiteralLength, final int niceBackReferenceLength, final int maxCandidates, final boolean lazyMatching, final int lazyThreshold) {
+            final int maxLiteralLength, final int niceBackReferenceLength, final int maxCandidates, final boolean lazyMatching, final int lazyThreshold,
+            final int lazySteps, final MatchFinder matchFinder) {
         this.windowSize = windowSize;
         this.minBackReferenceLength = minBackReferenceLength;
         this.maxBackReferenceLength = maxBackReferenceLength;
@@ -286,6 +401,8 @@ private Parameters(final int windowSize, final int minBackReferenceLength, final
         this.maxCandidates = maxCandidates;
         this.lazyMatching = lazyMatching;
         this.lazyThreshold = lazyThreshold;
+        this.lazySteps = lazySteps;
+        this.matchFinder = matchFinder;
     }
 
     /**
@@ -306,6 +423,26 @@ public int getLazyMatchingThreshold() {
         return lazyThreshold;
     }
 
+    /**
+     * Gets the number of following positions tried when lazy matching.
+     *
+     * @return the number of following positions tried when lazy matching
+     * @since 1.28.0
+     */
+    public int getLazySteps() {
+        return lazySteps;
+    }
+
+    /**
+     * Gets the algorithm used to find back-references.
+     *
+     * @return the algorithm used to find back-references
+     * @since 1.28.0
+     */
+    public MatchFinder getMatchFinder() {
+        return matchFinder;
+    }
+
     /**
      * Gets the maximal length of a back-reference found.
      *
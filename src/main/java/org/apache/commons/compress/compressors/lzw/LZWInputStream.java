@@ -76,7 +76,20 @@ public abstract class LZWInputStream extends CompressorInputStream implements In
      * @param byteOrder the input byte order.
      */
     protected LZWInputStream(final InputStream inputStream, final ByteOrder byteOrder) {
-        this.in = new BitInputStream(inputStream, byteOrder);
+        this(inputStream, byteOrder, false);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param inputStream The underlying input stream.
+     * @param byteOrder the input byte order.
+     * @param readAhead whether the underlying input stream may be read ahead of the codes that have been read, see
+     *        {@link BitInputStream#BitInputStream(InputStream, ByteOrder, boolean)}.
+     * @since 1.28.0
+     */
+    protected LZWInputStream(final InputStream inputStream, final ByteOrder byteOrder, final boolean readAhead) {
+        this.in = new BitInputStream(inputStream, byteOrder, readAhead);
     }
 
     /**
@@ -176,7 +189,8 @@ protected int getCodeSize() {
      */
     @Override
     public long getCompressedCount() {
-        return in.getBytesRead();
+        // whole bytes in the cache haven't been read as codes so far
+        return in.getBytesRead() - in.bitsCached() / Byte.SIZE;
     }
 
     /**
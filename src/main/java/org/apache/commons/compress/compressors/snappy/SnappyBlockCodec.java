@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.snappy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.compress.compressors.lz77support.LZ77Compressor;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+
+/**
+ * Compresses and decompresses single blocks of the raw Snappy format held in {@link ByteBuffer}s.
+ *
+ * <p>
+ * Unlike {@link SnappyCompressorOutputStream} and {@link SnappyCompressorInputStream} this works on heap and direct buffers without wrapping them into streams
+ * or copying them into intermediate arrays - except for the sliding window of the compressor. An instance reuses its compressor for all blocks, the blocks
+ * are independent of each other.
+ * </p>
+ *
+ * @see <a href="https://github.com/google/snappy/blob/master/format_description.txt">Snappy compressed format description</a>
+ * @since 1.28.0
+ * @NotThreadSafe
+ */
+public class SnappyBlockCodec {
+
+    private static final int TAG_MASK = 0x03;
+
+    private static final int LITERAL_TAG = 0;
+
+    private static final int ONE_BYTE_COPY_TAG = 1;
+
+    private static final int TWO_BYTE_COPY_TAG = 2;
+
+    private static final int FOUR_BYTE_COPY_TAG = 3;
+
+    // literal length is stored as (len - 1) either inside the tag or in 1 to 4 bytes after the tag
+    private static final int MAX_LITERAL_SIZE_WITHOUT_SIZE_BYTES = 60;
+
+    // copies with one offset byte store (len - 4) in three bits and the offset in eleven bits
+    private static final int MIN_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE = 4;
+
+    private static final int MAX_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE = 11;
+
+    private static final int MAX_OFFSET_WITH_ONE_OFFSET_BYTE = (1 << 11) - 1;
+
+    private static final int MAX_OFFSET_WITH_TWO_OFFSET_BYTES = (1 << 16) - 1;
+
+    /**
+     * Copies {@code length} bytes starting {@code offset} bytes before the position of {@code dst} to its position, {@code view} is a duplicate of
+     * {@code dst}.
+     */
+    private static void copyBackReference(final ByteBuffer dst, final ByteBuffer view, final int offset, int length) {
+        final int from = dst.position() - offset;
+        while (length > 0) {
+            // the copied bytes must not overlap the bytes written, each round doubles the amount of bytes available
+            final int chunk = Math.min(length, dst.position() - from);
+            view.limit(from + chunk);
+            view.position(from);
+            dst.put(view);
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Gets the maximum size of a Snappy block holding {@code length} bytes of uncompressed data.
+     *
+     * @param length the length of the uncompressed data.
+     * @return the maximum size of the compressed data.
+     * @throws IllegalArgumentException if length is negative or the result would exceed {@link Integer#MAX_VALUE}.
+     */
+    public static int maxCompressedLength(final int length) {
+        final long max = 32 + length + (long) length / 6;
+        if (length < 0 || max > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length is out of range: " + length);
+        }
+        return (int) max;
+    }
+
+    private static int readLittleEndian(final ByteBuffer src, final int numBytes) throws IOException {
+        if (src.remaining() < numBytes) {
+            throw new IOException("Premature end of block reading " + numBytes + " bytes");
+        }
+        int value = 0;
+        for (int i = 0; i < numBytes; i++) {
+            value |= (src.get() & 0xff) << 8 * i;
+        }
+        return value;
+    }
+
+    private static int readSize(final ByteBuffer src) throws IOException {
+        int index = 0;
+        long size = 0;
+        int b;
+        do {
+            if (!src.hasRemaining() || index > 4) {
+                throw new IOException("Premature end of block reading size");
+            }
+            b = src.get() & 0xff;
+            size |= (long) (b & 0x7f) << index++ * 7;
+        } while ((b & 0x80) != 0);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Uncompressed size exceeds Integer.MAX_VALUE: " + size);
+        }
+        return (int) size;
+    }
+
+    private static void writeLittleEndian(final ByteBuffer dst, final int numBytes, final int value) {
+        for (int i = 0; i < numBytes; i++) {
+            dst.put((byte) (value >> 8 * i));
+        }
+    }
+
+    private final LZ77Compressor compressor;
+
+    // the buffer receiving the block currently compressed
+    private ByteBuffer target;
+
+    /**
+     * Creates a codec using the default parameters of {@link SnappyCompressorOutputStream} with the default block size of 32k.
+     */
+    public SnappyBlockCodec() {
+        this(SnappyCompressorOutputStream.createParameterBuilder(SnappyCompressorInputStream.DEFAULT_BLOCK_SIZE).build());
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param params the parameters to use for LZ77 compression, see {@link SnappyCompressorOutputStream#createParameterBuilder(int)}.
+     */
+    public SnappyBlockCodec(final Parameters params) {
+        compressor = new LZ77Compressor(params, new LZ77Compressor.TokenCallback() {
+
+            @Override
+            public void backReference(final int offset, final int length) {
+                writeBackReference(offset, length);
+            }
+
+            @Override
+            public void endOfData() {
+                // nothing to write
+            }
+
+            @Override
+            public void literal(final byte[] data, final int offset, final int length) {
+                writeLiteral(data, offset, length);
+            }
+        });
+    }
+
+    /**
+     * Compresses the remaining bytes of {@code src} into a single Snappy block written to {@code dst}.
+     *
+     * <p>
+     * The position of {@code src} is advanced to its limit and the position of {@code dst} is advanced by the number of bytes written. {@code dst} should have
+     * at least {@link #maxCompressedLength(int) maxCompressedLength(src.remaining())} bytes remaining.
+     * </p>
+     *
+     * @param src the data to compress.
+     * @param dst the buffer receiving the compressed block.
+     * @return the number of bytes written to {@code dst}.
+     * @throws IOException                      if the compressor fails.
+     * @throws java.nio.BufferOverflowException if {@code dst} is too small.
+     */
+    public int compress(final ByteBuffer src, final ByteBuffer dst) throws IOException {
+        final int dstStart = dst.position();
+        // the uncompressed size as little-endian varint
+        int size = src.remaining();
+        while (size >= 0x80) {
+            dst.put((byte) (size & 0x7f | 0x80));
+            size >>>= 7;
+        }
+        dst.put((byte) size);
+        target = dst;
+        try {
+            compressor.reset();
+            compressor.compress(src);
+            compressor.finish();
+        } finally {
+            target = null;
+        }
+        return dst.position() - dstStart;
+    }
+
+    /**
+     * Decompresses the remaining bytes of {@code src} which must hold a single Snappy block to {@code dst}.
+     *
+     * <p>
+     * The position of {@code src} is advanced to the end of the block and the position of {@code dst} is advanced by the number of bytes written.
+     * Back-references may only refer to data written by this invocation.
+     * </p>
+     *
+     * @param src the compressed block.
+     * @param dst the buffer receiving the uncompressed data.
+     * @return the number of bytes written to {@code dst}.
+     * @throws IOException                      if the block is malformed.
+     * @throws java.nio.BufferOverflowException if {@code dst} is too small.
+     */
+    public int decompress(final ByteBuffer src, final ByteBuffer dst) throws IOException {
+        final int size = readSize(src);
+        final int dstStart = dst.position();
+        final ByteBuffer srcView = src.duplicate();
+        final ByteBuffer dstView = dst.duplicate();
+        int remaining = size;
+        while (remaining > 0) {
+            if (!src.hasRemaining()) {
+                throw new IOException("Premature end of block reading element");
+            }
+            final int tag = src.get() & 0xff;
+            final int length;
+            int offset = 0;
+            switch (tag & TAG_MASK) {
+            case LITERAL_TAG:
+                final int sizeBytes = (tag >> 2) - MAX_LITERAL_SIZE_WITHOUT_SIZE_BYTES + 1;
+                length = (sizeBytes > 0 ? readLittleEndian(src, sizeBytes) : tag >> 2) + 1;
+                if (length <= 0 || length > remaining || length > src.remaining()) {
+                    throw new IOException("Illegal block with a bad literal size found");
+                }
+                srcView.limit(src.position() + length);
+                srcView.position(src.position());
+                dst.put(srcView);
+                src.position(src.position() + length);
+                break;
+            case ONE_BYTE_COPY_TAG:
+                length = (tag >> 2 & 0x07) + MIN_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE;
+                offset = (tag & 0xe0) << 3 | readLittleEndian(src, 1);
+                break;
+            case TWO_BYTE_COPY_TAG:
+                length = (tag >> 2) + 1;
+                offset = readLittleEndian(src, 2);
+                break;
+            default:
+                length = (tag >> 2) + 1;
+                offset = readLittleEndian(src, 4);
+                break;
+            }
+            if (offset != 0) {
+                if (offset < 0 || offset > size - remaining || length > remaining) {
+                    throw new IOException("Illegal block with bad offset found");
+                }
+                copyBackReference(dst, dstView, offset, length);
+            } else if ((tag & TAG_MASK) != LITERAL_TAG) {
+                throw new IOException("Illegal block with bad offset found");
+            }
+            remaining -= length;
+        }
+        return dst.position() - dstStart;
+    }
+
+    private void writeBackReference(final int offset, final int length) {
+        if (length >= MIN_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE && length <= MAX_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE && offset <= MAX_OFFSET_WITH_ONE_OFFSET_BYTE) {
+            target.put((byte) (ONE_BYTE_COPY_TAG | length - MIN_MATCH_LENGTH_WITH_ONE_OFFSET_BYTE << 2 | (offset & 0x700) >> 3));
+            target.put((byte) offset);
+        } else if (offset <= MAX_OFFSET_WITH_TWO_OFFSET_BYTES) {
+            target.put((byte) (TWO_BYTE_COPY_TAG | length - 1 << 2));
+            writeLittleEndian(target, 2, offset);
+        } else {
+            target.put((byte) (FOUR_BYTE_COPY_TAG | length - 1 << 2));
+            writeLittleEndian(target, 4, offset);
+        }
+    }
+
+    private void writeLiteral(final byte[] data, final int offset, final int length) {
+        if (length <= MAX_LITERAL_SIZE_WITHOUT_SIZE_BYTES) {
+            target.put((byte) (length - 1 << 2));
+        } else {
+            // one to four bytes holding length - 1
+            final int sizeBytes = length - 1 < 1 << 8 ? 1 : length - 1 < 1 << 16 ? 2 : length - 1 < 1 << 24 ? 3 : 4;
+            target.put((byte) (MAX_LITERAL_SIZE_WITHOUT_SIZE_BYTES + sizeBytes - 1 << 2));
+            writeLittleEndian(target, sizeBytes, length - 1);
+        }
+        target.put(data, offset, length);
+    }
+}
@@ -86,6 +86,9 @@ public class SnappyCompressorOutputStream extends CompressorOutputStream<OutputS
 
     /**
      * Returns a builder correctly configured for the Snappy algorithm using the gven block size.
+     * <p>
+     * Use {@link Parameters.Builder#tunedForLevel(int)} to trade compression speed for ratio.
+     * </p>
      *
      * @param blockSize the block size.
      * @return a builder correctly configured for the Snappy algorithm using the gven block size
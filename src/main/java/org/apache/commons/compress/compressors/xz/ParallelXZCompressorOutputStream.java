@@ -0,0 +1,451 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.xz;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.utils.ByteUtils;
+import org.apache.commons.compress.utils.ParallelBlockCompressor;
+import org.apache.commons.io.build.AbstractStreamBuilder;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.tukaani.xz.BasicArrayCache;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+// @formatter:off
+/**
+ * Compresses an output stream using the XZ format, compressing blocks of the input in parallel like {@code xz -T0}.
+ * <p>
+ * The input is split into blocks which are compressed concurrently on an {@link ExecutorService}. Each block starts with a fresh LZMA2 dictionary, so the
+ * blocks don't depend on each other. The blocks are written in input order into a single XZ stream whose index lists all blocks, and the header of each block
+ * holds its sizes so decoders can decompress the blocks in parallel as well. Any XZ decoder reads the result, including {@link XZCompressorInputStream}.
+ * </p>
+ * <p>
+ * For example:
+ * </p>
+ * <pre>{@code
+ * ParallelXZCompressorOutputStream s = ParallelXZCompressorOutputStream.builder()
+ *   .setPath(path)
+ *   .setLzma2Options(new LZMA2Options(...))
+ *   .setExecutorService(executorService)
+ *   .get();
+ * }
+ * </pre>
+ * <p>
+ * The output differs from the one of {@link XZCompressorOutputStream} and is usually a little larger, as matches don't reach back across block boundaries.
+ * Each block being compressed needs the encoder memory of the LZMA2 options plus its input and output.
+ * </p>
+ *
+ * @NotThreadSafe
+ * @see XZCompressorOutputStream
+ * @see <a href="https://tukaani.org/xz/xz-file-format.txt">The .xz File Format</a>
+ * @since 1.28.0
+ */
+// @formatter:on
+public class ParallelXZCompressorOutputStream extends CompressorOutputStream<OutputStream> {
+
+    // @formatter:off
+    /**
+     * Builds a new {@link ParallelXZCompressorOutputStream}.
+     *
+     * <p>
+     * For example:
+     * </p>
+     * <pre>{@code
+     * ParallelXZCompressorOutputStream s = ParallelXZCompressorOutputStream.builder()
+     *   .setPath(path)
+     *   .setLzma2Options(new LZMA2Options(...))
+     *   .setExecutorService(executorService)
+     *   .setBlockSize(16 * 1024 * 1024)
+     *   .get();
+     * }
+     * </pre>
+     *
+     * @see #get()
+     */
+    // @formatter:on
+    public static class Builder extends AbstractStreamBuilder<ParallelXZCompressorOutputStream, Builder> {
+
+        private LZMA2Options lzma2Options = new LZMA2Options();
+
+        private ExecutorService executorService;
+
+        private int blockSize;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Constructs a new builder of {@link ParallelXZCompressorOutputStream}.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link ParallelXZCompressorOutputStream}.
+         * <p>
+         * You must set output that supports {@link #getOutputStream()} and an executor service, otherwise, this method throws an exception.
+         * </p>
+         *
+         * @return a new instance.
+         * @throws IOException              if an I/O error occurs writing the stream header.
+         * @throws IllegalArgumentException if the block size is negative or the parallelism is smaller than 1.
+         * @throws NullPointerException     if no executor service is set.
+         */
+        @Override
+        public ParallelXZCompressorOutputStream get() throws IOException {
+            return new ParallelXZCompressorOutputStream(this);
+        }
+
+        /**
+         * Sets the number of uncompressed bytes compressed into one block, defaults to three times the dictionary size but at least 1 MiB like {@code xz}.
+         * <p>
+         * Larger blocks compress better, blocks smaller than the dictionary size don't make use of the whole dictionary.
+         * </p>
+         *
+         * @param blockSize the number of uncompressed bytes compressed into one block, 0 selects the default.
+         * @return this instance.
+         */
+        public Builder setBlockSize(final int blockSize) {
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to compress blocks, required.
+         * <p>
+         * The stream does not shut down the executor.
+         * </p>
+         *
+         * @param executorService the executor used to compress blocks.
+         * @return this instance.
+         */
+        public Builder setExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets LZMA options.
+         * <p>
+         * Passing {@code null} resets to the default value {@link LZMA2Options#LZMA2Options()}.
+         * </p>
+         *
+         * @param lzma2Options LZMA options.
+         * @return this instance.
+         */
+        public Builder setLzma2Options(final LZMA2Options lzma2Options) {
+            this.lzma2Options = lzma2Options != null ? lzma2Options : new LZMA2Options();
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of blocks compressed concurrently, defaults to the number of available processors.
+         *
+         * @param parallelism the maximum number of blocks compressed concurrently.
+         * @return this instance.
+         */
+        public Builder setParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+    }
+
+    /**
+     * A compressed block, its header and the rest of the block inside the single block stream it has been compressed to.
+     */
+    private static final class Block {
+
+        private final byte[] header;
+
+        private final byte[] stream;
+
+        private final int offset;
+
+        private final int length;
+
+        private final long unpaddedSize;
+
+        private final long uncompressedSize;
+
+        Block(final byte[] header, final byte[] stream, final int offset, final int length, final long unpaddedSize, final long uncompressedSize) {
+            this.header = header;
+            this.stream = stream;
+            this.offset = offset;
+            this.length = length;
+            this.unpaddedSize = unpaddedSize;
+            this.uncompressedSize = uncompressedSize;
+        }
+    }
+
+    /** The size of the stream header and of the stream footer. */
+    private static final int STREAM_HEADER_SIZE = 12;
+
+    /** The size of a CRC64 check. */
+    private static final int CHECK_SIZE = 8;
+
+    /** Block flags: the block header holds the compressed size and the uncompressed size. */
+    private static final int BLOCK_FLAGS_SIZES_PRESENT = 0xc0;
+
+    /** Stream flags: no reserved bits and the check type. */
+    private static final byte[] STREAM_FLAGS = { 0, (byte) XZ.CHECK_CRC64 };
+
+    /**
+     * Creates a new builder.
+     *
+     * @return a new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the default block size for the given options, three times the dictionary size but at least 1 MiB and at most 1 GiB.
+     *
+     * @param options the LZMA2 options the blocks are compressed with.
+     * @return the default number of uncompressed bytes per block.
+     */
+    public static int getDefaultBlockSize(final LZMA2Options options) {
+        return (int) Math.min(Math.max(3L * options.getDictSize(), 1 << 20), 1 << 30);
+    }
+
+    /**
+     * Creates a block header like the one of the given block which also holds the sizes, so decoders may decompress blocks in parallel.
+     */
+    private static byte[] createBlockHeader(final byte[] stream, final int headerOffset, final long compressedSize, final long uncompressedSize)
+            throws IOException {
+        final int flags = stream[headerOffset + 1] & 0xff;
+        // filter flags follow the block flags as the original header doesn't hold sizes: ID, size of properties, properties
+        int filtersEnd = headerOffset + 2;
+        for (int filter = 0; filter <= (flags & 0x03); filter++) {
+            filtersEnd += vliLength(stream, filtersEnd);
+            final int propertiesSize = (int) readVli(stream, filtersEnd);
+            filtersEnd += vliLength(stream, filtersEnd) + propertiesSize;
+        }
+        final UnsynchronizedByteArrayOutputStream header = UnsynchronizedByteArrayOutputStream.builder().get();
+        header.write(0);
+        header.write(flags | BLOCK_FLAGS_SIZES_PRESENT);
+        writeVli(header, compressedSize);
+        writeVli(header, uncompressedSize);
+        header.write(stream, headerOffset + 2, filtersEnd - headerOffset - 2);
+        while (header.size() % 4 != 0) {
+            header.write(0);
+        }
+        final byte[] bytes = Arrays.copyOf(header.toByteArray(), header.size() + 4);
+        bytes[0] = (byte) (bytes.length / 4 - 1);
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteUtils.toLittleEndian(bytes, crc.getValue(), bytes.length - 4, 4);
+        return bytes;
+    }
+
+    private static long readVli(final byte[] buffer, final int offset) throws IOException {
+        long value = 0;
+        for (int i = 0; i < 9; i++) {
+            final int b = buffer[offset + i] & 0xff;
+            value |= (long) (b & 0x7f) << i * 7;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt variable length integer in XZ index");
+    }
+
+    private static int vliLength(final byte[] buffer, final int offset) throws IOException {
+        for (int i = 0; i < 9; i++) {
+            if ((buffer[offset + i] & 0x80) == 0) {
+                return i + 1;
+            }
+        }
+        throw new IOException("Corrupt variable length integer in XZ block header");
+    }
+
+    private static void writeVli(final OutputStream out, final long value) throws IOException {
+        long v = value;
+        while (v >= 0x80) {
+            out.write((int) (v | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private final LZMA2Options options;
+
+    private final ParallelBlockCompressor<Block> blocks;
+
+    /** The records of the index for all blocks written so far. */
+    private final UnsynchronizedByteArrayOutputStream indexRecords = UnsynchronizedByteArrayOutputStream.builder().get();
+
+    private long numberOfRecords;
+
+    // used in one-arg write method
+    private final byte[] oneByte = new byte[1];
+
+    private boolean finished;
+
+    private ParallelXZCompressorOutputStream(final Builder builder) throws IOException {
+        super(builder.getOutputStream());
+        if (builder.blockSize < 0) {
+            throw new IllegalArgumentException("blockSize(" + builder.blockSize + ") < 0");
+        }
+        this.options = builder.lzma2Options;
+        this.blocks = new ParallelBlockCompressor<>(Objects.requireNonNull(builder.executorService, "executorService"),
+                builder.blockSize != 0 ? builder.blockSize : getDefaultBlockSize(options), builder.parallelism, this::compress);
+        writeStreamHeader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isClosed()) {
+            try {
+                finish();
+            } finally {
+                blocks.close();
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Compresses a block into a single block stream and locates the block inside of it, runs on the executor.
+     */
+    private Block compress(final byte[] data, final int length) throws IOException {
+        final UnsynchronizedByteArrayOutputStream compressed = UnsynchronizedByteArrayOutputStream.builder().setBufferSize(length / 2 + 64).get();
+        try (XZOutputStream xz = new XZOutputStream(compressed, options, XZ.CHECK_CRC64, BasicArrayCache.getInstance())) {
+            xz.write(data, 0, length);
+        }
+        final byte[] stream = compressed.toByteArray();
+        // the backward size in the stream footer gives the size of the index which follows the block
+        final int indexSize = ((int) ByteUtils.fromLittleEndian(stream, stream.length - 8, 4) + 1) * 4;
+        final int blockEnd = stream.length - STREAM_HEADER_SIZE - indexSize;
+        // the index starts with the indicator and the number of records, one
+        final long unpaddedSize = readVli(stream, blockEnd + 2);
+        final int headerSize = ((stream[STREAM_HEADER_SIZE] & 0xff) + 1) * 4;
+        final byte[] header = createBlockHeader(stream, STREAM_HEADER_SIZE, unpaddedSize - headerSize - CHECK_SIZE, length);
+        final int offset = STREAM_HEADER_SIZE + headerSize;
+        return new Block(header, stream, offset, blockEnd - offset, unpaddedSize - headerSize + header.length, length);
+    }
+
+    /**
+     * Finishes writing compressed data to the underlying stream without closing it.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            blocks.flush(this::writeBlock);
+            writeIndexAndStreamFooter();
+        }
+    }
+
+    /**
+     * Compresses and writes all data written so far as a block and flushes the underlying stream.
+     *
+     * @throws IOException on error
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!finished) {
+            blocks.flush(this::writeBlock);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        checkOpen();
+        if (finished) {
+            throw new IOException("Cannot write more data, the end of the compressed data stream has been reached.");
+        }
+        if (offset < 0 || length < 0 || offset > buffer.length - length) {
+            throw new IndexOutOfBoundsException("offset(" + offset + ") and length(" + length + ") out of bounds for " + buffer.length);
+        }
+        blocks.write(buffer, offset, length, this::writeBlock);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        oneByte[0] = (byte) (b & 0xff);
+        write(oneByte, 0, 1);
+    }
+
+    /**
+     * Writes a compressed block and adds its record to the index.
+     */
+    private void writeBlock(final Block compressed) throws IOException {
+        out.write(compressed.header);
+        out.write(compressed.stream, compressed.offset, compressed.length);
+        writeVli(indexRecords, compressed.unpaddedSize);
+        writeVli(indexRecords, compressed.uncompressedSize);
+        numberOfRecords++;
+    }
+
+    /**
+     * Writes the index listing all blocks and the stream footer.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeIndexAndStreamFooter() throws IOException {
+        final UnsynchronizedByteArrayOutputStream index = UnsynchronizedByteArrayOutputStream.builder().get();
+        index.write(0);
+        writeVli(index, numberOfRecords);
+        indexRecords.writeTo(index);
+        while (index.size() % 4 != 0) {
+            index.write(0);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(index.toByteArray());
+        ByteUtils.toLittleEndian(index, crc.getValue(), 4);
+        index.writeTo(out);
+
+        final byte[] footer = new byte[STREAM_HEADER_SIZE];
+        ByteUtils.toLittleEndian(footer, index.size() / 4 - 1, 4, 4);
+        System.arraycopy(STREAM_FLAGS, 0, footer, 8, STREAM_FLAGS.length);
+        crc.reset();
+        crc.update(footer, 4, 6);
+        ByteUtils.toLittleEndian(footer, crc.getValue(), 0, 4);
+        System.arraycopy(XZ.FOOTER_MAGIC, 0, footer, 10, XZ.FOOTER_MAGIC.length);
+        out.write(footer);
+    }
+
+    /**
+     * Writes the stream header.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeStreamHeader() throws IOException {
+        final byte[] header = new byte[STREAM_HEADER_SIZE];
+        System.arraycopy(XZ.HEADER_MAGIC, 0, header, 0, XZ.HEADER_MAGIC.length);
+        System.arraycopy(STREAM_FLAGS, 0, header, 6, STREAM_FLAGS.length);
+        final CRC32 crc = new CRC32();
+        crc.update(STREAM_FLAGS);
+        ByteUtils.toLittleEndian(header, crc.getValue(), 8, 4);
+        out.write(header);
+    }
+
+}
@@ -71,7 +71,8 @@ public ZCompressorInputStream(final InputStream inputStream) throws IOException
      * @throws IOException if an I/O error occurs.
      */
     public ZCompressorInputStream(final InputStream inputStream, final int memoryLimitInKiB) throws IOException {
-        super(inputStream, ByteOrder.LITTLE_ENDIAN);
+        // .Z data extends to the end of the input, so it may be read ahead
+        super(inputStream, ByteOrder.LITTLE_ENDIAN, true);
         final int firstByte = (int) in.readBits(8);
         final int secondByte = (int) in.readBits(8);
         final int thirdByte = (int) in.readBits(8);
@@ -179,7 +180,8 @@ private void reAlignReading() throws IOException {
         for (long i = 0; i < codeReadsToThrowAway; i++) {
             readNextCode();
         }
-        in.clearBitCache();
+        // the cache may hold whole bytes of the next group of codes
+        in.alignWithByteBoundary();
     }
 
 }
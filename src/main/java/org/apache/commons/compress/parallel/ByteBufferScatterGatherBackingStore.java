@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.parallel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScatterGatherBackingStore that keeps its payload in {@link ByteBuffer} chunks of a {@link ByteBufferScatterGatherBackingStoreSupplier} and writes the rest
+ * of its payload to a temporary file once the memory budget of the supplier is exhausted.
+ * <p>
+ * Closing the store returns its chunks to the supplier, input streams obtained from {@link #getInputStream()} must not be used after that.
+ * </p>
+ *
+ * @since 1.28.0
+ */
+public class ByteBufferScatterGatherBackingStore implements ScatterGatherBackingStore {
+
+    /**
+     * Reads the written part of the chunks.
+     */
+    private static final class ChunksInputStream extends InputStream {
+
+        private final ByteBuffer[] chunks;
+
+        private int index;
+
+        ChunksInputStream(final List<ByteBuffer> chunks) {
+            this.chunks = new ByteBuffer[chunks.size()];
+            for (int i = 0; i < this.chunks.length; i++) {
+                // the position of a chunk marks the end of its payload
+                final ByteBuffer chunk = chunks.get(i).duplicate();
+                chunk.flip();
+                this.chunks[i] = chunk;
+            }
+        }
+
+        private ByteBuffer current() {
+            while (index < chunks.length && !chunks[index].hasRemaining()) {
+                index++;
+            }
+            return index < chunks.length ? chunks[index] : null;
+        }
+
+        @Override
+        public int available() {
+            final ByteBuffer chunk = current();
+            return chunk == null ? 0 : chunk.remaining();
+        }
+
+        @Override
+        public int read() {
+            final ByteBuffer chunk = current();
+            return chunk == null ? -1 : chunk.get() & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final ByteBuffer chunk = current();
+            if (chunk == null) {
+                return -1;
+            }
+            final int n = Math.min(len, chunk.remaining());
+            chunk.get(b, off, n);
+            return n;
+        }
+    }
+
+    private final ByteBufferScatterGatherBackingStoreSupplier supplier;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    private ByteBuffer current;
+
+    private Path spillFile;
+
+    private OutputStream spillStream;
+
+    private boolean closedForWriting;
+
+    private boolean closed;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param supplier the supplier providing chunks and temporary files.
+     */
+    public ByteBufferScatterGatherBackingStore(final ByteBufferScatterGatherBackingStoreSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeForWriting();
+        } finally {
+            chunks.forEach(supplier::release);
+            chunks.clear();
+            current = null;
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        }
+    }
+
+    @Override
+    public void closeForWriting() throws IOException {
+        if (!closedForWriting) {
+            closedForWriting = true;
+            if (spillStream != null) {
+                spillStream.close();
+            }
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final InputStream chunksStream = new ChunksInputStream(chunks);
+        return spillFile == null ? chunksStream : new SequenceInputStream(chunksStream, Files.newInputStream(spillFile));
+    }
+
+    /**
+     * Tests whether part of the payload has been written to a temporary file.
+     *
+     * @return whether part of the payload has been written to a temporary file.
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    @Override
+    public void writeOut(final byte[] data, final int offset, final int length) throws IOException {
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (spillStream != null) {
+                spillStream.write(data, off, remaining);
+                return;
+            }
+            if (current == null || !current.hasRemaining()) {
+                current = supplier.acquire();
+                if (current == null) {
+                    spillFile = supplier.createSpillFile();
+                    spillStream = Files.newOutputStream(spillFile);
+                    continue;
+                }
+                chunks.add(current);
+            }
+            final int n = Math.min(remaining, current.remaining());
+            current.put(data, off, n);
+            off += n;
+            remaining -= n;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.parallel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Supplies {@link ByteBufferScatterGatherBackingStore} instances that keep their payload in pooled direct {@link ByteBuffer} chunks.
+ * <p>
+ * All stores created by one supplier share a memory budget. Chunks are only allocated while the memory allocated by this supplier stays within the budget,
+ * a store that cannot get another chunk writes the rest of its payload to a temporary file. Stores return their chunks to the pool when they are closed, so
+ * the chunks are reused by stores created later. The chunks are released to the garbage collector when this supplier is closed.
+ * </p>
+ * <p>
+ * For example:
+ * </p>
+ *
+ * <pre>
+ * try (ByteBufferScatterGatherBackingStoreSupplier supplier = new ByteBufferScatterGatherBackingStoreSupplier(256 * 1024 * 1024)) {
+ *     final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(executorService, supplier);
+ *     ...
+ *     zipCreator.writeTo(zipArchiveOutputStream);
+ * }
+ * </pre>
+ *
+ * @since 1.28.0
+ */
+public class ByteBufferScatterGatherBackingStoreSupplier implements ScatterGatherBackingStoreSupplier, Closeable {
+
+    /**
+     * The default size of a chunk, 64 KiB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final String PREFIX = "parallelscatter";
+
+    private final long memoryBudget;
+
+    private final int chunkSize;
+
+    private final Path spillDirectory;
+
+    private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong allocated = new AtomicLong();
+
+    private final AtomicInteger spillNum = new AtomicInteger();
+
+    /**
+     * Constructs a new instance with chunks of {@value #DEFAULT_CHUNK_SIZE} bytes that spills to the default temporary-file directory.
+     *
+     * @param memoryBudget the maximum number of bytes allocated for chunks.
+     * @throws IllegalArgumentException if the memory budget is negative.
+     */
+    public ByteBufferScatterGatherBackingStoreSupplier(final long memoryBudget) {
+        this(memoryBudget, DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param memoryBudget   the maximum number of bytes allocated for chunks.
+     * @param chunkSize      the size of a chunk.
+     * @param spillDirectory the directory for temporary files, may be null for the default temporary-file directory, must exist if non-null.
+     * @throws IllegalArgumentException if the memory budget is negative or the chunk size is not positive.
+     */
+    public ByteBufferScatterGatherBackingStoreSupplier(final long memoryBudget, final int chunkSize, final Path spillDirectory) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget(" + memoryBudget + ") < 0");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize(" + chunkSize + ") < 1");
+        }
+        this.memoryBudget = memoryBudget;
+        this.chunkSize = chunkSize;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Gets a chunk from the pool or allocates a new one if the budget allows it.
+     *
+     * @return an empty chunk or null if the budget is exhausted.
+     */
+    ByteBuffer acquire() {
+        final ByteBuffer pooled = pool.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        long current;
+        do {
+            current = allocated.get();
+            if (current + chunkSize > memoryBudget) {
+                return null;
+            }
+        } while (!allocated.compareAndSet(current, current + chunkSize));
+        return ByteBuffer.allocateDirect(chunkSize);
+    }
+
+    /**
+     * Releases all pooled chunks, chunks of stores that are still open are released when the stores are closed.
+     */
+    @Override
+    public void close() {
+        ByteBuffer chunk;
+        while ((chunk = pool.poll()) != null) {
+            allocated.addAndGet(-chunk.capacity());
+        }
+    }
+
+    /**
+     * Creates a temporary file for a store that exceeds the budget.
+     *
+     * @return the new file.
+     * @throws IOException if the file cannot be created.
+     */
+    Path createSpillFile() throws IOException {
+        final String suffix = "n" + spillNum.incrementAndGet();
+        return spillDirectory == null ? Files.createTempFile(PREFIX, suffix) : Files.createTempFile(spillDirectory, PREFIX, suffix);
+    }
+
+    @Override
+    public ScatterGatherBackingStore get() throws IOException {
+        return new ByteBufferScatterGatherBackingStore(this);
+    }
+
+    /**
+     * Gets the number of bytes currently allocated for chunks, pooled or in use.
+     *
+     * @return the number of bytes currently allocated for chunks.
+     */
+    public long getAllocatedMemory() {
+        return allocated.get();
+    }
+
+    /**
+     * Gets the memory budget.
+     *
+     * @return the maximum number of bytes allocated for chunks.
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns a chunk to the pool.
+     *
+     * @param chunk the chunk.
+     */
+    void release(final ByteBuffer chunk) {
+        chunk.clear();
+        pool.add(chunk);
+    }
+}
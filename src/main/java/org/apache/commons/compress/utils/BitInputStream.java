@@ -25,12 +25,19 @@
 
 /**
  * Reads bits from an InputStream.
+ * <p>
+ * By default bytes are read from the underlying stream one at a time as bits are requested. A stream created with read ahead enabled reads the underlying
+ * stream in blocks into an internal buffer and moves up to eight bytes into the bit cache at once, this means the underlying stream may be read ahead of
+ * the bits that have been consumed so far.
+ * </p>
  *
  * @since 1.10
  * @NotThreadSafe
  */
 public class BitInputStream implements Closeable {
     private static final int MAXIMUM_CACHE_SIZE = 63; // bits in long minus sign bit
+    private static final int MAXIMUM_PEEK_SIZE = 56;
+    private static final int BUFFER_SIZE = 8192;
     private static final long[] MASKS = new long[MAXIMUM_CACHE_SIZE + 1];
 
     static {
@@ -39,8 +46,12 @@ public class BitInputStream implements Closeable {
         }
     }
 
-    private final org.apache.commons.io.input.BoundedInputStream in;
+    private final InputStream in;
     private final ByteOrder byteOrder;
+    private final byte[] buffer;
+    private int bufferPosition;
+    private int bufferLimit;
+    private long bytesRead;
     private long bitsCached;
     private int bitsCachedSize;
 
@@ -51,8 +62,36 @@ public class BitInputStream implements Closeable {
      * @param byteOrder the bit arrangement across byte boundaries, either BIG_ENDIAN (aaaaabbb bb000000) or LITTLE_ENDIAN (bbbaaaaa 000000bb)
      */
     public BitInputStream(final InputStream in, final ByteOrder byteOrder) {
-        this.in = org.apache.commons.io.input.BoundedInputStream.builder().setInputStream(in).asSupplier().get();
+        this(in, byteOrder, false);
+    }
+
+    /**
+     * Constructor taking an InputStream, its bit arrangement and whether the underlying stream may be read ahead.
+     * <p>
+     * With read ahead enabled the underlying stream is read in blocks of up to 8 KiB, the bytes that have been read beyond the bits consumed so far are
+     * lost to other readers of the underlying stream.
+     * </p>
+     *
+     * @param in        the InputStream
+     * @param byteOrder the bit arrangement across byte boundaries, either BIG_ENDIAN (aaaaabbb bb000000) or LITTLE_ENDIAN (bbbaaaaa 000000bb)
+     * @param readAhead whether the underlying stream may be read ahead of the bits that have been consumed
+     * @since 1.28.0
+     */
+    public BitInputStream(final InputStream in, final ByteOrder byteOrder, final boolean readAhead) {
+        this.in = in;
         this.byteOrder = byteOrder;
+        this.buffer = new byte[readAhead ? BUFFER_SIZE : 1];
+    }
+
+    private void addToCache(final long nextByte) {
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            bitsCached |= nextByte << bitsCachedSize;
+        } else {
+            bitsCached <<= Byte.SIZE;
+            bitsCached |= nextByte;
+        }
+        bitsCachedSize += Byte.SIZE;
+        bytesRead++;
     }
 
     /**
@@ -76,7 +115,7 @@ public void alignWithByteBoundary() {
      * @since 1.16
      */
     public long bitsAvailable() throws IOException {
-        return bitsCachedSize + (long) Byte.SIZE * in.available();
+        return bitsCachedSize + (long) Byte.SIZE * (bufferLimit - bufferPosition + in.available());
     }
 
     /**
@@ -111,32 +150,73 @@ public void close() throws IOException {
      */
     private boolean ensureCache(final int count) throws IOException {
         while (bitsCachedSize < count && bitsCachedSize < 57) {
-            final long nextByte = in.read();
-            if (nextByte < 0) {
+            if (bufferPosition == bufferLimit && !fillBuffer()) {
                 return true;
             }
-            if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
-                bitsCached |= nextByte << bitsCachedSize;
+            if (bufferLimit - bufferPosition >= Long.BYTES && bitsCachedSize <= MAXIMUM_CACHE_SIZE - Byte.SIZE) {
+                refillWord();
             } else {
-                bitsCached <<= Byte.SIZE;
-                bitsCached |= nextByte;
+                addToCache(buffer[bufferPosition++] & 0xFF);
             }
-            bitsCachedSize += Byte.SIZE;
         }
         return false;
     }
 
+    /**
+     * Reads as much as the underlying stream provides with a single read into the empty buffer.
+     *
+     * @return whether the underlying stream provided any bytes
+     * @throws IOException if an I/O error occurs.
+     */
+    private boolean fillBuffer() throws IOException {
+        bufferPosition = 0;
+        bufferLimit = 0;
+        final int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        bufferLimit = read;
+        return true;
+    }
+
     /**
      * Gets the number of bytes read from the underlying stream.
      * <p>
-     * This includes the bytes read to fill the current cache and not read as bits so far.
+     * This includes the bytes read to fill the current cache and not read as bits so far, but not the bytes read ahead into the internal buffer. With read
+     * ahead enabled the cache may hold up to seven whole bytes that have not been requested yet.
      * </p>
      *
      * @return the number of bytes read from the underlying stream
      * @since 1.17
      */
     public long getBytesRead() {
-        return in.getCount();
+        return bytesRead;
+    }
+
+    /**
+     * Returns at most 56 bits from the underlying stream without consuming them.
+     * <p>
+     * If the end of the stream is reached before {@code count} bits are available the missing bits are returned as zeros, use {@link #bitsCached()} to
+     * find out how many of the returned bits are real. Bits returned by this method can be consumed using {@link #skipBits(int)}.
+     * </p>
+     *
+     * @param count the number of bits to peek, must be a positive number not bigger than 56.
+     * @return the bits concatenated as a long using the stream's byte order.
+     * @throws IOException if an I/O error occurs.
+     * @since 1.28.0
+     */
+    public long peekBits(final int count) throws IOException {
+        if (count < 0 || count > MAXIMUM_PEEK_SIZE) {
+            throw new IOException("count must not be negative or greater than " + MAXIMUM_PEEK_SIZE);
+        }
+        ensureCache(count);
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            return bitsCached & MASKS[count];
+        }
+        if (bitsCachedSize < count) {
+            return bitsCached << count - bitsCachedSize & MASKS[count];
+        }
+        return bitsCached >> bitsCachedSize - count & MASKS[count];
     }
 
     private long processBitsGreater57(final int count) throws IOException {
@@ -147,10 +227,11 @@ private long processBitsGreater57(final int count) throws IOException {
         // bitsCachedSize >= 57 and left-shifting it 8 bits would cause an overflow
         final int bitsToAddCount = count - bitsCachedSize;
         overflowBits = Byte.SIZE - bitsToAddCount;
-        final long nextByte = in.read();
-        if (nextByte < 0) {
-            return nextByte;
+        if (bufferPosition == bufferLimit && !fillBuffer()) {
+            return -1;
         }
+        final long nextByte = buffer[bufferPosition++] & 0xFF;
+        bytesRead++;
         if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
             final long bitsToAdd = nextByte & MASKS[bitsToAddCount];
             bitsCached |= bitsToAdd << bitsCachedSize;
@@ -200,6 +281,48 @@ public long readBits(final int count) throws IOException {
         return readCachedBits(count);
     }
 
+    /**
+     * Reads whole bytes, the stream must be aligned with a byte boundary.
+     * <p>
+     * Bytes still held in the bit cache or the internal buffer are returned first, the underlying stream is only read from if both are empty.
+     * </p>
+     *
+     * @param b   the buffer into which the data is read.
+     * @param off the start offset in array {@code b} at which the data is written.
+     * @param len the maximum number of bytes to read.
+     * @return the number of bytes read or -1 if the end of the stream has been reached.
+     * @throws IOException           if an I/O error occurs.
+     * @throws IllegalStateException if the stream is not aligned with a byte boundary.
+     * @since 1.28.0
+     */
+    public int readBytes(final byte[] b, final int off, final int len) throws IOException {
+        if (bitsCachedSize % Byte.SIZE != 0) {
+            throw new IllegalStateException("Not aligned with a byte boundary");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < len && bitsCachedSize > 0) {
+            b[off + read++] = (byte) readCachedBits(Byte.SIZE);
+        }
+        final int fromBuffer = Math.min(len - read, bufferLimit - bufferPosition);
+        if (fromBuffer > 0) {
+            System.arraycopy(buffer, bufferPosition, b, off + read, fromBuffer);
+            bufferPosition += fromBuffer;
+            bytesRead += fromBuffer;
+            read += fromBuffer;
+        }
+        if (read > 0) {
+            return read;
+        }
+        read = in.read(b, off, len);
+        if (read > 0) {
+            bytesRead += read;
+        }
+        return read;
+    }
+
     private long readCachedBits(final int count) {
         final long bitsOut;
         if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
@@ -212,4 +335,40 @@ private long readCachedBits(final int count) {
         return bitsOut;
     }
 
+    /**
+     * Moves as many whole bytes from the buffer into the cache as fit with a single load of a long, the buffer must hold at least eight bytes.
+     */
+    private void refillWord() {
+        final int bytes = MAXIMUM_CACHE_SIZE - bitsCachedSize >>> 3;
+        final int bits = bytes * Byte.SIZE;
+        final byte[] b = buffer;
+        final int p = bufferPosition;
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            final long word = b[p] & 0xFFL | (b[p + 1] & 0xFFL) << 8 | (b[p + 2] & 0xFFL) << 16 | (b[p + 3] & 0xFFL) << 24 | (b[p + 4] & 0xFFL) << 32
+                    | (b[p + 5] & 0xFFL) << 40 | (b[p + 6] & 0xFFL) << 48 | (b[p + 7] & 0xFFL) << 56;
+            bitsCached |= (word & MASKS[bits]) << bitsCachedSize;
+        } else {
+            final long word = (b[p] & 0xFFL) << 56 | (b[p + 1] & 0xFFL) << 48 | (b[p + 2] & 0xFFL) << 40 | (b[p + 3] & 0xFFL) << 32 | (b[p + 4] & 0xFFL) << 24
+                    | (b[p + 5] & 0xFFL) << 16 | (b[p + 6] & 0xFFL) << 8 | b[p + 7] & 0xFFL;
+            bitsCached = bitsCached << bits | word >>> Long.SIZE - bits;
+        }
+        bufferPosition += bytes;
+        bitsCachedSize += bits;
+        bytesRead += bytes;
+    }
+
+    /**
+     * Discards bits that are already cached, usually after they have been inspected using {@link #peekBits(int)}.
+     *
+     * @param count the number of bits to skip, must not be negative or bigger than {@link #bitsCached()}.
+     * @throws IllegalArgumentException if count is negative or bigger than the number of cached bits.
+     * @since 1.28.0
+     */
+    public void skipBits(final int count) {
+        if (count < 0 || count > bitsCachedSize) {
+            throw new IllegalArgumentException("count must not be negative or greater than " + bitsCachedSize);
+        }
+        readCachedBits(count);
+    }
+
 }
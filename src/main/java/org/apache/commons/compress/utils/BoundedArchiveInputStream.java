@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * NIO backed bounded input stream for reading a predefined amount of data from.
@@ -97,4 +98,52 @@ public synchronized int read(final byte[] b, final int off, final int len) throw
      * @throws IOException if I/O fails.
      */
     protected abstract int read(long pos, ByteBuffer buf) throws IOException;
+
+    /**
+     * Transfers the remaining bytes of this stream to the given channel.
+     * <p>
+     * Implementations backed by a {@link java.nio.channels.FileChannel} may let the operating system copy the bytes without passing them through the heap.
+     * </p>
+     *
+     * @param target the channel to write to.
+     * @return the number of bytes transferred.
+     * @throws IOException if I/O fails.
+     * @since 1.28.0
+     */
+    public synchronized long transferTo(final WritableByteChannel target) throws IOException {
+        final long start = loc;
+        while (loc < end) {
+            final long transferred = transferTo(loc, end - loc, target);
+            if (transferred <= 0) {
+                // truncated archive
+                break;
+            }
+            loc += transferred;
+        }
+        return loc - start;
+    }
+
+    /**
+     * Transfers up to {@code count} bytes starting at the given position to the given channel.
+     * <p>
+     * This implementation reads the bytes into a buffer using {@link #read(long, ByteBuffer)} and writes them to the channel.
+     * </p>
+     *
+     * @param pos    position to start the transfer.
+     * @param count  maximum number of bytes to transfer.
+     * @param target the channel to write to.
+     * @return number of transferred bytes, 0 or less at the end of the data.
+     * @throws IOException if I/O fails.
+     * @since 1.28.0
+     */
+    protected long transferTo(final long pos, final long count, final WritableByteChannel target) throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocate((int) Math.min(count, 32 * 1024));
+        final int read = read(pos, buf);
+        if (read > 0) {
+            while (buf.hasRemaining()) {
+                target.write(buf);
+            }
+        }
+        return read;
+    }
 }
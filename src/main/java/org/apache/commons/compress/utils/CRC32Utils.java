@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.utils;
+
+/**
+ * PRIVATE.
+ *
+ * Combines CRC-32 checksums of consecutive byte sequences, like zlib's {@code crc32_combine}.
+ *
+ * @since 1.28.0
+ */
+public final class CRC32Utils {
+
+    /** The reversed CRC-32 polynomial used by {@link java.util.zip.CRC32}. */
+    private static final long POLYNOMIAL = 0xedb88320L;
+
+    /**
+     * Computes the CRC-32 of the concatenation of two byte sequences from their CRC-32 values.
+     *
+     * @param crc1    the CRC-32 of the first sequence.
+     * @param crc2    the CRC-32 of the second sequence.
+     * @param length2 the length of the second sequence.
+     * @return the CRC-32 of the first sequence followed by the second one.
+     */
+    public static long combine(final long crc1, final long crc2, final long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[32]; // operator for an even number of zero bits
+        final long[] odd = new long[32]; // operator for an odd number of zero bits
+        // operator for one zero bit in odd
+        odd[0] = POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // two zero bits
+        gf2MatrixSquare(odd, even); // four zero bits
+        // apply length2 zero bytes to crc1, the first squaring puts the operator for one zero byte (eight zero bits) in even
+        long result = crc1 & 0xffffffffL;
+        long length = length2;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length & 1) != 0) {
+                result = gf2MatrixTimes(even, result);
+            }
+            length >>>= 1;
+            if (length == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length & 1) != 0) {
+                result = gf2MatrixTimes(odd, result);
+            }
+            length >>>= 1;
+        } while (length != 0);
+        return result ^ crc2 & 0xffffffffL;
+    }
+
+    private static void gf2MatrixSquare(final long[] square, final long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    private static long gf2MatrixTimes(final long[] matrix, final long vector) {
+        long sum = 0;
+        long vec = vector;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private CRC32Utils() {
+        // no instances
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * PRIVATE.
+ *
+ * Waits for the results of tasks run on an {@link java.util.concurrent.ExecutorService}.
+ *
+ * @since 1.28.0
+ */
+public final class FutureUtils {
+
+    /**
+     * Waits for a task and gets its result, rethrowing the failure of the task.
+     * <p>
+     * An {@link IOException}, {@link RuntimeException} or {@link Error} thrown by the task is rethrown unchanged, any other exception is wrapped in an
+     * {@link IOException}. An interrupt while waiting is turned into an {@link InterruptedIOException}, keeping the interrupt status of the thread.
+     * </p>
+     *
+     * @param <T>    the type of the result.
+     * @param future the task.
+     * @return the result of the task.
+     * @throws IOException if the task failed with an {@link IOException} or checked exception or the thread has been interrupted while waiting.
+     */
+    public static <T> T get(final Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private FutureUtils() {
+        // no instances
+    }
+}
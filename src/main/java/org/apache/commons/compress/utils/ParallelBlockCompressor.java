@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.function.IOConsumer;
+
+/**
+ * PRIVATE.
+ *
+ * Splits data into blocks of a fixed size which are compressed independently on an {@link ExecutorService}, handing the compressed blocks to a consumer in
+ * input order.
+ * <p>
+ * At most {@code parallelism} blocks are pending at a time. The buffers holding the uncompressed data of the blocks are recycled once a block has been
+ * written, so the compressor must not keep a reference to the data it is given.
+ * </p>
+ *
+ * @param <T> the type of a compressed block.
+ * @NotThreadSafe
+ * @since 1.28.0
+ */
+public final class ParallelBlockCompressor<T> implements Closeable {
+
+    /**
+     * Compresses the uncompressed data of a block.
+     *
+     * @param <T> the type of a compressed block.
+     */
+    @FunctionalInterface
+    public interface BlockCompressor<T> {
+
+        /**
+         * Compresses a block, runs on the executor.
+         *
+         * @param data   the buffer holding the uncompressed data, only valid during the call.
+         * @param length the number of uncompressed bytes.
+         * @return the compressed block.
+         * @throws IOException if an I/O error occurs.
+         */
+        T compress(byte[] data, int length) throws IOException;
+    }
+
+    /**
+     * A block submitted but not yet written.
+     */
+    private static final class PendingBlock<T> {
+
+        private final Future<T> compressed;
+
+        private final byte[] data;
+
+        PendingBlock(final Future<T> compressed, final byte[] data) {
+            this.compressed = compressed;
+            this.data = data;
+        }
+    }
+
+    private final ExecutorService executorService;
+
+    private final int blockSize;
+
+    private final int parallelism;
+
+    private final BlockCompressor<T> compressor;
+
+    /** Blocks submitted but not yet written, in input order. */
+    private final Deque<PendingBlock<T>> pendingBlocks = new ArrayDeque<>();
+
+    /** Buffers of blocks written already. */
+    private final Deque<byte[]> idleBlocks = new ArrayDeque<>();
+
+    /** The uncompressed data of the current block. */
+    private byte[] block;
+
+    private int blockLength;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param executorService the executor used to compress blocks, it is not shut down by this instance.
+     * @param blockSize       the number of uncompressed bytes compressed into one block.
+     * @param parallelism     the maximum number of blocks compressed concurrently.
+     * @param compressor      compresses a block.
+     * @throws IllegalArgumentException if the block size or the parallelism is smaller than 1.
+     */
+    public ParallelBlockCompressor(final ExecutorService executorService, final int blockSize, final int parallelism, final BlockCompressor<T> compressor) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize(" + blockSize + ") < 1");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism(" + parallelism + ") < 1");
+        }
+        this.executorService = executorService;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.compressor = compressor;
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * Cancels the pending blocks.
+     */
+    @Override
+    public void close() {
+        pendingBlocks.forEach(pending -> pending.compressed.cancel(true));
+        pendingBlocks.clear();
+        idleBlocks.clear();
+    }
+
+    /**
+     * Compresses the data written so far as a block, unless there is none, and writes all compressed blocks.
+     *
+     * @param out receives the compressed blocks.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void flush(final IOConsumer<T> out) throws IOException {
+        if (blockLength > 0) {
+            submitBlock(out);
+        }
+        while (!pendingBlocks.isEmpty()) {
+            writeBlock(out);
+        }
+    }
+
+    /**
+     * Submits the current block and starts a new one, waiting for the oldest block first when too many are pending.
+     */
+    private void submitBlock(final IOConsumer<T> out) throws IOException {
+        while (pendingBlocks.size() >= parallelism) {
+            writeBlock(out);
+        }
+        final byte[] data = block;
+        final int length = blockLength;
+        pendingBlocks.add(new PendingBlock<>(executorService.submit(() -> compressor.compress(data, length)), data));
+        final byte[] idle = idleBlocks.poll();
+        block = idle != null ? idle : new byte[blockSize];
+        blockLength = 0;
+    }
+
+    /**
+     * Buffers data, submitting full blocks.
+     *
+     * @param b      the data.
+     * @param offset the start offset in the data.
+     * @param length the number of bytes to write.
+     * @param out    receives the compressed blocks written while waiting for pending blocks.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(final byte[] b, final int offset, final int length, final IOConsumer<T> out) throws IOException {
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            final int n = Math.min(remaining, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            remaining -= n;
+            if (blockLength == blockSize) {
+                submitBlock(out);
+            }
+        }
+    }
+
+    /**
+     * Waits for the oldest pending block, writes it and recycles its buffer.
+     */
+    private void writeBlock(final IOConsumer<T> out) throws IOException {
+        final T compressed = FutureUtils.get(pendingBlocks.peek().compressed);
+        idleBlocks.add(pendingBlocks.remove().data);
+        out.accept(compressed);
+    }
+}
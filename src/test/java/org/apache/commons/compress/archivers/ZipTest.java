@@ -433,6 +433,50 @@ void testCopyRawEntriesFromFile() throws IOException {
         }
     }
 
+    @Test
+    void testCopyRawEntriesFromMemoryMappedFile() throws IOException {
+        final File reference = createReferenceFile(Zip64Mode.Never, "expected.");
+        final File file1 = createTempFile("src1.", ".zip");
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(file1)) {
+            zos.setUseZip64(Zip64Mode.Never);
+            createFirstEntry(zos);
+            createSecondEntry(zos);
+        }
+        try (ZipFile zipFile1 = ZipFile.builder().setFile(file1).setMemoryMapped(true).get()) {
+            final File fileResult = createTempFile("file-actual.", ".zip");
+            try (ZipArchiveOutputStream zos2 = new ZipArchiveOutputStream(fileResult)) {
+                zipFile1.copyRawEntries(zos2, allFilesPredicate);
+            }
+            assertSameFileContents(reference, fileResult);
+        }
+    }
+
+    @Test
+    void testCopyRawEntriesFromFileToStream() throws IOException {
+        final File reference = createReferenceFile(Zip64Mode.Never, "expected.");
+        final File file1 = createTempFile("src1.", ".zip");
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(file1)) {
+            zos.setUseZip64(Zip64Mode.Never);
+            createFirstEntry(zos);
+            createSecondEntry(zos);
+        }
+        try (ZipFile zipFile1 = newZipFile(file1)) {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            try (ZipArchiveOutputStream zos2 = new ZipArchiveOutputStream(result)) {
+                zipFile1.copyRawEntries(zos2, allFilesPredicate);
+            }
+            try (ZipFile expected = newZipFile(reference);
+                    ZipFile actual = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(result.toByteArray())).get()) {
+                for (final String name : new String[] { "file1.txt", "file2.txt" }) {
+                    try (InputStream expectedIn = expected.getInputStream(expected.getEntry(name));
+                            InputStream actualIn = actual.getInputStream(actual.getEntry(name))) {
+                        assertArrayEquals(IOUtils.toByteArray(expectedIn), IOUtils.toByteArray(actualIn));
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     void testCopyRawZip64EntryFromFile() throws IOException {
         final File reference = createTempFile("z64reference.", ".zip");
@@ -26,6 +26,7 @@
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -33,6 +34,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
@@ -47,6 +49,12 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import javax.crypto.Cipher;
@@ -124,6 +132,39 @@ private byte[] readFully(final SevenZFile archive) throws IOException {
         return baos.toByteArray();
     }
 
+    private Map<String, byte[]> writeMultiFolderArchive(final File file) throws IOException {
+        return writeSolidArchive(file, 3);
+    }
+
+    private Map<String, byte[]> writeSolidArchive(final File file, final int solidBlockMaxEntries) throws IOException {
+        final Map<String, byte[]> contents = new HashMap<>();
+        final Random random = new Random(42);
+        try (SevenZOutputFile out = new SevenZOutputFile(file)) {
+            out.setSolid(true);
+            out.setSolidBlockMaxEntries(solidBlockMaxEntries);
+            for (int i = 0; i < 40; i++) {
+                final SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                if (i % 10 == 0) {
+                    entry.setName("dir" + i);
+                    entry.setDirectory(true);
+                    out.putArchiveEntry(entry);
+                    contents.put(entry.getName(), new byte[0]);
+                } else {
+                    entry.setName("file" + i + ".txt");
+                    final byte[] content = new byte[random.nextInt(50_000)];
+                    for (int j = 0; j < content.length; j++) {
+                        content[j] = (byte) ('a' + random.nextInt(8));
+                    }
+                    out.putArchiveEntry(entry);
+                    out.write(content);
+                    contents.put(entry.getName(), content);
+                }
+                out.closeArchiveEntry();
+            }
+        }
+        return contents;
+    }
+
     @Test
     void test7zDecryptUnarchive() throws Exception {
         if (isStrongCryptoAvailable()) {
@@ -265,6 +306,91 @@ void testEncryptedArchiveRequiresPassword() throws Exception {
         assertTrue(msg.contains("bla.encrypted.7z"), "Should contain archive's name");
     }
 
+    @Test
+    void testEntryCacheServesEntriesSkippedOnTheWay() throws Exception {
+        final File file = newTempFile("solid.7z");
+        final Map<String, byte[]> expected = writeSolidArchive(file, Integer.MAX_VALUE);
+        final AtomicInteger channelReads = new AtomicInteger();
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel(Files.readAllBytes(file.toPath())) {
+            @Override
+            public int read(final ByteBuffer buf) throws IOException {
+                channelReads.incrementAndGet();
+                return super.read(buf);
+            }
+        };
+        try (SevenZFile sevenZFile = SevenZFile.builder().setSeekableByteChannel(channel).setEntryCacheKiB(2048).get()) {
+            final List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) sevenZFile.getEntries();
+            Collections.reverse(entries);
+            final SevenZArchiveEntry last = entries.get(0);
+            assertArrayEquals(expected.get(last.getName()), read(sevenZFile, last));
+            channelReads.set(0);
+            for (final SevenZArchiveEntry entry : entries.subList(1, entries.size())) {
+                assertArrayEquals(expected.get(entry.getName()), read(sevenZFile, entry), entry.getName());
+            }
+            // everything in front of the last entry has been decoded once and is served from the cache
+            assertEquals(0, channelReads.get());
+        }
+    }
+
+    @Test
+    void testEntryCacheSmallerThanEntries() throws Exception {
+        final File file = newTempFile("solid.7z");
+        final Map<String, byte[]> expected = writeSolidArchive(file, Integer.MAX_VALUE);
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).setEntryCacheKiB(64).get()) {
+            final List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) sevenZFile.getEntries();
+            Collections.shuffle(entries, new Random(1));
+            for (final SevenZArchiveEntry entry : entries) {
+                assertArrayEquals(expected.get(entry.getName()), read(sevenZFile, entry), entry.getName());
+            }
+        }
+    }
+
+    @Test
+    void testEntryCacheStaysWithinItsSizeWhenSkippingManyEntries() throws Exception {
+        final File file = newTempFile("solid.7z");
+        final int entrySize = 40 * 1024;
+        final Random random = new Random(7);
+        final List<byte[]> contents = new ArrayList<>();
+        try (SevenZOutputFile out = new SevenZOutputFile(file)) {
+            out.setSolid(true);
+            for (int i = 0; i < 100; i++) {
+                final SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName("file" + i);
+                final byte[] content = new byte[entrySize];
+                random.nextBytes(content);
+                out.putArchiveEntry(entry);
+                out.write(content);
+                out.closeArchiveEntry();
+                contents.add(content);
+            }
+        }
+        final AtomicReference<SevenZFile> archive = new AtomicReference<>();
+        final AtomicLong maxCacheBytes = new AtomicLong();
+        final AtomicInteger channelReads = new AtomicInteger();
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel(Files.readAllBytes(file.toPath())) {
+            @Override
+            public int read(final ByteBuffer buf) throws IOException {
+                channelReads.incrementAndGet();
+                if (archive.get() != null) {
+                    maxCacheBytes.accumulateAndGet(archive.get().getEntryCacheBytes(), Math::max);
+                }
+                return super.read(buf);
+            }
+        };
+        try (SevenZFile sevenZFile = SevenZFile.builder().setSeekableByteChannel(channel).setEntryCacheKiB(64).get()) {
+            archive.set(sevenZFile);
+            final List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) sevenZFile.getEntries();
+            assertArrayEquals(contents.get(99), read(sevenZFile, entries.get(99)));
+            // only one entry fits, the buffers of the 99 skipped entries are not held at once
+            assertTrue(maxCacheBytes.get() <= 64 * 1024, () -> "cache held " + maxCacheBytes.get());
+            assertEquals(entrySize, sevenZFile.getEntryCacheBytes());
+            channelReads.set(0);
+            assertArrayEquals(contents.get(98), read(sevenZFile, entries.get(98)));
+            assertEquals(0, channelReads.get());
+        }
+        assertEquals(0, archive.get().getEntryCacheBytes());
+    }
+
     @Test
     void testExtractNonExistSpecifiedFile() throws Exception {
         try (SevenZFile sevenZFile = getSevenZFile("COMPRESS-256.7z");
@@ -326,6 +452,143 @@ void testExtractSpecifiedFileDeprecated() throws Exception {
         }
     }
 
+    @Test
+    void testForEachEntryDecodesFoldersConcurrently() throws Exception {
+        final File file = newTempFile("multi-folder.7z");
+        final Map<String, byte[]> expected = writeMultiFolderArchive(file);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get();
+                SevenZFile inMemorySevenZFile = SevenZFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(Files.readAllBytes(file.toPath())))
+                        .get()) {
+            assertTrue(sevenZFile.toString().contains("12 folders"), sevenZFile::toString);
+            for (final SevenZFile archive : Arrays.asList(sevenZFile, inMemorySevenZFile)) {
+                final Map<String, byte[]> actual = new ConcurrentHashMap<>();
+                archive.forEachEntry(executorService, 4, (entry, inputStream) -> actual.put(entry.getName(), IOUtils.toByteArray(inputStream)));
+                assertEquals(expected.keySet(), actual.keySet());
+                expected.forEach((name, content) -> assertArrayEquals(content, actual.get(name), name));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachEntryOnCallingThread() throws Exception {
+        final File file = newTempFile("multi-folder.7z");
+        final Map<String, byte[]> expected = writeMultiFolderArchive(file);
+        final Map<String, byte[]> actual = new HashMap<>();
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
+            final Thread thread = Thread.currentThread();
+            // only read some of the content, the rest must be skipped
+            sevenZFile.forEachEntry(null, 1, (entry, inputStream) -> {
+                assertEquals(thread, Thread.currentThread());
+                actual.put(entry.getName(), IOUtils.toByteArray(inputStream, Math.min(100, entry.getSize())));
+            });
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((name, content) -> assertArrayEquals(Arrays.copyOf(content, Math.min(100, content.length)), actual.get(name), name));
+    }
+
+    @Test
+    void testForEachEntryPropagatesFailures() throws Exception {
+        final File file = newTempFile("multi-folder.7z");
+        writeMultiFolderArchive(file);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
+            assertThrows(IllegalArgumentException.class, () -> sevenZFile.forEachEntry(executorService, 0, (entry, inputStream) -> {
+                // never called
+            }));
+            final IOException e = assertThrows(IOException.class, () -> sevenZFile.forEachEntry(executorService, 4, (entry, inputStream) -> {
+                if (entry.getName().equals("file25.txt")) {
+                    throw new IOException("failed " + entry.getName());
+                }
+            }));
+            assertEquals("failed file25.txt", e.getMessage());
+            // the archive is still usable
+            final SevenZArchiveEntry entry = sevenZFile.getNextEntry();
+            assertEquals("dir0", entry.getName());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachEntryReadsEntriesInArchiveOrder() throws Exception {
+        final File file = newTempFile("solid.7z");
+        final Map<String, byte[]> expected = writeSolidArchive(file, Integer.MAX_VALUE);
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
+            final List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) sevenZFile.getEntries();
+            final List<SevenZArchiveEntry> requested = new ArrayList<>(entries.subList(5, 30));
+            Collections.shuffle(requested, new Random(1));
+            requested.add(requested.get(0));
+            final List<SevenZArchiveEntry> actual = new ArrayList<>();
+            sevenZFile.forEachEntry(requested, (entry, inputStream) -> {
+                actual.add(entry);
+                // only read some entries completely
+                if (actual.size() % 2 == 0) {
+                    assertArrayEquals(expected.get(entry.getName()), IOUtils.toByteArray(inputStream), entry.getName());
+                } else {
+                    inputStream.close();
+                }
+            });
+            assertEquals(entries.subList(5, 30), actual);
+            final List<SevenZArchiveEntry> unknown = Collections.singletonList(new SevenZArchiveEntry());
+            assertThrows(IllegalArgumentException.class, () -> sevenZFile.forEachEntry(unknown, (entry, inputStream) -> {
+                // never called
+            }));
+        }
+    }
+
+    @Test
+    void testForEachEntryRespectsMemoryLimit() throws Exception {
+        final File file = newTempFile("multi-folder.7z");
+        final Map<String, byte[]> expected = writeMultiFolderArchive(file);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // the LZMA2 decoder of each folder needs more than 8 MiB
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).setMaxMemoryLimitKiB(12 * 1024).get()) {
+            sevenZFile.forEachEntry(executorService, 4, (entry, inputStream) -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    assertArrayEquals(expected.get(entry.getName()), IOUtils.toByteArray(inputStream));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void testForEachEntryRestartsSequentialAccess() throws Exception {
+        final File file = newTempFile("multi-folder.7z");
+        final Map<String, byte[]> expected = writeMultiFolderArchive(file);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
+            sevenZFile.getNextEntry();
+            SevenZArchiveEntry entry = sevenZFile.getNextEntry();
+            assertEquals("file1.txt", entry.getName());
+            assertTrue(sevenZFile.read() >= 'a');
+            sevenZFile.forEachEntry(executorService, 2, (e, inputStream) -> {
+                // skip everything
+            });
+            int count = 0;
+            while ((entry = sevenZFile.getNextEntry()) != null) {
+                assertArrayEquals(expected.get(entry.getName()), readFully(sevenZFile), entry.getName());
+                count++;
+            }
+            assertEquals(expected.size(), count);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     void testGetDefaultName() throws Exception {
         try (SevenZFile sevenZFile = getSevenZFile("bla.deflate64.7z")) {
@@ -375,6 +638,37 @@ void testGetEntriesOfUnarchiveTest() throws IOException {
         }
     }
 
+    @Test
+    void testGetEntryByName() throws Exception {
+        final File file = newTempFile("names.7z");
+        try (SevenZOutputFile out = new SevenZOutputFile(file)) {
+            out.setContentCompression(SevenZMethod.COPY);
+            for (int i = 0; i < 1000; i++) {
+                final SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName(i == 999 ? "name0" : "name" + i);
+                out.putArchiveEntry(entry);
+                out.write(("content" + i).getBytes(UTF_8));
+                out.closeArchiveEntry();
+            }
+        }
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(file).get()) {
+            for (int i = 998; i >= 0; i--) {
+                final SevenZArchiveEntry entry = sevenZFile.getEntry("name" + i);
+                assertEquals("name" + i, entry.getName());
+                assertEquals("content" + i, new String(read(sevenZFile, entry), UTF_8));
+            }
+            assertNull(sevenZFile.getEntry("name999"));
+            assertNull(sevenZFile.getEntry(""));
+        }
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(getFile("bla-nonames.7z")).get()) {
+            assertNull(sevenZFile.getEntry("bla-nonames"));
+        }
+        try (SevenZFile sevenZFile = SevenZFile.builder().setFile(getFile("bla-nonames.7z")).setUseDefaultNameForUnnamedEntries(true).get()) {
+            final SevenZArchiveEntry entry = sevenZFile.getEntry("bla-nonames");
+            assertSame(sevenZFile.getEntries().iterator().next(), entry);
+        }
+    }
+
     @Test
     void testGivenNameWinsOverDefaultName() throws Exception {
         try (@SuppressWarnings("deprecation")
@@ -40,12 +40,16 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.compress.AbstractTest;
 import org.apache.commons.compress.PasswordRequiredException;
 import org.apache.commons.compress.utils.ByteUtils;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.compress.utils.TimeUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.tukaani.xz.LZMA2Options;
 
@@ -554,6 +558,43 @@ void testNineFilesSomeNotEmpty() throws Exception {
         testCompress252(9, 2);
     }
 
+    @Test
+    void testParallelLzma2Roundtrip() throws Exception {
+        final Random random = new Random(1952);
+        final byte[][] contents = new byte[5][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = new byte[100_000 + i * 50_000];
+            for (int j = 0; j < contents[i].length; j++) {
+                contents[i][j] = (byte) ('a' + random.nextInt(8));
+            }
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        try (SevenZOutputFile outArchive = new SevenZOutputFile(channel)) {
+            outArchive.setSolid(true);
+            outArchive.setExecutorService(executorService);
+            outArchive.setLzma2BlockSize(64 * 1024);
+            outArchive.setParallelism(2);
+            for (int i = 0; i < contents.length; i++) {
+                final SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName("file" + i);
+                outArchive.putArchiveEntry(entry);
+                outArchive.write(contents[i]);
+                outArchive.closeArchiveEntry();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        try (SevenZFile archive = SevenZFile.builder().setByteArray(channel.array()).get()) {
+            for (final byte[] content : contents) {
+                assertArrayEquals(content, IOUtils.toByteArray(archive.getInputStream(archive.getNextEntry())));
+            }
+            assertNull(archive.getNextEntry());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SevenZOutputFile(new SeekableInMemoryByteChannel()).setParallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> new SevenZOutputFile(new SeekableInMemoryByteChannel()).setLzma2BlockSize(0));
+    }
+
     private void testRoundTrip(final SevenZMethod method) throws Exception {
         final File output = newTempFile(method + "-roundtrip.7z");
         final ArrayList<SevenZMethodConfiguration> methods = new ArrayList<>();
@@ -581,6 +622,90 @@ void testSixFilesSomeNotEmpty() throws Exception {
         testCompress252(6, 2);
     }
 
+    @Test
+    void testSolidBlockLimits() throws Exception {
+        // 10 non-empty entries, at most 4 per block and a new block for every extension change
+        final String[] names = { "a.txt", "b.txt", "c.txt", "d.txt", "e.txt", "f.txt", "g.bin", "h.bin", "i.txt", "j.txt" };
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        try (SevenZOutputFile outArchive = new SevenZOutputFile(channel)) {
+            outArchive.setSolid(true);
+            outArchive.setSolidBlockMaxEntries(4);
+            outArchive.setSolidBlockPerExtension(true);
+            for (int i = 0; i < names.length; i++) {
+                final SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName(names[i]);
+                outArchive.putArchiveEntry(entry);
+                outArchive.write(generateFileData(100 + i));
+                outArchive.closeArchiveEntry();
+            }
+        }
+        try (SevenZFile archive = SevenZFile.builder().setByteArray(channel.array()).get()) {
+            // abcd, ef, gh, ij
+            assertTrue(archive.toString().contains(" 4 folders"), archive::toString);
+            for (int i = 0; i < names.length; i++) {
+                final SevenZArchiveEntry entry = archive.getNextEntry();
+                assertEquals(names[i], entry.getName());
+                assertArrayEquals(generateFileData(100 + i), IOUtils.toByteArray(archive.getInputStream(entry)));
+            }
+        }
+    }
+
+    @Test
+    void testSolidBlockMaxSize() throws Exception {
+        final SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        try (SevenZOutputFile outArchive = new SevenZOutputFile(channel)) {
+            outArchive.setSolid(true);
+            outArchive.setSolidBlockMaxSize(250);
+            for (int i = 0; i < 6; i++) {
+                addFile(outArchive, i, 100, null);
+            }
+        }
+        try (SevenZFile archive = SevenZFile.builder().setByteArray(channel.array()).get()) {
+            // a block is closed once it has reached 250 bytes, i.e. after three entries
+            assertTrue(archive.toString().contains(" 2 folders"), archive::toString);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SevenZOutputFile(new SeekableInMemoryByteChannel()).setSolidBlockMaxSize(0));
+        assertThrows(IllegalArgumentException.class, () -> new SevenZOutputFile(new SeekableInMemoryByteChannel()).setSolidBlockMaxEntries(0));
+    }
+
+    @Test
+    void testSolidRoundtrip() throws Exception {
+        final File output = newTempFile("solid.7z");
+        final int numberOfFiles = 100;
+        try (SevenZOutputFile outArchive = new SevenZOutputFile(output)) {
+            outArchive.setSolid(true);
+            addDir(outArchive);
+            for (int i = 0; i < numberOfFiles; i++) {
+                // every tenth entry is empty, entry 55 uses different methods and has to start a block of its own
+                addFile(outArchive, i, i % 10 == 0 ? 0 : 1 + i * 37 % 500,
+                        i == 55 ? Collections.singletonList(new SevenZMethodConfiguration(SevenZMethod.DEFLATE)) : null);
+            }
+        }
+        try (SevenZFile archive = SevenZFile.builder().setFile(output).get()) {
+            assertTrue(archive.toString().contains(" 3 folders"), archive::toString);
+            verifyDir(archive);
+            for (int i = 0; i < numberOfFiles; i++) {
+                final SevenZArchiveEntry entry = archive.getNextEntry();
+                assertEquals("foo/" + i + ".txt", entry.getName());
+                final int size = i % 10 == 0 ? 0 : 1 + i * 37 % 500;
+                assertEquals(size > 0, entry.hasStream());
+                assertEquals(size, entry.getSize());
+                assertArrayEquals(generateFileData(size), IOUtils.toByteArray(archive.getInputStream(entry)));
+            }
+            assertNull(archive.getNextEntry());
+        }
+        // random access
+        try (SevenZFile archive = SevenZFile.builder().setFile(output).get()) {
+            SevenZArchiveEntry entry = null;
+            for (final SevenZArchiveEntry e : archive.getEntries()) {
+                if (e.getName().equals("foo/77.txt")) {
+                    entry = e;
+                }
+            }
+            assertArrayEquals(generateFileData(1 + 77 * 37 % 500), IOUtils.toByteArray(archive.getInputStream(entry)));
+        }
+    }
+
     @Test
     void testStackOfContentCompressions() throws Exception {
         final File output = newTempFile("multiple-methods.7z");
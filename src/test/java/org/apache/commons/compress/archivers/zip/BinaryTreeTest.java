@@ -51,6 +51,18 @@ void testDecode() throws IOException {
         }
     }
 
+    @Test
+    void testDecodeReturnsMinusOneAtEndOfStream() throws IOException {
+        final BinaryTree tree = BinaryTree.decode(new ByteArrayInputStream(new byte[] { 0x02, 0x42, 0x01, 0x13 }), 8);
+        // the first five codes take 15 bits, only one bit of the two bit code of value 5 follows
+        try (BitStream stream = new BitStream(new ByteArrayInputStream(new byte[] { (byte) 0x8D, (byte) 0xC5 }))) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, tree.read(stream));
+            }
+            assertEquals(-1, tree.read(stream));
+        }
+    }
+
     @Test
     void testExceptions() {
         final BinaryTree binaryFinary = new BinaryTree(4);
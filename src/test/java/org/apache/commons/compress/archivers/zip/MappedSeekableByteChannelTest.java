@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.archivers.zip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.commons.compress.AbstractTempDirTest;
+import org.junit.jupiter.api.Test;
+
+class MappedSeekableByteChannelTest extends AbstractTempDirTest {
+
+    private static final int SEGMENT_SIZE = 7;
+
+    private byte[] data;
+
+    private MappedSeekableByteChannel open() throws IOException {
+        return open(30);
+    }
+
+    private MappedSeekableByteChannel open(final int length) throws IOException {
+        data = new byte[length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final Path path = getTempDirPath().resolve("data.bin");
+        Files.write(path, data);
+        return new MappedSeekableByteChannel(FileChannel.open(path, StandardOpenOption.READ), SEGMENT_SIZE);
+    }
+
+    @Test
+    void testClose() throws IOException {
+        final MappedSeekableByteChannel channel = open();
+        channel.close();
+        assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+        assertThrows(ClosedChannelException.class, channel::size);
+    }
+
+    @Test
+    void testReadAcrossSegments() throws IOException {
+        try (MappedSeekableByteChannel channel = open()) {
+            assertEquals(data.length, channel.size());
+            final ByteBuffer buffer = ByteBuffer.allocate(20);
+            channel.position(5);
+            assertEquals(20, channel.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(data, 5, 25), buffer.array());
+            assertEquals(25, channel.position());
+            buffer.clear();
+            assertEquals(5, channel.read(buffer));
+            assertEquals(-1, channel.read(buffer));
+            final ByteBuffer direct = ByteBuffer.allocateDirect(10);
+            assertEquals(10, channel.read(direct, 12));
+            direct.flip();
+            for (int i = 12; i < 22; i++) {
+                assertEquals(data[i], direct.get());
+            }
+            // positional reads leave the position alone
+            assertEquals(30, channel.position());
+        }
+    }
+
+    @Test
+    void testReadOnly() throws IOException {
+        try (MappedSeekableByteChannel channel = open()) {
+            assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+            assertThrows(NonWritableChannelException.class, () -> channel.truncate(0));
+            assertThrows(IllegalArgumentException.class, () -> channel.position(-1));
+        }
+    }
+
+    @Test
+    void testSlice() throws IOException {
+        try (MappedSeekableByteChannel channel = open()) {
+            final ByteBuffer slice = channel.slice(8, 5);
+            assertTrue(slice.isReadOnly());
+            assertEquals(5, slice.remaining());
+            for (int i = 8; i < 13; i++) {
+                assertEquals(data[i], slice.get());
+            }
+            assertNull(channel.slice(5, 5));
+            assertThrows(IllegalArgumentException.class, () -> channel.slice(28, 5));
+        }
+    }
+
+    @Test
+    void testSliceEmptyAtEndOfLastSegment() throws IOException {
+        try (MappedSeekableByteChannel channel = open(4 * SEGMENT_SIZE)) {
+            final ByteBuffer slice = channel.slice(4 * SEGMENT_SIZE, 0);
+            assertTrue(slice.isReadOnly());
+            assertEquals(0, slice.remaining());
+        }
+    }
+
+    @Test
+    void testSliceEmptyFile() throws IOException {
+        try (MappedSeekableByteChannel channel = open(0)) {
+            assertEquals(0, channel.size());
+            assertEquals(0, channel.slice(0, 0).remaining());
+            assertThrows(IllegalArgumentException.class, () -> channel.slice(0, 1));
+        }
+    }
+}
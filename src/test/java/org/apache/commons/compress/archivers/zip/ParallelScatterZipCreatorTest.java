@@ -20,6 +20,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -43,11 +44,14 @@
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.AbstractTempDirTest;
 import org.apache.commons.compress.AbstractTest;
+import org.apache.commons.compress.parallel.ByteBufferScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ByteBufferScatterGatherBackingStoreSupplier;
 import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
 import org.apache.commons.compress.parallel.InputStreamSupplier;
 import org.apache.commons.compress.parallel.ScatterGatherBackingStoreSupplier;
@@ -238,6 +242,146 @@ void testConcurrentDefaultTempFolder() throws Exception {
         assertNotNull(zipCreator.getStatisticsMessage());
     }
 
+    @Test
+    void testByteBufferBackingStore() throws Exception {
+        final File result = createTempFile("parallelScatterGather9", "");
+        final Map<String, byte[]> entries;
+        try (ByteBufferScatterGatherBackingStoreSupplier supplier = new ByteBufferScatterGatherBackingStoreSupplier(1024 * 1024);
+                ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(2), supplier);
+            entries = writeEntries(zipCreator);
+            zipCreator.writeTo(zos);
+            assertTrue(supplier.getAllocatedMemory() > 0);
+            supplier.close();
+            assertEquals(0, supplier.getAllocatedMemory());
+        }
+        removeEntriesFoundInZipFile(result, entries);
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    void testByteBufferBackingStoreRejectsIllegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferScatterGatherBackingStoreSupplier(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferScatterGatherBackingStoreSupplier(1024, 0, null));
+    }
+
+    @Test
+    void testByteBufferBackingStoreSpillsBeyondBudget() throws Exception {
+        final File result = createTempFile("parallelScatterGather10", "");
+        final Map<String, byte[]> entries;
+        try (ByteBufferScatterGatherBackingStoreSupplier supplier = new ByteBufferScatterGatherBackingStoreSupplier(256, 32, getTempDirFile().toPath());
+                ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(2), supplier,
+                    Deflater.DEFAULT_COMPRESSION, true);
+            entries = writeEntries(zipCreator);
+            zipCreator.writeTo(zos);
+            assertTrue(supplier.getAllocatedMemory() <= supplier.getMemoryBudget());
+        }
+        removeEntriesFoundInZipFile(result, entries);
+        assertTrue(entries.isEmpty());
+        try (Stream<Path> files = Files.list(getTempDirFile().toPath())) {
+            assertFalse(files.anyMatch(f -> f.getFileName().toString().startsWith("parallelscatter")));
+        }
+    }
+
+    @Test
+    void testByteBufferBackingStoreReadsChunksAndSpillFile() throws Exception {
+        final byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (ByteBufferScatterGatherBackingStoreSupplier supplier = new ByteBufferScatterGatherBackingStoreSupplier(300, 100, getTempDirFile().toPath())) {
+            final ByteBufferScatterGatherBackingStore store = (ByteBufferScatterGatherBackingStore) supplier.get();
+            store.writeOut(data, 0, 150);
+            assertFalse(store.isSpilled());
+            store.writeOut(data, 150, data.length - 150);
+            assertTrue(store.isSpilled());
+            store.closeForWriting();
+            try (InputStream in = store.getInputStream()) {
+                assertArrayEquals(data, IOUtils.toByteArray(in));
+            }
+            assertEquals(300, supplier.getAllocatedMemory());
+            store.close();
+            // released chunks are reused
+            final ByteBufferScatterGatherBackingStore store2 = (ByteBufferScatterGatherBackingStore) supplier.get();
+            store2.writeOut(data, 0, 300);
+            assertFalse(store2.isSpilled());
+            assertEquals(300, supplier.getAllocatedMemory());
+            store2.close();
+        }
+    }
+
+    @Test
+    void testParallelDeflate() throws Exception {
+        final File result = createTempFile("parallelScatterGather11", "");
+        final byte[] payload = new byte[200_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31 / 7);
+        }
+        final ExecutorService deflateExecutorService = Executors.newFixedThreadPool(2);
+        final Map<String, byte[]> entries;
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(2));
+            zipCreator.setParallelDeflate(deflateExecutorService, 32 * 1024);
+            entries = writeEntries(zipCreator);
+            for (int i = NUMITEMS; i < NUMITEMS + 3; i++) {
+                zipCreator.addArchiveEntry(createZipArchiveEntry(entries, i, payload), () -> new ByteArrayInputStream(payload));
+            }
+            zipCreator.writeTo(zos);
+        } finally {
+            deflateExecutorService.shutdown();
+        }
+        removeEntriesFoundInZipFile(result, entries);
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    void testStreamingGather() throws Exception {
+        final File result = createTempFile("parallelScatterGather6", "");
+        final ParallelScatterZipCreator zipCreator;
+        final Map<String, byte[]> entries;
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            zos.setEncoding(StandardCharsets.UTF_8.name());
+            zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()),
+                    new DefaultBackingStoreSupplier(getTempDirFile().toPath()), Deflater.DEFAULT_COMPRESSION, true);
+            entries = writeEntries(zipCreator);
+            zipCreator.writeTo(zos);
+        }
+        removeEntriesFoundInZipFile(result, entries);
+        assertTrue(entries.isEmpty());
+        assertNotNull(zipCreator.getStatisticsMessage());
+    }
+
+    @Test
+    void testStreamingGatherUsingSubmit() throws Exception {
+        final File result = createTempFile("parallelScatterGather7", "");
+        final Map<String, byte[]> entries;
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            final ScatterGatherBackingStoreSupplier supp = () -> new FileBasedScatterGatherBackingStore(createTempFile("parallelscatter", "n1"));
+            final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(2), supp, Deflater.BEST_SPEED, true);
+            entries = writeEntriesAsCallable(zipCreator, zipCreator::submit);
+            zipCreator.writeTo(zos);
+        }
+        removeEntriesFoundInZipFile(result, entries);
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    void testStreamingGatherPropagatesFailure() throws Exception {
+        final File result = createTempFile("parallelScatterGather8", "");
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(result)) {
+            final ParallelScatterZipCreator zipCreator = new ParallelScatterZipCreator(Executors.newFixedThreadPool(2),
+                    new DefaultBackingStoreSupplier(getTempDirFile().toPath()), Deflater.DEFAULT_COMPRESSION, true);
+            final Map<String, byte[]> entries = new HashMap<>();
+            zipCreator.addArchiveEntry(createZipArchiveEntry(entries, 0, new byte[1]), () -> new ByteArrayInputStream(new byte[1]));
+            zipCreator.addArchiveEntry(createZipArchiveEntry(entries, 1, new byte[1]), () -> {
+                throw new IllegalStateException("test");
+            });
+            final ExecutionException e = assertThrows(ExecutionException.class, () -> zipCreator.writeTo(zos));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
     @Test
     void testThrowsExceptionWithCompressionLevelTooBig() {
         final int compressLevelTooBig = Deflater.BEST_COMPRESSION + 1;
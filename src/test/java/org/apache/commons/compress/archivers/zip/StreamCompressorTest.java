@@ -27,9 +27,16 @@
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipEntry;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
 class StreamCompressorTest {
@@ -58,6 +65,46 @@ void testDeflatedEntries() throws Exception {
         }
     }
 
+    @Test
+    void testParallelDeflatedEntries() throws Exception {
+        final byte[] data = new byte[300_000];
+        final Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final ByteArrayOutputStream serial = new ByteArrayOutputStream();
+            try (StreamCompressor sc = StreamCompressor.create(serial)) {
+                sc.deflate(new ByteArrayInputStream("AAAAAABBBBBB".getBytes()), ZipEntry.DEFLATED);
+            }
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (StreamCompressor sc = StreamCompressor.create(baos)) {
+                sc.setParallelDeflate(executorService, Deflater.DEFAULT_COMPRESSION, 32 * 1024, 2);
+                // an entry smaller than a chunk is deflated just like without an executor
+                sc.deflate(new ByteArrayInputStream("AAAAAABBBBBB".getBytes()), ZipEntry.DEFLATED);
+                assertEquals(3299542, sc.getCrc32());
+                assertArrayEquals(serial.toByteArray(), baos.toByteArray());
+                baos.reset();
+                sc.deflate(new ByteArrayInputStream(data), ZipEntry.DEFLATED);
+                assertEquals(data.length, sc.getBytesRead());
+                assertEquals(baos.size(), sc.getBytesWrittenForLastEntry());
+                assertEquals(crc.getValue(), sc.getCrc32());
+                try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(baos.toByteArray()), new Inflater(true))) {
+                    assertArrayEquals(data, IOUtils.toByteArray(in));
+                }
+                baos.reset();
+                sc.deflate(new ByteArrayInputStream("A".getBytes()), ZipEntry.STORED);
+                assertEquals("A", baos.toString());
+                assertEquals(3554254475L, sc.getCrc32());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     void testStoredEntries() throws Exception {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
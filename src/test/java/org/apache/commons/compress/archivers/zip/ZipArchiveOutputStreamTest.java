@@ -18,18 +18,27 @@
  */
 package org.apache.commons.compress.archivers.zip;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.AbstractTempDirTest;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -68,6 +77,60 @@ void testOutputStreamBasics() throws IOException {
         }
     }
 
+    @Test
+    void testParallelDeflate() throws IOException {
+        final byte[] data = new byte[1_000_000];
+        final Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(16));
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final File file = createTempFile();
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(new ByteArrayOutputStream())) {
+            outputStream.putArchiveEntry(new ZipArchiveEntry("open"));
+            assertThrows(IllegalStateException.class, () -> outputStream.setParallelDeflate(executorService, 64 * 1024));
+            outputStream.closeArchiveEntry();
+            assertThrows(IllegalArgumentException.class, () -> outputStream.setParallelDeflate(executorService, 1024));
+        }
+        try {
+            try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(file)) {
+                outputStream.setParallelDeflate(executorService, 64 * 1024);
+                outputStream.putArchiveEntry(new ZipArchiveEntry("large"));
+                outputStream.write(data);
+                outputStream.closeArchiveEntry();
+                outputStream.putArchiveEntry(new ZipArchiveEntry("small"));
+                outputStream.write(data, 0, 100);
+                outputStream.closeArchiveEntry();
+                outputStream.setLevel(Deflater.BEST_SPEED);
+                outputStream.putArchiveEntry(new ZipArchiveEntry("fast"));
+                outputStream.write(data);
+                outputStream.closeArchiveEntry();
+            }
+            try (ZipFile zipFile = ZipFile.builder().setFile(file).get()) {
+                for (final String name : new String[] { "large", "fast" }) {
+                    final ZipArchiveEntry entry = zipFile.getEntry(name);
+                    assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+                    assertEquals(data.length, entry.getSize());
+                    assertEquals(crc.getValue(), entry.getCrc());
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        assertArrayEquals(data, IOUtils.toByteArray(in));
+                    }
+                }
+                try (InputStream in = zipFile.getInputStream(zipFile.getEntry("small"))) {
+                    assertEquals(100, IOUtils.toByteArray(in).length);
+                }
+            }
+            try (java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(file);
+                    InputStream in = zipFile.getInputStream(zipFile.getEntry("large"))) {
+                assertArrayEquals(data, IOUtils.toByteArray(in));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     void testSetEncoding() throws IOException {
         try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(createTempFile())) {
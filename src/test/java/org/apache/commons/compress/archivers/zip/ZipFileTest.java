@@ -26,7 +26,9 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -36,20 +38,30 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -266,6 +278,89 @@ void testAlternativeZstdInputStream() throws Exception {
         }
     }
 
+    @Test
+    void testCentralDirectoryCache() throws Exception {
+        final Path archive = getTempDirPath().resolve("cached.zip");
+        final Path cache = getTempDirPath().resolve("cached.zip.cache");
+        try (ZipArchiveOutputStream zipOutput = new ZipArchiveOutputStream(archive)) {
+            zipOutput.setUseZip64(Zip64Mode.Never);
+            for (int i = 0; i < 10; i++) {
+                final ZipArchiveEntry entry = new ZipArchiveEntry("file" + i + ".txt");
+                entry.setMethod(i % 2 == 0 ? ZipEntry.DEFLATED : ZipEntry.STORED);
+                zipOutput.putArchiveEntry(entry);
+                zipOutput.write(("content of entry " + i).getBytes(UTF_8));
+                zipOutput.closeArchiveEntry();
+            }
+        }
+        final List<ZipArchiveEntry> expected;
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).get()) {
+            expected = Collections.list(zipFile.getEntries());
+        }
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            assertEquals(expected, Collections.list(zipFile.getEntries()));
+        }
+        assertTrue(Files.isRegularFile(cache));
+        // change the local file header of the first entry behind the cache's back, the name length moves the data offset
+        final ZipArchiveEntry first = expected.get(0);
+        assertEquals(0, first.getLocalFileDataExtra().length);
+        final FileTime lastModified = Files.getLastModifiedTime(archive);
+        final byte[] data = Files.readAllBytes(archive);
+        data[(int) first.getLocalHeaderOffset() + 26] ^= 1;
+        Files.write(archive, data);
+        Files.setLastModifiedTime(archive, lastModified);
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            final List<ZipArchiveEntry> cached = Collections.list(zipFile.getEntries());
+            assertEquals(expected, cached);
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i).getExtra(), cached.get(i).getExtra());
+                try (InputStream inputStream = zipFile.getInputStream(cached.get(i))) {
+                    assertEquals(expected.get(i).getSize(), IOUtils.toByteArray(inputStream).length);
+                }
+            }
+        }
+        // a modified archive replaces the cache
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(lastModified.toMillis() + 60_000));
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            assertNotEquals(first.getDataOffset(), zipFile.getEntry(first.getName()).getDataOffset());
+        }
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            assertNotEquals(first.getDataOffset(), zipFile.getEntry(first.getName()).getDataOffset());
+        }
+    }
+
+    @Test
+    void testCentralDirectoryCacheFailuresAreCacheMisses() throws Exception {
+        final Path archive = getTempDirPath().resolve("cached.zip");
+        try (ZipArchiveOutputStream zipOutput = new ZipArchiveOutputStream(archive)) {
+            for (int i = 0; i < 10; i++) {
+                zipOutput.putArchiveEntry(new ZipArchiveEntry("file" + i + ".txt"));
+                zipOutput.write(("content of entry " + i).getBytes(UTF_8));
+                zipOutput.closeArchiveEntry();
+            }
+        }
+        final List<ZipArchiveEntry> expected;
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).get()) {
+            expected = Collections.list(zipFile.getEntries());
+        }
+        // the cache cannot be written
+        final Path unwritable = getTempDirPath().resolve("missing").resolve("cached.zip.cache");
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(unwritable).get()) {
+            assertEquals(expected, Collections.list(zipFile.getEntries()));
+        }
+        assertFalse(Files.exists(unwritable));
+        // the cache is truncated
+        final Path cache = getTempDirPath().resolve("cached.zip.cache");
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            assertEquals(expected, Collections.list(zipFile.getEntries()));
+        }
+        final byte[] content = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(content, content.length / 2));
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setCentralDirectoryCache(cache).get()) {
+            assertEquals(expected, Collections.list(zipFile.getEntries()));
+        }
+        assertArrayEquals(content, Files.readAllBytes(cache));
+    }
+
     @Test
     void testCDOrder() throws Exception {
         readOrderTest();
@@ -556,6 +651,109 @@ void testExcessDataInZip64ExtraField() throws Exception {
         assertEquals(26101, ze.getSize());
     }
 
+    @Test
+    void testExtractAll() throws Exception {
+        // mixed.zip contains both inflated and stored files
+        zf = ZipFile.builder().setFile(getFile("mixed.zip")).setIgnoreLocalFileHeader(true).get();
+        final Path target = getTempDirPath().resolve("extracted");
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            zf.extractAll(target, executorService);
+        } finally {
+            executorService.shutdownNow();
+        }
+        final List<ZipArchiveEntry> entries = Collections.list(zf.getEntries());
+        assertFalse(entries.isEmpty());
+        for (final ZipArchiveEntry entry : entries) {
+            final Path path = target.resolve(entry.getName());
+            if (entry.isDirectory()) {
+                assertTrue(Files.isDirectory(path));
+            } else {
+                try (InputStream inputStream = zf.getInputStream(entry)) {
+                    assertArrayEquals(IOUtils.toByteArray(inputStream), Files.readAllBytes(path), entry.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testExtractAllDuplicateNames() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bos)) {
+            for (final String content : new String[] { "first", "later" }) {
+                zos.putArchiveEntry(new ZipArchiveEntry("duplicate.txt"));
+                zos.write(content.getBytes(UTF_8));
+                zos.closeArchiveEntry();
+            }
+        }
+        // swap the two central directory records of the same length, so the entry stored first comes last in the central directory
+        final byte[] data = bos.toByteArray();
+        final int eocd = data.length - 22;
+        final int cdLength = (int) ZipLong.getValue(data, eocd + 12);
+        final int cdOffset = (int) ZipLong.getValue(data, eocd + 16);
+        final byte[] first = Arrays.copyOfRange(data, cdOffset, cdOffset + cdLength / 2);
+        System.arraycopy(data, cdOffset + cdLength / 2, data, cdOffset, cdLength / 2);
+        System.arraycopy(first, 0, data, cdOffset + cdLength / 2, cdLength / 2);
+        zf = ZipFile.builder().setByteArray(data).get();
+        final Path target = getTempDirPath().resolve("extracted");
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            zf.extractAll(target, executorService);
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals("first", new String(Files.readAllBytes(target.resolve("duplicate.txt")), UTF_8));
+    }
+
+    @Test
+    void testExtractAllRejectsZipSlip() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bos)) {
+            zos.putArchiveEntry(new ZipArchiveEntry("../evil.txt"));
+            zos.write("evil".getBytes(UTF_8));
+            zos.closeArchiveEntry();
+        }
+        zf = ZipFile.builder().setByteArray(bos.toByteArray()).get();
+        final Path target = getTempDirPath().resolve("extracted");
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(IOException.class, () -> zf.extractAll(target, executorService));
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertFalse(Files.exists(getTempDirPath().resolve("evil.txt")));
+    }
+
+    @Test
+    void testExtractAllWaitsForRunningCopiesOnFailure() throws Exception {
+        final byte[] big = new byte[16 * 1024 * 1024];
+        new Random(1).nextBytes(big);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bos)) {
+            zos.putArchiveEntry(new ZipArchiveEntry("fails.txt"));
+            zos.write("fails".getBytes(UTF_8));
+            zos.closeArchiveEntry();
+            zos.putArchiveEntry(new ZipArchiveEntry("big.bin"));
+            zos.write(big);
+            zos.closeArchiveEntry();
+        }
+        zf = ZipFile.builder().setByteArray(bos.toByteArray()).get();
+        final Path target = getTempDirPath().resolve("extracted");
+        // a directory that isn't empty cannot be replaced by the file
+        Files.createDirectories(target.resolve("fails.txt").resolve("dir"));
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            assertThrows(IOException.class, () -> zf.extractAll(target, executorService));
+            // the copy of the big entry has either not been started or completed
+            final Path bigPath = target.resolve("big.bin");
+            if (Files.exists(bigPath)) {
+                assertEquals(big.length, Files.size(bigPath));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     void testExtractFileLiesAcrossSplitZipSegmentsCreatedByWinrar() throws Exception {
         final File lastFile = getFile("COMPRESS-477/split_zip_created_by_winrar/split_zip_created_by_winrar.zip");
@@ -647,6 +845,157 @@ void testInvalidAlignment() {
         assertThrows(IllegalArgumentException.class, () -> new ZipArchiveEntry("dummy").setAlignment(3));
     }
 
+    @Test
+    void testLazyCentralDirectory() throws Exception {
+        final List<ZipArchiveEntry> expected;
+        try (ZipFile zipFile = ZipFile.builder().setFile(getFile("ordertest.zip")).setIgnoreLocalFileHeader(true).get()) {
+            expected = Collections.list(zipFile.getEntries());
+        }
+        zf = ZipFile.builder().setFile(getFile("ordertest.zip")).setLazyCentralDirectory(true).get();
+        for (final ZipArchiveEntry entry : expected) {
+            final ZipArchiveEntry lazy = zf.getEntry(entry.getName());
+            assertEquals(entry, lazy);
+            assertSame(lazy, zf.getEntry(entry.getName()));
+            try (InputStream inputStream = zf.getInputStream(lazy)) {
+                assertEquals(entry.getSize(), IOUtils.toByteArray(inputStream).length);
+            }
+        }
+        assertNull(zf.getEntry("does/not/exist"));
+        assertFalse(zf.getEntries("does/not/exist").iterator().hasNext());
+        // reading the entries has resolved their data offsets
+        assertEquals(expected.stream().map(ZipArchiveEntry::getName).collect(Collectors.toList()),
+                Collections.list(zf.getEntries()).stream().map(ZipArchiveEntry::getName).collect(Collectors.toList()));
+        assertSame(zf.getEntry(expected.get(0).getName()), zf.getEntries().nextElement());
+    }
+
+    @Test
+    void testLazyCentralDirectoryDuplicateEntry() throws Exception {
+        zf = ZipFile.builder().setFile(getFile("COMPRESS-227.zip")).setLazyCentralDirectory(true).get();
+        final List<ZipArchiveEntry> duplicates = new ArrayList<>();
+        zf.getEntries("test1.txt").forEach(duplicates::add);
+        assertEquals(2, duplicates.size());
+        assertSame(duplicates.get(0), zf.getEntry("test1.txt"));
+        assertNotSame(duplicates.get(0), duplicates.get(1));
+        // entries created on demand are reused once all entries have been created
+        assertTrue(Collections.list(zf.getEntries()).stream().anyMatch(entry -> entry == duplicates.get(1)));
+        assertSame(duplicates.get(0), zf.getEntries("test1.txt").iterator().next());
+    }
+
+    @Test
+    void testLocalFileHeadersReadConcurrently() throws Exception {
+        final Path archive = getTempDirPath().resolve("many.zip");
+        try (ZipArchiveOutputStream zipOutput = new ZipArchiveOutputStream(archive)) {
+            for (int i = 0; i < 3000; i++) {
+                final ZipArchiveEntry entry = new ZipArchiveEntry("dir" + i % 7 + "/file" + i + ".txt");
+                entry.setMethod(i % 3 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED);
+                if (i % 5 == 0) {
+                    final X5455_ExtendedTimestamp timestamp = new X5455_ExtendedTimestamp();
+                    timestamp.setModifyJavaTime(new Date(1_000_000_000_000L + i * 1000L));
+                    entry.addExtraField(timestamp);
+                }
+                zipOutput.putArchiveEntry(entry);
+                // some entries are bigger than the window local file headers are read through
+                final byte[] content = new byte[i % 500 == 0 ? 100_000 : i % 50];
+                Arrays.fill(content, (byte) i);
+                zipOutput.write(content);
+                zipOutput.closeArchiveEntry();
+            }
+        }
+        final List<ZipArchiveEntry> expected;
+        try (ZipFile zipFile = ZipFile.builder().setPath(archive).setIgnoreLocalFileHeader(true).get()) {
+            expected = Collections.list(zipFile.getEntries());
+            for (final ZipArchiveEntry entry : expected) {
+                // resolves the data offset from the local file header of this entry only
+                zipFile.getRawInputStream(entry).close();
+            }
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (final boolean memoryMapped : new boolean[] { false, true }) {
+                try (ZipFile sequential = ZipFile.builder().setPath(archive).setMemoryMapped(memoryMapped).get();
+                        ZipFile concurrent = ZipFile.builder().setPath(archive).setMemoryMapped(memoryMapped).setExecutorService(executorService).get()) {
+                    final List<ZipArchiveEntry> sequentialEntries = Collections.list(sequential.getEntries());
+                    final List<ZipArchiveEntry> concurrentEntries = Collections.list(concurrent.getEntries());
+                    assertEquals(sequentialEntries, concurrentEntries);
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals(expected.get(i).getDataOffset(), concurrentEntries.get(i).getDataOffset());
+                        assertArrayEquals(sequentialEntries.get(i).getLocalFileDataExtra(), concurrentEntries.get(i).getLocalFileDataExtra());
+                        try (InputStream inputStream = concurrent.getInputStream(concurrentEntries.get(i))) {
+                            assertEquals(expected.get(i).getSize(), IOUtils.toByteArray(inputStream).length);
+                        }
+                    }
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLocalFileHeaderBatchFailureDoesNotInterruptRunningBatches() throws Exception {
+        final Path archive = getTempDirPath().resolve("many.zip");
+        try (ZipArchiveOutputStream zipOutput = new ZipArchiveOutputStream(archive)) {
+            for (int i = 0; i < 3000; i++) {
+                zipOutput.putArchiveEntry(new ZipArchiveEntry("file" + i + ".txt"));
+                zipOutput.write(new byte[i % 50]);
+                zipOutput.closeArchiveEntry();
+            }
+        }
+        // the data of the first entry now reaches into the central directory, so the first batch fails while the others are still running
+        final byte[] data = Files.readAllBytes(archive);
+        final int eocd = data.length - 22;
+        final int cdOffset = (int) ZipLong.getValue(data, eocd + 16);
+        System.arraycopy(ZipLong.getBytes(cdOffset), 0, data, cdOffset + 20, 4);
+        Files.write(archive, data);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final ExecutorService executorService = new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void afterExecute(final Runnable r, final Throwable t) {
+                // an interrupted positional read closes the FileChannel of the archive
+                if (Thread.interrupted()) {
+                    interrupted.incrementAndGet();
+                }
+            }
+        };
+        try {
+            for (int i = 0; i < 20; i++) {
+                assertThrows(IOException.class, () -> ZipFile.builder().setPath(archive).setExecutorService(executorService).get());
+            }
+        } finally {
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0, interrupted.get());
+    }
+
+    @Test
+    void testMemoryMapped() throws Exception {
+        // mixed.zip contains both inflated and stored files
+        final Map<String, byte[]> content = new HashMap<>();
+        try (ZipFile zipFile = ZipFile.builder().setFile(getFile("mixed.zip")).get()) {
+            zipFile.stream().forEach(entry -> {
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    content.put(entry.getName(), IOUtils.toByteArray(inputStream));
+                }
+            });
+        }
+        zf = ZipFile.builder().setFile(getFile("mixed.zip")).setMemoryMapped(true).get();
+        assertEquals(content.size(), Collections.list(zf.getEntries()).size());
+        zf.stream().forEach(entry -> {
+            assertAllReadMethods(content.get(entry.getName()), zf, entry);
+            final ByteBuffer raw = zf.getRawByteBuffer(entry);
+            assertTrue(raw.isReadOnly());
+            final byte[] rawBytes = new byte[raw.remaining()];
+            raw.get(rawBytes);
+            try (InputStream inputStream = zf.getRawInputStream(entry)) {
+                assertArrayEquals(IOUtils.toByteArray(inputStream), rawBytes);
+            }
+            if (entry.getMethod() == ZipEntry.STORED) {
+                assertArrayEquals(content.get(entry.getName()), rawBytes);
+            }
+        });
+    }
+
     @Test
     void testMultiByteReadConsistentlyReturnsMinusOneAtEofUsingBzip2() throws Exception {
         multiByteReadConsistentlyReturnsMinusOneAtEof(getFile("bzip2-zip.zip"));
@@ -18,6 +18,7 @@
  */
 package org.apache.commons.compress.compressors.bzip2;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -25,9 +26,13 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.compress.AbstractTest;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -50,6 +55,50 @@ private void fuzzingTest(final int[] bytes) throws IOException, ArchiveException
         }
     }
 
+    @Test
+    void testLeavesDataAfterTheStreamInTheInput() throws IOException {
+        final byte[] rawData = new byte[100_000];
+        final Random random = new Random(1);
+        for (int i = 0; i < rawData.length; i++) {
+            rawData[i] = (byte) ('a' + random.nextInt(16));
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream bzipOut = new BZip2CompressorOutputStream(baos)) {
+            bzipOut.write(rawData);
+        }
+        final int compressedLength = baos.size();
+        final byte[] trailer = "trailing data".getBytes(StandardCharsets.US_ASCII);
+        baos.write(trailer);
+        final byte[] input = baos.toByteArray();
+        // the input is given back using mark and reset
+        final InputStream markable = new ByteArrayInputStream(input);
+        try (BZip2CompressorInputStream bzipIn = new BZip2CompressorInputStream(markable)) {
+            assertArrayEquals(rawData, IOUtils.toByteArray(bzipIn));
+            assertEquals(compressedLength, bzipIn.getCompressedCount());
+            assertArrayEquals(trailer, IOUtils.toByteArray(markable));
+        }
+        // nothing is read beyond the end of the stream, but more than one byte is read at a time
+        final AtomicInteger reads = new AtomicInteger();
+        final InputStream notMarkable = new FilterInputStream(new ByteArrayInputStream(input)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                reads.incrementAndGet();
+                return super.read(b, off, len);
+            }
+        };
+        try (BZip2CompressorInputStream bzipIn = new BZip2CompressorInputStream(notMarkable)) {
+            assertArrayEquals(rawData, IOUtils.toByteArray(bzipIn));
+            assertEquals(compressedLength, bzipIn.getCompressedCount());
+            assertTrue(reads.get() < compressedLength / 4, () -> reads.get() + " reads for " + compressedLength + " bytes");
+            assertArrayEquals(trailer, IOUtils.toByteArray(notMarkable));
+        }
+    }
+
     @Test
     void testMultiByteReadConsistentlyReturnsMinusOneAtEof() throws IOException {
         final File input = getFile("bla.txt.bz2");
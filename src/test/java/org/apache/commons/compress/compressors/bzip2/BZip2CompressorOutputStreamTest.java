@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.bzip2;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BZip2CompressorOutputStreamTest {
+
+    private static byte[] compress(final byte[] input, final int blockSize) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(bos, blockSize)) {
+            out.write(input);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(686);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            // runs and a skewed alphabet exercise the run-length encoding and the Huffman tables
+            input[i] = random.nextInt(8) == 0 ? (byte) random.nextInt(256) : i > 0 ? input[i - 1] : (byte) 'a';
+        }
+        return input;
+    }
+
+    private ExecutorService executorService;
+
+    private byte[] compressParallel(final byte[] input, final int blockSize, final int parallelism) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream out = BZip2CompressorOutputStream.builder().setOutputStream(bos).setBlockSize(blockSize)
+                .setExecutorService(executorService).setParallelism(parallelism).get()) {
+            for (int offset = 0; offset < input.length; offset += 10_000) {
+                out.write(input, offset, Math.min(10_000, input.length - offset));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testParallelEmptyInput() throws IOException {
+        final byte[] expected = compress(new byte[0], 1);
+        assertArrayEquals(expected, compressParallel(new byte[0], 1, 4));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 8 })
+    void testParallelOutputMatchesSerialOutput(final int parallelism) throws IOException {
+        final byte[] input = createInput(1_234_567);
+        final byte[] expected = compress(input, 1);
+        final byte[] actual = compressParallel(input, 1, parallelism);
+        assertArrayEquals(expected, actual);
+        try (BZip2CompressorInputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(actual))) {
+            assertArrayEquals(input, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    void testParallelSingleBlock() throws IOException {
+        final byte[] input = createInput(50_000);
+        assertArrayEquals(compress(input, 9), compressParallel(input, 9, 4));
+    }
+
+    @Test
+    void testRejectsInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BZip2CompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream()).setParallelism(0).get());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.bzip2;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.compress.AbstractTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParallelBZip2CompressorInputStreamTest {
+
+    private static byte[] compress(final byte[] input, final int blockSize) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream out = new BZip2CompressorOutputStream(bos, blockSize)) {
+            out.write(input);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(3);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = random.nextInt(6) == 0 ? (byte) random.nextInt(256) : i > 0 ? input[i - 1] : (byte) 'a';
+        }
+        return input;
+    }
+
+    /**
+     * Creates input that uses exactly the bytes whose bitmaps in the block header spell out the block magic number: the bitmaps of the byte values 16 to 63
+     * follow each other and are 0x3141, 0x5926 and 0x5359.
+     */
+    private static byte[] createInputWithBlockMagicInBitmaps(final int size) {
+        final int[] bitmaps = { 0x3141, 0x5926, 0x5359 };
+        final ByteArrayOutputStream used = new ByteArrayOutputStream();
+        for (int group = 0; group < bitmaps.length; group++) {
+            for (int i = 0; i < 16; i++) {
+                if ((bitmaps[group] >>> 15 - i & 1) != 0) {
+                    used.write(16 * (group + 1) + i);
+                }
+            }
+        }
+        final byte[] values = used.toByteArray();
+        final Random random = new Random(5);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            byte next;
+            do {
+                next = values[random.nextInt(values.length)];
+                // runs of four equal bytes would add run lengths to the used bytes
+            } while (i >= 3 && next == input[i - 1] && next == input[i - 2] && next == input[i - 3]);
+            input[i] = next;
+        }
+        return input;
+    }
+
+    private static long readBits(final byte[] data, final int bitOffset, final int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            final int bit = bitOffset + i;
+            value = value << 1 | data[bit >>> 3] >>> 7 - (bit & 7) & 1;
+        }
+        return value;
+    }
+
+    private static byte[] decompressSequential(final byte[] compressed, final boolean decompressConcatenated) throws IOException {
+        try (InputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(compressed), decompressConcatenated)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private ExecutorService executorService;
+
+    private byte[] decompressParallel(final byte[] compressed, final boolean decompressConcatenated, final int parallelism) throws IOException {
+        try (InputStream in = ParallelBZip2CompressorInputStream.builder().setByteArray(compressed).setExecutorService(executorService)
+                .setParallelism(parallelism).setDecompressConcatenated(decompressConcatenated).get()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testBadCombinedCrc() throws IOException {
+        final byte[] compressed = compress(createInput(300_000), 1);
+        // the combined CRC ends the stream followed by at most 7 padding bits
+        compressed[compressed.length - 2] ^= 0x10;
+        assertThrows(IOException.class, () -> decompressParallel(compressed, false, 4));
+    }
+
+    @Test
+    void testBlockExceedsDeclaredBlockSize() throws IOException {
+        final byte[] compressed = compress(createInput(300_000), 9);
+        compressed[3] = '1';
+        assertThrows(IOException.class, () -> decompressSequential(compressed, false));
+        assertThrows(IOException.class, () -> decompressParallel(compressed, false, 4));
+    }
+
+    @Test
+    void testConcatenatedStreams() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        bos.write(compress(createInput(250_000), 1));
+        bos.write(compress(new byte[0], 9));
+        bos.write(compress(createInput(123_456), 2));
+        final byte[] compressed = bos.toByteArray();
+        assertArrayEquals(decompressSequential(compressed, true), decompressParallel(compressed, true, 3));
+        assertArrayEquals(decompressSequential(compressed, false), decompressParallel(compressed, false, 3));
+    }
+
+    @Test
+    void testCorruptedBlock() throws IOException {
+        final byte[] compressed = compress(createInput(300_000), 1);
+        compressed[compressed.length / 2] ^= 0x55;
+        assertThrows(IOException.class, () -> decompressParallel(compressed, false, 4));
+    }
+
+    @Test
+    void testEmptyStream() throws IOException {
+        assertEquals(0, decompressParallel(compress(new byte[0], 9), false, 4).length);
+    }
+
+    @Test
+    void testFalseBlockMagicInsideBlocks() throws IOException {
+        final byte[] input = createInputWithBlockMagicInBitmaps(250_000);
+        final byte[] compressed = compress(input, 1);
+        // stream header, block magic, block CRC, randomized bit, origPtr and the bitmap of used groups of 16 bytes precede the bitmaps
+        assertEquals(0x314159265359L, readBits(compressed, 32 + 48 + 32 + 1 + 24 + 16, 48));
+        assertArrayEquals(input, decompressParallel(compressed, false, 4));
+        assertArrayEquals(input, decompressParallel(compressed, false, 1));
+    }
+
+    @Test
+    void testNotBZip2() {
+        assertThrows(IOException.class, () -> decompressParallel(new byte[] { 'B', 'Z', 'x', '9' }, false, 4));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 4, 16 })
+    void testMultipleBlocks(final int parallelism) throws IOException {
+        final byte[] input = createInput(1_111_111);
+        assertArrayEquals(input, decompressParallel(compress(input, 1), false, parallelism));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "bla.txt.bz2", "bla.tar.bz2", "bla.xml.bz2", "COMPRESS-131.bz2", "lbzip2_32767.bz2", "multiple.bz2" })
+    void testResources(final String name) throws IOException {
+        final byte[] compressed = AbstractTest.readAllBytes(name);
+        assertArrayEquals(decompressSequential(compressed, true), decompressParallel(compressed, true, 4));
+    }
+
+    @Test
+    void testTruncated() throws IOException {
+        final byte[] compressed = compress(createInput(300_000), 1);
+        final byte[] truncated = new byte[compressed.length - 20];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> decompressParallel(truncated, false, 4));
+    }
+}
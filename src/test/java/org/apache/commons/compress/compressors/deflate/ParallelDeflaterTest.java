@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.deflate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelDeflaterTest {
+
+    private static final int CHUNK_SIZE = ParallelDeflater.DICTIONARY_SIZE;
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(1951);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            // repeats reaching back across chunk boundaries exercise the preset dictionaries
+            input[i] = i >= 40_000 && random.nextInt(4) != 0 ? input[i - 40_000 + random.nextInt(2)] : (byte) ('a' + random.nextInt(26));
+        }
+        return input;
+    }
+
+    private static long crc32(final byte[] input) {
+        final CRC32 crc = new CRC32();
+        crc.update(input);
+        return crc.getValue();
+    }
+
+    private static byte[] inflate(final byte[] compressed, final int length) throws DataFormatException {
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            final byte[] result = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                n += inflater.inflate(result, n, length - n);
+            }
+            assertEquals(length, n);
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ExecutorService executorService;
+
+    private byte[] deflate(final ParallelDeflater deflater, final byte[] input) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int offset = 0; offset < input.length; offset += 10_000) {
+            deflater.write(input, offset, Math.min(10_000, input.length - offset), bos::write);
+        }
+        deflater.finish(bos::write);
+        return bos.toByteArray();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testCloseWhileChunksAreDeflated() throws Exception {
+        final byte[] input = createInput(8 << 20);
+        final ExecutorService chunkExecutor = Executors.newFixedThreadPool(8);
+        final ParallelDeflater deflater = new ParallelDeflater(chunkExecutor, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, 512, 1 << 20, 4);
+        try {
+            assertThrows(IOException.class, () -> deflater.write(input, 0, input.length, b -> {
+                throw new IOException("failing output");
+            }));
+            deflater.close();
+        } finally {
+            chunkExecutor.shutdown();
+            assertTrue(chunkExecutor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        // the deflaters of chunks still running on close have been ended rather than kept
+        assertEquals(0, deflater.getIdleDeflaterCount());
+    }
+
+    @Test
+    void testFlush() throws Exception {
+        final byte[] input = createInput(100_000);
+        try (ParallelDeflater deflater = new ParallelDeflater(executorService, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE, 2)) {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            deflater.write(input, 0, 50_000, bos::write);
+            deflater.flush(bos::write);
+            // the sync flush makes all data written so far decodable
+            assertArrayEquals(Arrays.copyOf(input, 50_000), inflate(bos.toByteArray(), 50_000));
+            deflater.write(input, 50_000, input.length - 50_000, bos::write);
+            deflater.finish(bos::write);
+            assertArrayEquals(input, inflate(bos.toByteArray(), input.length));
+            assertEquals(crc32(input), deflater.getCrc32());
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelDeflater(executorService, 6, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE - 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelDeflater(executorService, 6, Deflater.DEFAULT_STRATEGY, 0, CHUNK_SIZE, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelDeflater(executorService, 6, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE, 0));
+    }
+
+    @Test
+    void testResetAndSetLevel() throws Exception {
+        final byte[] input = createInput(300_000);
+        try (ParallelDeflater deflater = new ParallelDeflater(executorService, Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE, 4)) {
+            final byte[] fast = deflate(deflater, input);
+            deflater.reset();
+            deflater.setLevel(Deflater.BEST_COMPRESSION);
+            final byte[] best = deflate(deflater, input);
+            assertArrayEquals(input, inflate(fast, input.length));
+            assertArrayEquals(input, inflate(best, input.length));
+            assertEquals(crc32(input), deflater.getCrc32());
+            assertTrue(best.length < fast.length);
+        }
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        final byte[] input = createInput(1_000_000);
+        try (ParallelDeflater deflater = new ParallelDeflater(executorService, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE, 4)) {
+            assertArrayEquals(input, inflate(deflate(deflater, input), input.length));
+            assertEquals(crc32(input), deflater.getCrc32());
+        }
+    }
+
+    @Test
+    void testSingleChunkMatchesDeflater() throws Exception {
+        final byte[] input = createInput(CHUNK_SIZE);
+        final byte[] expected;
+        final Deflater serial = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            serial.setInput(input);
+            serial.finish();
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[512];
+            while (!serial.finished()) {
+                bos.write(buffer, 0, serial.deflate(buffer));
+            }
+            expected = bos.toByteArray();
+        } finally {
+            serial.end();
+        }
+        try (ParallelDeflater deflater = new ParallelDeflater(executorService, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, 512, CHUNK_SIZE, 4)) {
+            assertArrayEquals(expected, deflate(deflater, input));
+        }
+    }
+}
@@ -18,17 +18,47 @@
  */
 package org.apache.commons.compress.compressors.deflate64;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
 
 import org.junit.jupiter.api.Test;
 
 class HuffmanDecoderTest {
 
+    @Test
+    void testDecodeDynamicHuffmanBlockWithLongCodes() throws Exception {
+        // skewed byte frequencies make the encoder use codes longer than the primary lookup table
+        final Random random = new Random(42);
+        final byte[] original = new byte[64 * 1024];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = (byte) Math.min(255, (int) Math.abs(random.nextGaussian() * 24));
+        }
+        // without matches of length 258 Deflate and Deflate64 streams are identical
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setInput(original);
+        deflater.finish();
+        final byte[] buffer = new byte[original.length * 2];
+        final int compressedLength = deflater.deflate(buffer);
+        deflater.end();
+        try (HuffmanDecoder decoder = new HuffmanDecoder(new ByteArrayInputStream(buffer, 0, compressedLength))) {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[1000];
+            int len;
+            while ((len = decoder.decode(chunk)) != -1) {
+                result.write(chunk, 0, len);
+            }
+            assertArrayEquals(original, result.toByteArray());
+        }
+    }
+
     @Test
     void testDecodeFixedHuffmanBlockWithMemoryLookup() throws Exception {
         final byte[] data = {
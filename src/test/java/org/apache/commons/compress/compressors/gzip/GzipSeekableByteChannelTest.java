@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.AbstractTest;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class GzipSeekableByteChannelTest extends AbstractTest {
+
+    private static final int SPAN = 64 * 1024;
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(1066);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = i >= 1000 && random.nextInt(3) != 0 ? input[i - 1 - random.nextInt(1000)] : (byte) ('a' + random.nextInt(26));
+        }
+        return input;
+    }
+
+    private static byte[] gzip(final byte[] input, final int level, final int strategy) throws IOException {
+        final GzipParameters parameters = new GzipParameters();
+        parameters.setCompressionLevel(level);
+        parameters.setDeflateStrategy(strategy);
+        parameters.setFileName("test.txt");
+        parameters.setHeaderCRC(true);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GzipCompressorOutputStream out = new GzipCompressorOutputStream(bos, parameters)) {
+            out.write(input);
+        }
+        return bos.toByteArray();
+    }
+
+    private static GzipSeekableByteChannel open(final byte[] compressed) throws IOException {
+        return GzipSeekableByteChannel.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(compressed)).setSpan(SPAN).get();
+    }
+
+    private static byte[] readAt(final SeekableByteChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(position);
+        IOUtils.read(channel, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void assertRandomAccess(final byte[] expected, final GzipSeekableByteChannel channel) throws IOException {
+        assertEquals(expected.length, channel.size());
+        final Random random = new Random(expected.length);
+        for (int i = 0; i < 50; i++) {
+            final int position = random.nextInt(expected.length);
+            final int length = Math.min(1 + random.nextInt(100_000), expected.length - position);
+            assertArrayEquals(Arrays.copyOfRange(expected, position, position + length), readAt(channel, position, length), "position " + position);
+        }
+        assertArrayEquals(expected, readAt(channel, 0, expected.length));
+        assertEquals(-1, channel.position(expected.length).read(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    void testBuildsAndReusesSidecarIndex() throws IOException {
+        final byte[] input = createInput(500_000);
+        final Path gz = getTempDirPath().resolve("test.txt.gz");
+        final Path index = getTempDirPath().resolve("test.txt.gz.idx");
+        Files.write(gz, gzip(input, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(gz).setIndexPath(index).setSpan(SPAN).get()) {
+            assertRandomAccess(input, channel);
+        }
+        assertTrue(Files.exists(index));
+        final GzipIndex saved;
+        try (InputStream in = Files.newInputStream(index)) {
+            saved = GzipIndex.read(in);
+        }
+        assertEquals(Files.size(gz), saved.getCompressedSize());
+        assertEquals(input.length, saved.getUncompressedSize());
+        assertTrue(saved.getAccessPointCount() > 5);
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(gz).setIndexPath(index).get()) {
+            assertEquals(SPAN, channel.getIndex().getSpan());
+            assertRandomAccess(input, channel);
+        }
+    }
+
+    @Test
+    void testConcatenatedMembers() throws IOException {
+        final byte[] input = createInput(300_000);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.write(gzip(Arrays.copyOf(input, 100_000), Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY));
+        compressed.write(gzip(new byte[0], Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+        compressed.write(gzip(Arrays.copyOfRange(input, 100_000, input.length), Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+        try (GzipSeekableByteChannel channel = open(compressed.toByteArray())) {
+            assertRandomAccess(input, channel);
+        }
+    }
+
+    @Test
+    void testCorruptInput() throws IOException {
+        final byte[] compressed = gzip(createInput(100_000), Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+        compressed[compressed.length - 5]++;
+        assertThrows(IOException.class, () -> open(compressed));
+        assertThrows(IOException.class, () -> open(Arrays.copyOf(compressed, compressed.length / 2)));
+        assertThrows(IOException.class, () -> open("not gzip".getBytes()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION })
+    void testLevels(final int level) throws IOException {
+        final byte[] input = createInput(1_000_000);
+        try (GzipSeekableByteChannel channel = open(gzip(input, level, Deflater.DEFAULT_STRATEGY))) {
+            assertRandomAccess(input, channel);
+        }
+    }
+
+    @Test
+    void testParallelGzipOutput() throws IOException {
+        final byte[] input = createInput(1_000_000);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ParallelGzipCompressorOutputStream out = ParallelGzipCompressorOutputStream.builder().setOutputStream(bos)
+                    .setExecutorService(executorService).get()) {
+                out.write(input);
+            }
+            try (GzipSeekableByteChannel channel = open(bos.toByteArray())) {
+                assertRandomAccess(input, channel);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReadOnly() throws IOException {
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(getPath("multiple.gz")).get()) {
+            assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+            assertThrows(NonWritableChannelException.class, () -> channel.truncate(0));
+            assertThrows(IllegalArgumentException.class, () -> channel.position(-1));
+            channel.close();
+            assertFalse(channel.isOpen());
+        }
+    }
+
+    @Test
+    void testRebuildsStaleOrCorruptSidecarIndex() throws IOException {
+        final byte[] input = createInput(300_000);
+        final byte[] other = input.clone();
+        other[200_000] ^= 1;
+        final Path gz = getTempDirPath().resolve("test.txt.gz");
+        final Path index = getTempDirPath().resolve("test.txt.gz.idx");
+        // stored blocks make both files the same size
+        Files.write(gz, gzip(input, Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(gz).setIndexPath(index).setSpan(SPAN).get()) {
+            assertRandomAccess(input, channel);
+        }
+        final long size = Files.size(gz);
+        Files.write(gz, gzip(other, Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY));
+        assertEquals(size, Files.size(gz));
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(gz).setIndexPath(index).setSpan(SPAN).get()) {
+            assertRandomAccess(other, channel);
+        }
+        final byte[] saved = Files.readAllBytes(index);
+        Files.write(index, Arrays.copyOf(saved, saved.length / 2));
+        try (GzipSeekableByteChannel channel = GzipSeekableByteChannel.builder().setPath(gz).setIndexPath(index).setSpan(SPAN).get()) {
+            assertRandomAccess(other, channel);
+        }
+        assertArrayEquals(saved, Files.readAllBytes(index));
+    }
+
+    @Test
+    void testResources() throws IOException {
+        for (final String name : new String[] { "multiple.gz", "lorem-ipsum.txt.gz", "COMPRESS-245.tar.gz" }) {
+            final byte[] compressed = Files.readAllBytes(getPath(name));
+            final byte[] expected;
+            try (GzipCompressorInputStream in = GzipCompressorInputStream.builder().setByteArray(compressed).setDecompressConcatenated(true).get()) {
+                expected = IOUtils.toByteArray(in);
+            }
+            try (GzipSeekableByteChannel channel = open(compressed)) {
+                assertRandomAccess(expected, channel);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { Deflater.FILTERED, Deflater.HUFFMAN_ONLY })
+    void testStrategies(final int strategy) throws IOException {
+        final byte[] input = createInput(500_000);
+        try (GzipSeekableByteChannel channel = open(gzip(input, Deflater.DEFAULT_COMPRESSION, strategy))) {
+            assertRandomAccess(input, channel);
+        }
+    }
+
+    @Test
+    void testWriteAndReadIndex() throws IOException {
+        final byte[] input = createInput(300_000);
+        final GzipIndex index = GzipIndex.build(new SeekableInMemoryByteChannel(gzip(input, Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY)), SPAN);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        index.write(bos);
+        final GzipIndex read = GzipIndex.read(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(index.getAccessPointCount(), read.getAccessPointCount());
+        assertEquals(index.getCompressedSize(), read.getCompressedSize());
+        assertEquals(index.getUncompressedSize(), read.getUncompressedSize());
+        for (int i = 0; i < index.getAccessPointCount(); i++) {
+            assertEquals(index.getUncompressedOffset(i), read.getUncompressedOffset(i));
+            assertEquals(index.getBitOffset(i), read.getBitOffset(i));
+            assertArrayEquals(index.getWindow(i), read.getWindow(i));
+        }
+        assertThrows(IOException.class, () -> GzipIndex.read(new ByteArrayInputStream(new byte[8])));
+        assertThrows(IllegalArgumentException.class, () -> GzipIndex.build(new SeekableInMemoryByteChannel(new byte[0]), 0));
+    }
+}
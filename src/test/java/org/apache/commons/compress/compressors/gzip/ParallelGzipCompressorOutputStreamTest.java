@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.gzip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import org.apache.commons.compress.utils.CRC32Utils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParallelGzipCompressorOutputStreamTest {
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(1952);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            // repeats reaching back across chunk boundaries exercise the preset dictionaries
+            input[i] = i >= 40_000 && random.nextInt(4) != 0 ? input[i - 40_000 + random.nextInt(2)] : (byte) ('a' + random.nextInt(26));
+        }
+        return input;
+    }
+
+    private static byte[] gunzip(final byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private ExecutorService executorService;
+
+    private byte[] compressParallel(final byte[] input, final GzipParameters parameters, final int parallelism) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelGzipCompressorOutputStream out = ParallelGzipCompressorOutputStream.builder().setOutputStream(bos).setGzipParameters(parameters)
+                .setExecutorService(executorService).setChunkSize(CHUNK_SIZE).setParallelism(parallelism).get()) {
+            for (int offset = 0; offset < input.length; offset += 10_000) {
+                out.write(input, offset, Math.min(10_000, input.length - offset));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testCombineCrc() {
+        final byte[] input = createInput(100_000);
+        final CRC32 crc = new CRC32();
+        crc.update(input);
+        final CRC32 crc1 = new CRC32();
+        crc1.update(input, 0, 12_345);
+        final CRC32 crc2 = new CRC32();
+        crc2.update(input, 12_345, input.length - 12_345);
+        assertEquals(crc.getValue(), CRC32Utils.combine(crc1.getValue(), crc2.getValue(), input.length - 12_345));
+        assertEquals(crc1.getValue(), CRC32Utils.combine(crc1.getValue(), 0, 0));
+    }
+
+    @Test
+    void testCloseWhileChunksAreDeflated() throws Exception {
+        final byte[] input = createInput(8 << 20);
+        final ExecutorService chunkExecutor = Executors.newFixedThreadPool(8);
+        final OutputStream failing = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                // let the member header through and fail on the first chunk
+                written += len;
+                if (written > 10) {
+                    throw new IOException("failing output");
+                }
+            }
+
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+        };
+        final ParallelGzipCompressorOutputStream out = ParallelGzipCompressorOutputStream.builder().setOutputStream(failing)
+                .setExecutorService(chunkExecutor).setChunkSize(1 << 20).setParallelism(8).get();
+        try {
+            out.write(input);
+            assertThrows(IOException.class, out::close);
+        } finally {
+            chunkExecutor.shutdown();
+            assertTrue(chunkExecutor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testCompressionRatioCloseToSerial() throws IOException {
+        final byte[] input = createInput(500_000);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GzipCompressorOutputStream out = new GzipCompressorOutputStream(bos)) {
+            out.write(input);
+        }
+        // without the preset dictionaries the repeats across chunk boundaries would be lost
+        assertTrue(compressParallel(input, new GzipParameters(), 4).length < bos.size() * 1.05);
+    }
+
+    @Test
+    void testFlush() throws Exception {
+        final byte[] input = createInput(100_000);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelGzipCompressorOutputStream out = ParallelGzipCompressorOutputStream.builder().setOutputStream(bos)
+                .setExecutorService(executorService).setChunkSize(CHUNK_SIZE).get()) {
+            out.write(input, 0, 1000);
+            out.flush();
+            // the flushed data inflates without the end of the stream
+            final byte[] flushed = bos.toByteArray();
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(flushed, 10, flushed.length - 10);
+                final byte[] head = new byte[1000];
+                assertEquals(head.length, inflater.inflate(head));
+                assertArrayEquals(Arrays.copyOf(input, head.length), head);
+            } finally {
+                inflater.end();
+            }
+            out.write(input, 1000, input.length - 1000);
+        }
+        assertArrayEquals(input, gunzip(bos.toByteArray()));
+    }
+
+    @Test
+    void testHeader() throws IOException {
+        final GzipParameters parameters = new GzipParameters();
+        parameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
+        parameters.setFileName("test.txt");
+        parameters.setComment("Comment on test.txt");
+        parameters.setModificationInstant(Instant.ofEpochSecond(123_456_789));
+        parameters.setOperatingSystem(3);
+        parameters.setHeaderCRC(true);
+        final ExtraField extra = new ExtraField();
+        extra.addSubField("AB", "payload".getBytes(StandardCharsets.ISO_8859_1));
+        parameters.setExtraField(extra);
+        final byte[] input = createInput(100_000);
+        final byte[] compressed = compressParallel(input, parameters, 4);
+        // GZIPInputStream verifies the header CRC
+        assertArrayEquals(input, gunzip(compressed));
+        try (GzipCompressorInputStream in = GzipCompressorInputStream.builder().setByteArray(compressed).get()) {
+            assertArrayEquals(input, IOUtils.toByteArray(in));
+            final GzipParameters metaData = in.getMetaData();
+            assertEquals("test.txt", metaData.getFileName());
+            assertEquals("Comment on test.txt", metaData.getComment());
+            assertEquals(123_456_789, metaData.getModificationInstant().getEpochSecond());
+            assertEquals(3, metaData.getOperatingSystem());
+            assertEquals(Deflater.BEST_COMPRESSION, metaData.getCompressionLevel());
+            assertTrue(metaData.getHeaderCRC());
+            assertArrayEquals("payload".getBytes(StandardCharsets.ISO_8859_1), metaData.getExtraField().getSubField(0).getPayload());
+        }
+        // the header is the one GzipCompressorOutputStream writes
+        final ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        try (GzipCompressorOutputStream out = new GzipCompressorOutputStream(serial, parameters)) {
+            // empty
+        }
+        final int headerLength = serial.size() - 10;
+        for (int i = 0; i < headerLength; i++) {
+            assertEquals(serial.toByteArray()[i], compressed[i], "header byte " + i);
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelGzipCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).setChunkSize(1024).get());
+        assertThrows(IllegalArgumentException.class, () -> ParallelGzipCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).setParallelism(0).get());
+        assertThrows(NullPointerException.class, () -> ParallelGzipCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream()).get());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 10 * CHUNK_SIZE, 300_000 })
+    void testRoundTrip(final int size) throws IOException {
+        final byte[] input = createInput(size);
+        for (final int parallelism : new int[] { 1, 2, 8 }) {
+            final byte[] compressed = compressParallel(input, new GzipParameters(), parallelism);
+            assertArrayEquals(input, gunzip(compressed));
+            try (GzipCompressorInputStream in = GzipCompressorInputStream.builder().setByteArray(compressed).get()) {
+                assertArrayEquals(input, IOUtils.toByteArray(in));
+            }
+        }
+    }
+
+    @Test
+    void testWriteAfterFinish() throws IOException {
+        try (ParallelGzipCompressorOutputStream out = ParallelGzipCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).get()) {
+            out.finish();
+            assertThrows(IOException.class, () -> out.write(1));
+        }
+    }
+}
@@ -39,7 +39,10 @@ public final class BlockLZ4CompressorRoundtripTest extends AbstractTest {
     public static Stream<Arguments> factory() {
         return Stream.of(Arguments.of("default", BlockLZ4CompressorOutputStream.createParameterBuilder().build()),
                 Arguments.of("tuned for speed", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForSpeed().build()),
-                Arguments.of("tuned for compression ratio", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForCompressionRatio().build()));
+                Arguments.of("tuned for compression ratio", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForCompressionRatio().build()),
+                Arguments.of("level 1", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForLevel(1).build()),
+                Arguments.of("level 8", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForLevel(8).build()),
+                Arguments.of("level 9", BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForLevel(9).build()));
     }
 
     // yields no compression at all
@@ -19,6 +19,7 @@
 package org.apache.commons.compress.compressors.lz4;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -28,6 +29,8 @@
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.apache.commons.compress.AbstractTest;
@@ -75,6 +78,30 @@ public void gzippedLoremIpsumRoundtrip(final FramedLZ4CompressorOutputStream.Par
         roundTripTest("lorem-ipsum.txt.gz", params);
     }
 
+    @ParameterizedTest
+    @MethodSource("factory")
+    public void parallelRoundtrip(final FramedLZ4CompressorOutputStream.Parameters params) throws IOException {
+        final byte[] expected = readAllBytes("COMPRESS-256.7z");
+        final ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        try (FramedLZ4CompressorOutputStream los = new FramedLZ4CompressorOutputStream(serial, params)) {
+            los.write(expected);
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            try (FramedLZ4CompressorOutputStream los = FramedLZ4CompressorOutputStream.builder().setOutputStream(parallel).setParameters(params)
+                    .setExecutorService(executorService).setParallelism(2).get()) {
+                IOUtils.copy(new ByteArrayInputStream(expected), los, 10000);
+            }
+            assertArrayEquals(serial.toByteArray(), parallel.toByteArray());
+            try (FramedLZ4CompressorInputStream sis = new FramedLZ4CompressorInputStream(new ByteArrayInputStream(parallel.toByteArray()))) {
+                assertArrayEquals(expected, IOUtils.toByteArray(sis));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private void roundTripTest(final String testFile, final FramedLZ4CompressorOutputStream.Parameters params) throws IOException {
         final File input = getFile(testFile);
         final byte[] expected;
@@ -106,4 +133,10 @@ void test64KMultipleBlocks() throws IOException {
             assertArrayEquals(expected, IOUtils.toByteArray(sis));
         }
     }
+
+    @Test
+    void testParallelismMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FramedLZ4CompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream()).setParallelism(0).get());
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.lz4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.commons.compress.AbstractTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LZ4BlockCodecTest extends AbstractTest {
+
+    private static ByteBuffer allocate(final int capacity, final boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+        final byte[] b = new byte[buffer.remaining()];
+        buffer.get(b);
+        return b;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void testBlocksCanBeReadByStream(final boolean direct) throws IOException {
+        final byte[] input = readAllBytes("bla.tar");
+        final ByteBuffer src = allocate(input.length, direct);
+        src.put(input).flip();
+        final ByteBuffer dst = allocate(LZ4BlockCodec.maxCompressedLength(input.length), direct);
+        final int length = new LZ4BlockCodec().compress(src, dst);
+        assertFalse(src.hasRemaining());
+        assertEquals(length, dst.position());
+        assertTrue(length < input.length);
+        dst.flip();
+        try (BlockLZ4CompressorInputStream in = new BlockLZ4CompressorInputStream(new ByteArrayInputStream(toArray(dst)))) {
+            assertArrayEquals(input, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    void testCodecCanBeReused() throws IOException {
+        final LZ4BlockCodec codec = new LZ4BlockCodec();
+        final byte[] first = readAllBytes("bla.tar");
+        final byte[] second = readAllBytes("test1.xml");
+        final ByteBuffer dst = ByteBuffer.allocate(LZ4BlockCodec.maxCompressedLength(first.length));
+        codec.compress(ByteBuffer.wrap(second), dst);
+        dst.clear();
+        codec.compress(ByteBuffer.wrap(first), dst);
+        dst.flip();
+        final byte[] reused = toArray(dst);
+        final ByteBuffer fresh = ByteBuffer.allocate(LZ4BlockCodec.maxCompressedLength(first.length));
+        new LZ4BlockCodec().compress(ByteBuffer.wrap(first), fresh);
+        fresh.flip();
+        assertArrayEquals(toArray(fresh), reused);
+    }
+
+    @Test
+    void testDecompressesStreamOutput() throws IOException {
+        final byte[] input = readAllBytes("bla.tar");
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (BlockLZ4CompressorOutputStream out = new BlockLZ4CompressorOutputStream(bos)) {
+            out.write(input);
+        }
+        final ByteBuffer src = ByteBuffer.allocateDirect(bos.size());
+        src.put(bos.toByteArray()).flip();
+        final ByteBuffer dst = ByteBuffer.allocateDirect(input.length);
+        assertEquals(input.length, new LZ4BlockCodec().decompress(src, dst));
+        dst.flip();
+        assertArrayEquals(input, toArray(dst));
+    }
+
+    @Test
+    void testRejectsBadOffset() {
+        // one literal followed by a back-reference of length four and offset two
+        final ByteBuffer src = ByteBuffer.wrap(new byte[] { 1 << 4, 42, 2, 0, 0 });
+        assertThrows(IOException.class, () -> new LZ4BlockCodec().decompress(src, ByteBuffer.allocate(100)));
+    }
+
+    @Test
+    void testRejectsTruncatedBlock() {
+        final ByteBuffer src = ByteBuffer.wrap(new byte[] { 5 << 4, 1, 2 });
+        assertThrows(IOException.class, () -> new LZ4BlockCodec().decompress(src, ByteBuffer.allocate(100)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 12, 13, 17, 100, 70000 })
+    void testRoundtripRespectsEndOfBlockRules(final int length) throws IOException {
+        final byte[] input = new byte[length];
+        Arrays.fill(input, (byte) 'a');
+        final ByteBuffer dst = ByteBuffer.allocate(LZ4BlockCodec.maxCompressedLength(length));
+        final LZ4BlockCodec codec = new LZ4BlockCodec();
+        codec.compress(ByteBuffer.wrap(input), dst);
+        dst.flip();
+        final byte[] compressed = toArray(dst);
+        // the last five bytes are literals
+        if (length >= 5) {
+            assertArrayEquals(Arrays.copyOf(input, 5), Arrays.copyOfRange(compressed, compressed.length - 5, compressed.length));
+        }
+        final ByteBuffer out = ByteBuffer.allocate(length);
+        assertEquals(length, codec.decompress(ByteBuffer.wrap(compressed), out));
+        assertArrayEquals(input, out.array());
+    }
+}
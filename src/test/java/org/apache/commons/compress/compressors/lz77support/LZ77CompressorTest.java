@@ -22,13 +22,17 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 class LZ77CompressorTest {
 
@@ -85,6 +89,38 @@ private static Parameters newParameters(final int windowSize, final int minBackR
                 .withMaxOffset(maxOffset).withMaxLiteralLength(maxLiteralLength).tunedForCompressionRatio().build();
     }
 
+    /**
+     * Decodes the blocks, checking they respect the parameters.
+     */
+    private static byte[] decode(final Parameters params, final byte[] prefill, final List<LZ77Compressor.Block> blocks) {
+        final byte[] out = new byte[prefill.length + blocks.stream().mapToInt(b -> b instanceof LZ77Compressor.AbstractReference
+                ? ((LZ77Compressor.AbstractReference) b).getLength() : 0).sum()];
+        System.arraycopy(prefill, 0, out, 0, prefill.length);
+        int pos = prefill.length;
+        for (final LZ77Compressor.Block block : blocks) {
+            if (block instanceof LZ77Compressor.LiteralBlock) {
+                final LZ77Compressor.LiteralBlock b = (LZ77Compressor.LiteralBlock) block;
+                assertTrue(b.getLength() <= params.getMaxLiteralLength());
+                System.arraycopy(b.getData(), b.getOffset(), out, pos, b.getLength());
+                pos += b.getLength();
+            } else if (block instanceof LZ77Compressor.BackReference) {
+                final LZ77Compressor.BackReference b = (LZ77Compressor.BackReference) block;
+                assertTrue(b.getLength() >= params.getMinBackReferenceLength());
+                assertTrue(b.getLength() <= params.getMaxBackReferenceLength());
+                assertTrue(b.getOffset() >= 1 && b.getOffset() <= params.getMaxOffset() && b.getOffset() <= pos);
+                for (int i = 0; i < b.getLength(); i++, pos++) {
+                    out[pos] = out[pos - b.getOffset()];
+                }
+            }
+        }
+        return Arrays.copyOfRange(out, prefill.length, pos);
+    }
+
+    private static int estimatedSize(final List<LZ77Compressor.Block> blocks) {
+        return blocks.stream().mapToInt(b -> b instanceof LZ77Compressor.LiteralBlock ? ((LZ77Compressor.LiteralBlock) b).getLength()
+                : b instanceof LZ77Compressor.BackReference ? 3 : 0).sum();
+    }
+
     private static byte[][] stagger(final byte[] data) {
         final byte[][] r = new byte[data.length][1];
         for (int i = 0; i < data.length; i++) {
@@ -94,6 +130,10 @@ private static byte[][] stagger(final byte[] data) {
     }
 
     private List<LZ77Compressor.Block> compress(final Parameters params, final byte[]... chunks) throws IOException {
+        return compressWithPrefill(params, null, chunks);
+    }
+
+    private List<LZ77Compressor.Block> compressWithPrefill(final Parameters params, final byte[] prefill, final byte[]... chunks) throws IOException {
         final List<LZ77Compressor.Block> blocks = new ArrayList<>();
         final LZ77Compressor c = new LZ77Compressor(params, block -> {
             // System.err.println(block);
@@ -107,6 +147,9 @@ private List<LZ77Compressor.Block> compress(final Parameters params, final byte[
             }
             blocks.add(block);
         });
+        if (prefill != null) {
+            c.prefill(prefill);
+        }
         for (final byte[] chunk : chunks) {
             c.compress(chunk);
         }
@@ -281,6 +324,70 @@ void testNonCompressableWithLengthThatForcesWindowSlide() throws IOException {
         assertLiteralBlock(new byte[] { 9, 10 }, blocks.get(2));
     }
 
+    @ParameterizedTest
+    @EnumSource(Parameters.MatchFinder.class)
+    void testMatchFinderRoundtrip(final Parameters.MatchFinder matchFinder) throws IOException {
+        final byte[] data = new byte[100_000];
+        final Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            // runs, repetitions and noise
+            data[i] = i % 5000 < 300 ? 0 : i > 1000 && random.nextInt(4) > 0 ? data[i - 1000] : (byte) random.nextInt(12);
+        }
+        final Parameters params = Parameters.builder(1 << 12).withMinBackReferenceLength(4).withMaxBackReferenceLength(1000).withMaxOffset(3000)
+                .withMaxLiteralLength(200).withMatchFinder(matchFinder).withLazySteps(2).build();
+        final byte[][] chunks = { Arrays.copyOfRange(data, 0, 1), Arrays.copyOfRange(data, 1, 7), Arrays.copyOfRange(data, 7, 10_000),
+                Arrays.copyOfRange(data, 10_000, data.length) };
+        assertArrayEquals(data, decode(params, new byte[0], compress(params, chunks)));
+        assertArrayEquals(data, decode(params, new byte[0], compress(params, data)));
+        assertArrayEquals(SAM, decode(params, new byte[0], compress(params, stagger(SAM))));
+        final byte[] prefill = Arrays.copyOfRange(data, 0, 5000);
+        assertArrayEquals(data, decode(params, prefill, compressWithPrefill(params, prefill, data)));
+    }
+
+    @Test
+    void testOptimalMatchFinderNeedsFewerBytes() throws IOException {
+        for (final byte[] data : new byte[][] { SAM, BLA }) {
+            final int hashChain = estimatedSize(compress(Parameters.builder(1024).tunedForCompressionRatio().build(), data));
+            final int optimal = estimatedSize(compress(Parameters.builder(1024).tunedForLevel(9).build(), data));
+            assertTrue(optimal <= hashChain, optimal + " > " + hashChain);
+        }
+    }
+
+    @Test
+    void testTokenCallbackReceivesSameBlocks() throws IOException {
+        final List<LZ77Compressor.Block> blocks = new ArrayList<>();
+        final LZ77Compressor c = new LZ77Compressor(newParameters(1024), new LZ77Compressor.TokenCallback() {
+
+            @Override
+            public void backReference(final int offset, final int length) {
+                blocks.add(new LZ77Compressor.BackReference(offset, length));
+            }
+
+            @Override
+            public void endOfData() {
+                blocks.add(new LZ77Compressor.EOD());
+            }
+
+            @Override
+            public void literal(final byte[] data, final int offset, final int length) {
+                blocks.add(new LZ77Compressor.LiteralBlock(Arrays.copyOfRange(data, offset, offset + length), 0, length));
+            }
+        });
+        c.compress(SAM);
+        c.finish();
+        final List<LZ77Compressor.Block> expected = compress(newParameters(1024), SAM);
+        assertEquals(expected.size(), blocks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), blocks.get(i).getType());
+            if (expected.get(i) instanceof LZ77Compressor.LiteralBlock) {
+                assertArrayEquals(((LZ77Compressor.LiteralBlock) expected.get(i)).getData(), ((LZ77Compressor.LiteralBlock) blocks.get(i)).getData());
+            } else if (expected.get(i) instanceof LZ77Compressor.BackReference) {
+                final LZ77Compressor.BackReference b = (LZ77Compressor.BackReference) expected.get(i);
+                assertBackReference(b.getOffset(), b.getLength(), blocks.get(i));
+            }
+        }
+    }
+
     @Test
     void testSamIAmExampleWithFullArrayAvailableForCompression() throws IOException {
         final List<LZ77Compressor.Block> blocks = compress(newParameters(1024), SAM);
@@ -20,6 +20,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -45,6 +46,32 @@ void testAllParametersUsuallyTakeTheirSpecifiedValues() {
         assertEquals(7, p.getMaxLiteralLength());
     }
 
+    @Test
+    void testCompressionLevels() {
+        assertEquals(Parameters.MatchFinder.HASH_CHAIN, newParameters(128).getMatchFinder());
+        assertEquals(1, newParameters(128).getLazySteps());
+        assertEquals(Parameters.MatchFinder.FAST, Parameters.builder(1 << 16).tunedForLevel(1).build().getMatchFinder());
+        final Parameters level5 = Parameters.builder(1 << 16).tunedForLevel(5).build();
+        final Parameters defaults = Parameters.builder(1 << 16).build();
+        assertEquals(Parameters.MatchFinder.HASH_CHAIN, level5.getMatchFinder());
+        assertEquals(defaults.getMaxCandidates(), level5.getMaxCandidates());
+        assertEquals(defaults.getNiceBackReferenceLength(), level5.getNiceBackReferenceLength());
+        assertEquals(2, Parameters.builder(1 << 16).tunedForLevel(8).build().getLazySteps());
+        assertEquals(Parameters.MatchFinder.OPTIMAL, Parameters.builder(1 << 16).tunedForLevel(9).build().getMatchFinder());
+        for (int windowSize = 128; windowSize <= 1 << 20; windowSize <<= 1) {
+            for (int level = 1; level < 9; level++) {
+                final Parameters lower = Parameters.builder(windowSize).tunedForLevel(level).build();
+                final Parameters higher = Parameters.builder(windowSize).tunedForLevel(level + 1).build();
+                final String message = "level " + level + " and window size " + windowSize;
+                assertTrue(lower.getMaxCandidates() <= higher.getMaxCandidates(), message);
+                assertTrue(lower.getNiceBackReferenceLength() <= higher.getNiceBackReferenceLength(), message);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> Parameters.builder(128).tunedForLevel(0));
+        assertThrows(IllegalArgumentException.class, () -> Parameters.builder(128).tunedForLevel(10));
+        assertEquals(Parameters.MatchFinder.HASH_CHAIN, Parameters.builder(128).withMatchFinder(null).build().getMatchFinder());
+    }
+
     @Test
     void testDefaultConstructor() {
         final Parameters p = newParameters(128);
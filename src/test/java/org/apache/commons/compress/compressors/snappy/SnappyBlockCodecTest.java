@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.snappy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.compress.AbstractTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SnappyBlockCodecTest extends AbstractTest {
+
+    private static ByteBuffer allocate(final int capacity, final boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+        final byte[] b = new byte[buffer.remaining()];
+        buffer.get(b);
+        return b;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void testBlocksCanBeReadByStream(final boolean direct) throws IOException {
+        final byte[] input = readAllBytes("bla.tar");
+        final ByteBuffer src = allocate(input.length, direct);
+        src.put(input).flip();
+        final ByteBuffer dst = allocate(SnappyBlockCodec.maxCompressedLength(input.length), direct);
+        final int length = new SnappyBlockCodec().compress(src, dst);
+        assertFalse(src.hasRemaining());
+        assertEquals(length, dst.position());
+        assertTrue(length < input.length);
+        dst.flip();
+        try (SnappyCompressorInputStream in = new SnappyCompressorInputStream(new ByteArrayInputStream(toArray(dst)))) {
+            assertArrayEquals(input, IOUtils.toByteArray(in));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void testDecompressesStreamOutput(final boolean direct) throws IOException {
+        final byte[] input = readAllBytes("COMPRESS-256.7z");
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (SnappyCompressorOutputStream out = new SnappyCompressorOutputStream(bos, input.length)) {
+            out.write(input);
+        }
+        final ByteBuffer src = allocate(bos.size(), direct);
+        src.put(bos.toByteArray()).flip();
+        final ByteBuffer dst = allocate(input.length, direct);
+        assertEquals(input.length, new SnappyBlockCodec().decompress(src, dst));
+        dst.flip();
+        assertArrayEquals(input, toArray(dst));
+    }
+
+    @Test
+    void testRejectsBadOffset() {
+        // size 5, a one byte literal followed by a copy of length four with offset two
+        final ByteBuffer src = ByteBuffer.wrap(new byte[] { 5, 0, 42, 1, 2 });
+        assertThrows(IOException.class, () -> new SnappyBlockCodec().decompress(src, ByteBuffer.allocate(100)));
+    }
+
+    @Test
+    void testRoundtripWithReusedCodec() throws IOException {
+        final SnappyBlockCodec codec = new SnappyBlockCodec();
+        for (final String name : new String[] { "test1.xml", "bla.tar", "lorem-ipsum.txt.gz" }) {
+            final byte[] input = readAllBytes(name);
+            final ByteBuffer dst = ByteBuffer.allocate(SnappyBlockCodec.maxCompressedLength(input.length));
+            codec.compress(ByteBuffer.wrap(input), dst);
+            dst.flip();
+            final ByteBuffer out = ByteBuffer.allocate(input.length);
+            assertEquals(input.length, codec.decompress(dst, out));
+            assertArrayEquals(input, out.array());
+        }
+    }
+}
@@ -93,6 +93,14 @@ void testBlaTarRoundtripTunedForCompressionRatio() throws IOException {
                 SnappyCompressorOutputStream.createParameterBuilder(SnappyCompressorInputStream.DEFAULT_BLOCK_SIZE).tunedForCompressionRatio().build());
     }
 
+    @Test
+    void testBlaTarRoundtripLevels() throws IOException {
+        for (final int level : new int[] { 1, 3, 8, 9 }) {
+            roundTripTest(getPath("bla.tar"),
+                    SnappyCompressorOutputStream.createParameterBuilder(SnappyCompressorInputStream.DEFAULT_BLOCK_SIZE).tunedForLevel(level).build());
+        }
+    }
+
     @Test
     void testBlaTarRoundtripTunedForSpeed() throws IOException {
         // System.err.println("Configuration: tuned for speed");
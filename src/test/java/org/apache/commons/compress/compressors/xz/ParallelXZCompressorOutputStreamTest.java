@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.compressors.xz;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+class ParallelXZCompressorOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private static byte[] createInput(final int size) {
+        final Random random = new Random(1952);
+        final byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = i >= 1000 && random.nextInt(4) != 0 ? input[i - 1000 + random.nextInt(2)] : (byte) ('a' + random.nextInt(26));
+        }
+        return input;
+    }
+
+    @TempDir
+    private Path tempDir;
+
+    private ExecutorService executorService;
+
+    private byte[] compressParallel(final byte[] input, final int parallelism) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelXZCompressorOutputStream out = ParallelXZCompressorOutputStream.builder().setOutputStream(bos).setLzma2Options(new LZMA2Options(1))
+                .setExecutorService(executorService).setBlockSize(BLOCK_SIZE).setParallelism(parallelism).get()) {
+            for (int offset = 0; offset < input.length; offset += 10_000) {
+                out.write(input, offset, Math.min(10_000, input.length - offset));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Decompresses with a decoder that reads the index and checks the number of blocks it lists.
+     */
+    private byte[] decompressSeekable(final byte[] compressed, final int expectedBlocks) throws IOException {
+        final File file = Files.write(tempDir.resolve("test.xz"), compressed).toFile();
+        try (SeekableXZInputStream in = new SeekableXZInputStream(new SeekableFileInputStream(file))) {
+            assertEquals(expectedBlocks, in.getBlockCount());
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private byte[] decompress(final byte[] compressed) throws IOException {
+        try (XZCompressorInputStream in = XZCompressorInputStream.builder().setByteArray(compressed).get()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testCompressionRatioCloseToSerial() throws IOException {
+        final byte[] input = createInput(500_000);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (XZCompressorOutputStream out = XZCompressorOutputStream.builder().setOutputStream(bos).setLzma2Options(new LZMA2Options(1)).get()) {
+            out.write(input);
+        }
+        assertTrue(compressParallel(input, 4).length < bos.size() * 1.1);
+    }
+
+    @Test
+    void testDefaultBlockSize() throws IOException {
+        assertEquals(1 << 20, ParallelXZCompressorOutputStream.getDefaultBlockSize(new LZMA2Options(0)));
+        assertEquals(3 * 8 << 20, ParallelXZCompressorOutputStream.getDefaultBlockSize(new LZMA2Options()));
+    }
+
+    @Test
+    void testFlush() throws Exception {
+        final byte[] input = createInput(100_000);
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ParallelXZCompressorOutputStream out = ParallelXZCompressorOutputStream.builder().setOutputStream(bos).setLzma2Options(new LZMA2Options(1))
+                .setExecutorService(executorService).setBlockSize(BLOCK_SIZE).get()) {
+            out.write(input, 0, 1000);
+            out.flush();
+            out.write(input, 1000, input.length - 1000);
+        }
+        // the flushed data ends the first block
+        assertArrayEquals(input, decompressSeekable(bos.toByteArray(), 3));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelXZCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).setBlockSize(-1).get());
+        assertThrows(IllegalArgumentException.class, () -> ParallelXZCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).setParallelism(0).get());
+        assertThrows(NullPointerException.class, () -> ParallelXZCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream()).get());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 10 * BLOCK_SIZE, 300_000 })
+    void testRoundTrip(final int size) throws IOException {
+        final byte[] input = createInput(size);
+        for (final int parallelism : new int[] { 1, 2, 8 }) {
+            final byte[] compressed = compressParallel(input, parallelism);
+            assertArrayEquals(input, decompress(compressed));
+            assertArrayEquals(input, decompressSeekable(compressed, (size + BLOCK_SIZE - 1) / BLOCK_SIZE));
+        }
+    }
+
+    @Test
+    void testWriteAfterFinish() throws IOException {
+        try (ParallelXZCompressorOutputStream out = ParallelXZCompressorOutputStream.builder().setOutputStream(new ByteArrayOutputStream())
+                .setExecutorService(executorService).get()) {
+            out.finish();
+            assertThrows(IOException.class, () -> out.write(1));
+        }
+    }
+}
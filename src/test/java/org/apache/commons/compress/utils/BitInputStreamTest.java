@@ -23,7 +23,10 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -95,6 +98,17 @@ void testBigEndianWithOverflow() throws Exception {
         }
     }
 
+    @Test
+    void testBigEndianWithOverflowAndReadAhead() throws Exception {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[] { 87, 45, 66, 15, 90, 29, 88, 61, 33, 74 });
+        try (BitInputStream bin = new BitInputStream(in, ByteOrder.BIG_ENDIAN, true)) {
+            assertEquals(10, bin.readBits(5));
+            assertEquals(8274274654740644818L, bin.readBits(63));
+            assertEquals(330, bin.readBits(12));
+            assertEquals(-1, bin.readBits(1));
+        }
+    }
+
     @Test
     void testClearBitCache() throws IOException {
         try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
@@ -104,6 +118,20 @@ void testClearBitCache() throws IOException {
         }
     }
 
+    @Test
+    void testClearBitCacheKeepsBytesReadAhead() throws IOException {
+        final byte[] data = new byte[64];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (BitInputStream bis = new BitInputStream(new ByteArrayInputStream(data), ByteOrder.LITTLE_ENDIAN)) {
+            assertEquals(0, bis.readBits(4));
+            bis.clearBitCache();
+            assertEquals(1, bis.readBits(8));
+            assertEquals(2, bis.getBytesRead());
+        }
+    }
+
     @Test
     void testEOF() throws IOException {
         try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
@@ -112,6 +140,48 @@ void testEOF() throws IOException {
         }
     }
 
+    @Test
+    void testDoesNotReadAheadByDefault() throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[100]);
+        try (BitInputStream bis = new BitInputStream(in, ByteOrder.LITTLE_ENDIAN)) {
+            bis.readBits(12);
+            assertEquals(98, in.available());
+            bis.peekBits(20);
+            assertEquals(96, in.available());
+        }
+    }
+
+    @Test
+    void testGetBytesReadCountsBytesMovedIntoTheCacheWithReadAhead() throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[100]);
+        try (BitInputStream bis = new BitInputStream(in, ByteOrder.BIG_ENDIAN, true)) {
+            bis.readBits(4);
+            assertEquals(0, in.available());
+            assertEquals(7, bis.getBytesRead());
+            assertEquals(52, bis.bitsCached());
+            bis.clearBitCache();
+            assertEquals(7, bis.getBytesRead());
+            bis.readBits(8);
+            assertEquals(14, bis.getBytesRead());
+        }
+    }
+
+    @Test
+    void testGetBytesReadCountsCachedButNotBufferedBytes() throws IOException {
+        try (BitInputStream bis = new BitInputStream(new ByteArrayInputStream(new byte[100]), ByteOrder.BIG_ENDIAN)) {
+            assertEquals(0, bis.getBytesRead());
+            bis.readBits(4);
+            assertEquals(1, bis.getBytesRead());
+            bis.readBits(12);
+            assertEquals(2, bis.getBytesRead());
+            bis.peekBits(56);
+            assertEquals(9, bis.getBytesRead());
+            bis.clearBitCache();
+            assertEquals(0, bis.bitsCached());
+            assertEquals(9, bis.getBytesRead());
+        }
+    }
+
     /**
      * @see "https://issues.apache.org/jira/browse/COMPRESS-363"
      */
@@ -139,6 +209,103 @@ void testLittleEndianWithOverflow() throws Exception {
         }
     }
 
+    @Test
+    void testLittleEndianWithOverflowAndReadAhead() throws Exception {
+        final ByteArrayInputStream in = new ByteArrayInputStream(new byte[] { 87, 45, 66, 15, 90, 29, 88, 61, 33, 74 });
+        try (BitInputStream bin = new BitInputStream(in, ByteOrder.LITTLE_ENDIAN, true)) {
+            assertEquals(23, bin.readBits(5));
+            assertEquals(714595605644185962L, bin.readBits(63));
+            assertEquals(1186, bin.readBits(12));
+            assertEquals(-1, bin.readBits(1));
+        }
+    }
+
+    @Test
+    void testPeekBitsDoesNotConsumeBitsInBigEndian() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.BIG_ENDIAN)) {
+            assertEquals(0xF84, bis.peekBits(12));
+            assertEquals(0xF84, bis.peekBits(12));
+            bis.skipBits(4);
+            assertEquals(0x84, bis.readBits(8));
+        }
+    }
+
+    @Test
+    void testPeekBitsDoesNotConsumeBitsInLittleEndian() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            assertEquals(0x0F8, bis.peekBits(12));
+            assertEquals(0x0F8, bis.peekBits(12));
+            bis.skipBits(4);
+            assertEquals(0x0F, bis.readBits(8));
+        }
+    }
+
+    @Test
+    void testPeekBitsPadsWithZerosAtEOF() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            assertEquals(0x2F0140F8L, bis.peekBits(40));
+            assertEquals(32, bis.bitsCached());
+        }
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.BIG_ENDIAN)) {
+            assertEquals(0xF840012F00L, bis.peekBits(40));
+            assertEquals(32, bis.bitsCached());
+        }
+    }
+
+    @Test
+    void testReadBytesAfterBits() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            assertEquals(0xF8, bis.readBits(8));
+            final byte[] b = new byte[4];
+            assertEquals(3, bis.readBytes(b, 0, b.length));
+            assertEquals(0x40, b[0]);
+            assertEquals(0x01, b[1]);
+            assertEquals(0x2F, b[2]);
+            assertEquals(-1, bis.readBytes(b, 0, b.length));
+            assertEquals(4, bis.getBytesRead());
+        }
+    }
+
+    @Test
+    void testReadBytesRequiresByteBoundary() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            bis.readBits(3);
+            assertThrows(IllegalStateException.class, () -> bis.readBytes(new byte[1], 0, 1));
+        }
+    }
+
+    @Test
+    void testReadingAcrossBufferRefillsInBigEndian() throws IOException {
+        final byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        try (BitInputStream bis = new BitInputStream(new ByteArrayInputStream(data), ByteOrder.BIG_ENDIAN, true)) {
+            for (int i = 0; i < data.length; i++) {
+                if (i % 1000 == 0 && i + 7 <= data.length) {
+                    assertEquals(new BigInteger(1, Arrays.copyOfRange(data, i, i + 7)).longValue(), bis.peekBits(56));
+                }
+                assertEquals(data[i] & 0xFF, bis.readBits(3) << 5 | bis.readBits(5), "byte " + i);
+            }
+            assertEquals(-1, bis.readBits(1));
+            assertEquals(data.length, bis.getBytesRead());
+        }
+    }
+
+    @Test
+    void testReadingAcrossBufferRefillsInLittleEndian() throws IOException {
+        final byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        try (BitInputStream bis = new BitInputStream(new ByteArrayInputStream(data), ByteOrder.LITTLE_ENDIAN, true)) {
+            for (int i = 0; i < data.length; i++) {
+                if (i % 1000 == 0 && i + 7 <= data.length) {
+                    assertEquals(ByteUtils.fromLittleEndian(data, i, 7), bis.peekBits(56));
+                }
+                assertEquals(data[i] & 0xFF, bis.readBits(3) | bis.readBits(5) << 3, "byte " + i);
+            }
+            assertEquals(-1, bis.readBits(1));
+            assertEquals(data.length, bis.getBytesRead());
+        }
+    }
+
     @Test
     void testReading17BitsInBigEndian() throws IOException {
         try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.BIG_ENDIAN)) {
@@ -266,6 +433,13 @@ void testShouldNotAllowReadingOfANegativeAmountOfBits() throws IOException {
         }
     }
 
+    @Test
+    void testShouldNotAllowPeekingOfMoreThan56BitsAtATime() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            assertThrows(IOException.class, () -> bis.peekBits(57));
+        }
+    }
+
     @Test
     void testShouldNotAllowReadingOfMoreThan63BitsAtATime() throws IOException {
         try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
@@ -273,4 +447,12 @@ void testShouldNotAllowReadingOfMoreThan63BitsAtATime() throws IOException {
         }
     }
 
+    @Test
+    void testShouldNotAllowSkippingOfUncachedBits() throws IOException {
+        try (BitInputStream bis = new BitInputStream(getStream(), ByteOrder.LITTLE_ENDIAN)) {
+            bis.peekBits(8);
+            assertThrows(IllegalArgumentException.class, () -> bis.skipBits(9));
+        }
+    }
+
 }
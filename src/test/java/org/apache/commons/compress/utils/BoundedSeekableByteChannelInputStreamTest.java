@@ -22,7 +22,9 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
 
 import org.junit.jupiter.api.Test;
 
@@ -39,4 +41,17 @@ void testCheckRestrictedRead() throws IOException {
         assertArrayEquals("Hello".getBytes(UTF_8), readContent);
     }
 
+    @Test
+    void testTransferTo() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel("Hello World!".getBytes(UTF_8));
+                BoundedSeekableByteChannelInputStream input = new BoundedSeekableByteChannelInputStream(2, 8, channel)) {
+            assertEquals('l', input.read());
+            assertEquals(7, input.transferTo(Channels.newChannel(out)));
+            assertEquals(-1, input.read());
+            assertEquals(0, input.transferTo(Channels.newChannel(out)));
+        }
+        assertArrayEquals("lo Worl".getBytes(UTF_8), out.toByteArray());
+    }
+
 }
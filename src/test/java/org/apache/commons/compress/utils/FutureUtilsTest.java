@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+class FutureUtilsTest {
+
+    private static <T> CompletableFuture<T> failed(final Throwable failure) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+        return future;
+    }
+
+    @Test
+    void testCheckedExceptionIsWrapped() {
+        final TimeoutException failure = new TimeoutException();
+        assertSame(failure, assertThrows(IOException.class, () -> FutureUtils.get(failed(failure))).getCause());
+    }
+
+    @Test
+    void testFailuresAreRethrownUnchanged() {
+        final IOException ioException = new IOException();
+        assertSame(ioException, assertThrows(IOException.class, () -> FutureUtils.get(failed(ioException))));
+        final IllegalStateException runtimeException = new IllegalStateException();
+        assertSame(runtimeException, assertThrows(IllegalStateException.class, () -> FutureUtils.get(failed(runtimeException))));
+        final OutOfMemoryError error = new OutOfMemoryError();
+        assertSame(error, assertThrows(OutOfMemoryError.class, () -> FutureUtils.get(failed(error))));
+    }
+
+    @Test
+    void testGet() throws IOException {
+        assertEquals("result", FutureUtils.get(CompletableFuture.completedFuture("result")));
+    }
+
+    @Test
+    void testInterrupt() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () -> FutureUtils.get(new CompletableFuture<>()));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+}
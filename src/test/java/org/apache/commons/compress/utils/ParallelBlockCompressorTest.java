@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.compress.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelBlockCompressorTest {
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testBlocksAreWrittenInOrderAndBuffersAreReused() throws IOException {
+        final byte[] input = new byte[1_000_000];
+        new Random(1).nextBytes(input);
+        final Set<byte[]> buffers = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelBlockCompressor<byte[]> blocks = new ParallelBlockCompressor<>(executorService, 10_000, 3, (data, length) -> {
+            buffers.add(data);
+            return Arrays.copyOf(data, length);
+        })) {
+            for (int offset = 0; offset < input.length; offset += 7_777) {
+                blocks.write(input, offset, Math.min(7_777, input.length - offset), out::write);
+            }
+            blocks.flush(out::write);
+        }
+        assertArrayEquals(input, out.toByteArray());
+        // the pending blocks plus the current one
+        assertTrue(buffers.size() <= 4, () -> buffers.size() + " block buffers");
+    }
+
+    @Test
+    void testFailureIsRethrown() {
+        final IllegalStateException failure = new IllegalStateException();
+        try (ParallelBlockCompressor<byte[]> blocks = new ParallelBlockCompressor<>(executorService, 10, 2, (data, length) -> {
+            throw failure;
+        })) {
+            assertSame(failure, assertThrows(IllegalStateException.class, () -> blocks.write(new byte[100], 0, 100, b -> {
+                // empty
+            })));
+        }
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBlockCompressor<>(executorService, 0, 1, (data, length) -> data));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBlockCompressor<>(executorService, 1, 0, (data, length) -> data));
+    }
+
+}